@@ -1,6 +1,9 @@
 package tech.icc.filesrv.adapter.hcs;
 
 import com.obs.services.ObsClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.model.DeleteObjectsRequest;
+import com.obs.services.model.DeleteObjectsResult;
 import com.obs.services.model.HttpMethodEnum;
 import com.obs.services.model.ObjectMetadata;
 import com.obs.services.model.ObsObject;
@@ -11,12 +14,18 @@ import com.obs.services.model.TemporarySignatureResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
 import tech.icc.filesrv.common.spi.storage.StorageAdapter;
 import tech.icc.filesrv.common.spi.storage.StorageResult;
 import tech.icc.filesrv.common.spi.storage.UploadSession;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 华为云 OBS 存储适配器实现
@@ -26,6 +35,11 @@ public class HcsObsAdapter implements StorageAdapter {
 
     private static final String ADAPTER_TYPE = "HCS_OBS";
 
+    /**
+     * OBS 单次批量删除的最大对象数
+     */
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+
     private final ObsClient obsClient;
     private final String bucket;
     private final Duration defaultPresignedExpiry;
@@ -77,6 +91,22 @@ public class HcsObsAdapter implements StorageAdapter {
         log.info("OBS delete completed: bucket={}, path={}", bucket, path);
     }
 
+    /**
+     * 使用 OBS 批量删除接口，每次请求最多删除 1000 个对象
+     * <p>
+     * 使用 quiet 模式，响应只包含失败的对象；整个请求失败时该批对象全部记为失败。
+     */
+    @Override
+    public List<DeleteResult> deleteAll(Collection<String> paths) {
+        List<String> keys = List.copyOf(paths);
+        List<DeleteResult> results = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> chunk = keys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, keys.size()));
+            results.addAll(deleteChunk(chunk));
+        }
+        return results;
+    }
+
     @Override
     public boolean exists(String path) {
         log.debug("Checking existence in OBS: bucket={}, path={}", bucket, path);
@@ -119,5 +149,33 @@ public class HcsObsAdapter implements StorageAdapter {
         }
         return etag.replace("\"", "");
     }
+
+    private List<DeleteResult> deleteChunk(List<String> keys) {
+        log.debug("Batch deleting from OBS: bucket={}, keys={}", bucket, keys.size());
+
+        DeleteObjectsRequest request = new DeleteObjectsRequest(bucket);
+        request.setQuiet(true);
+        keys.forEach(request::addKeyAndVersion);
+
+        Map<String, String> errors = new HashMap<>();
+        try {
+            DeleteObjectsResult result = obsClient.deleteObjects(request);
+            for (DeleteObjectsResult.ErrorResult error : result.getErrorResults()) {
+                errors.put(error.getObjectKey(), error.getErrorCode() + ": " + error.getMessage());
+            }
+        } catch (ObsException e) {
+            log.warn("OBS batch delete failed: bucket={}, keys={}", bucket, keys.size(), e);
+            String message = e.getErrorCode() + ": " + e.getErrorMessage();
+            return keys.stream().map(key -> DeleteResult.failure(key, message)).toList();
+        }
+
+        log.info("OBS batch delete completed: bucket={}, deleted={}, failed={}",
+                bucket, keys.size() - errors.size(), errors.size());
+        return keys.stream()
+                .map(key -> errors.containsKey(key)
+                        ? DeleteResult.failure(key, errors.get(key))
+                        : DeleteResult.success(key))
+                .toList();
+    }
 }
 
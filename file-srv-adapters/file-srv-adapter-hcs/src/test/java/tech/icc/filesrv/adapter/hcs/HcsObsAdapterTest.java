@@ -0,0 +1,100 @@
+package tech.icc.filesrv.adapter.hcs;
+
+import com.obs.services.ObsClient;
+import com.obs.services.exception.ObsException;
+import com.obs.services.model.DeleteObjectsRequest;
+import com.obs.services.model.DeleteObjectsResult;
+import com.obs.services.model.KeyAndVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HcsObsAdapterTest {
+
+    private static final String BUCKET = "file-srv";
+
+    @Mock
+    private ObsClient obsClient;
+
+    private HcsObsAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new HcsObsAdapter(obsClient, BUCKET, Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldSplitBatchDeleteIntoChunksOfAtMostThousandKeys() {
+        List<String> paths = IntStream.range(0, 2500).mapToObj(i -> "obj/" + i).toList();
+        when(obsClient.deleteObjects(any())).thenReturn(new DeleteObjectsResult());
+
+        List<DeleteResult> results = adapter.deleteAll(paths);
+
+        ArgumentCaptor<DeleteObjectsRequest> captor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+        verify(obsClient, times(3)).deleteObjects(captor.capture());
+        assertThat(captor.getAllValues()).extracting(request -> keys(request).size())
+                .containsExactly(1000, 1000, 500);
+        assertThat(captor.getAllValues()).allSatisfy(request -> {
+            assertThat(request.getBucketName()).isEqualTo(BUCKET);
+            assertThat(request.isQuiet()).isTrue();
+        });
+        assertThat(captor.getAllValues().stream().flatMap(request -> keys(request).stream()).toList())
+                .isEqualTo(paths);
+        assertThat(results).extracting(DeleteResult::path).isEqualTo(paths);
+        assertThat(results).allMatch(DeleteResult::success);
+    }
+
+    @Test
+    void shouldReportOnlyKeysListedInQuietModeErrorsAsFailed() {
+        DeleteObjectsResult.ErrorResult denied =
+                new DeleteObjectsResult.ErrorResult("obj/2", null, "AccessDenied", "Access Denied");
+        when(obsClient.deleteObjects(any())).thenReturn(new DeleteObjectsResult(List.of(), List.of(denied)));
+
+        List<DeleteResult> results = adapter.deleteAll(List.of("obj/1", "obj/2", "obj/3"));
+
+        assertThat(results).containsExactly(
+                DeleteResult.success("obj/1"),
+                DeleteResult.failure("obj/2", "AccessDenied: Access Denied"),
+                DeleteResult.success("obj/3"));
+    }
+
+    @Test
+    void shouldFailWholeChunkWhenRequestFails() {
+        ObsException error = new ObsException("Service unavailable");
+        error.setErrorCode("ServiceUnavailable");
+        error.setErrorMessage("Please reduce your request rate");
+        List<String> paths = IntStream.range(0, 1001).mapToObj(i -> "obj/" + i).toList();
+        when(obsClient.deleteObjects(any()))
+                .thenThrow(error)
+                .thenReturn(new DeleteObjectsResult());
+
+        List<DeleteResult> results = adapter.deleteAll(paths);
+
+        assertThat(results).hasSize(1001);
+        assertThat(results.subList(0, 1000)).allSatisfy(result -> {
+            assertThat(result.success()).isFalse();
+            assertThat(result.error()).isEqualTo("ServiceUnavailable: Please reduce your request rate");
+        });
+        assertThat(results.get(1000)).isEqualTo(DeleteResult.success("obj/1000"));
+    }
+
+    private static List<String> keys(DeleteObjectsRequest request) {
+        return Arrays.stream(request.getKeyAndVersions()).map(KeyAndVersion::getKey).toList();
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import tech.icc.filesrv.common.spi.plugin.PluginStorageService;
 import tech.icc.filesrv.core.application.service.FileService;
@@ -64,7 +65,8 @@ public class ExecutorAutoConfiguration {
             ExecutorProperties properties,
             PluginStorageService pluginStorageService,
             FileService fileService,
-            FileReferenceRepository fileReferenceRepository) {
+            FileReferenceRepository fileReferenceRepository,
+            ApplicationEventPublisher applicationEventPublisher) {
         return new DefaultCallbackChainRunner(
                 taskRepository,
                 pluginRegistry,
@@ -74,7 +76,8 @@ public class ExecutorAutoConfiguration {
                 properties,
                 pluginStorageService,
                 fileService,
-                fileReferenceRepository
+                fileReferenceRepository,
+                applicationEventPublisher
         );
     }
 
@@ -1,5 +1,8 @@
 package tech.icc.filesrv.config;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -8,6 +11,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import tech.icc.filesrv.core.infra.cache.TaskCacheService;
 import tech.icc.filesrv.core.infra.cache.impl.CaffeineTaskCacheService;
+import tech.icc.filesrv.core.infra.cache.impl.TwoLevelTaskCacheService;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
+import tech.icc.filesrv.common.spi.coordination.LeaseRegistry;
+import tech.icc.filesrv.core.infra.coordination.JdbcLeaseRegistry;
+import tech.icc.filesrv.core.infra.persistence.repository.MaintenanceLeaseJpaRepository;
 import tech.icc.filesrv.common.spi.event.TaskEventPublisher;
 import tech.icc.filesrv.core.infra.event.impl.LoggingTaskEventPublisher;
 import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
@@ -44,6 +52,19 @@ public class FileServiceAutoConfiguration {
         return new LoggingTaskEventPublisher();
     }
 
+    /**
+     * 维护任务租约注册表（数据库表实现）
+     * <p>
+     * 默认实现，租约存放在 maintenance_lease 表，无需额外中间件。
+     * 配置 file-srv.coordination.store=redis 时改用 Redis SPI 实现。
+     */
+    @Bean
+    @ConditionalOnMissingBean(LeaseRegistry.class)
+    @ConditionalOnProperty(prefix = "file-srv.coordination", name = "store", havingValue = "jdbc", matchIfMissing = true)
+    public LeaseRegistry jdbcLeaseRegistry(MaintenanceLeaseJpaRepository repository) {
+        return new JdbcLeaseRegistry(repository);
+    }
+
     /**
      * 本地文件管理器
      */
@@ -59,18 +80,33 @@ public class FileServiceAutoConfiguration {
     /**
      * 任务缓存服务（基于 Caffeine 的本地缓存）
      * <p>
+     * 存在 {@link DistributedTaskCache}（如 Redis SPI 且开启 file-service.cache.distributed.enabled）时，
+     * 组合为 L1 + L2 的二级缓存。
+     * <p>
      * 配置项：
      * - file-srv.cache.max-size: 最大缓存条目数，默认 10000
      * - file-srv.cache.expire-seconds: 过期时间（秒），默认 30
+     * - file-srv.cache.write-through: 保存后写入新快照而非失效，默认 true
      */
     @Bean
     @ConditionalOnMissingBean(TaskCacheService.class)
-    public TaskCacheService caffeineTaskCacheService(FileServiceProperties properties) {
+    public TaskCacheService caffeineTaskCacheService(FileServiceProperties properties,
+                                                     ObjectProvider<DistributedTaskCache> distributedTaskCache) {
         FileServiceProperties.CacheProperties cacheProps = properties.getCache();
-        return new CaffeineTaskCacheService(
+        CaffeineTaskCacheService local = new CaffeineTaskCacheService(
                 cacheProps.getMaxSize(),
-                Duration.ofSeconds(cacheProps.getExpireSeconds())
+                Duration.ofSeconds(cacheProps.getExpireSeconds()),
+                cacheProps.isWriteThrough()
         );
+        DistributedTaskCache remote = distributedTaskCache.getIfAvailable();
+        if (remote == null) {
+            return local;
+        }
+        // 独立的 ObjectMapper：容忍滚动升级期间新增字段
+        ObjectMapper snapshotMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return new TwoLevelTaskCacheService(local, remote, snapshotMapper);
     }
 
     /**
@@ -48,6 +48,8 @@ public class FileServiceProperties {
         
         private TopicProperties topic = new TopicProperties();
 
+        private ConsumerProperties consumer = new ConsumerProperties();
+
         @Data
         public static class TopicProperties {
             
@@ -61,6 +63,46 @@ public class FileServiceProperties {
              */
             private String taskFailed = "file-task-failed";
         }
+
+        /**
+         * Callback 任务消费配置
+         */
+        @Data
+        public static class ConsumerProperties {
+
+            /**
+             * 是否启用批量消费
+             * <p>
+             * true:  每次拉取一批消息，按 taskId 分发到并行执行线程（同一任务有序，不同任务并发）
+             * false: 每个容器线程逐条处理，慢任务会阻塞其所在分区
+             */
+            private boolean batchEnabled = false;
+
+            /**
+             * 批量消费时每次拉取的最大消息数（max.poll.records）
+             */
+            private int maxPollRecords = 64;
+
+            /**
+             * 批量消费时每个节点的并行执行线程数（节点内所有监听容器共享）
+             */
+            private int parallelism = 16;
+
+            /**
+             * 批量消费时每个分区允许的未提交消息数，达到后暂停该分区的拉取直到已提交位点前移
+             */
+            private int maxInFlightPerPartition = 128;
+
+            /**
+             * 批量消费时消息要求重试后，分区回退重投前的等待时间
+             */
+            private Duration retryBackoff = Duration.ofSeconds(1);
+
+            /**
+             * 批量消费时分区无新消息的检查间隔：到期后提交已完成位点、恢复已暂停的分区
+             */
+            private Duration idleInterval = Duration.ofSeconds(1);
+        }
     }
 
     /**
@@ -78,6 +120,51 @@ public class FileServiceProperties {
          * 缓存过期时间（秒）
          */
         private int expireSeconds = 30;
+
+        /**
+         * 是否启用 Write-Through
+         * <p>
+         * true:  任务保存提交后写入新版本快照，轮询请求在状态流转期间持续命中缓存
+         * false: 任务保存提交后失效缓存，下一次读取回源数据库
+         */
+        private boolean writeThrough = true;
+
+        /**
+         * 分布式二级缓存配置
+         */
+        private DistributedCacheProperties distributed = new DistributedCacheProperties();
+    }
+
+    /**
+     * 分布式二级缓存（Redis L2 + Pub/Sub 跨节点失效）配置
+     */
+    @Data
+    public static class DistributedCacheProperties {
+
+        /**
+         * 是否启用（需要 file-srv-spi-redis 及 Redis 连接）
+         */
+        private boolean enabled = false;
+
+        /**
+         * L2 快照过期时间（秒），应大于本地缓存过期时间
+         */
+        private int ttlSeconds = 300;
+
+        /**
+         * 删除快照后保留版本号墓碑的时间（秒），期间拒绝不高于该版本的回填
+         */
+        private int tombstoneTtlSeconds = 10;
+
+        /**
+         * L2 快照 Key 前缀
+         */
+        private String keyPrefix = "file-srv:task:cache:";
+
+        /**
+         * 失效通知频道
+         */
+        private String channel = "file-srv:task:cache:invalidation";
     }
 
     /**
@@ -95,7 +182,7 @@ public class FileServiceProperties {
         private boolean useRedis = true;
 
         /**
-         * 预期插入数量
+         * 预期插入数量（Redis 实现为单个时间分片的最小容量，实际容量按上一分片的插入量自动放大）
          */
         private int expectedInsertions = 1000000;
 
@@ -103,6 +190,35 @@ public class FileServiceProperties {
          * 误判率 (False Positive Probability)
          */
         private double fpp = 0.01;
+
+        /**
+         * Redis 布隆过滤器的分片时长，每个分片一个过滤器，滑出查询窗口后过期删除
+         */
+        private Duration sliceDuration = Duration.ofDays(1);
+
+        /**
+         * 查询的分片数量下限（含当前分片），不足以覆盖 retention 时自动放大到 ⌈retention / slice-duration⌉ + 1
+         */
+        private int activeSlices = 2;
+
+        /**
+         * 注册后 taskId 需保持可查询的最长时间
+         * <p>
+         * 未配置时取 task.expire-after + file-srv.task-reaper.finished-retention，即任务行被回收前的最长存活时间。
+         */
+        private Duration retention;
+
+        /**
+         * 是否在 Redis 布隆过滤器前增加节点本地副本（仅 use-redis=true 时生效）
+         * <p>
+         * 本地命中时不再访问 Redis，未命中才回退到 Redis 查询。
+         */
+        private boolean localTier = true;
+
+        /**
+         * 本地副本同步注册的 Pub/Sub 频道
+         */
+        private String channel = "file-srv:task:bloom:registrations";
     }
 
     /**
@@ -1,5 +1,6 @@
 package tech.icc.filesrv.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -18,9 +19,11 @@ import tech.icc.filesrv.common.config.ExecutorProperties;
 import tech.icc.filesrv.common.spi.executor.CallbackTaskMessageHandler;
 import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
 import tech.icc.filesrv.common.spi.executor.DeadLetterPublisher;
+import tech.icc.filesrv.spi.kafka.executor.KafkaBatchCallbackTaskConsumer;
 import tech.icc.filesrv.spi.kafka.executor.KafkaCallbackTaskConsumer;
 import tech.icc.filesrv.spi.kafka.executor.KafkaCallbackTaskPublisher;
 import tech.icc.filesrv.spi.kafka.executor.KafkaDeadLetterPublisher;
+import tech.icc.filesrv.spi.kafka.executor.KeyedParallelExecutor;
 
 /**
  * Kafka 执行器自动配置
@@ -78,9 +81,11 @@ public class KafkaExecutorAutoConfiguration {
      * <p>
      * 创建 Kafka Listener 容器工厂和 Consumer Bean，
      * 依赖 ExecutorAutoConfiguration 提供的 CallbackTaskMessageHandler。
+     * file-service.kafka.consumer.batch-enabled=true 时使用批量消费者替代逐条消费者。
      */
     @Configuration(proxyBeanMethods = false)
     @AutoConfiguration(after = ExecutorAutoConfiguration.class)
+    @EnableConfigurationProperties(FileServiceProperties.class)
     static class ConsumerConfiguration {
 
         /**
@@ -105,8 +110,60 @@ public class KafkaExecutorAutoConfiguration {
         @Bean
         @ConditionalOnMissingBean(KafkaCallbackTaskConsumer.class)
         @ConditionalOnBean(CallbackTaskMessageHandler.class)
+        @ConditionalOnProperty(prefix = "file-service.kafka.consumer", name = "batch-enabled",
+                havingValue = "false", matchIfMissing = true)
         public KafkaCallbackTaskConsumer kafkaCallbackTaskConsumer(CallbackTaskMessageHandler handler) {
             return new KafkaCallbackTaskConsumer(handler);
         }
+
+        /**
+         * 批量消费 Listener 容器工厂
+         * <p>
+         * 位点由消费者按分区自行提交；空闲事件让消费线程在没有新消息时也能提交和恢复分区，
+         * 分区撤销时由消费者先提交已完成的位点。
+         */
+        @Bean
+        @ConditionalOnMissingBean(name = "callbackTaskBatchListenerContainerFactory")
+        @ConditionalOnBean(ConsumerFactory.class)
+        @ConditionalOnProperty(prefix = "file-service.kafka.consumer", name = "batch-enabled", havingValue = "true")
+        public ConcurrentKafkaListenerContainerFactory<String, CallbackTaskMessage> callbackTaskBatchListenerContainerFactory(
+                ConsumerFactory<Object, Object> consumerFactory,
+                FileServiceProperties properties,
+                ObjectProvider<KafkaBatchCallbackTaskConsumer> batchConsumer) {
+            ConcurrentKafkaListenerContainerFactory<String, CallbackTaskMessage> factory =
+                    new ConcurrentKafkaListenerContainerFactory<>();
+            factory.setConsumerFactory((ConsumerFactory<String, CallbackTaskMessage>) (Object) consumerFactory);
+            factory.setBatchListener(true);
+            ContainerProperties containerProperties = factory.getContainerProperties();
+            containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+            containerProperties.setIdleEventInterval(properties.getKafka().getConsumer().getIdleInterval().toMillis());
+            batchConsumer.ifAvailable(containerProperties::setConsumerRebalanceListener);
+            return factory;
+        }
+
+        /**
+         * 批量消费的并行执行器（同一 taskId 串行，不同 taskId 共享线程池并发）
+         */
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean(KeyedParallelExecutor.class)
+        @ConditionalOnProperty(prefix = "file-service.kafka.consumer", name = "batch-enabled", havingValue = "true")
+        public KeyedParallelExecutor callbackTaskExecutor(FileServiceProperties properties) {
+            return new KeyedParallelExecutor(properties.getKafka().getConsumer().getParallelism(), "callback-task");
+        }
+
+        /**
+         * Kafka Callback 任务批量消费者
+         */
+        @Bean
+        @ConditionalOnMissingBean(KafkaBatchCallbackTaskConsumer.class)
+        @ConditionalOnBean(CallbackTaskMessageHandler.class)
+        @ConditionalOnProperty(prefix = "file-service.kafka.consumer", name = "batch-enabled", havingValue = "true")
+        public KafkaBatchCallbackTaskConsumer kafkaBatchCallbackTaskConsumer(CallbackTaskMessageHandler handler,
+                                                                             KeyedParallelExecutor callbackTaskExecutor,
+                                                                             FileServiceProperties properties) {
+            FileServiceProperties.KafkaProperties.ConsumerProperties consumer = properties.getKafka().getConsumer();
+            return new KafkaBatchCallbackTaskConsumer(handler, callbackTaskExecutor,
+                    consumer.getMaxInFlightPerPartition(), consumer.getRetryBackoff());
+        }
     }
 }
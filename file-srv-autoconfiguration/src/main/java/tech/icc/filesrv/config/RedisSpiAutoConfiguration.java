@@ -8,12 +8,25 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
 import tech.icc.filesrv.common.spi.cache.TaskIdValidator;
+import tech.icc.filesrv.common.spi.coordination.LeaseRegistry;
 import tech.icc.filesrv.common.spi.executor.IdempotencyChecker;
+import tech.icc.filesrv.spi.redis.cache.LayeredTaskIdValidator;
+import tech.icc.filesrv.spi.redis.cache.RedisBloomContentHashFilter;
 import tech.icc.filesrv.spi.redis.cache.RedisBloomTaskIdValidator;
+import tech.icc.filesrv.spi.redis.cache.RedisDistributedTaskCache;
+import tech.icc.filesrv.spi.redis.coordination.RedisLeaseRegistry;
 import tech.icc.filesrv.spi.redis.executor.RedisIdempotencyChecker;
 
+import java.time.Duration;
+
 /**
  * Redis SPI 自动配置（装配层）
  */
@@ -32,6 +45,19 @@ public class RedisSpiAutoConfiguration {
         return new RedisIdempotencyChecker(redisTemplate);
     }
 
+    /**
+     * 维护任务租约注册表（Redis 实现）
+     * <p>
+     * 条件：file-srv.coordination.store=redis，默认使用核心模块的数据库表实现。
+     */
+    @Bean
+    @ConditionalOnMissingBean(LeaseRegistry.class)
+    @ConditionalOnBean(StringRedisTemplate.class)
+    @ConditionalOnProperty(prefix = "file-srv.coordination", name = "store", havingValue = "redis")
+    public LeaseRegistry redisLeaseRegistry(StringRedisTemplate redisTemplate) {
+        return new RedisLeaseRegistry(redisTemplate);
+    }
+
     /**
      * 任务ID校验器 - Redis 布隆过滤器实现（优先）
      * <p>
@@ -43,8 +69,13 @@ public class RedisSpiAutoConfiguration {
      * </ul>
      *
      * <p>配置项：
-     * - file-srv.bloom-filter.expected-insertions: 预期插入数量，默认 1000000
+     * - file-srv.bloom-filter.expected-insertions: 单个分片的最小预期插入数量，默认 1000000
      * - file-srv.bloom-filter.fpp: 误判率，默认 0.01
+     * - file-srv.bloom-filter.slice-duration: 分片时长，默认 1 天
+     * - file-srv.bloom-filter.active-slices: 查询的分片数量下限（含当前分片），默认 2
+     * - file-srv.bloom-filter.retention: taskId 需保持可查询的最长时间，默认任务过期时间 + 已结束任务行保留时间
+     * - file-srv.bloom-filter.local-tier: 是否在 Redis 前增加节点本地副本（见 {@link LayeredTaskIdValidator}），默认 true
+     * - file-srv.bloom-filter.channel: 本地副本同步注册的 Pub/Sub 频道
      */
     @Bean
     @ConditionalOnClass(RedissonClient.class)
@@ -52,12 +83,87 @@ public class RedisSpiAutoConfiguration {
     @ConditionalOnProperty(name = "file-srv.bloom-filter.use-redis", havingValue = "true", matchIfMissing = true)
     @ConditionalOnMissingBean(TaskIdValidator.class)
     public TaskIdValidator redisBloomTaskIdValidator(RedissonClient redissonClient,
-                                                     FileServiceProperties properties) {
+                                                     FileServiceProperties properties,
+                                                     Environment environment) {
         FileServiceProperties.BloomFilterProperties bloomProps = properties.getBloomFilter();
-        return new RedisBloomTaskIdValidator(
+        Duration retention = bloomProps.getRetention();
+        if (retention == null) {
+            // 任务行在过期后由任务回收保留 finished-retention，期间仍可查询
+            Duration finishedRetention = environment.getProperty(
+                    "file-srv.task-reaper.finished-retention", Duration.class, Duration.ofDays(7));
+            retention = properties.getTask().getExpireAfter().plus(finishedRetention);
+        }
+        RedisBloomTaskIdValidator redisValidator = new RedisBloomTaskIdValidator(
                 redissonClient,
                 bloomProps.getExpectedInsertions(),
-                bloomProps.getFpp()
+                bloomProps.getFpp(),
+                bloomProps.getSliceDuration(),
+                bloomProps.getActiveSlices(),
+                retention
         );
+        if (!bloomProps.isLocalTier()) {
+            return redisValidator;
+        }
+        return new LayeredTaskIdValidator(redissonClient, redisValidator, bloomProps.getChannel());
+    }
+
+    /**
+     * 秒传存在性过滤器 - Redis 布隆过滤器实现
+     * <p>
+     * 多节点部署时共享同一过滤器，秒传检查可跳过对一定不存在的内容的数据库查询；
+     * 未配置时核心模块只在单节点运行时启用本地过滤器。
+     * 要求：
+     * <ul>
+     *   <li>Redis 可用且配置了 Redisson</li>
+     *   <li>file-srv.dedup-filter.use-redis=true</li>
+     * </ul>
+     */
+    @Bean
+    @ConditionalOnClass(RedissonClient.class)
+    @ConditionalOnBean(RedissonClient.class)
+    @ConditionalOnProperty(name = "file-srv.dedup-filter.use-redis", havingValue = "true")
+    @ConditionalOnMissingBean(ContentHashFilter.class)
+    public ContentHashFilter redisBloomContentHashFilter(RedissonClient redissonClient) {
+        return new RedisBloomContentHashFilter(redissonClient);
+    }
+
+    /**
+     * 分布式任务缓存（Redis L2 + Pub/Sub 跨节点失效）
+     * <p>
+     * 由 {@link FileServiceAutoConfiguration} 与本地 Caffeine 缓存组合为二级缓存。
+     *
+     * <p>配置项：
+     * - file-service.cache.distributed.enabled: 是否启用，默认 false
+     * - file-service.cache.distributed.ttl-seconds: L2 快照过期时间（秒），默认 300
+     * - file-service.cache.distributed.tombstone-ttl-seconds: 删除后版本号墓碑保留时间（秒），默认 10
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    @ConditionalOnProperty(name = "file-service.cache.distributed.enabled", havingValue = "true")
+    static class DistributedTaskCacheConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "taskCacheListenerContainer")
+        public RedisMessageListenerContainer taskCacheListenerContainer(RedisConnectionFactory connectionFactory) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            return container;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(DistributedTaskCache.class)
+        public DistributedTaskCache redisDistributedTaskCache(StringRedisTemplate redisTemplate,
+                                                              RedisMessageListenerContainer taskCacheListenerContainer,
+                                                              FileServiceProperties properties) {
+            FileServiceProperties.DistributedCacheProperties props = properties.getCache().getDistributed();
+            return new RedisDistributedTaskCache(
+                    redisTemplate,
+                    taskCacheListenerContainer,
+                    Duration.ofSeconds(props.getTtlSeconds()),
+                    Duration.ofSeconds(props.getTombstoneTtlSeconds()),
+                    props.getKeyPrefix(),
+                    props.getChannel()
+            );
+        }
     }
-}
\ No newline at end of file
+}
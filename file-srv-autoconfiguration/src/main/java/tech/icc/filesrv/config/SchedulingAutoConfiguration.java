@@ -1,7 +1,7 @@
 package tech.icc.filesrv.config;
 
 import org.springframework.boot.autoconfigure.AutoConfiguration;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -9,14 +9,17 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 /**
  * 定时任务自动配置
  * <p>
- * 启用 Spring 定时任务和重试机制支持，用于孤儿文件清理等定时任务。
- * 通过 file-srv.orphan.enabled 配置控制是否启用。
+ * 启用 Spring 定时任务和重试机制支持，用于孤儿文件清理、GC、过期任务回收等维护任务。
+ * 各任务通过自己的 file-srv.&lt;job&gt;.enabled 配置控制是否启用，
+ * 执行线程池大小由 spring.task.scheduling.pool.size 配置。
+ * <p>
+ * 须先于 {@link TaskSchedulingAutoConfiguration} 处理：后者仅在 {@code @EnableScheduling} 已生效时才创建
+ * taskScheduler，维护任务的一次性延迟（重试退避、延迟删除等）也使用该调度器。
  * </p>
  */
-@AutoConfiguration
+@AutoConfiguration(before = TaskSchedulingAutoConfiguration.class)
 @EnableScheduling
 @EnableRetry
-@ConditionalOnProperty(prefix = "file-srv.orphan", name = "enabled", havingValue = "true")
 @ComponentScan(basePackages = {
         "tech.icc.filesrv.core.infra.task",
         "tech.icc.filesrv.core.infra.config"
@@ -36,6 +36,9 @@ public interface ResultCode {
     /** 413 - 请求体过大 */
     int PAYLOAD_TOO_LARGE = 0x41300;
 
+    /** 429 - 任务状态监听数已达上限 */
+    int TOO_MANY_WATCHERS = 0x42900;
+
     // ==================== 服务端错误 (5XX) ====================
     /** 500 - 服务器内部错误 */
     int INTERNAL_ERROR = 0x50000;
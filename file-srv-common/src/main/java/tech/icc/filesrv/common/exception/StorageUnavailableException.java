@@ -0,0 +1,15 @@
+package tech.icc.filesrv.common.exception;
+
+import tech.icc.filesrv.common.constants.ResultCode;
+
+/**
+ * 存储不可用异常
+ * <p>
+ * 文件的所有可用副本所在的存储节点均访问失败时抛出（503），
+ * 与 {@link DataCorruptedException}（元数据层面无可用副本）区分：前者通常可重试恢复。
+ */
+public class StorageUnavailableException extends FileServiceException {
+    public StorageUnavailableException(String message, Throwable cause) {
+        super(ResultCode.STORAGE_UNAVAILABLE, message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package tech.icc.filesrv.common.exception;
+
+import tech.icc.filesrv.common.constants.ResultCode;
+
+/**
+ * 任务状态监听数超限异常
+ * <p>
+ * 长轮询 / SSE 的监听数达到单任务或全局上限时抛出（429），客户端可退回短轮询或稍后重试。
+ */
+public class TooManyWatchersException extends FileServiceException implements WithoutStack {
+    public TooManyWatchersException(String message) {
+        super(ResultCode.TOO_MANY_WATCHERS, message, null);
+    }
+}
@@ -0,0 +1,22 @@
+package tech.icc.filesrv.common.exception.validation;
+
+import lombok.Getter;
+import tech.icc.filesrv.common.constants.ResultCode;
+
+/**
+ * 无效等待时长异常
+ * <p>
+ * 当长轮询的 timeout 参数无法解析（如 "30s"、"PT30S"）或不为正数时抛出
+ */
+@Getter
+public class InvalidWaitTimeoutException extends ValidationException {
+
+    public InvalidWaitTimeoutException(String timeout) {
+        super(timeout, ResultCode.INVALID_PARAMETER, String.format("无效的等待时长: '%s'", timeout));
+    }
+
+    @Override
+    public String getSource() {
+        return (String) super.source;
+    }
+}
@@ -0,0 +1,85 @@
+package tech.icc.filesrv.common.spi.cache;
+
+/**
+ * 内容哈希存在性过滤器
+ * <p>
+ * 快速判断某个 contentHash 是否可能已有物理文件（file_info 行），秒传检查据此跳过对不存在内容的数据库查询。
+ * 可能有误判（返回 true 但实际不存在），但返回 false 则一定不存在。
+ * <p>
+ * 过滤器不支持删除：文件被回收后其 contentHash 仍会命中，积累到一定比例时由调用方重建。
+ * 重建以"代"为单位进行：
+ * <ol>
+ *   <li>{@link #rebuild} 创建新一代过滤器，此后 {@link #add} 同时写入当前代和新一代</li>
+ *   <li>调用方把全部 contentHash 加载进新一代后 {@link Rebuild#commit}，新一代成为当前代</li>
+ * </ol>
+ * 实现需保证：任何在 {@link #add} 返回后写入的 contentHash，在之后的 {@link #mightContain} 中都返回 true
+ * （包括重建切换前后）。
+ */
+public interface ContentHashFilter {
+
+    /**
+     * 快速判断 contentHash 是否可能存在
+     * <p>
+     * 未就绪（{@link #isReady()} 为 false）时结果无意义，调用方应直接查询数据库。
+     *
+     * @param contentHash 内容哈希
+     * @return 是否可能存在
+     */
+    boolean mightContain(String contentHash);
+
+    /**
+     * 写入 contentHash
+     * <p>
+     * 必须在对应的 file_info 行写入之前调用；写入失败时抛出异常，调用方不得继续依赖过滤器的否定结果。
+     *
+     * @param contentHash 内容哈希
+     */
+    void add(String contentHash);
+
+    /**
+     * 当前代是否已完整加载（首次重建提交之前为 false）
+     */
+    boolean isReady();
+
+    /**
+     * 当前代中元素数的估计值（用于判断失效元素比例），未就绪时返回 -1
+     */
+    long approximateSize();
+
+    /**
+     * 作废当前代，使过滤器回到未就绪状态（所有节点改为查询数据库，直到下一次重建提交）
+     */
+    void invalidate();
+
+    /**
+     * 开始重建
+     *
+     * @param expectedInsertions 新一代的预期元素数
+     * @param fpp                新一代的误判率
+     * @return 新一代过滤器的写入句柄
+     */
+    Rebuild rebuild(long expectedInsertions, double fpp);
+
+    /**
+     * 新一代过滤器的写入句柄
+     */
+    interface Rebuild {
+
+        /**
+         * 批量写入新一代（只写新一代）
+         *
+         * @param contentHashes 内容哈希
+         */
+        void addAll(Iterable<String> contentHashes);
+
+        /**
+         * 切换为当前代
+         */
+        void commit();
+
+        /**
+         * 放弃新一代
+         */
+        void abort();
+    }
+}
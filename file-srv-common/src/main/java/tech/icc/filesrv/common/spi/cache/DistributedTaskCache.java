@@ -0,0 +1,85 @@
+package tech.icc.filesrv.common.spi.cache;
+
+import java.util.Optional;
+
+/**
+ * 分布式任务缓存（L2）
+ * <p>
+ * 为节点本地缓存（L1）提供集群共享的二级缓存和跨节点失效通知。
+ * 缓存内容为已序列化的任务快照，并携带乐观锁版本号，实现需保证旧版本不会覆盖新版本。
+ * <p>
+ * 序列化与 L1 组合由核心模块负责，SPI 实现只处理字符串载荷，保持与核心模块解耦。
+ */
+public interface DistributedTaskCache {
+
+    /**
+     * 读取任务快照
+     *
+     * @param taskId 任务 ID
+     * @return 快照（如果存在）
+     */
+    Optional<Entry> get(String taskId);
+
+    /**
+     * 版本感知写入
+     * <p>
+     * 仅当 version 大于已缓存版本（或不存在）时写入，必须是原子操作。
+     *
+     * @param taskId  任务 ID
+     * @param version 快照版本号
+     * @param payload 序列化后的快照
+     * @return 是否写入成功
+     */
+    boolean putIfNewer(String taskId, long version, String payload);
+
+    /**
+     * 删除任务快照
+     * <p>
+     * 实现应在短时间内保留被删除快照的版本号，拒绝不高于该版本的 {@link #putIfNewer} 回填，
+     * 避免删除前从数据库读到的旧快照被重新写回。
+     *
+     * @param taskId 任务 ID
+     */
+    void evict(String taskId);
+
+    /**
+     * 广播失效通知
+     * <p>
+     * 其他节点收到通知后失效本地缓存中版本低于 version 的条目；发送方自身不会收到通知。
+     *
+     * @param taskId  任务 ID
+     * @param version 最新版本号，{@link Long#MAX_VALUE} 表示无条件失效
+     */
+    void publishInvalidation(String taskId, long version);
+
+    /**
+     * 注册失效通知监听器
+     *
+     * @param listener 监听器
+     */
+    void subscribe(InvalidationListener listener);
+
+    /**
+     * 已缓存的任务快照
+     *
+     * @param version 快照版本号
+     * @param payload 序列化后的快照
+     */
+    record Entry(long version, String payload) {
+    }
+
+    /**
+     * 失效通知监听器
+     */
+    @FunctionalInterface
+    interface InvalidationListener {
+
+        /**
+         * 收到其他节点的失效通知
+         *
+         * @param taskId  任务 ID
+         * @param version 最新版本号
+         */
+        void onInvalidate(String taskId, long version);
+    }
+}
@@ -0,0 +1,47 @@
+package tech.icc.filesrv.common.spi.coordination;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 集群租约注册表
+ * <p>
+ * 多节点部署时协调后台维护任务（孤儿清理、GC、过期任务回收等）：
+ * <ul>
+ *   <li>租约名对应一项独占资源（如某个任务的 leader），同一时刻最多一个持有者</li>
+ *   <li>持有者在 TTL 内续约保持持有；节点宕机后租约到期自动释放，由其它节点接管</li>
+ *   <li>节点以自身 ID 为租约名登记存活，其它节点据此感知集群成员</li>
+ * </ul>
+ * 实现需保证 {@link #tryAcquire} 的原子性；租约是协作式的，持有者在 TTL 之外的操作不受保护，
+ * 被协调的任务本身仍需幂等。
+ */
+public interface LeaseRegistry {
+
+    /**
+     * 获取或续约租约
+     * <p>
+     * 租约空闲、已过期或已由 {@code holder} 持有时成功，并把过期时间设为当前时间 + ttl。
+     *
+     * @param name   租约名
+     * @param holder 持有者标识（节点 ID）
+     * @param ttl    有效期
+     * @return true 表示当前由 {@code holder} 持有
+     */
+    boolean tryAcquire(String name, String holder, Duration ttl);
+
+    /**
+     * 释放租约（仅当由 {@code holder} 持有时生效）
+     *
+     * @param name   租约名
+     * @param holder 持有者标识
+     */
+    void release(String name, String holder);
+
+    /**
+     * 查询名称以指定前缀开头、且未过期的租约的持有者
+     *
+     * @param namePrefix 租约名前缀
+     * @return 持有者列表（无序）
+     */
+    List<String> activeHolders(String namePrefix);
+}
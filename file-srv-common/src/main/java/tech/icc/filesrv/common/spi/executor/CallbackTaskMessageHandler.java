@@ -2,6 +2,8 @@ package tech.icc.filesrv.common.spi.executor;
 
 import tech.icc.filesrv.common.executor.message.CallbackTaskMessage;
 
+import java.util.List;
+
 /**
  * Callback 任务消息处理器（协议层）
  * <p>
@@ -17,6 +19,31 @@ public interface CallbackTaskMessageHandler {
      */
     HandleResult handle(CallbackTaskMessage message);
 
+    /**
+     * 批量认领消息（批量消费者使用）
+     * <p>
+     * 返回需要处理的消息，调用方对其逐条调用 {@link #handleClaimed}，其余为重复消息可直接确认。
+     * 默认不做认领，由 {@link #handleClaimed} 逐条处理。
+     *
+     * @param messages 一批回调任务消息
+     * @return 需要处理的消息
+     */
+    default List<CallbackTaskMessage> claimAll(List<CallbackTaskMessage> messages) {
+        return messages;
+    }
+
+    /**
+     * 处理已通过 {@link #claimAll} 认领的消息
+     * <p>
+     * 认领后可能排队较久才被调用，实现应在开始处理前续期认领。
+     *
+     * @param message 回调任务消息
+     * @return 处理结果
+     */
+    default HandleResult handleClaimed(CallbackTaskMessage message) {
+        return handle(message);
+    }
+
     enum HandleResult {
         ACK,
         RETRY
@@ -1,5 +1,7 @@
 package tech.icc.filesrv.common.spi.executor;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Callback task publisher - publishes callback tasks for asynchronous execution.
  * <p>
@@ -15,4 +17,23 @@ public interface CallbackTaskPublisher {
      * @param taskId the unique task identifier
      */
     void publish(String taskId);
-}
\ No newline at end of file
+
+    /**
+     * Publish a callback task with a caller-supplied message id and report the hand-off result.
+     * <p>
+     * Used by the transactional outbox relay: the message id stays the same when an outbox entry
+     * is redelivered, so consumers can deduplicate, and the entry is only removed once the returned
+     * future completes normally. Implementations should complete the future when the message has
+     * been durably accepted (e.g. acknowledged by the broker) and complete it exceptionally otherwise.
+     * </p>
+     * The default implementation delegates to {@link #publish(String)} and completes immediately.
+     *
+     * @param messageId the message identifier used for idempotent consumption
+     * @param taskId    the unique task identifier
+     * @return a future completing when the message has been handed off
+     */
+    default CompletableFuture<Void> publish(String messageId, String taskId) {
+        publish(taskId);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -1,11 +1,18 @@
 package tech.icc.filesrv.common.spi.executor;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * 幂等检查器
  * <p>
  * 防止重复消费同一消息。
+ * <p>
+ * 推荐使用 {@link #tryClaim} 在处理前原子地认领消息：先检查后标记的方式在多个消费者
+ * 同时收到同一消息时存在竞争。处理成功后调用 {@link #markProcessed} 延长保留时间，
+ * 需要重投的消息调用 {@link #release} 释放认领。
  */
 public interface IdempotencyChecker {
 
@@ -24,4 +31,65 @@ public interface IdempotencyChecker {
      * @param ttl       过期时间
      */
     void markProcessed(String messageId, Duration ttl);
-}
\ No newline at end of file
+
+    /**
+     * 认领消息（处理前调用）
+     * <p>
+     * 默认实现先检查后标记，不是原子操作，实现类应覆盖为原子操作（如 Redis SET NX EX）。
+     *
+     * @param messageId 消息唯一标识
+     * @param ttl       认领的保留时间，应覆盖消息处理的最长耗时
+     * @return true 表示认领成功，需要处理；false 表示已被认领或已处理（重复）
+     */
+    default boolean tryClaim(String messageId, Duration ttl) {
+        if (isDuplicate(messageId)) {
+            return false;
+        }
+        markProcessed(messageId, ttl);
+        return true;
+    }
+
+    /**
+     * 批量认领消息
+     * <p>
+     * 供批量消费者使用，实现类应在一次网络往返内完成（如 Redis pipeline）。
+     * 认领后的消息可能排队较久才开始处理，开始处理前应调用 {@link #renewClaim} 续期。
+     *
+     * @param messageIds 消息唯一标识
+     * @param ttl        认领的保留时间
+     * @return 认领成功的消息标识
+     */
+    default Set<String> tryClaimAll(Collection<String> messageIds, Duration ttl) {
+        Set<String> claimed = new LinkedHashSet<>();
+        for (String messageId : messageIds) {
+            if (tryClaim(messageId, ttl)) {
+                claimed.add(messageId);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * 开始处理前续期本节点的认领
+     * <p>
+     * 认领仍由本节点持有时延长保留时间；排队期间认领已过期且未被其他消费者认领时重新认领。
+     * 默认实现不区分认领者，直接视为续期成功。
+     *
+     * @param messageId 消息唯一标识
+     * @param ttl       续期后的保留时间，应覆盖消息处理的最长耗时
+     * @return true 表示可以处理；false 表示已被其他消费者认领或已处理
+     */
+    default boolean renewClaim(String messageId, Duration ttl) {
+        return true;
+    }
+
+    /**
+     * 释放尚未处理完成的认领，使消息重投后可以再次处理
+     * <p>
+     * 已标记为处理完成的消息不受影响。
+     *
+     * @param messageId 消息唯一标识
+     */
+    default void release(String messageId) {
+    }
+}
@@ -3,9 +3,13 @@ package tech.icc.filesrv.common.spi.plugin;
 import com.sun.source.util.Plugin;
 import tech.icc.filesrv.common.context.TaskContext;
 import tech.icc.filesrv.common.exception.FileServiceException;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 插件存储服务
@@ -92,6 +96,30 @@ public interface PluginStorageService {
      */
     void deleteFile(String fkey);
 
+    /**
+     * 批量删除文件
+     * <p>
+     * 支持多对象删除的存储会合并为少量请求；单个文件失败不影响其他文件，
+     * 结果按文件返回。文件不存在视为删除成功。
+     * </p>
+     *
+     * @param fkeys 文件唯一标识
+     * @return 每个文件的删除结果（{@link DeleteResult#path()} 为 fkey）
+     * @throws IllegalArgumentException fkeys 为 null 或包含空字符串
+     */
+    default List<DeleteResult> deleteFiles(Collection<String> fkeys) {
+        List<DeleteResult> results = new ArrayList<>(fkeys.size());
+        for (String fkey : fkeys) {
+            try {
+                deleteFile(fkey);
+                results.add(DeleteResult.success(fkey));
+            } catch (FileServiceException e) {
+                results.add(DeleteResult.failure(fkey, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * 生成临时访问URL
      * <p>
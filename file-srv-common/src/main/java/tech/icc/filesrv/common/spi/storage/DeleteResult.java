@@ -0,0 +1,32 @@
+package tech.icc.filesrv.common.spi.storage;
+
+/**
+ * 单个对象的删除结果
+ * <p>
+ * 批量删除时逐个返回，调用方据此决定哪些对象需要重试。
+ * 对象本身不存在视为删除成功。
+ *
+ * @param path    存储路径
+ * @param success 是否删除成功
+ * @param error   失败原因（成功时为 null）
+ */
+public record DeleteResult(
+        String path,
+        boolean success,
+        String error
+) {
+
+    /**
+     * 删除成功
+     */
+    public static DeleteResult success(String path) {
+        return new DeleteResult(path, true, null);
+    }
+
+    /**
+     * 删除失败
+     */
+    public static DeleteResult failure(String path, String error) {
+        return new DeleteResult(path, false, error);
+    }
+}
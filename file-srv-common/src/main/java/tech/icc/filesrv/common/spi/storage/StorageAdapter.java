@@ -4,6 +4,9 @@ import org.springframework.core.io.Resource;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 存储适配器接口
@@ -52,6 +55,28 @@ public interface StorageAdapter {
      */
     void delete(String path);
 
+    /**
+     * 批量删除文件
+     * <p>
+     * 默认逐个调用 {@link #delete(String)}；支持多对象删除的存储应覆盖此方法，一次请求删除多个对象。
+     * 单个对象失败不影响其他对象，结果按对象返回。
+     *
+     * @param paths 存储路径
+     * @return 每个路径的删除结果
+     */
+    default List<DeleteResult> deleteAll(Collection<String> paths) {
+        List<DeleteResult> results = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            try {
+                delete(path);
+                results.add(DeleteResult.success(path));
+            } catch (RuntimeException e) {
+                results.add(DeleteResult.failure(path, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * 检查文件是否存在
      *
@@ -0,0 +1,91 @@
+package tech.icc.filesrv.common.utils;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUID 生成与格式校验
+ * <p>
+ * taskId、fKey 等以 UUID 字符串作为 VARCHAR 主键。随机 UUID（v4）使每次插入落在 B+ 树的随机位置，
+ * 造成页分裂和缓冲池失效；默认改用时间有序的 UUIDv7（RFC 9562）：高 48 位为毫秒时间戳，
+ * 新记录集中追加在索引尾部，剩余 74 位随机数保证不可猜测。
+ */
+public final class Uuids {
+
+    /**
+     * ID 生成策略
+     */
+    public enum Strategy {
+        /** 随机 UUID（v4） */
+        RANDOM,
+        /** 时间有序 UUID（v7） */
+        TIME_ORDERED
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static volatile Strategy strategy = Strategy.TIME_ORDERED;
+
+    private Uuids() {
+    }
+
+    /**
+     * 设置 {@link #newId()} 使用的生成策略（启动时由配置决定）
+     */
+    public static void setStrategy(Strategy strategy) {
+        Uuids.strategy = strategy != null ? strategy : Strategy.TIME_ORDERED;
+    }
+
+    public static Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * 按当前策略生成新 ID（标准 36 位小写格式）
+     */
+    public static String newId() {
+        return strategy == Strategy.RANDOM
+                ? UUID.randomUUID().toString()
+                : timeOrdered().toString();
+    }
+
+    /**
+     * 生成 UUIDv7
+     * <p>
+     * 布局：48 位 Unix 毫秒时间戳 | 4 位版本号 7 | 12 位随机数 | 2 位变体 10 | 62 位随机数
+     */
+    public static UUID timeOrdered() {
+        long millis = System.currentTimeMillis();
+        long randA = RANDOM.nextInt() & 0x0FFFL;
+        long randB = RANDOM.nextLong();
+        long msb = (millis << 16) | 0x7000L | randA;
+        long lsb = (randB & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * 判断是否为标准格式的 UUID 字符串（8-4-4-4-12 位十六进制，大小写均可）
+     * <p>
+     * 逐字符校验，不分配对象也不依赖异常；与 {@link UUID#fromString} 不同，不接受省略前导零等非标准写法。
+     */
+    public static boolean isCanonical(CharSequence value) {
+        if (value == null || value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!isHexDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,40 @@
+package tech.icc.filesrv.common.spi.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StorageAdapterTest {
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private StorageAdapter adapter;
+
+    @Test
+    void shouldDeleteOneByOneAndKeepGoingAfterFailure() {
+        doAnswer(invocation -> {
+            if ("b".equals(invocation.getArgument(0))) {
+                throw new IllegalStateException("node offline");
+            }
+            return null;
+        }).when(adapter).delete(anyString());
+
+        List<DeleteResult> results = adapter.deleteAll(List.of("a", "b", "c"));
+
+        assertThat(results).containsExactly(
+                DeleteResult.success("a"),
+                DeleteResult.failure("b", "node offline"),
+                DeleteResult.success("c"));
+        verify(adapter).delete("a");
+        verify(adapter).delete("c");
+    }
+}
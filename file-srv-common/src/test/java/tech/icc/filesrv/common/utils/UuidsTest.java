@@ -0,0 +1,95 @@
+package tech.icc.filesrv.common.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 部分用例修改全局生成策略，不与其他用例并发执行
+@Execution(ExecutionMode.SAME_THREAD)
+class UuidsTest {
+
+    @AfterEach
+    void tearDown() {
+        Uuids.setStrategy(Uuids.Strategy.TIME_ORDERED);
+    }
+
+    @Test
+    void shouldSetVersionAndVariantBitsOfUuidV7() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = Uuids.timeOrdered();
+
+            assertThat(uuid.version()).isEqualTo(7);
+            assertThat(uuid.variant()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldEmbedCurrentMillisInHighBits() {
+        long before = System.currentTimeMillis();
+        UUID uuid = Uuids.timeOrdered();
+        long after = System.currentTimeMillis();
+
+        assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, after);
+    }
+
+    @Test
+    void shouldSortByCreationTimeAcrossMilliseconds() throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(Uuids.newId());
+            Thread.sleep(2);
+        }
+
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    void shouldGenerateRandomUuidWhenStrategyIsRandom() {
+        Uuids.setStrategy(Uuids.Strategy.RANDOM);
+
+        assertThat(UUID.fromString(Uuids.newId()).version()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldFallBackToTimeOrderedWhenStrategyIsNull() {
+        Uuids.setStrategy(null);
+
+        assertThat(Uuids.getStrategy()).isEqualTo(Uuids.Strategy.TIME_ORDERED);
+        assertThat(UUID.fromString(Uuids.newId()).version()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldAcceptGeneratedIdsInLowerAndUpperCase() {
+        String id = Uuids.newId();
+
+        assertThat(Uuids.isCanonical(id)).isTrue();
+        assertThat(Uuids.isCanonical(id.toUpperCase())).isTrue();
+        assertThat(Uuids.isCanonical("0189aBcD-eF01-7abc-8DEF-0123456789aB")).isTrue();
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "0189abcd-ef01-7abc-8def-0123456789a",      // 35 位
+            "0189abcd-ef01-7abc-8def-0123456789abc",    // 37 位
+            "0189abcdef01-7abc-8def-0123456789abc",     // 缺少第一个连字符
+            "0189abc-def01-7abc-8def-0123456789ab",     // 连字符错位
+            "0189abcd-ef01-7abc-8def_0123456789ab",     // 错误分隔符
+            "0189abcd-ef01-7abc-8def-0123456789ag",     // 非十六进制字符
+            "0189abcd-ef01-7abc-8def-0123456789a ",     // 空白
+            "1-1-1-1-1"                                 // UUID.fromString 接受的简写
+    })
+    void shouldRejectNonCanonicalForms(String value) {
+        assertThat(Uuids.isCanonical(value)).isFalse();
+    }
+}
@@ -8,6 +8,8 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,20 +20,26 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import tech.icc.filesrv.common.constants.SystemConstant;
 import tech.icc.filesrv.common.context.Result;
+import tech.icc.filesrv.common.exception.validation.InvalidWaitTimeoutException;
 import tech.icc.filesrv.common.vo.task.CallbackConfig;
 import tech.icc.filesrv.common.vo.task.FileRequest;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
 import tech.icc.filesrv.core.application.entrypoint.assembler.TaskInfoAssembler;
 import tech.icc.filesrv.core.application.entrypoint.model.CreateTaskRequest;
 import tech.icc.filesrv.core.application.entrypoint.model.PartETag;
 import tech.icc.filesrv.core.application.entrypoint.model.TaskResponse;
 import tech.icc.filesrv.core.application.service.TaskService;
+import tech.icc.filesrv.core.application.service.TaskWatchService;
 import tech.icc.filesrv.core.application.service.dto.PartETagDto;
 import tech.icc.filesrv.core.application.service.dto.TaskInfoDto;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -44,7 +52,7 @@ import java.util.Optional;
  *   <li>创建任务 - 获取预签名上传 URL</li>
  *   <li>分片上传 - 逐个上传文件分片</li>
  *   <li>完成上传 - 合并分片并触发 callback</li>
- *   <li>状态查询 - 轮询任务状态</li>
+ *   <li>状态查询 - 轮询、长轮询（{@code ?waitFor=}）或 SSE 订阅任务状态</li>
  * </ol>
  * <p>
  * 适用于大文件上传场景，小文件请使用 {@link FileController#uploadFile} 直接上传。
@@ -62,7 +70,14 @@ public class TaskController {
     /** 最大分片数量（S3 限制） */
     private static final int MAX_PART_NUMBER = 10000;
 
+    /** 长轮询默认等待时长 */
+    private static final String DEFAULT_WAIT_TIMEOUT = "30s";
+
+    /** 长轮询异步请求超时相对等待时长的余量，保证超时由服务端先返回当前状态 */
+    private static final Duration ASYNC_TIMEOUT_SLACK = Duration.ofSeconds(5);
+
     private final TaskService service;
+    private final TaskWatchService watchService;
 
     /**
      * 创建上传任务
@@ -221,4 +236,100 @@ public class TaskController {
 
         return Result.success(response);
     }
+
+    /**
+     * 长轮询任务状态
+     * <p>
+     * 任务达到（或越过）{@code waitFor} 指定的状态、或进入终态时立即返回；
+     * 等待超时则返回当前状态，客户端可继续发起下一次长轮询。
+     * 一个长轮询连接即可替代等待期间的大量短轮询。
+     * 等待非终态时由服务端定时重检发现，返回可能延迟一个重检间隔（默认 5s）；
+     * 监听数达到上限时返回 429，客户端可退回短轮询。
+     * <p>
+     * 示例：{@code GET /{taskId}?waitFor=COMPLETED&timeout=30s}
+     *
+     * @param taskId  任务标识
+     * @param waitFor 目标状态
+     * @param timeout 最长等待时长（如 30s、PT30S），超过服务端上限时截断
+     * @return 任务详情（异步返回）
+     */
+    @GetMapping(value = "/{taskId}", params = "waitFor")
+    public DeferredResult<Result<TaskResponse>> awaitTask(
+            @PathVariable("taskId")
+            @NotBlank(message = "任务标识不能为空")
+            @Size(max = MAX_TASK_ID_LENGTH, message = "任务标识长度不能超过 64 字符")
+            String taskId,
+
+            @RequestParam("waitFor") TaskStatus waitFor,
+
+            @RequestParam(value = "timeout", defaultValue = DEFAULT_WAIT_TIMEOUT) String timeout) {
+
+        Duration wait = parseTimeout(timeout);
+        log.debug("[AwaitTask] Start, taskId={}, waitFor={}, timeout={}", taskId, waitFor, wait);
+
+        DeferredResult<Result<TaskResponse>> result =
+                new DeferredResult<>(wait.plus(ASYNC_TIMEOUT_SLACK).toMillis());
+        watchService.awaitStatus(taskId, waitFor, wait).whenComplete((dto, ex) -> {
+            if (ex != null) {
+                result.setErrorResult(ex);
+                return;
+            }
+            log.debug("[AwaitTask] Result, taskId={}, status={}", taskId, dto.summary().status());
+            result.setResult(Result.success(TaskInfoAssembler.toResponse(dto)));
+        });
+        return result;
+    }
+
+    /**
+     * 订阅任务状态（Server-Sent Events）
+     * <p>
+     * 连接建立后立即推送一次当前状态，之后每次状态变化推送一次 {@code status} 事件，
+     * 任务进入终态后服务端关闭连接。
+     * 监听数达到上限时返回 429。
+     *
+     * @param taskId 任务标识
+     * @return SSE 连接
+     */
+    @GetMapping(value = "/{taskId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTask(
+            @PathVariable("taskId")
+            @NotBlank(message = "任务标识不能为空")
+            @Size(max = MAX_TASK_ID_LENGTH, message = "任务标识长度不能超过 64 字符")
+            String taskId) {
+
+        log.debug("[StreamTask] Start, taskId={}", taskId);
+
+        SseEmitter emitter = new SseEmitter(watchService.getStreamTimeout().toMillis());
+        TaskWatchService.Subscription subscription = watchService.subscribe(taskId, dto -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("status")
+                        .data(Result.success(TaskInfoAssembler.toResponse(dto)), MediaType.APPLICATION_JSON));
+                if (dto.summary().status().isTerminal()) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开或连接已关闭
+                log.debug("[StreamTask] Send failed, taskId={}", taskId, e);
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    private static Duration parseTimeout(String timeout) {
+        Duration wait;
+        try {
+            wait = DurationStyle.detectAndParse(timeout);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidWaitTimeoutException(timeout);
+        }
+        if (wait.isNegative() || wait.isZero()) {
+            throw new InvalidWaitTimeoutException(timeout);
+        }
+        return wait;
+    }
 }
@@ -16,6 +16,8 @@ import tech.icc.filesrv.common.context.Result;
 import tech.icc.filesrv.common.exception.NotFoundException;
 import tech.icc.filesrv.common.exception.validation.AccessDeniedException;
 import tech.icc.filesrv.common.exception.FileServiceException;
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
+import tech.icc.filesrv.common.exception.TooManyWatchersException;
 import tech.icc.filesrv.common.exception.validation.ValidationException;
 
 import java.util.stream.Collectors;
@@ -80,6 +82,32 @@ public class GlobalExceptionHandler {
                 .body(Result.failure(e));
     }
 
+    /**
+     * 处理存储不可用异常
+     * <p>
+     * 返回 HTTP 503 状态码，所有副本所在的存储节点均不可用，客户端可稍后重试。
+     */
+    @ExceptionHandler(StorageUnavailableException.class)
+    public ResponseEntity<Result<Void>> handleStorageUnavailableException(StorageUnavailableException e) {
+        log.error("Storage unavailable: {}", e.getMessage(), e.getCause());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Result.failure(e));
+    }
+
+    /**
+     * 处理任务状态监听数超限异常
+     * <p>
+     * 返回 HTTP 429 状态码，长轮询 / SSE 监听数已达上限，客户端可稍后重试。
+     */
+    @ExceptionHandler(TooManyWatchersException.class)
+    public ResponseEntity<Result<Void>> handleTooManyWatchersException(TooManyWatchersException e) {
+        log.warn("Too many task watchers: {}", e.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Result.failure(e));
+    }
+
     /**
      * 处理通用业务异常
      * <p>
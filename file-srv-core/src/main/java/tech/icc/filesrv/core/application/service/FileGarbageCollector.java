@@ -0,0 +1,160 @@
+package tech.icc.filesrv.core.application.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 物理文件回收服务
+ * <p>
+ * 回收引用计数归零（status = DELETED）的 FileInfo：删除所有副本对象，再删除元数据。
+ * 对象删除不可回滚，因此分三步，状态变更先于对象删除持久化：
+ * <ol>
+ *   <li>锁定仍满足 GC 条件的行（SKIP LOCKED）并标记为 COLLECTING，提交</li>
+ *   <li>事务外按节点批量删除对象</li>
+ *   <li>删除元数据（部分副本删除失败时只移除已删除的副本），提交</li>
+ * </ol>
+ * 与秒传的并发（同一 contentHash 被重新上传）：
+ * <ul>
+ *   <li>锁定前已被重新引用的文件 refCount > 0（恢复为 ACTIVE），不会被锁定</li>
+ *   <li>锁定后到达的引用计数增加等待第一步提交，之后 COLLECTING 的文件不会再被恢复为 ACTIVE，
+ *       第二、三步失败或进程中断时文件停留在 COLLECTING，不会有新引用指向已删除的对象</li>
+ *   <li>COLLECTING 的文件仍满足 GC 条件，由下一轮继续回收（对象删除幂等）</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class FileGarbageCollector {
+
+    private final FileInfoRepository fileInfoRepository;
+    private final StorageRoutingService storageRoutingService;
+    private final TransactionTemplate transactionTemplate;
+
+    public FileGarbageCollector(FileInfoRepository fileInfoRepository,
+                                StorageRoutingService storageRoutingService,
+                                PlatformTransactionManager transactionManager) {
+        this.fileInfoRepository = fileInfoRepository;
+        this.storageRoutingService = storageRoutingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 回收一批文件
+     *
+     * @param contentHashes 候选 contentHash（由游标扫描得到，回收前会重新校验）
+     * @return 回收结果
+     */
+    public Result collect(List<String> contentHashes) {
+        List<FileInfo> files = transactionTemplate.execute(status -> claim(contentHashes));
+        if (files == null || files.isEmpty()) {
+            return Result.EMPTY;
+        }
+
+        Set<String> failedCopies = deleteObjects(files);
+
+        return transactionTemplate.execute(status -> removeMetadata(files, failedCopies));
+    }
+
+    /**
+     * 锁定仍满足 GC 条件的文件并标记为 COLLECTING
+     */
+    private List<FileInfo> claim(List<String> contentHashes) {
+        List<FileInfo> files = fileInfoRepository.lockGarbageFiles(contentHashes);
+        if (!files.isEmpty()) {
+            fileInfoRepository.markCollecting(files.stream().map(FileInfo::contentHash).toList());
+        }
+        return files;
+    }
+
+    /**
+     * 删除对象已全部删除的文件元数据，其余文件只移除已删除的副本
+     */
+    private Result removeMetadata(List<FileInfo> files, Set<String> failedCopies) {
+        int collected = 0;
+        long bytes = 0;
+        int failed = 0;
+        for (FileInfo file : files) {
+            List<StorageCopy> remaining = file.copies().stream()
+                    .filter(copy -> failedCopies.contains(copy.copyId()))
+                    .toList();
+            if (remaining.isEmpty()) {
+                fileInfoRepository.deleteByContentHash(file.contentHash());
+                collected++;
+                bytes += (file.size() != null ? file.size() : 0L) * file.copies().size();
+            } else {
+                // 已删除的副本不再保留，文件停留在 COLLECTING，下一轮只重试删除失败的副本
+                file.copies().stream()
+                        .filter(copy -> !failedCopies.contains(copy.copyId()))
+                        .forEach(copy -> fileInfoRepository.removeCopy(
+                                file.contentHash(), copy.copyId(), copy.status()));
+                failed++;
+            }
+        }
+        return new Result(collected, bytes, failed);
+    }
+
+    /**
+     * 按节点分组批量删除副本对象
+     *
+     * @return 删除失败的副本 ID
+     */
+    private Set<String> deleteObjects(List<FileInfo> files) {
+        Map<String, List<StorageCopy>> byNode = files.stream()
+                .flatMap(file -> file.copies().stream())
+                .collect(Collectors.groupingBy(StorageCopy::nodeId));
+
+        Set<String> failed = new HashSet<>();
+        byNode.forEach((nodeId, copies) -> {
+            List<DeleteResult> results;
+            try {
+                StorageAdapter adapter = storageRoutingService.getAdapter(nodeId);
+                results = adapter.deleteAll(copies.stream().map(StorageCopy::path).distinct().toList());
+            } catch (RuntimeException e) {
+                log.warn("Batch delete failed: nodeId={}, copies={}", nodeId, copies.size(), e);
+                copies.forEach(copy -> failed.add(copy.copyId()));
+                return;
+            }
+            Set<String> failedPaths = new HashSet<>();
+            for (DeleteResult result : results) {
+                if (!result.success()) {
+                    log.warn("Failed to delete object: nodeId={}, path={}, error={}",
+                            nodeId, result.path(), result.error());
+                    failedPaths.add(result.path());
+                }
+            }
+            copies.stream()
+                    .filter(copy -> failedPaths.contains(copy.path()))
+                    .forEach(copy -> failed.add(copy.copyId()));
+        });
+        return failed;
+    }
+
+    /**
+     * 一批回收的结果
+     *
+     * @param collected 回收的文件数
+     * @param bytes     回收的存储空间（字节，按副本数累计）
+     * @param failed    部分副本删除失败、留待重试的文件数
+     */
+    public record Result(int collected, long bytes, int failed) {
+
+        public static final Result EMPTY = new Result(0, 0L, 0);
+
+        public Result plus(Result other) {
+            return new Result(collected + other.collected, bytes + other.bytes, failed + other.failed);
+        }
+    }
+}
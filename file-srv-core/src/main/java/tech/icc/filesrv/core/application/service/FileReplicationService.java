@@ -0,0 +1,310 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageNode;
+import tech.icc.filesrv.core.domain.storage.StoragePolicy;
+import tech.icc.filesrv.core.infra.config.ReplicationProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 文件副本复制服务
+ * <p>
+ * 实现 {@link StoragePolicy#replicaCount()} 的多副本写入：
+ * <ol>
+ *   <li>上传时同步写入首个副本即向客户端确认，其余副本登记为 PENDING 随 FileInfo 一起保存</li>
+ *   <li>事务提交后把 PENDING 副本提交到后台复制：从已写入的副本读取，写入目标节点，
+ *       成功后把副本状态条件更新为 ACTIVE</li>
+ *   <li>有界工作线程池 + 有界队列；每个目标节点限制并发数，超出时延迟重排，不占用重试次数</li>
+ *   <li>失败按指数退避重试；重试耗尽、队列已满或进程重启时副本保持 PENDING，
+ *       由定期补偿扫描重新提交（见 {@code ReplicaRepairTask}；集群中只由 leader 执行，避免多个节点重复复制同一副本）</li>
+ * </ol>
+ * 指标：{@code file.replication.lag}（副本创建到 ACTIVE 的延迟）、{@code file.replication.total}、
+ * {@code file.replication.queue.size}、{@code file.replication.in_flight}。
+ */
+@Service
+public class FileReplicationService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileReplicationService.class);
+
+    private final FileInfoRepository fileInfoRepository;
+    private final StorageRoutingService storageRoutingService;
+    private final ReplicationProperties properties;
+    private final MaintenanceCoordinator coordinator;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor workers;
+    private final TaskScheduler taskScheduler;
+    private final ConcurrentMap<String, Semaphore> nodePermits = new ConcurrentHashMap<>();
+    private final Set<String> inFlightCopies = ConcurrentHashMap.newKeySet();
+    private final Timer lagTimer;
+
+    public FileReplicationService(FileInfoRepository fileInfoRepository,
+                                  StorageRoutingService storageRoutingService,
+                                  ReplicationProperties properties,
+                                  MaintenanceCoordinator coordinator,
+                                  TaskScheduler taskScheduler,
+                                  MeterRegistry meterRegistry) {
+        this.fileInfoRepository = fileInfoRepository;
+        this.storageRoutingService = storageRoutingService;
+        this.properties = properties;
+        this.coordinator = coordinator;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger workerCounter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                properties.getWorkerThreads(), properties.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "file-replication-" + workerCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.lagTimer = Timer.builder("file.replication.lag")
+                .description("Delay between replica registration and activation")
+                .register(meterRegistry);
+        Gauge.builder("file.replication.queue.size", workers, e -> e.getQueue().size())
+                .description("Replication jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("file.replication.in_flight", inFlightCopies, Set::size)
+                .description("Replicas submitted but not yet finished")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 默认存储策略（副本数取自配置）
+     */
+    public StoragePolicy defaultPolicy() {
+        return StoragePolicy.defaultPolicy().withReplicaCount(properties.getReplicaCount());
+    }
+
+    /**
+     * 规划待复制的副本
+     * <p>
+     * 按策略副本数减去已有副本数，选择不重复的目标节点，返回 PENDING 副本（尚未持久化）。
+     * 副本路径与源副本一致。
+     *
+     * @param policy   存储策略
+     * @param fileInfo 已写入首个副本的文件
+     * @return 待复制副本，无需复制或没有可用节点时返回空列表
+     */
+    public List<StorageCopy> planReplicas(StoragePolicy policy, FileInfo fileInfo) {
+        int missing = policy.replicas() - fileInfo.copies().size();
+        Optional<StorageCopy> source = fileInfo.getPrimaryCopy();
+        if (missing <= 0 || source.isEmpty()) {
+            return List.of();
+        }
+        Set<String> existing = fileInfo.copies().stream()
+                .map(StorageCopy::nodeId)
+                .collect(Collectors.toSet());
+        List<StorageNode> targets = storageRoutingService.selectReplicaNodes(
+                policy, fileInfo.contentHash(), fileInfo.size() != null ? fileInfo.size() : 0L, existing, missing);
+        if (targets.size() < missing) {
+            log.warn("Not enough storage nodes for replicas: contentHash={}, required={}, available={}",
+                    fileInfo.contentHash(), missing, targets.size());
+        }
+        return targets.stream()
+                .map(node -> StorageCopy.create(node.nodeId(), source.get().path(), node.tier()))
+                .toList();
+    }
+
+    /**
+     * 事务提交后复制文件的 PENDING 副本；无事务时立即提交
+     *
+     * @param fileInfo 已保存的文件
+     */
+    public void replicateAfterCommit(FileInfo fileInfo) {
+        if (fileInfo.copies().stream().noneMatch(copy -> copy.status() == CopyStatus.PENDING)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            replicate(fileInfo);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                replicate(fileInfo);
+            }
+        });
+    }
+
+    /**
+     * 提交文件的所有 PENDING 副本
+     */
+    void replicate(FileInfo fileInfo) {
+        Optional<StorageCopy> source = fileInfo.getPrimaryCopy();
+        if (source.isEmpty()) {
+            return;
+        }
+        fileInfo.copies().stream()
+                .filter(copy -> copy.status() == CopyStatus.PENDING)
+                .forEach(target -> {
+                    if (inFlightCopies.add(target.copyId())) {
+                        submit(new Job(fileInfo.contentHash(), fileInfo.contentType(), source.get(), target, 1));
+                    }
+                });
+    }
+
+    /**
+     * 补偿扫描：重新提交长时间停留在 PENDING 的副本（仅 leader 执行）
+     */
+    public void repairPending() {
+        try {
+            if (!coordinator.isLeader("replication-repair")) {
+                return;
+            }
+            Instant before = Instant.now().minus(properties.getRepairAge());
+            List<FileInfo> files = fileInfoRepository.findByCopyStatus(
+                    CopyStatus.PENDING, before, properties.getRepairBatchSize());
+            if (!files.isEmpty()) {
+                log.info("Resubmitting stale pending replicas: files={}", files.size());
+            }
+            files.forEach(this::replicate);
+        } catch (RuntimeException e) {
+            log.warn("Replica repair scan failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void submit(Job job) {
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // 队列已满：副本保持 PENDING，交给补偿扫描
+            inFlightCopies.remove(job.target().copyId());
+            counter("rejected").increment();
+            log.warn("Replication queue full, deferring replica: contentHash={}, node={}",
+                    job.contentHash(), job.target().nodeId());
+        }
+    }
+
+    private void run(Job job) {
+        Semaphore permit = nodePermits.computeIfAbsent(job.target().nodeId(),
+                k -> new Semaphore(properties.getMaxConcurrentPerNode()));
+        if (!permit.tryAcquire()) {
+            // 目标节点并发已满：延迟重排，不计入重试次数
+            schedule(job, properties.getInitialBackoff());
+            return;
+        }
+        boolean finished = true;
+        try {
+            copy(job);
+            int updated = fileInfoRepository.updateCopyStatus(
+                    job.contentHash(), job.target().copyId(), CopyStatus.PENDING, CopyStatus.ACTIVE);
+            if (updated == 0) {
+                // 副本行已被并发移除（如文件被回收）：刚写入的对象没有副本行引用，直接删除
+                log.info("Replica no longer pending, discarding uploaded object: contentHash={}, copyId={}",
+                        job.contentHash(), job.target().copyId());
+                counter("aborted").increment();
+                deleteObjectQuietly(job.target());
+                return;
+            }
+            lagTimer.record(Duration.between(job.target().createdAt(), Instant.now()));
+            counter("success").increment();
+            log.debug("Replica activated: contentHash={}, node={}", job.contentHash(), job.target().nodeId());
+        } catch (Exception e) {
+            counter("failure").increment();
+            if (job.attempt() < properties.getMaxAttempts()) {
+                Duration backoff = backoff(job.attempt());
+                log.warn("Replication failed, retrying in {}: contentHash={}, node={}, attempt={}",
+                        backoff, job.contentHash(), job.target().nodeId(), job.attempt(), e);
+                schedule(job.nextAttempt(), backoff);
+                finished = false;
+            } else {
+                log.error("Replication failed after {} attempts, left pending for repair: contentHash={}, node={}",
+                        job.attempt(), job.contentHash(), job.target().nodeId(), e);
+            }
+        } finally {
+            permit.release();
+            if (finished) {
+                inFlightCopies.remove(job.target().copyId());
+            }
+        }
+    }
+
+    private void copy(Job job) throws IOException {
+        StorageAdapter source = storageRoutingService.getAdapter(job.source().nodeId());
+        StorageAdapter target = storageRoutingService.getAdapter(job.target().nodeId());
+        try (InputStream content = source.download(job.source().path()).getInputStream()) {
+            target.upload(job.target().path(), content, job.contentType());
+        }
+    }
+
+    private void deleteObjectQuietly(StorageCopy copy) {
+        try {
+            storageRoutingService.getAdapter(copy.nodeId()).delete(copy.path());
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete abandoned replica: node={}, path={}", copy.nodeId(), copy.path(), e);
+        }
+    }
+
+    private void schedule(Job job, Duration delay) {
+        try {
+            taskScheduler.schedule(() -> submit(job), Instant.now().plus(delay));
+        } catch (RuntimeException e) {
+            // 正在关闭
+            inFlightCopies.remove(job.target().copyId());
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        long millis = properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        return Duration.ofMillis(Math.min(millis, properties.getMaxBackoff().toMillis()));
+    }
+
+    private Counter counter(String status) {
+        return Counter.builder("file.replication.total")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 单个副本的复制任务
+     */
+    private record Job(String contentHash, String contentType, StorageCopy source, StorageCopy target, int attempt) {
+
+        Job nextAttempt() {
+            return new Job(contentHash, contentType, source, target, attempt + 1);
+        }
+    }
+}
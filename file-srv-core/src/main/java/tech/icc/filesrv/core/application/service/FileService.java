@@ -29,6 +29,7 @@ import tech.icc.filesrv.core.application.service.dto.FileInfoDto;
 import tech.icc.filesrv.core.application.service.dto.MetaQueryCriteria;
 import tech.icc.filesrv.core.domain.files.FileInfo;
 import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
 import tech.icc.filesrv.core.domain.files.FileReference;
 import tech.icc.filesrv.core.domain.files.FileReferenceRepository;
 import tech.icc.filesrv.core.domain.files.FileReferenceSpec;
@@ -37,6 +38,8 @@ import tech.icc.filesrv.core.domain.services.StorageRoutingService;
 import tech.icc.filesrv.core.domain.storage.StorageCopy;
 import tech.icc.filesrv.core.domain.storage.StorageNode;
 import tech.icc.filesrv.core.domain.storage.StoragePolicy;
+import tech.icc.filesrv.core.infra.cache.ContentHashIndex;
+import tech.icc.filesrv.core.infra.storage.AccessFrequencyTracker;
 import tech.icc.filesrv.common.spi.storage.StorageAdapter;
 import tech.icc.filesrv.common.spi.storage.StorageResult;
 
@@ -44,8 +47,15 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 文件应用服务
@@ -75,6 +85,10 @@ public class FileService {
     private final FileInfoRepository fileInfoRepository;
     private final DeduplicationService deduplicationService;
     private final StorageRoutingService storageRoutingService;
+    private final FileReplicationService replicationService;
+    private final ReplicaReadService replicaReadService;
+    private final AccessFrequencyTracker accessTracker;
+    private final ContentHashIndex contentHashIndex;
     private final MeterRegistry meterRegistry;
 
     /**
@@ -129,18 +143,21 @@ public class FileService {
             String contentHash = deduplicationService.computeHash(content);
             log.debug("Computed content hash: {}", contentHash);
 
-            // 4. 秒传检查
-            Optional<FileInfo> existingFile = deduplicationService.findByContentHash(contentHash);
-            FileInfo physicalFile;
-
-            if (existingFile.isPresent()) {
-                // 秒传：增加引用计数
-                log.info("Instant upload detected: contentHash={}", contentHash);
-                physicalFile = deduplicationService.incrementReference(contentHash);
+            // 4. 秒传检查：直接增加引用计数（更新 0 行即不存在或已被回收，按新文件上传）；
+            //    过滤器判定一定不存在的内容不访问数据库
+            Optional<FileRefCount> reused = contentHashIndex.mightExist(contentHash)
+                    ? deduplicationService.tryIncrementReference(contentHash)
+                    : Optional.empty();
+            StorageCopy primaryCopy;
+
+            if (reused.isPresent()) {
+                log.info("Instant upload detected: contentHash={}, refCount={}", contentHash, reused.get().refCount());
+                // 响应只需要主副本，不加载整个 FileInfo 及其副本集合
+                primaryCopy = fileInfoRepository.findPrimaryCopy(contentHash).orElse(null);
                 instant = true;
             } else {
                 // 需要实际上传：从内存上传
-                physicalFile = uploadToStorage(contentHash, contentType, size, content);
+                primaryCopy = primaryCopyOf(uploadToStorage(contentHash, contentType, size, content));
             }
 
             // 5. 绑定 contentHash 到引用
@@ -152,7 +169,7 @@ public class FileService {
             log.info("Upload completed: fKey={}, contentHash={}, instant={}",
                     reference.fKey(), contentHash, instant);
 
-            return toDto(reference, physicalFile);
+            return toDto(reference, contentHash, primaryCopy);
 
         } catch (IOException e) {
             status = "io_error";
@@ -181,8 +198,8 @@ public class FileService {
     private FileInfo uploadToStorage(String contentHash, String contentType, long size,
                                      byte[] content) throws IOException {
         // 选择存储节点
-        StoragePolicy policy = StoragePolicy.defaultPolicy();
-        StorageNode node = storageRoutingService.selectNode(policy);
+        StoragePolicy policy = replicationService.defaultPolicy();
+        StorageNode node = storageRoutingService.selectNode(policy, contentHash, size);
         StorageAdapter adapter = storageRoutingService.getAdapter(node.nodeId());
 
         // 构建存储路径
@@ -196,16 +213,22 @@ public class FileService {
         log.debug("File uploaded to storage: path={}", result.path());
 
         // 创建存储副本
-        StorageCopy copy = StorageCopy.create(node.nodeId(), result.path());
+        StorageCopy copy = StorageCopy.create(node.nodeId(), result.path(), node.tier());
 
-        // 创建并激活 FileInfo
+        // 创建并激活 FileInfo，其余副本登记为 PENDING，事务提交后后台复制
         FileInfo fileInfo = FileInfo.createPending(contentHash, size, contentType);
         fileInfo = fileInfo.activate(copy);
-        return fileInfoRepository.save(fileInfo);
+        fileInfo = fileInfo.addCopies(replicationService.planReplicas(policy, fileInfo));
+        contentHashIndex.add(contentHash);
+        FileInfo saved = fileInfoRepository.save(fileInfo);
+        replicationService.replicateAfterCommit(saved);
+        return saved;
     }
 
     /**
      * 下载文件
+     * <p>
+     * 在可读副本中按延迟选择，慢时对冲、失败时切换到其他副本（见 {@link ReplicaReadService}）。
      *
      * @param fileKey 文件唯一标识 (fKey)
      * @return 文件资源
@@ -214,8 +237,8 @@ public class FileService {
     public Resource download(String fileKey) {
         log.debug("Downloading file: fKey={}", fileKey);
 
-        StorageAccess access = resolveStorageAccess(fileKey);
-        return access.adapter().download(access.copy().path());
+        FileInfo fileInfo = resolveFileInfo(fileKey);
+        return replicaReadService.read(fileInfo.contentHash(), fileInfo.copies());
     }
 
     /**
@@ -289,15 +312,16 @@ public class FileService {
             return reference;
         }
         
-        // 2. 查找或创建 FileInfo
-        FileInfo fileInfo;
-        Optional<FileInfo> existingInfo = fileInfoRepository.findByContentHash(contentHash);
-        if (existingInfo.isPresent()) {
+        // 2. 复用或创建 FileInfo（引用计数更新 0 行即不存在或已被回收，无需先查询；
+        //    过滤器判定一定不存在时连更新也跳过）
+        Optional<FileRefCount> reused = contentHashIndex.mightExist(contentHash)
+                ? deduplicationService.tryIncrementReference(contentHash)
+                : Optional.empty();
+        if (reused.isPresent()) {
             // 去重：已存在相同 contentHash，增加引用计数
-            log.info("File deduplication: contentHash={}", contentHash);
-            fileInfo = deduplicationService.incrementReference(contentHash);
+            log.info("File deduplication: contentHash={}, refCount={}", contentHash, reused.get().refCount());
         } else {
-            // 新文件：创建 FileInfo 并添加存储副本
+            // 新文件（或恰好被 GC 回收）：创建 FileInfo 并添加存储副本
             FileInfo newInfo = FileInfo.createPending(
                     contentHash, 
                     reference.size(), 
@@ -305,7 +329,9 @@ public class FileService {
             );
             StorageCopy copy = StorageCopy.create(nodeId, storagePath);
             newInfo = newInfo.activate(copy);
-            fileInfo = fileInfoRepository.save(newInfo);
+            newInfo = newInfo.addCopies(replicationService.planReplicas(replicationService.defaultPolicy(), newInfo));
+            contentHashIndex.add(contentHash);
+            replicationService.replicateAfterCommit(fileInfoRepository.save(newInfo));
         }
         
         // 3. 绑定 contentHash 到 FileReference
@@ -322,9 +348,18 @@ public class FileService {
      * <p>
      * 用于批量处理衍生文件的激活，减少数据库交互次数，提高性能。
      * 采用延迟激活机制：衍生文件先创建 PENDING 状态，在 callback chain 结束后统一激活。
+     * <p>
+     * 语句数与文件数无关（除每个已存在的 contentHash 一条 UPDATE 外）：
+     * <ol>
+     *   <li>一条 IN 查询加载全部 FileReference</li>
+     *   <li>一条 IN 查询确定已存在的 contentHash（过滤器判定一定不存在的不参与查询）</li>
+     *   <li>已存在的 contentHash 按引用数一次性增加引用计数</li>
+     *   <li>新 FileInfo 只 INSERT、已加载的 FileReference 直接 UPDATE，均由 JDBC 批处理提交</li>
+     * </ol>
+     * 任一 fKey 不存在时整批失败，不做任何修改。
      *
      * @param activations 待激活信息 Map：fKey -> PendingActivation(contentHash, storagePath, nodeId)
-     * @throws IllegalArgumentException 如果 activations 为空或包含无效数据
+     * @throws FileServiceException 如果存在找不到的 fKey
      */
     @Transactional
     public void activateFilesInBatch(Map<String, PendingActivationsContext.PendingActivation> activations) {
@@ -334,33 +369,74 @@ public class FileService {
         }
         
         log.info("Batch activating {} files", activations.size());
-        int successCount = 0;
-        int failureCount = 0;
-        
-        for (var entry : activations.entrySet()) {
-            String fKey = entry.getKey();
-            var activation = entry.getValue();
-            
-            try {
-                activateFile(fKey, activation.contentHash(), activation.storagePath(), activation.nodeId());
-                successCount++;
-            } catch (Exception e) {
-                failureCount++;
-                log.error("Failed to activate file in batch: fKey={}, hash={}", fKey, activation.contentHash(), e);
-                // 继续处理其他文件，不中断整个批次
-            }
-        }
         
-        log.info("Batch activation completed: success={}, failure={}", successCount, failureCount);
-        
-        if (failureCount > 0) {
+        // 1. 加载全部 FileReference
+        Map<String, FileReference> references = fileReferenceRepository.findByFKeys(activations.keySet()).stream()
+                .collect(Collectors.toMap(FileReference::fKey, Function.identity()));
+        List<String> missing = activations.keySet().stream()
+                .filter(fKey -> !references.containsKey(fKey))
+                .toList();
+        if (!missing.isEmpty()) {
+            log.error("Failed to activate files in batch, references not found: {}", missing);
             throw new FileServiceException(
                     ResultCode.INTERNAL_ERROR,
-                    String.format("Batch activation partially failed: %d/%d files activated successfully", 
-                            successCount, activations.size()),
+                    String.format("Batch activation failed: %d/%d files not found", 
+                            missing.size(), activations.size()),
                     null
             );
         }
+        
+        // 2. 按 contentHash 分组待绑定的引用
+        Map<String, List<FileReference>> byHash = new LinkedHashMap<>();
+        for (var entry : activations.entrySet()) {
+            FileReference reference = references.get(entry.getKey());
+            if (reference.isBound()) {
+                log.warn("File already activated: fKey={}", entry.getKey());
+                continue;
+            }
+            byHash.computeIfAbsent(entry.getValue().contentHash(), hash -> new ArrayList<>()).add(reference);
+        }
+        if (byHash.isEmpty()) {
+            return;
+        }
+        
+        // 3. 已存在的 contentHash 增加引用计数，其余创建 FileInfo
+        Set<String> candidates = byHash.keySet().stream()
+                .filter(contentHashIndex::mightExist)
+                .collect(Collectors.toSet());
+        Set<String> existing = fileInfoRepository.findExistingHashes(candidates);
+        List<FileInfo> created = new ArrayList<>();
+        List<FileReference> bound = new ArrayList<>();
+        for (var group : byHash.entrySet()) {
+            String contentHash = group.getKey();
+            List<FileReference> refs = group.getValue();
+            boolean reused = existing.contains(contentHash)
+                    && fileInfoRepository.incrementRefCount(contentHash, refs.size()) > 0;
+            if (!reused && existing.contains(contentHash)) {
+                deduplicationService.rejectIfCollecting(contentHash);
+            }
+            if (reused) {
+                log.info("File deduplication: contentHash={}, references={}", contentHash, refs.size());
+            } else {
+                // 新文件（或恰好被 GC 回收）：以第一个引用的上传位置创建 FileInfo
+                FileReference first = refs.get(0);
+                var activation = activations.get(first.fKey());
+                FileInfo newInfo = FileInfo.createPending(contentHash, first.size(), first.contentType())
+                        .incrementRef(refs.size() - 1)
+                        .activate(StorageCopy.create(activation.nodeId(), activation.storagePath()));
+                newInfo = newInfo.addCopies(replicationService.planReplicas(replicationService.defaultPolicy(), newInfo));
+                created.add(newInfo);
+            }
+            refs.forEach(reference -> bound.add(reference.bindContent(contentHash, contentHash)));
+        }
+        created.forEach(info -> contentHashIndex.add(info.contentHash()));
+        fileInfoRepository.insertAll(created);
+        created.forEach(replicationService::replicateAfterCommit);
+        
+        // 4. 绑定 contentHash 到 FileReference
+        fileReferenceRepository.saveAll(bound);
+        
+        log.info("Batch activation completed: activated={}, newFiles={}", bound.size(), created.size());
     }
 
     /**
@@ -408,6 +484,39 @@ public class FileService {
         log.info("File deleted: fKey={}", fileKey);
     }
 
+    /**
+     * 批量删除文件
+     * <p>
+     * 语义与 {@link #delete(String)} 相同，但按批执行：一次查询加载引用，
+     * 按 contentHash 合并后每个物理文件只更新一次引用计数，引用用单条语句删除。
+     * 不存在的 fKey 被忽略（已被删除），因此可安全重试。
+     *
+     * @param fileKeys 文件唯一标识集合
+     * @return 实际删除的文件数
+     */
+    @Transactional
+    public int deleteAll(Collection<String> fileKeys) {
+        if (fileKeys.isEmpty()) {
+            return 0;
+        }
+        List<FileReference> references = fileReferenceRepository.findByFKeys(fileKeys);
+        if (references.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Long> refsByHash = references.stream()
+                .filter(FileReference::isBound)
+                .collect(Collectors.groupingBy(FileReference::contentHash, Collectors.counting()));
+        refsByHash.forEach((contentHash, count) ->
+                fileInfoRepository.decrementRefCount(contentHash, count.intValue()));
+
+        int deleted = fileReferenceRepository.deleteByFKeys(
+                references.stream().map(FileReference::fKey).toList());
+        log.info("Files deleted in batch: requested={}, deleted={}, contents={}",
+                fileKeys.size(), deleted, refsByHash.size());
+        return deleted;
+    }
+
     /**
      * 获取预签名 URL
      *
@@ -465,6 +574,26 @@ public class FileService {
      * @throws DataCorruptedException  数据一致性异常（物理文件丢失或无可用副本）
      */
     private StorageAccess resolveStorageAccess(String fileKey) {
+        FileInfo fileInfo = resolveFileInfo(fileKey);
+
+        StorageCopy copy = storageRoutingService.selectReadCopy(fileInfo.contentHash(), fileInfo.copies())
+                .orElseThrow(() -> new DataCorruptedException("No available copy: " + fileInfo.contentHash()));
+
+        StorageAdapter adapter = storageRoutingService.getAdapter(copy.nodeId());
+
+        return new StorageAccess(copy, adapter);
+    }
+
+    /**
+     * 解析文件对应的物理文件
+     *
+     * @param fileKey 文件唯一标识 (fKey)
+     * @return 物理文件信息
+     * @throws NotFoundException.FileNotFoundException   文件不存在
+     * @throws FileNotReadyException   文件未就绪（PENDING 状态）
+     * @throws DataCorruptedException  数据一致性异常（物理文件丢失）
+     */
+    private FileInfo resolveFileInfo(String fileKey) {
         FileReference reference = fileReferenceRepository.findByFKey(fileKey)
                 .orElseThrow(() -> new NotFoundException.FileNotFoundException(fileKey));
 
@@ -474,13 +603,9 @@ public class FileService {
 
         FileInfo fileInfo = fileInfoRepository.findByContentHash(reference.contentHash())
                 .orElseThrow(() -> new DataCorruptedException("Physical file missing: " + reference.contentHash()));
-
-        StorageCopy primaryCopy = fileInfo.getPrimaryCopy()
-                .orElseThrow(() -> new DataCorruptedException("No available copy: " + reference.contentHash()));
-
-        StorageAdapter adapter = storageRoutingService.getAdapter(primaryCopy.nodeId());
-
-        return new StorageAccess(primaryCopy, adapter);
+        // 下载和预签名都经过这里，作为冷热分层的访问统计来源
+        accessTracker.record(fileInfo.contentHash());
+        return fileInfo;
     }
 
     /**
@@ -516,6 +641,17 @@ public class FileService {
      * 领域对象转 DTO
      */
     private FileInfoDto toDto(FileReference ref, FileInfo info) {
+        return info != null
+                ? toDto(ref, info.contentHash(), primaryCopyOf(info))
+                : toDto(ref, null, null);
+    }
+
+    /**
+     * 转换为 DTO
+     *
+     * @param primaryCopy 主副本，为 null 时不返回存储位置
+     */
+    private FileInfoDto toDto(FileReference ref, String contentHash, StorageCopy primaryCopy) {
         FileIdentity identity = FileIdentity.builder()
                 .fKey(ref.fKey())
                 .fileName(ref.filename())
@@ -525,12 +661,11 @@ public class FileService {
                 .build();
 
         StorageRef storageRef = null;
-        if (info != null && !info.copies().isEmpty()) {
-            StorageCopy copy = info.getPrimaryCopy().orElse(info.copies().get(0));
+        if (primaryCopy != null) {
             storageRef = StorageRef.builder()
-                    .storageType(copy.nodeId())  // Phase 1: nodeId 即 type
-                    .path(copy.path())
-                    .eTag(info.contentHash())
+                    .storageType(primaryCopy.nodeId())  // Phase 1: nodeId 即 type
+                    .path(primaryCopy.path())
+                    .eTag(contentHash)
                     .build();
         }
 
@@ -545,6 +680,10 @@ public class FileService {
                 .build();
     }
 
+    private static StorageCopy primaryCopyOf(FileInfo info) {
+        return info.copies().isEmpty() ? null : info.getPrimaryCopy().orElse(info.copies().get(0));
+    }
+
     /**
      * 查询条件转规约
      */
@@ -0,0 +1,269 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import tech.icc.filesrv.common.exception.DataCorruptedException;
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.infra.config.StorageRoutingProperties;
+import tech.icc.filesrv.core.infra.storage.LatencyWindow;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 副本感知读取服务
+ * <p>
+ * 下载时不再固定读取第一个副本：
+ * <ul>
+ *   <li>候选副本由 {@link StorageRoutingService#rankReadCopies} 排序：ACTIVE、节点可读、实测延迟低者优先</li>
+ *   <li>失败切换：当前副本读取失败时立即尝试下一个副本，全部失败才抛出 {@link StorageUnavailableException}</li>
+ *   <li>对冲请求：首个请求超过最近读取延迟的 p95（可配置）仍未返回时，向下一个副本再发一个请求，
+ *       取先成功者，另一个结果到达后关闭释放</li>
+ *   <li>对冲预算：对冲请求数不超过读取请求的固定比例，存储整体变慢时不会把请求量翻倍</li>
+ * </ul>
+ * 这里的"读取"指打开对象（拿到首字节），之后的数据流式传输不做对冲。
+ */
+@Service
+public class ReplicaReadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaReadService.class);
+
+    /** 对冲预算以千分之一个请求为单位累积，最多攒 10 个 */
+    private static final long BUDGET_UNIT = 1000;
+    private static final long BUDGET_CAP = 10 * BUDGET_UNIT;
+
+    private final StorageRoutingService storageRoutingService;
+    private final StorageRoutingProperties.Hedge hedge;
+    private final ThreadPoolExecutor executor;
+    private final LatencyWindow latencies = new LatencyWindow(1024, 50);
+    private final AtomicLong hedgeBudget = new AtomicLong(BUDGET_CAP);
+
+    private final Counter hedgedCounter;
+    private final Counter hedgeWonCounter;
+    private final Counter failoverCounter;
+
+    public ReplicaReadService(StorageRoutingService storageRoutingService,
+                              StorageRoutingProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.storageRoutingService = storageRoutingService;
+        this.hedge = properties.getHedge();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, hedge.getMaxThreads(), 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "replica-read-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.hedgedCounter = Counter.builder("file.read.hedged")
+                .description("Hedged read requests launched")
+                .register(meterRegistry);
+        this.hedgeWonCounter = Counter.builder("file.read.hedge.won")
+                .description("Hedged read requests that returned first")
+                .register(meterRegistry);
+        this.failoverCounter = Counter.builder("file.read.failover")
+                .description("Reads retried on another replica after a failure")
+                .register(meterRegistry);
+        Gauge.builder("file.read.hedge.delay", this, s -> s.hedgeDelayNanos() / 1_000_000.0)
+                .description("Current hedge delay in milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取文件内容
+     *
+     * @param contentHash 内容哈希
+     * @param copies      文件的副本列表
+     * @return 文件资源
+     * @throws DataCorruptedException      没有可读副本
+     * @throws StorageUnavailableException 所有可读副本均读取失败
+     */
+    public Resource read(String contentHash, List<StorageCopy> copies) {
+        List<StorageCopy> ranked = storageRoutingService.rankReadCopies(contentHash, copies);
+        if (ranked.isEmpty()) {
+            throw new DataCorruptedException("No available copy: " + contentHash);
+        }
+        hedgeBudget.updateAndGet(b -> Math.min(BUDGET_CAP, b + (long) (hedge.getBudgetRatio() * BUDGET_UNIT)));
+        if (ranked.size() == 1) {
+            return readInline(contentHash, ranked);
+        }
+        return readConcurrently(contentHash, ranked);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 当前对冲延迟：最近读取延迟的分位数，限制在 [min, max] 内
+     */
+    long hedgeDelayNanos() {
+        long quantile = latencies.quantile(hedge.getPercentile());
+        long delay = quantile > 0 ? quantile : hedge.getDefaultDelay().toNanos();
+        return Math.max(hedge.getMinDelay().toNanos(), Math.min(hedge.getMaxDelay().toNanos(), delay));
+    }
+
+    /**
+     * 在调用线程中按顺序读取（单副本，或读取线程池已满）
+     */
+    private Resource readInline(String contentHash, List<StorageCopy> ranked) {
+        RuntimeException lastError = null;
+        for (StorageCopy copy : ranked) {
+            Outcome outcome = attempt(copy, false);
+            if (outcome.resource() != null) {
+                return outcome.resource();
+            }
+            lastError = outcome.error();
+            failoverCounter.increment();
+        }
+        throw new StorageUnavailableException("All replicas failed: " + contentHash, lastError);
+    }
+
+    private Resource readConcurrently(String contentHash, List<StorageCopy> ranked) {
+        BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        AtomicBoolean settled = new AtomicBoolean();
+        if (!launch(ranked.get(0), false, outcomes, settled)) {
+            return readInline(contentHash, ranked);
+        }
+        int next = 1;
+        int running = 1;
+        boolean hedgeDone = !hedge.isEnabled();
+        RuntimeException lastError = null;
+        try {
+            while (running > 0) {
+                Outcome outcome;
+                if (!hedgeDone && next < ranked.size()) {
+                    outcome = outcomes.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+                    if (outcome == null) {
+                        hedgeDone = true;
+                        if (tryAcquireHedge() && launch(ranked.get(next), true, outcomes, settled)) {
+                            next++;
+                            running++;
+                            hedgedCounter.increment();
+                        }
+                        continue;
+                    }
+                } else {
+                    outcome = outcomes.take();
+                }
+                running--;
+                if (outcome.resource() != null) {
+                    if (outcome.hedged()) {
+                        hedgeWonCounter.increment();
+                    }
+                    settle(settled, outcomes, outcome);
+                    return outcome.resource();
+                }
+                lastError = outcome.error();
+                if (next < ranked.size()) {
+                    failoverCounter.increment();
+                    if (!launch(ranked.get(next), false, outcomes, settled)) {
+                        settle(settled, outcomes, null);
+                        return readInline(contentHash, ranked.subList(next, ranked.size()));
+                    }
+                    next++;
+                    running++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            settle(settled, outcomes, null);
+            throw new StorageUnavailableException("Interrupted while reading: " + contentHash, e);
+        }
+        settle(settled, outcomes, null);
+        throw new StorageUnavailableException("All replicas failed: " + contentHash, lastError);
+    }
+
+    /**
+     * 在读取线程池中发起一次读取
+     *
+     * @return 线程池已满时返回 false
+     */
+    private boolean launch(StorageCopy copy, boolean hedged, BlockingQueue<Outcome> outcomes, AtomicBoolean settled) {
+        try {
+            executor.execute(() -> {
+                outcomes.add(attempt(copy, hedged));
+                // 结果已经确定时，由迟到的一方负责清理，避免资源泄漏
+                if (settled.get()) {
+                    drain(outcomes, null);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Replica read pool saturated: node={}", copy.nodeId());
+            return false;
+        }
+    }
+
+    private Outcome attempt(StorageCopy copy, boolean hedged) {
+        long start = System.nanoTime();
+        try {
+            Resource resource = storageRoutingService.getAdapter(copy.nodeId()).download(copy.path());
+            latencies.record(System.nanoTime() - start);
+            return new Outcome(resource, null, hedged);
+        } catch (RuntimeException e) {
+            log.warn("Replica read failed: node={}, path={}", copy.nodeId(), copy.path(), e);
+            return new Outcome(null, e, hedged);
+        }
+    }
+
+    private boolean tryAcquireHedge() {
+        long current;
+        do {
+            current = hedgeBudget.get();
+            if (current < BUDGET_UNIT) {
+                return false;
+            }
+        } while (!hedgeBudget.compareAndSet(current, current - BUDGET_UNIT));
+        return true;
+    }
+
+    private void settle(AtomicBoolean settled, BlockingQueue<Outcome> outcomes, Outcome winner) {
+        settled.set(true);
+        drain(outcomes, winner);
+    }
+
+    private void drain(BlockingQueue<Outcome> outcomes, Outcome winner) {
+        Outcome late;
+        while ((late = outcomes.poll()) != null) {
+            if (late != winner && late.resource() != null) {
+                closeQuietly(late.resource());
+            }
+        }
+    }
+
+    private static void closeQuietly(Resource resource) {
+        if (!resource.isOpen()) {
+            return;
+        }
+        try {
+            resource.getInputStream().close();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Failed to release losing replica read: {}", resource.getDescription(), e);
+        }
+    }
+
+    /**
+     * 单次读取结果
+     */
+    private record Outcome(Resource resource, RuntimeException error, boolean hedged) {
+    }
+}
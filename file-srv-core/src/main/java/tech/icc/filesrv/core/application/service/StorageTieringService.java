@@ -0,0 +1,336 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageNode;
+import tech.icc.filesrv.core.domain.storage.StoragePolicy;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
+import tech.icc.filesrv.core.infra.config.TieringProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.storage.AccessFrequencyTracker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 冷热分层迁移服务
+ * <p>
+ * 根据访问频率在不同层级的存储节点之间迁移副本：
+ * <ul>
+ *   <li>访问统计：下载路径经 {@link AccessFrequencyTracker} 采样计数，按窗口批量回写最近访问时间和访问次数</li>
+ *   <li>降温：定期扫描（见 {@code StorageTieringTask}）长时间未访问的副本，HOT → WARM → COLD 逐级迁移到更便宜的节点；
+ *       多节点部署时只由 leader 节点扫描，避免同一副本被多个节点重复迁移</li>
+ *   <li>升温：一个统计窗口内访问次数达到阈值、且没有 HOT 副本的内容迁回 HOT</li>
+ *   <li>限流：每次扫描最多迁移固定数量的副本，迁移在有界线程池中执行，队列满时留给下次扫描</li>
+ * </ul>
+ * 单个副本的迁移过程保证任何时刻都至少有一个 ACTIVE 副本可读：
+ * 新副本以 PENDING 登记 → 复制数据 → 新副本 ACTIVE → 旧副本 MIGRATING（不再被读取）→
+ * 宽限期后删除旧对象和副本行。中途失败时撤销新副本，旧副本不受影响。
+ * <p>
+ * 指标：{@code file.tiering.migrations}（按方向和结果）、{@code file.tiering.bytes}、
+ * {@code file.tiering.in_flight}。
+ */
+@Service
+public class StorageTieringService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageTieringService.class);
+
+    private final FileInfoRepository fileInfoRepository;
+    private final StorageRoutingService storageRoutingService;
+    private final AccessFrequencyTracker accessTracker;
+    private final TieringProperties properties;
+    private final MaintenanceCoordinator coordinator;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor workers;
+    private final TaskScheduler taskScheduler;
+    private final Set<String> inFlightCopies = ConcurrentHashMap.newKeySet();
+    private final Set<String> retiringCopies = ConcurrentHashMap.newKeySet();
+    private final Counter bytesCounter;
+
+    public StorageTieringService(FileInfoRepository fileInfoRepository,
+                                 StorageRoutingService storageRoutingService,
+                                 AccessFrequencyTracker accessTracker,
+                                 TieringProperties properties,
+                                 MaintenanceCoordinator coordinator,
+                                 TaskScheduler taskScheduler,
+                                 MeterRegistry meterRegistry) {
+        this.fileInfoRepository = fileInfoRepository;
+        this.storageRoutingService = storageRoutingService;
+        this.accessTracker = accessTracker;
+        this.properties = properties;
+        this.coordinator = coordinator;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger workerCounter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                properties.getWorkerThreads(), properties.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getBatchSize())),
+                r -> {
+                    Thread t = new Thread(r, "storage-tiering-" + workerCounter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.bytesCounter = Counter.builder("file.tiering.bytes")
+                .description("Bytes copied by tier migrations")
+                .register(meterRegistry);
+        Gauge.builder("file.tiering.in_flight", inFlightCopies, Set::size)
+                .description("Tier migrations submitted but not yet finished")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 回写访问统计，并把窗口内的热点内容迁回 HOT
+     */
+    public void flushAccess() {
+        try {
+            Map<String, Long> counts = accessTracker.drain();
+            if (counts.isEmpty()) {
+                return;
+            }
+            fileInfoRepository.recordAccess(counts, Instant.now());
+            counts.forEach((contentHash, count) -> {
+                if (count >= properties.getPromoteThreshold()) {
+                    promote(contentHash);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Access statistics flush failed", e);
+        }
+    }
+
+    /**
+     * 降温扫描：HOT → WARM、WARM → COLD
+     */
+    public void demoteIdle() {
+        try {
+            if (!coordinator.isLeader("storage-tiering")) {
+                return;
+            }
+            retireLeftovers();
+            int budget = properties.getBatchSize();
+            budget -= demote(StorageTier.HOT, StorageTier.WARM, properties.getWarmAfter(), budget);
+            demote(StorageTier.WARM, StorageTier.COLD, properties.getColdAfter(), budget);
+        } catch (RuntimeException e) {
+            log.warn("Tier demotion scan failed", e);
+        }
+    }
+
+    /**
+     * 把内容的一个非 HOT 副本迁回 HOT（已有 HOT 副本时不处理）
+     */
+    void promote(String contentHash) {
+        Optional<FileInfo> found = fileInfoRepository.findByContentHash(contentHash);
+        if (found.isEmpty()) {
+            return;
+        }
+        FileInfo fileInfo = found.get();
+        List<StorageCopy> available = fileInfo.copies().stream().filter(StorageCopy::isAvailable).toList();
+        if (available.isEmpty() || available.stream().anyMatch(copy -> copy.tier() == StorageTier.HOT)) {
+            return;
+        }
+        // 优先迁移离 HOT 最近（读取最快）的副本
+        StorageCopy source = available.stream()
+                .max(Comparator.comparingInt(copy -> copy.tier().getCostLevel()))
+                .orElseThrow();
+        submit(fileInfo, source, StorageTier.HOT, "promote");
+    }
+
+    /**
+     * 迁移单个副本到目标层级（在调用线程中执行）
+     *
+     * @return 是否完成迁移
+     */
+    boolean migrate(FileInfo fileInfo, StorageCopy source, StorageTier targetTier, String direction) {
+        String contentHash = fileInfo.contentHash();
+        Set<String> occupied = fileInfo.copies().stream()
+                .map(StorageCopy::nodeId)
+                .collect(Collectors.toSet());
+        StoragePolicy policy = StoragePolicy.defaultPolicy().withPreferredTier(targetTier);
+        long size = fileInfo.size() != null ? fileInfo.size() : 0L;
+        List<StorageNode> candidates = storageRoutingService.selectReplicaNodes(
+                policy, contentHash, size, occupied, 1);
+        if (candidates.isEmpty() || candidates.get(0).tier() != targetTier) {
+            // 目标层级没有可写节点：不回退到其他层级，保持原样
+            log.debug("No writable node in tier {}, skip migration: contentHash={}", targetTier, contentHash);
+            counter(direction, "skipped").increment();
+            return false;
+        }
+        StorageNode node = candidates.get(0);
+        StorageCopy replacement = StorageCopy.create(node.nodeId(), source.path(), targetTier);
+
+        if (!fileInfoRepository.addCopy(contentHash, replacement)) {
+            // 目标节点上已有副本（其他节点并发晋升了同一文件），不再复制
+            log.debug("Copy already exists on node {}, skip migration: contentHash={}", node.nodeId(), contentHash);
+            counter(direction, "skipped").increment();
+            return false;
+        }
+        try {
+            copy(fileInfo.contentType(), source, replacement);
+        } catch (Exception e) {
+            log.warn("Tier migration failed: contentHash={}, {} -> {}", contentHash, source.nodeId(), node.nodeId(), e);
+            fileInfoRepository.removeCopy(contentHash, replacement.copyId(), CopyStatus.PENDING);
+            deleteObjectQuietly(replacement);
+            counter(direction, "failure").increment();
+            return false;
+        }
+        if (fileInfoRepository.updateCopyStatus(contentHash, replacement.copyId(),
+                CopyStatus.PENDING, CopyStatus.ACTIVE) == 0) {
+            // 新副本已被并发清理（如文件被回收）
+            deleteObjectQuietly(replacement);
+            counter(direction, "aborted").increment();
+            return false;
+        }
+        if (fileInfoRepository.updateCopyStatus(contentHash, source.copyId(),
+                CopyStatus.ACTIVE, CopyStatus.MIGRATING) == 0) {
+            // 旧副本状态已被并发修改，保留两个副本，不做删除
+            counter(direction, "aborted").increment();
+            return false;
+        }
+        bytesCounter.increment(size);
+        counter(direction, "success").increment();
+        log.info("Copy migrated: contentHash={}, {}({}) -> {}({})",
+                contentHash, source.nodeId(), source.tier(), node.nodeId(), targetTier);
+        scheduleRetire(contentHash, source, properties.getDeleteGrace());
+        return true;
+    }
+
+    /**
+     * 旧副本宽限期结束：删除对象和副本行
+     */
+    void retire(String contentHash, StorageCopy copy) {
+        try {
+            storageRoutingService.getAdapter(copy.nodeId()).delete(copy.path());
+            fileInfoRepository.removeCopy(contentHash, copy.copyId(), CopyStatus.MIGRATING);
+        } catch (RuntimeException e) {
+            // 保持 MIGRATING，下次降温扫描时重试
+            log.warn("Failed to delete migrated copy: contentHash={}, node={}", contentHash, copy.nodeId(), e);
+        } finally {
+            retiringCopies.remove(copy.copyId());
+        }
+    }
+
+    private int demote(StorageTier from, StorageTier to, Duration idleAfter, int budget) {
+        if (idleAfter == null || idleAfter.isZero() || budget <= 0) {
+            return 0;
+        }
+        List<FileInfo> files = fileInfoRepository.findIdleFiles(from, Instant.now().minus(idleAfter), budget);
+        int submitted = 0;
+        for (FileInfo fileInfo : files) {
+            for (StorageCopy copy : fileInfo.copies()) {
+                if (submitted >= budget) {
+                    return submitted;
+                }
+                if (copy.isAvailable() && copy.tier() == from && submit(fileInfo, copy, to, "demote")) {
+                    submitted++;
+                }
+            }
+        }
+        if (submitted > 0) {
+            log.info("Submitted tier demotions: {} -> {}, copies={}", from, to, submitted);
+        }
+        return submitted;
+    }
+
+    /**
+     * 进程重启等原因遗留的 MIGRATING 副本：新副本已 ACTIVE，宽限期已过的旧副本直接删除
+     */
+    private void retireLeftovers() {
+        // 按进入 MIGRATING 的时间判断：宽限期内的旧副本可能仍有读取在进行，由迁移时排定的任务删除
+        Instant before = Instant.now().minus(properties.getDeleteGrace());
+        fileInfoRepository.findCopiesByStatusChangedBefore(CopyStatus.MIGRATING, before, properties.getBatchSize())
+                .forEach((contentHash, copies) ->
+                        copies.forEach(copy -> scheduleRetire(contentHash, copy, Duration.ZERO)));
+    }
+
+    private boolean submit(FileInfo fileInfo, StorageCopy source, StorageTier targetTier, String direction) {
+        if (!inFlightCopies.add(source.copyId())) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    migrate(fileInfo, source, targetTier, direction);
+                } catch (RuntimeException e) {
+                    log.warn("Tier migration aborted: contentHash={}", fileInfo.contentHash(), e);
+                } finally {
+                    inFlightCopies.remove(source.copyId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 达到并发上限：留给下次扫描
+            inFlightCopies.remove(source.copyId());
+            return false;
+        }
+    }
+
+    private void scheduleRetire(String contentHash, StorageCopy copy, Duration delay) {
+        if (!retiringCopies.add(copy.copyId())) {
+            return;
+        }
+        try {
+            taskScheduler.schedule(() -> retire(contentHash, copy), Instant.now().plus(delay));
+        } catch (RuntimeException e) {
+            // 正在关闭，遗留的 MIGRATING 副本由重启后的扫描处理
+            retiringCopies.remove(copy.copyId());
+        }
+    }
+
+    private void copy(String contentType, StorageCopy source, StorageCopy target) throws IOException {
+        StorageAdapter sourceAdapter = storageRoutingService.getAdapter(source.nodeId());
+        StorageAdapter targetAdapter = storageRoutingService.getAdapter(target.nodeId());
+        try (InputStream content = sourceAdapter.download(source.path()).getInputStream()) {
+            targetAdapter.upload(target.path(), content, contentType);
+        }
+    }
+
+    private void deleteObjectQuietly(StorageCopy copy) {
+        try {
+            storageRoutingService.getAdapter(copy.nodeId()).delete(copy.path());
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete abandoned copy: node={}, path={}", copy.nodeId(), copy.path(), e);
+        }
+    }
+
+    private Counter counter(String direction, String status) {
+        return Counter.builder("file.tiering.migrations")
+                .tag("direction", direction)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,238 @@
+package tech.icc.filesrv.core.application.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import tech.icc.filesrv.common.domain.events.TaskFailedEvent;
+import tech.icc.filesrv.common.spi.event.TaskEventPublisher;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.common.spi.storage.UploadSession;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.domain.tasks.TaskRepository;
+import tech.icc.filesrv.core.infra.config.TaskReaperProperties;
+import tech.icc.filesrv.core.infra.file.LocalFileManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 过期任务回收服务
+ * <p>
+ * 被放弃的上传任务会一直占用存储层的分片上传会话（已上传的分片持续计费）、本地临时目录和 upload_task 行。
+ * 本服务按批回收：
+ * <ul>
+ *   <li>过期：条件更新批量标记 EXPIRED（并发完成或中止的任务不受影响），
+ *       并发中止实际被标记任务的上传会话，发布过期事件</li>
+ *   <li>清理：删除结束超过保留期的任务行</li>
+ *   <li>本地清理：删除本节点临时根目录下任务已结束、已不存在或存在过久的目录</li>
+ * </ul>
+ * 前两项只需集群中一个节点执行；本地临时目录分散在处理过任务的各节点上，本地清理由每个节点各自执行。
+ * 会话中止失败只记录日志：任务已进入终态，存储层的生命周期规则兜底清理未完成的分片。
+ */
+@Service
+public class TaskReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskReaper.class);
+
+    /**
+     * 本地清理时每次查询任务状态的 ID 数
+     */
+    private static final int LOCAL_SWEEP_BATCH = 500;
+
+    private final TaskRepository taskRepository;
+    private final StorageAdapter storageAdapter;
+    private final StorageRoutingService storageRoutingService;
+    private final LocalFileManager localFileManager;
+    private final TaskEventPublisher eventPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ExecutorService abortExecutor;
+
+    public TaskReaper(TaskRepository taskRepository,
+                      StorageAdapter storageAdapter,
+                      StorageRoutingService storageRoutingService,
+                      LocalFileManager localFileManager,
+                      TaskEventPublisher eventPublisher,
+                      ApplicationEventPublisher applicationEventPublisher,
+                      TaskReaperProperties properties) {
+        this.taskRepository = taskRepository;
+        this.storageAdapter = storageAdapter;
+        this.storageRoutingService = storageRoutingService;
+        this.localFileManager = localFileManager;
+        this.eventPublisher = eventPublisher;
+        this.applicationEventPublisher = applicationEventPublisher;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.abortExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getAbortConcurrency()), r -> {
+            Thread t = new Thread(r, "task-reaper-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 回收一批过期任务
+     *
+     * @param now   当前时间（过期阈值和标记时间）
+     * @param limit 最大处理数量
+     * @return 回收结果
+     */
+    public ExpireResult expireBatch(Instant now, int limit) {
+        List<TaskAggregate> candidates = taskRepository.findExpiredTasks(now, limit);
+        if (candidates.isEmpty()) {
+            return ExpireResult.EMPTY;
+        }
+        Set<String> expired = Set.copyOf(taskRepository.markExpired(
+                candidates.stream().map(TaskAggregate::getTaskId).toList(), now));
+        List<TaskAggregate> tasks = candidates.stream()
+                .filter(task -> expired.contains(task.getTaskId()))
+                .toList();
+
+        List<CompletableFuture<Boolean>> aborts = tasks.stream()
+                .filter(task -> task.getSessionId() != null)
+                .map(task -> CompletableFuture.supplyAsync(() -> abortSession(task), abortExecutor))
+                .toList();
+        int aborted = 0;
+        for (CompletableFuture<Boolean> abort : aborts) {
+            if (abort.join()) {
+                aborted++;
+            }
+        }
+
+        for (TaskAggregate task : tasks) {
+            TaskFailedEvent event = TaskFailedEvent.expired(task.getTaskId(), task.getFKey());
+            eventPublisher.publishFailed(event);
+            applicationEventPublisher.publishEvent(event);
+        }
+        if (!tasks.isEmpty()) {
+            log.info("Expired tasks reaped: expired={}, sessionsAborted={}, sessionFailures={}",
+                    tasks.size(), aborted, aborts.size() - aborted);
+        }
+        return new ExpireResult(candidates.size(), tasks.size(), aborted, aborts.size() - aborted);
+    }
+
+    /**
+     * 删除一批结束超过保留期的任务行
+     *
+     * @param finishedBefore 结束时间阈值
+     * @param limit          最大处理数量
+     * @return 删除的任务数
+     */
+    public int purgeBatch(Instant finishedBefore, int limit) {
+        List<String> taskIds = taskRepository.findCompletedTasksForCleanup(finishedBefore, limit).stream()
+                .map(TaskAggregate::getTaskId)
+                .toList();
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        taskRepository.deleteAllByTaskIds(taskIds);
+        log.debug("Finished tasks purged: count={}", taskIds.size());
+        return taskIds.size();
+    }
+
+    /**
+     * 清理本节点临时根目录下的残留任务目录
+     * <p>
+     * 任务已进入终态或行已删除的目录直接删除；任务仍未结束但目录超过 maxAge 未变化的同样删除。
+     * 最近 grace 内变化的目录不处理，避免误删任务行尚未提交时就创建的目录。
+     *
+     * @param now    当前时间
+     * @param grace  最近变化的目录的保护期
+     * @param maxAge 未结束任务目录的最长保留时间
+     * @return 删除的目录数
+     */
+    public int sweepLocal(Instant now, Duration grace, Duration maxAge) {
+        Instant settledBefore = now.minus(grace);
+        Instant staleBefore = now.minus(maxAge);
+        Map<String, Instant> directories = localFileManager.listTaskDirectories();
+        List<String> candidates = directories.entrySet().stream()
+                .filter(entry -> entry.getValue().isBefore(settledBefore))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> unfinished = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += LOCAL_SWEEP_BATCH) {
+            List<String> batch = candidates.subList(from, Math.min(from + LOCAL_SWEEP_BATCH, candidates.size()));
+            unfinished.addAll(taskRepository.findUnfinishedTaskIds(batch));
+        }
+
+        int removed = 0;
+        for (String taskId : candidates) {
+            if (!unfinished.contains(taskId) || directories.get(taskId).isBefore(staleBefore)) {
+                cleanupLocalQuietly(taskId);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Local task directories swept: removed={}, scanned={}", removed, directories.size());
+        }
+        return removed;
+    }
+
+    /**
+     * 统计过期但尚未回收的任务数
+     */
+    public long countBacklog(Instant now) {
+        return taskRepository.countExpiredTasks(now);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        abortExecutor.shutdownNow();
+    }
+
+    private boolean abortSession(TaskAggregate task) {
+        try {
+            String storagePath = storageRoutingService.buildStoragePath(task.getFKey(), task.getContentType());
+            UploadSession session;
+            try {
+                session = storageAdapter.resumeUpload(storagePath, task.getSessionId());
+            } catch (UnsupportedOperationException e) {
+                // 存储层不支持断点续传，没有可中止的会话
+                return true;
+            }
+            try (session) {
+                session.abort();
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to abort upload session of expired task: taskId={}, sessionId={}",
+                    task.getTaskId(), task.getSessionId(), e);
+            return false;
+        }
+    }
+
+    private void cleanupLocalQuietly(String taskId) {
+        try {
+            localFileManager.cleanup(taskId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to cleanup local files of task: taskId={}", taskId, e);
+        }
+    }
+
+    /**
+     * 一批过期回收的结果
+     *
+     * @param scanned        扫描到的过期候选数
+     * @param expired        实际标记为 EXPIRED 的任务数
+     * @param aborted        成功中止的上传会话数
+     * @param abortFailures  中止失败的上传会话数
+     */
+    public record ExpireResult(int scanned, int expired, int aborted, int abortFailures) {
+
+        public static final ExpireResult EMPTY = new ExpireResult(0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,144 @@
+package tech.icc.filesrv.core.application.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.icc.filesrv.common.domain.events.TaskFailedEvent;
+import tech.icc.filesrv.common.spi.event.TaskEventPublisher;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.domain.tasks.TaskRepository;
+import tech.icc.filesrv.core.infra.config.TaskRecoveryProperties;
+import tech.icc.filesrv.core.infra.executor.CallbackOutbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 停滞任务恢复服务
+ * <p>
+ * 执行节点在 callback 链中途宕机时，链所在的事务随连接断开回滚，任务停留在 PROCESSING，
+ * 而消息已被确认消费，不会再有节点处理它。本服务按批恢复这类任务：
+ * <ul>
+ *   <li>任务进入 PROCESSING 时获得处理租约（见 {@link TaskAggregate#grantLease}），
+ *       消息从发件箱交付给消息队列时租约重新计起</li>
+ *   <li>锁定租约到期的 PROCESSING 任务（SKIP LOCKED）：正在执行的链持有任务行锁，
+ *       仍在发件箱中等待转发的任务尚未交出，均不会被选中</li>
+ *   <li>重新登记到 callback 发件箱，由执行节点从 currentCallbackIndex 继续；新租约按恢复次数翻倍</li>
+ *   <li>恢复次数超过上限的任务标记为失败，避免反复压垮执行节点的任务无限重投</li>
+ * </ul>
+ */
+@Service
+public class TaskRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRecovery.class);
+
+    private final TaskRepository taskRepository;
+    private final CallbackOutbox callbackOutbox;
+    private final TaskEventPublisher eventPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TaskRecoveryProperties properties;
+
+    public TaskRecovery(TaskRepository taskRepository,
+                        CallbackOutbox callbackOutbox,
+                        TaskEventPublisher eventPublisher,
+                        ApplicationEventPublisher applicationEventPublisher,
+                        TaskRecoveryProperties properties) {
+        this.taskRepository = taskRepository;
+        this.callbackOutbox = callbackOutbox;
+        this.eventPublisher = eventPublisher;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.properties = properties;
+    }
+
+    /**
+     * 恢复一批租约到期的任务
+     *
+     * @param now   当前时间
+     * @param limit 最大处理数量
+     * @return 恢复结果
+     */
+    @Transactional
+    public RecoveryResult recoverBatch(Instant now, int limit) {
+        List<TaskAggregate> lapsed = taskRepository.lockLapsedProcessing(now, limit);
+        if (lapsed.isEmpty()) {
+            return RecoveryResult.EMPTY;
+        }
+
+        int republished = 0;
+        Duration maxLapse = Duration.ZERO;
+        List<TaskAggregate> exhausted = new ArrayList<>();
+        for (TaskAggregate task : lapsed) {
+            Duration lapse = Duration.between(task.getLeaseExpiresAt(), now);
+            if (lapse.compareTo(maxLapse) > 0) {
+                maxLapse = lapse;
+            }
+
+            if (task.getRecoveryAttempts() >= properties.getMaxAttempts()) {
+                task.markFailed("Callback chain stalled, recovery attempts exhausted: "
+                        + task.getRecoveryAttempts());
+                exhausted.add(taskRepository.save(task));
+                log.error("Stalled task failed after {} recovery attempts: taskId={}, callbackIndex={}",
+                        task.getRecoveryAttempts(), task.getTaskId(), task.getCurrentCallbackIndex());
+                continue;
+            }
+
+            int attempts = task.recordRecovery(now.plus(leaseFor(task.getRecoveryAttempts() + 1)));
+            taskRepository.save(task);
+            callbackOutbox.enqueue(task.getTaskId());
+            republished++;
+            log.warn("Stalled task republished: taskId={}, callbackIndex={}, attempts={}, lapsed={}",
+                    task.getTaskId(), task.getCurrentCallbackIndex(), attempts, lapse);
+        }
+
+        if (!exhausted.isEmpty()) {
+            publishFailedAfterCommit(exhausted);
+        }
+        return new RecoveryResult(lapsed.size(), republished, exhausted.size(), maxLapse);
+    }
+
+    /**
+     * 第 attempts 次恢复后的租约：处理租约按恢复次数翻倍，不超过上限
+     */
+    private Duration leaseFor(int attempts) {
+        Duration max = properties.getMaxLeaseTimeout();
+        Duration lease = properties.getLeaseTimeout().multipliedBy(1L << Math.min(attempts, 20));
+        return lease.compareTo(max) > 0 ? max : lease;
+    }
+
+    private void publishFailedAfterCommit(List<TaskAggregate> tasks) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (TaskAggregate task : tasks) {
+                    TaskFailedEvent event = TaskFailedEvent.callbackFailed(
+                            task.getTaskId(),
+                            task.getFKey(),
+                            task.getFailureReason(),
+                            task.getCurrentCallbackIndex()
+                    );
+                    eventPublisher.publishFailed(event);
+                    applicationEventPublisher.publishEvent(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * 一批恢复的结果
+     *
+     * @param scanned     锁定的租约到期任务数
+     * @param republished 重新投递的任务数
+     * @param exhausted   恢复次数耗尽、标记失败的任务数
+     * @param maxLapse    本批任务中租约到期最久的时长
+     */
+    public record RecoveryResult(int scanned, int republished, int exhausted, Duration maxLapse) {
+
+        public static final RecoveryResult EMPTY = new RecoveryResult(0, 0, 0, Duration.ZERO);
+    }
+}
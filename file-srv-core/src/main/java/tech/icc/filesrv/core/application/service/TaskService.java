@@ -4,6 +4,7 @@ import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.retry.annotation.Backoff;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tech.icc.filesrv.common.exception.NotFoundException;
 import tech.icc.filesrv.common.exception.validation.InvalidTaskIdException;
+import tech.icc.filesrv.common.utils.Uuids;
 import tech.icc.filesrv.common.vo.task.CallbackConfig;
 import tech.icc.filesrv.common.vo.task.FailureDetail;
 import tech.icc.filesrv.common.vo.task.FileRequest;
@@ -27,9 +29,10 @@ import tech.icc.filesrv.core.domain.services.StorageRoutingService;
 import tech.icc.filesrv.core.domain.tasks.PartInfo;
 import tech.icc.filesrv.common.spi.cache.TaskIdValidator;
 import tech.icc.filesrv.common.spi.event.TaskEventPublisher;
-import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
 import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
 import tech.icc.filesrv.core.domain.tasks.TaskRepository;
+import tech.icc.filesrv.core.infra.config.TaskRecoveryProperties;
+import tech.icc.filesrv.core.infra.executor.CallbackOutbox;
 import tech.icc.filesrv.core.infra.file.LocalFileManager;
 import tech.icc.filesrv.core.infra.plugin.PluginRegistry;
 import tech.icc.filesrv.common.spi.storage.PartETagInfo;
@@ -38,10 +41,9 @@ import tech.icc.filesrv.common.spi.storage.UploadSession;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
-import static java.util.UUID.randomUUID;
-
 /**
  * 任务服务
  * <p>
@@ -69,11 +71,13 @@ public class TaskService {
     private final StorageAdapter storageAdapter;
     private final PluginRegistry pluginRegistry;
     private final TaskEventPublisher eventPublisher;
-    private final CallbackTaskPublisher callbackPublisher;
+    private final CallbackOutbox callbackOutbox;
+    private final TaskRecoveryProperties recoveryProperties;
     private final LocalFileManager localFileManager;
     private final TaskIdValidator idValidator;
     private final FileService fileService;
     private final StorageRoutingService storageRoutingService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     // ==================== 命令操作 ====================
 
@@ -255,14 +259,18 @@ public class TaskService {
 
             // 更新任务状态
             task.completeUpload(finalPath, hash, totalSize, contentType, filename);
+            if (task.getStatus() == TaskStatus.PROCESSING) {
+                // 租约到期仍未被执行的任务由恢复扫描重新投递
+                task.grantLease(Instant.now().plus(recoveryProperties.getLeaseTimeout()));
+            }
             task = taskRepository.save(task);
 
             log.info("Upload completed: taskId={}, path={}, fKey={}", taskId, finalPath, task.getFKey());
 
-            // 发布 callback 任务到 Kafka（异步执行）
+            // 登记 callback 任务到发件箱（与任务状态同事务提交，由后台转发到 Kafka）
             if (task.getStatus() == TaskStatus.PROCESSING && task.hasCallbacks()) {
-                callbackPublisher.publish(taskId);
-                log.info("Callback task published: taskId={}", taskId);
+                callbackOutbox.enqueue(taskId);
+                log.info("Callback task enqueued: taskId={}", taskId);
             } else if (task.getStatus() == TaskStatus.COMPLETED) {
                 // 无 callback，已直接完成，发布完成事件
                 publishCompletedEvent(task);
@@ -359,6 +367,18 @@ public class TaskService {
         return toDto(task);
     }
 
+    /**
+     * 获取任务当前状态
+     * <p>
+     * 只读取任务聚合（缓存优先），不组装 DTO，供状态监听的轻量重检使用。
+     *
+     * @param taskId 任务标识
+     * @return 任务状态
+     */
+    public TaskStatus getTaskStatus(String taskId) {
+        return getTaskOrThrow(taskId).getStatus();
+    }
+
     /**
      * 查询任务列表（管理接口）
      *
@@ -389,6 +409,8 @@ public class TaskService {
                 task.getContext().getPluginOutputs()
         );
         eventPublisher.publishCompleted(event);
+        // 本地分发，唤醒等待该任务状态的长轮询 / SSE 连接
+        applicationEventPublisher.publishEvent(event);
     }
 
     private void publishFailedEvent(TaskAggregate task) {
@@ -404,6 +426,7 @@ public class TaskService {
             );
         }
         eventPublisher.publishFailed(event);
+        applicationEventPublisher.publishEvent(event);
     }
 
     // ==================== 辅助方法 ====================
@@ -441,8 +464,8 @@ public class TaskService {
     }
 
     private String generateFKey(FileRequest request) {
-        // 简单实现：使用 UUID
-        return randomUUID().toString();
+        // 时间有序 UUID（见 Uuids）
+        return Uuids.newId();
     }
 
     private String getNodeId() {
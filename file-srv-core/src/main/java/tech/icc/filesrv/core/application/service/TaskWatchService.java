@@ -0,0 +1,320 @@
+package tech.icc.filesrv.core.application.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.icc.filesrv.common.domain.events.TaskCompletedEvent;
+import tech.icc.filesrv.common.domain.events.TaskFailedEvent;
+import tech.icc.filesrv.common.exception.TooManyWatchersException;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
+import tech.icc.filesrv.core.application.service.dto.TaskInfoDto;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 任务状态监听服务
+ * <p>
+ * 为长轮询和 SSE 提供"等待状态变化"的能力，替代客户端的高频轮询：
+ * <ul>
+ *   <li>事件驱动：监听 {@link TaskCompletedEvent} / {@link TaskFailedEvent}（事务结束后），
+ *       立即重检相关任务并通知等待方</li>
+ *   <li>兜底重检：按固定间隔（recheck-interval，默认 5s）重检所有被监听的任务，
+ *       覆盖其他节点产生的状态变化和非终态流转</li>
+ * </ul>
+ * 只有终态会发布事件，非终态流转（如 PENDING → IN_PROGRESS）只能由兜底重检发现，最多延迟一个重检间隔。
+ * <p>
+ * 每个监听方占用一条长连接：单个任务的监听数（max-watchers-per-task）和全局监听数（max-watchers）
+ * 达到上限时拒绝新的监听，抛出 {@link TooManyWatchersException}（429）。
+ * 重检只读取任务状态（缓存优先），状态变化时才组装完整 DTO，同一任务的多个监听方共享一次查询。
+ * <p>
+ * 定时线程只负责计时（兜底重检、长轮询超时），到点后把重检和通知交给通知线程池执行：
+ * 查询任务、SSE 推送和长轮询响应都可能阻塞，不能拖慢其他计时器。同一任务已排队的重检不重复提交。
+ */
+@Service
+public class TaskWatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskWatchService.class);
+
+    private final TaskService taskService;
+    private final Duration maxWait;
+    private final Duration streamTimeout;
+    private final ConcurrentMap<String, Set<Watch>> watches = new ConcurrentHashMap<>();
+    private final Set<String> pendingRechecks = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger watchCount = new AtomicInteger();
+    private final int maxWatchers;
+    private final int maxWatchersPerTask;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService notifier;
+
+    public TaskWatchService(TaskService taskService,
+                            @Value("${file-service.task.watch.max-wait:60s}") Duration maxWait,
+                            @Value("${file-service.task.watch.stream-timeout:10m}") Duration streamTimeout,
+                            @Value("${file-service.task.watch.recheck-interval:5s}") Duration recheckInterval,
+                            @Value("${file-service.task.watch.threads:2}") int threads,
+                            @Value("${file-service.task.watch.max-watchers:10000}") int maxWatchers,
+                            @Value("${file-service.task.watch.max-watchers-per-task:100}") int maxWatchersPerTask) {
+        this.taskService = taskService;
+        this.maxWait = maxWait;
+        this.streamTimeout = streamTimeout;
+        this.maxWatchers = maxWatchers;
+        this.maxWatchersPerTask = maxWatchersPerTask;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "task-watch-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger counter = new AtomicInteger();
+        this.notifier = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "task-watch-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalMillis = recheckInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::recheckAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 长轮询：等待任务达到目标状态
+     * <p>
+     * 任务已达到（或越过）目标状态、或进入终态时立即返回；
+     * 超时后返回当前状态，由客户端决定是否继续等待。
+     * 目标为非终态时只能由兜底重检发现，返回最多延迟一个重检间隔。
+     *
+     * @param taskId  任务标识
+     * @param target  目标状态
+     * @param timeout 最长等待时间（超过 max-wait 时截断）
+     * @return 任务信息
+     * @throws TooManyWatchersException 监听数已达上限
+     */
+    public CompletableFuture<TaskInfoDto> awaitStatus(String taskId, TaskStatus target, Duration timeout) {
+        // 同步校验：任务不存在 / ID 非法时直接抛出，由全局异常处理返回
+        TaskInfoDto current = taskService.getTask(taskId);
+        if (reached(current.summary().status(), target)) {
+            return CompletableFuture.completedFuture(current);
+        }
+
+        CompletableFuture<TaskInfoDto> future = new CompletableFuture<>();
+        Watch watch = new Watch(taskId, current.summary().status(), dto -> {
+            if (reached(dto.summary().status(), target)) {
+                future.complete(dto);
+            }
+        });
+        register(watch);
+        // 注册前发生的状态变化不会再触发事件，注册后补一次重检
+        signal(taskId);
+
+        Duration wait = timeout.compareTo(maxWait) > 0 ? maxWait : timeout;
+        ScheduledFuture<?> timer = scheduler.schedule(() -> dispatch(() -> {
+            if (!future.isDone()) {
+                future.complete(loadQuietly(taskId, current));
+            }
+        }), wait.toMillis(), TimeUnit.MILLISECONDS);
+
+        future.whenComplete((dto, ex) -> {
+            unregister(watch);
+            timer.cancel(false);
+        });
+        return future;
+    }
+
+    /**
+     * 订阅任务状态变化（SSE）
+     * <p>
+     * 订阅时立即推送一次当前状态，之后每次状态变化推送一次；进入终态后自动取消订阅。
+     *
+     * @param taskId   任务标识
+     * @param listener 状态变化回调
+     * @return 订阅句柄，连接断开时应调用 {@link Subscription#cancel()}
+     * @throws TooManyWatchersException 监听数已达上限
+     */
+    public Subscription subscribe(String taskId, Consumer<TaskInfoDto> listener) {
+        TaskInfoDto current = taskService.getTask(taskId);
+        listener.accept(current);
+        if (current.summary().status().isTerminal()) {
+            return () -> { };
+        }
+        Watch watch = new Watch(taskId, current.summary().status(), listener);
+        register(watch);
+        signal(taskId);
+        return () -> unregister(watch);
+    }
+
+    /**
+     * SSE 连接最长保持时间
+     */
+    public Duration getStreamTimeout() {
+        return streamTimeout;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onTaskCompleted(TaskCompletedEvent event) {
+        signal(event.taskId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onTaskFailed(TaskFailedEvent event) {
+        signal(event.taskId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    /**
+     * 是否达到目标状态：已进入终态，或按流转顺序达到 / 越过目标状态
+     */
+    static boolean reached(TaskStatus status, TaskStatus target) {
+        return status.isTerminal() || status.ordinal() >= target.ordinal();
+    }
+
+    private void signal(String taskId) {
+        if (watches.containsKey(taskId) && pendingRechecks.add(taskId)) {
+            dispatch(() -> recheck(taskId));
+        }
+    }
+
+    private void recheckAll() {
+        watches.keySet().forEach(this::signal);
+    }
+
+    private void dispatch(Runnable work) {
+        try {
+            notifier.execute(work);
+        } catch (RejectedExecutionException e) {
+            // 正在关闭
+            log.debug("Task watch notifier is shut down, dropping work");
+        }
+    }
+
+    private void recheck(String taskId) {
+        pendingRechecks.remove(taskId);
+        Set<Watch> taskWatches = watches.get(taskId);
+        if (taskWatches == null || taskWatches.isEmpty()) {
+            return;
+        }
+        try {
+            TaskStatus status = taskService.getTaskStatus(taskId);
+            TaskInfoDto dto = null;
+            for (Watch watch : taskWatches) {
+                if (watch.lastStatus == status) {
+                    continue;
+                }
+                if (dto == null) {
+                    dto = taskService.getTask(taskId);
+                }
+                watch.deliver(dto);
+                if (status.isTerminal()) {
+                    unregister(watch);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Task watch recheck failed: taskId={}", taskId, e);
+        }
+    }
+
+    /**
+     * 注册监听方：先占用全局名额，再在任务的桶锁内检查单任务上限，任一超限则回退并拒绝
+     */
+    private void register(Watch watch) {
+        if (watchCount.incrementAndGet() > maxWatchers) {
+            watchCount.decrementAndGet();
+            throw new TooManyWatchersException("任务状态监听数已达上限: " + maxWatchers);
+        }
+        boolean[] added = new boolean[1];
+        watches.compute(watch.taskId, (k, set) -> {
+            Set<Watch> taskWatches = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (taskWatches.size() < maxWatchersPerTask) {
+                added[0] = taskWatches.add(watch);
+            }
+            return taskWatches.isEmpty() ? null : taskWatches;
+        });
+        if (!added[0]) {
+            watchCount.decrementAndGet();
+            throw new TooManyWatchersException(
+                    "任务状态监听数已达上限: taskId=" + watch.taskId + ", limit=" + maxWatchersPerTask);
+        }
+    }
+
+    /**
+     * 注销监听方，可重复调用（进入终态和连接关闭都会触发），只在首次移除时归还名额
+     */
+    private void unregister(Watch watch) {
+        watches.computeIfPresent(watch.taskId, (k, set) -> {
+            if (set.remove(watch)) {
+                watchCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * 当前监听数
+     */
+    int watchCount() {
+        return watchCount.get();
+    }
+
+    private TaskInfoDto loadQuietly(String taskId, TaskInfoDto fallback) {
+        try {
+            return taskService.getTask(taskId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load task on watch timeout: taskId={}", taskId, e);
+            return fallback;
+        }
+    }
+
+    /**
+     * 订阅句柄
+     */
+    @FunctionalInterface
+    public interface Subscription {
+
+        /**
+         * 取消订阅
+         */
+        void cancel();
+    }
+
+    /**
+     * 单个监听方
+     */
+    private static final class Watch {
+
+        private final String taskId;
+        private final Consumer<TaskInfoDto> listener;
+        private volatile TaskStatus lastStatus;
+
+        Watch(String taskId, TaskStatus lastStatus, Consumer<TaskInfoDto> listener) {
+            this.taskId = taskId;
+            this.lastStatus = lastStatus;
+            this.listener = listener;
+        }
+
+        synchronized void deliver(TaskInfoDto dto) {
+            TaskStatus status = dto.summary().status();
+            if (status == lastStatus) {
+                return;
+            }
+            lastStatus = status;
+            listener.accept(dto);
+        }
+    }
+}
@@ -20,6 +20,11 @@ public sealed interface TaskInfoDto
         permits TaskInfoDto.Pending, TaskInfoDto.InProgress,
         TaskInfoDto.Completed, TaskInfoDto.Failed, TaskInfoDto.Aborted {
 
+    /**
+     * 任务摘要（所有状态共有）
+     */
+    TaskSummary summary();
+
     /**
      * 待上传状态
      */
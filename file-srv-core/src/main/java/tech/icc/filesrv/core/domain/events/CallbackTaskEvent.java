@@ -52,6 +52,21 @@ public record CallbackTaskEvent(
         return new CallbackTaskEvent(taskId, messageId, deadline);
     }
 
+    /**
+     * Create a callback task event with a caller-supplied message ID.
+     * <p>
+     * Used when relaying from the outbox, where the message ID must stay the same across
+     * redeliveries. The deadline is set to 1 hour from the current time.
+     * </p>
+     *
+     * @param taskId    the task ID to execute callbacks for
+     * @param messageId the message ID assigned by the outbox
+     * @return a new CallbackTaskEvent instance
+     */
+    public static CallbackTaskEvent withMessageId(String taskId, String messageId) {
+        return new CallbackTaskEvent(taskId, messageId, Instant.now().plusSeconds(3600));
+    }
+
     /**
      * Check if this task has exceeded its deadline.
      *
@@ -66,6 +66,26 @@ public record FileInfo(
         );
     }
 
+    /**
+     * 追加副本（不改变文件状态）
+     * <p>
+     * 用于登记待复制的 PENDING 副本。
+     *
+     * @param newCopies 新副本
+     * @return 包含新副本的 FileInfo
+     */
+    public FileInfo addCopies(List<StorageCopy> newCopies) {
+        if (newCopies.isEmpty()) {
+            return this;
+        }
+        List<StorageCopy> merged = new ArrayList<>(copies);
+        merged.addAll(newCopies);
+        return new FileInfo(
+                contentHash, size, contentType, refCount,
+                status, merged, createdAt
+        );
+    }
+
     /**
      * 增加引用计数
      */
@@ -76,6 +96,18 @@ public record FileInfo(
         );
     }
 
+    /**
+     * 增加多个引用计数
+     *
+     * @param count 增加的数量
+     */
+    public FileInfo incrementRef(int count) {
+        return new FileInfo(
+                contentHash, size, contentType, refCount + count,
+                status, copies, createdAt
+        );
+    }
+
     /**
      * 减少引用计数
      */
@@ -1,7 +1,15 @@
 package tech.icc.filesrv.core.domain.files;
 
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 物理文件信息仓储接口
@@ -15,6 +23,15 @@ public interface FileInfoRepository {
      */
     FileInfo save(FileInfo fileInfo);
 
+    /**
+     * 批量插入新文件信息
+     * <p>
+     * 只执行 INSERT（不先查询是否存在），由 JDBC 批处理提交；contentHash 已存在时抛出唯一约束异常。
+     *
+     * @param fileInfos 新文件信息
+     */
+    void insertAll(Collection<FileInfo> fileInfos);
+
     /**
      * 根据 contentHash 查找
      */
@@ -25,13 +42,53 @@ public interface FileInfoRepository {
      */
     boolean existsByContentHash(String contentHash);
 
+    /**
+     * 查询引用计数（不加载副本）
+     */
+    Optional<FileRefCount> findRefCount(String contentHash);
+
+    /**
+     * 查询一个可用副本（只读取 storage_copy，不加载 FileInfo 和其余副本）
+     */
+    Optional<StorageCopy> findPrimaryCopy(String contentHash);
+
+    /**
+     * 批量检查 contentHash 是否存在（单条 IN 查询）
+     *
+     * @return 已存在的 contentHash
+     */
+    Set<String> findExistingHashes(Collection<String> contentHashes);
+
     /**
      * 原子增加引用计数
+     * <p>
+     * 已标记删除（尚未被 GC 回收）的文件恢复为 ACTIVE；回收中（COLLECTING）的文件不再恢复。
      *
-     * @return 更新的行数
+     * @return 更新的行数，文件已被回收或正在回收时为 0
      */
     int incrementRefCount(String contentHash);
 
+    /**
+     * 原子增加多个引用计数
+     * <p>
+     * 已标记删除（尚未被 GC 回收）的文件恢复为 ACTIVE；回收中（COLLECTING）的文件不再恢复。
+     *
+     * @param contentHash 内容哈希
+     * @param count       增加的数量
+     * @return 更新的行数，文件已被回收或正在回收时为 0
+     */
+    int incrementRefCount(String contentHash, int count);
+
+    /**
+     * 原子增加引用计数并返回更新后的计数
+     * <p>
+     * 语义同 {@link #incrementRefCount(String)}，数据库支持时在同一条语句中返回新值。
+     *
+     * @param contentHash 内容哈希
+     * @return 更新后的引用计数，文件不存在（已被回收）或正在回收时返回 empty
+     */
+    Optional<FileRefCount> incrementRefCountAndGet(String contentHash);
+
     /**
      * 原子减少引用计数
      *
@@ -40,13 +97,164 @@ public interface FileInfoRepository {
     int decrementRefCount(String contentHash);
 
     /**
-     * 查找可 GC 的文件（refCount <= 0 且 status = DELETED）
+     * 原子减少引用计数并返回更新后的计数
+     * <p>
+     * 语义同 {@link #decrementRefCount(String)}，数据库支持时在同一条语句中返回新值。
+     *
+     * @param contentHash 内容哈希
+     * @return 更新后的引用计数，文件不存在或计数已为 0 时返回 empty
+     */
+    Optional<FileRefCount> decrementRefCountAndGet(String contentHash);
+
+    /**
+     * 原子减少多个引用计数（最低减到 0，归零时标记为 DELETED）
+     *
+     * @param contentHash 内容哈希
+     * @param count       减少的数量
+     * @return 更新的行数
+     */
+    int decrementRefCount(String contentHash, int count);
+
+    /**
+     * 查找可 GC 的文件（refCount <= 0 且 status 为 DELETED 或 COLLECTING）
      *
      * @param limit 最大数量
      * @return 待清理的文件列表
      */
     List<FileInfo> findGarbageFiles(int limit);
 
+    /**
+     * 按 contentHash 游标分页查找可 GC 的文件
+     *
+     * @param afterContentHash 上一页最后一个 contentHash，首页传 null
+     * @param limit            最大数量
+     * @return 按 contentHash 升序的主键列表
+     */
+    List<String> findGarbageHashes(String afterContentHash, int limit);
+
+    /**
+     * 统计文件信息数（含已标记删除、尚未回收的文件）
+     */
+    long count();
+
+    /**
+     * 按 contentHash 游标分页查询全部文件的主键（含已标记删除的文件）
+     *
+     * @param afterContentHash 上一页最后一个 contentHash，首页传 null
+     * @param limit            最大数量
+     * @return 按 contentHash 升序的主键列表
+     */
+    List<String> findContentHashes(String afterContentHash, int limit);
+
+    /**
+     * 按 contentHash 游标分页查询指定时刻之后创建的文件的主键
+     *
+     * @param since            创建时间下限（含）
+     * @param afterContentHash 上一页最后一个 contentHash，首页传 null
+     * @param limit            最大数量
+     * @return 按 contentHash 升序的主键列表
+     */
+    List<String> findContentHashesCreatedSince(Instant since, String afterContentHash, int limit);
+
+    /**
+     * 锁定仍可 GC 的文件
+     * <p>
+     * 加行锁直到事务结束，跳过已被其他事务锁定的行；期间并发的引用计数增加会等待，
+     * 回收完成后增加失败（更新 0 行）。必须在事务内调用。
+     *
+     * @param contentHashes 候选 contentHash
+     * @return 锁定成功且仍满足 GC 条件的文件
+     */
+    List<FileInfo> lockGarbageFiles(Collection<String> contentHashes);
+
+    /**
+     * 把已锁定的文件标记为回收中（COLLECTING），并删除其引用计数分片
+     * <p>
+     * 必须与 {@link #lockGarbageFiles} 在同一事务内调用，并在删除存储对象之前提交：
+     * 提交后文件不能再被引用（引用计数增加更新 0 行），对象删除或元数据删除失败时也不会被恢复为 ACTIVE。
+     * 回收中的文件仍满足 GC 条件，未完成的回收由下一轮继续。
+     *
+     * @param contentHashes 已锁定的文件
+     */
+    void markCollecting(Collection<String> contentHashes);
+
+    /**
+     * 条件更新副本状态
+     * <p>
+     * 只更新单个副本行，不覆盖 FileInfo 的其他字段（如并发变化的引用计数）。
+     *
+     * @param contentHash 内容哈希
+     * @param copyId      副本 ID
+     * @param expected    期望的当前状态，不一致时不更新
+     * @param target      目标状态
+     * @return 更新的行数
+     */
+    int updateCopyStatus(String contentHash, String copyId, CopyStatus expected, CopyStatus target);
+
+    /**
+     * 查找存在指定状态副本的文件
+     *
+     * @param copyStatus 副本状态
+     * @param before     只匹配创建时间早于此时刻的副本
+     * @param limit      最大数量
+     * @return 文件列表
+     */
+    List<FileInfo> findByCopyStatus(CopyStatus copyStatus, Instant before, int limit);
+
+    /**
+     * 查找进入指定状态已超过一段时间的副本
+     * <p>
+     * 按副本最近一次状态变更的时间判断，而不是创建时间。
+     *
+     * @param copyStatus 副本状态
+     * @param before     只匹配状态变更时间早于此时刻的副本
+     * @param limit      最大副本数量
+     * @return contentHash → 匹配的副本
+     */
+    Map<String, List<StorageCopy>> findCopiesByStatusChangedBefore(CopyStatus copyStatus, Instant before, int limit);
+
+    /**
+     * 批量回写访问统计
+     * <p>
+     * 累加访问次数并刷新最近访问时间，只更新统计列。
+     *
+     * @param counts     contentHash → 本窗口访问次数
+     * @param accessedAt 访问时间
+     */
+    void recordAccess(Map<String, Long> counts, Instant accessedAt);
+
+    /**
+     * 查找长时间未访问、且在指定层级有可用副本的文件
+     *
+     * @param tier      副本所在层级
+     * @param idleSince 最近访问（从未访问时为创建时间）早于此时刻
+     * @param limit     最大数量
+     * @return 文件列表
+     */
+    List<FileInfo> findIdleFiles(StorageTier tier, Instant idleSince, int limit);
+
+    /**
+     * 追加单个副本
+     * <p>
+     * 只插入副本行，不覆盖 FileInfo 的其他字段。同一内容在同一节点上最多一个副本，
+     * 已存在时（如多个节点并发晋升同一文件）不插入。
+     *
+     * @param contentHash 内容哈希
+     * @param copy        新副本
+     * @return 是否插入成功，false 表示该节点上已有副本
+     */
+    boolean addCopy(String contentHash, StorageCopy copy);
+
+    /**
+     * 条件删除副本
+     *
+     * @param contentHash 内容哈希
+     * @param copyId      副本 ID
+     * @param expected    期望的当前状态，不一致时不删除
+     * @return 删除的行数
+     */
+    int removeCopy(String contentHash, String copyId, CopyStatus expected);
+
     /**
      * 根据 contentHash 删除
      */
@@ -0,0 +1,24 @@
+package tech.icc.filesrv.core.domain.files;
+
+/**
+ * 引用计数投影
+ * <p>
+ * 只包含引用计数相关的列，不加载副本集合；用于秒传、删除等只关心计数的热路径。
+ *
+ * @param contentHash 内容哈希
+ * @param refCount    引用计数
+ * @param status      文件状态
+ */
+public record FileRefCount(
+        String contentHash,
+        int refCount,
+        FileStatus status
+) {
+
+    /**
+     * 是否可被 GC 清理
+     */
+    public boolean canGC() {
+        return refCount <= 0 && status == FileStatus.DELETED;
+    }
+}
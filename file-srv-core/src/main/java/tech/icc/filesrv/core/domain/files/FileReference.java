@@ -1,13 +1,12 @@
 package tech.icc.filesrv.core.domain.files;
 
+import tech.icc.filesrv.common.utils.Uuids;
 import tech.icc.filesrv.common.vo.audit.AuditInfo;
 import tech.icc.filesrv.common.vo.audit.OwnerInfo;
 import tech.icc.filesrv.common.vo.file.AccessControl;
 import tech.icc.filesrv.common.vo.file.CustomMetadata;
 import tech.icc.filesrv.common.vo.file.FileTags;
 
-import java.util.UUID;
-
 /**
  * 文件引用
  * <p>
@@ -56,7 +55,7 @@ public record FileReference(
                                        OwnerInfo owner, FileTags tags, CustomMetadata metadata) {
         // 若未提供 fKey，则自动生成
         String finalFKey = (fKey == null || fKey.isBlank()) 
-                ? UUID.randomUUID().toString()  // TODO: 升级为 UUID v7
+                ? Uuids.newId()
                 : fKey.trim();
         
         return new FileReference(
@@ -3,6 +3,7 @@ package tech.icc.filesrv.core.domain.files;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,11 +19,21 @@ public interface FileReferenceRepository {
      */
     FileReference save(FileReference reference);
 
+    /**
+     * 批量保存文件引用（由 JDBC 批处理提交）
+     */
+    List<FileReference> saveAll(Collection<FileReference> references);
+
     /**
      * 根据 fKey 查找
      */
     Optional<FileReference> findByFKey(String fKey);
 
+    /**
+     * 根据 fKey 批量查找（不存在的 fKey 被忽略）
+     */
+    List<FileReference> findByFKeys(Collection<String> fKeys);
+
     /**
      * 根据所有者查找
      */
@@ -33,6 +44,13 @@ public interface FileReferenceRepository {
      */
     void deleteByFKey(String fKey);
 
+    /**
+     * 根据 fKey 批量删除（单条 DELETE ... IN 语句）
+     *
+     * @return 删除的行数
+     */
+    int deleteByFKeys(Collection<String> fKeys);
+
     /**
      * 检查 fKey 是否存在
      */
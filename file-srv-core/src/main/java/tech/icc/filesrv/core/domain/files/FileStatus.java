@@ -14,7 +14,10 @@ public enum FileStatus {
     ACTIVE,
 
     /** 已删除 - 标记删除，等待 GC 清理 */
-    DELETED;
+    DELETED,
+
+    /** 回收中 - GC 已开始删除存储对象，不能再被引用，元数据删除后消失 */
+    COLLECTING;
 
     /**
      * 文件是否可访问
@@ -27,6 +30,6 @@ public enum FileStatus {
      * 文件是否可被 GC 清理
      */
     public boolean isGarbageCollectable() {
-        return this == DELETED;
+        return this == DELETED || this == COLLECTING;
     }
 }
@@ -1,6 +1,8 @@
 package tech.icc.filesrv.core.domain.services;
 
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
 import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -57,9 +59,34 @@ public interface DeduplicationService {
      * 增加引用计数（秒传场景）
      *
      * @param contentHash 内容哈希
-     * @return 更新后的 FileInfo
+     * @return 更新后的引用计数
      */
-    FileInfo incrementReference(String contentHash);
+    FileRefCount incrementReference(String contentHash);
+
+    /**
+     * 尝试增加引用计数（秒传场景）
+     * <p>
+     * 查询到文件后、增加引用前，文件可能恰好被 GC 回收；此时返回 empty，调用方应按新文件重新上传。
+     * 已标记删除但尚未回收的文件被重新引用时恢复为 ACTIVE。
+     * <p>
+     * 只返回引用计数投影，秒传命中只需一条语句（不重新加载 FileInfo 及其副本）。
+     *
+     * @param contentHash 内容哈希
+     * @return 更新后的引用计数，文件已被回收时返回 empty
+     * @throws StorageUnavailableException 文件正在被回收（见 {@link #rejectIfCollecting}）
+     */
+    Optional<FileRefCount> tryIncrementReference(String contentHash);
+
+    /**
+     * 内容正在被 GC 回收（COLLECTING）时拒绝本次复用或新建
+     * <p>
+     * 回收中的文件对象正在删除，不能复用；以相同 contentHash 新建也会与尚未删除的元数据冲突。
+     * 回收很快结束，调用方稍后重试即可。
+     *
+     * @param contentHash 内容哈希
+     * @throws StorageUnavailableException 内容正在被回收
+     */
+    void rejectIfCollecting(String contentHash);
 
     /**
      * 减少引用计数
@@ -1,9 +1,14 @@
 package tech.icc.filesrv.core.domain.services;
 
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
 import tech.icc.filesrv.core.domain.storage.StorageNode;
 import tech.icc.filesrv.core.domain.storage.StoragePolicy;
 import tech.icc.filesrv.common.spi.storage.StorageAdapter;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * 存储路由服务
  * <p>
@@ -14,12 +19,70 @@ public interface StorageRoutingService {
     /**
      * 根据策略选择目标存储节点
      * <p>
-     * Phase 1: 固定返回 "primary" 节点
+     * 不考虑内容哈希和文件大小，等价于 {@code selectNode(policy, null, 0)}。
      *
      * @param policy 存储策略
      * @return 目标存储节点
      */
-    StorageNode selectNode(StoragePolicy policy);
+    default StorageNode selectNode(StoragePolicy policy) {
+        return selectNode(policy, null, 0L);
+    }
+
+    /**
+     * 根据策略、内容哈希和文件大小选择目标存储节点
+     * <p>
+     * 在可写节点中优先选择策略指定层级、剩余容量足够的节点：
+     * <ul>
+     *   <li>已知内容哈希时，按一致性哈希环的偏好顺序选择，跳过负载明显高于平均的节点</li>
+     *   <li>未知内容哈希时，按权重、实时负载和剩余容量加权随机选择</li>
+     * </ul>
+     * 没有满足条件的节点时回退到 "primary" 节点。
+     *
+     * @param policy      存储策略
+     * @param contentHash 内容哈希，未知时传 null
+     * @param size        待写入文件大小（字节），未知时传 0
+     * @return 目标存储节点
+     */
+    StorageNode selectNode(StoragePolicy policy, String contentHash, long size);
+
+    /**
+     * 为后台复制选择副本节点
+     * <p>
+     * 按一致性哈希偏好顺序，在剩余容量足够的可写节点中选择，策略层级内的节点优先；
+     * 可用节点不足时返回的数量少于 count。
+     *
+     * @param policy      存储策略
+     * @param contentHash 内容哈希
+     * @param size        文件大小（字节）
+     * @param excluded    需排除的节点 ID（已有副本的节点）
+     * @param count       需要的节点数
+     * @return 副本节点列表
+     */
+    List<StorageNode> selectReplicaNodes(StoragePolicy policy, String contentHash, long size,
+                                         Set<String> excluded, int count);
+
+    /**
+     * 对可读副本排序
+     * <p>
+     * 只保留 ACTIVE 且所在节点可读的副本，按节点实测延迟 / 健康度排序（延迟相近的按一致性哈希偏好顺序，
+     * 同一内容的读取固定落在同一节点，便于节点侧缓存命中）。顺序即读取和失败切换的优先级。
+     *
+     * @param contentHash 内容哈希
+     * @param copies      文件的副本列表
+     * @return 排序后的可读副本，没有可读副本时返回空列表
+     */
+    List<StorageCopy> rankReadCopies(String contentHash, List<StorageCopy> copies);
+
+    /**
+     * 选择用于读取的副本（{@link #rankReadCopies} 的第一个）
+     *
+     * @param contentHash 内容哈希
+     * @param copies      文件的副本列表
+     * @return 读取副本，没有可读副本时返回 empty
+     */
+    default Optional<StorageCopy> selectReadCopy(String contentHash, List<StorageCopy> copies) {
+        return rankReadCopies(contentHash, copies).stream().findFirst();
+    }
 
     /**
      * 获取节点对应的存储适配器
@@ -6,8 +6,10 @@ import net.openhft.hashing.LongHashFunction;
 import net.openhft.hashing.LongTupleHashFunction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
 import tech.icc.filesrv.core.domain.files.FileInfo;
 import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
 import tech.icc.filesrv.core.domain.files.FileStatus;
 import tech.icc.filesrv.core.domain.services.DeduplicationService;
 
@@ -81,16 +83,35 @@ public class DeduplicationServiceImpl implements DeduplicationService {
 
     @Override
     @Transactional
-    public FileInfo incrementReference(String contentHash) {
+    public FileRefCount incrementReference(String contentHash) {
         log.debug("Incrementing reference count for: {}", contentHash);
 
-        int updated = fileInfoRepository.incrementRefCount(contentHash);
-        if (updated == 0) {
-            throw new IllegalStateException("Failed to increment ref count: " + contentHash);
+        return fileInfoRepository.incrementRefCountAndGet(contentHash)
+                .orElseThrow(() -> new IllegalStateException("Failed to increment ref count: " + contentHash));
+    }
+
+    @Override
+    @Transactional
+    public Optional<FileRefCount> tryIncrementReference(String contentHash) {
+        log.debug("Trying to increment reference count for: {}", contentHash);
+
+        Optional<FileRefCount> updated = fileInfoRepository.incrementRefCountAndGet(contentHash);
+        if (updated.isEmpty()) {
+            rejectIfCollecting(contentHash);
+            log.info("File collected before it could be reused, uploading again: {}", contentHash);
         }
+        return updated;
+    }
 
-        return fileInfoRepository.findByContentHash(contentHash)
-                .orElseThrow(() -> new IllegalStateException("FileInfo not found: " + contentHash));
+    @Override
+    public void rejectIfCollecting(String contentHash) {
+        // 对象正在被 GC 删除：不能复用，以相同 contentHash 新建也会与尚未删除的元数据冲突
+        fileInfoRepository.findRefCount(contentHash)
+                .filter(counter -> counter.status() == FileStatus.COLLECTING)
+                .ifPresent(counter -> {
+                    throw new StorageUnavailableException(
+                            "Content is being garbage collected, retry later: " + contentHash, null);
+                });
     }
 
     @Override
@@ -98,14 +119,11 @@ public class DeduplicationServiceImpl implements DeduplicationService {
     public boolean decrementReference(String contentHash) {
         log.debug("Decrementing reference count for: {}", contentHash);
 
-        int updated = fileInfoRepository.decrementRefCount(contentHash);
-        if (updated == 0) {
+        Optional<FileRefCount> updated = fileInfoRepository.decrementRefCountAndGet(contentHash);
+        if (updated.isEmpty()) {
             log.warn("Failed to decrement ref count (may already be 0): {}", contentHash);
             return false;
         }
-
-        return fileInfoRepository.findByContentHash(contentHash)
-                .map(FileInfo::canGC)
-                .orElse(false);
+        return updated.get().canGC();
     }
 }
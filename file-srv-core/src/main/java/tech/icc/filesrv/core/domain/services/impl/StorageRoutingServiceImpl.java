@@ -4,26 +4,52 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.ConsistentHashRing;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
 import tech.icc.filesrv.core.domain.storage.StorageNode;
-import tech.icc.filesrv.core.domain.storage.StorageNodeRepository;
 import tech.icc.filesrv.core.domain.storage.StoragePolicy;
 import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.infra.config.StorageRoutingProperties;
+import tech.icc.filesrv.core.infra.storage.NodeLoadTracker;
 import tech.icc.filesrv.core.infra.storage.StorageAdapterRegistry;
+import tech.icc.filesrv.core.infra.storage.StorageNodeCatalog;
+import tech.icc.filesrv.core.infra.storage.impl.LoadTrackingStorageAdapter;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * 存储路由服务实现
  * <p>
- * Phase 1: 固定返回 primary 节点，简单路径生成策略。
+ * 节点选择：
+ * <ol>
+ *   <li>从 {@link StorageNodeCatalog} 内存缓存中取可写节点，排除权重为 0、剩余容量不足的节点</li>
+ *   <li>优先使用策略指定层级的节点，该层级无可用节点时放宽到所有层级</li>
+ *   <li>已知内容哈希时，沿可写节点哈希环的偏好顺序取第一个候选节点（有界负载：
+ *       在途请求数超过平均值 {@code bounded-load-factor} 倍的节点顺延到下一个）。
+ *       同一内容总是落在同一节点，增删节点只影响约 1/N 的内容</li>
+ *   <li>未知内容哈希时，按 {@code 权重 × 剩余容量占比 / (1 + 在途请求数) / (1 + 延迟EWMA / 基准延迟)}
+ *       计算得分，按得分加权随机选择，避免所有实例同时涌向同一个"最优"节点</li>
+ *   <li>没有候选节点时回退到 primary 节点</li>
+ * </ol>
+ * 返回的适配器会记录在途请求数和延迟（{@link NodeLoadTracker}），作为后续选择的负载依据。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StorageRoutingServiceImpl implements StorageRoutingService {
 
-    private final StorageNodeRepository storageNodeRepository;
+    private final StorageNodeCatalog nodeCatalog;
     private final StorageAdapterRegistry adapterRegistry;
+    private final NodeLoadTracker loadTracker;
+    private final StorageRoutingProperties routingProperties;
 
     /**
      * MIME 类型到文件扩展名的映射
@@ -52,19 +78,222 @@ public class StorageRoutingServiceImpl implements StorageRoutingService {
     );
 
     @Override
-    public StorageNode selectNode(StoragePolicy policy) {
-        // Phase 1: 固定返回 primary 节点
-        // TODO Phase 2: 根据策略选择最优节点（考虑 tier、负载均衡等）
-        return storageNodeRepository.findByNodeId(StorageNode.PRIMARY_NODE_ID)
-                .orElseGet(() -> {
-                    log.warn("Primary node not found, creating default");
-                    return StorageNode.primaryNode("default-adapter", "localhost", "default-bucket");
-                });
+    public StorageNode selectNode(StoragePolicy policy, String contentHash, long size) {
+        List<StorageNode> candidates = loadWritableNodes().stream()
+                .filter(node -> isEligible(node, size))
+                .toList();
+        if (candidates.isEmpty()) {
+            return fallbackNode();
+        }
+        Predicate<StorageNode> inTier = node -> node.tier() == policy.preferredTier();
+        if (contentHash != null) {
+            StorageNode placed = placeByHash(contentHash, candidates, inTier);
+            if (placed != null) {
+                return placed;
+            }
+        }
+        List<StorageNode> preferred = candidates.stream().filter(inTier).toList();
+        if (preferred.isEmpty()) {
+            log.debug("No writable node in tier {}, falling back to all tiers", policy.preferredTier());
+            return pickWeighted(candidates);
+        }
+        return pickWeighted(preferred);
+    }
+
+    @Override
+    public List<StorageNode> selectReplicaNodes(StoragePolicy policy, String contentHash, long size,
+                                                Set<String> excluded, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        List<StorageNode> candidates = loadWritableNodes().stream()
+                .filter(node -> !excluded.contains(node.nodeId()) && isEligible(node, size))
+                .toList();
+        List<StorageNode> ordered = new ArrayList<>(preferenceOrder(contentHash, candidates));
+        // 稳定排序：层级内节点在前，同层级内保持哈希环顺序
+        ordered.sort(Comparator.comparing(node -> node.tier() != policy.preferredTier()));
+        return List.copyOf(ordered.subList(0, Math.min(count, ordered.size())));
+    }
+
+    @Override
+    public List<StorageCopy> rankReadCopies(String contentHash, List<StorageCopy> copies) {
+        List<StorageCopy> available = copies.stream().filter(StorageCopy::isAvailable).toList();
+        if (available.size() <= 1) {
+            return available;
+        }
+        ConsistentHashRing ring;
+        try {
+            ring = nodeCatalog.availableRing();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load storage nodes, using copy order", e);
+            return available;
+        }
+        Set<String> readable = nodeCatalog.availableNodes().stream()
+                .map(StorageNode::nodeId)
+                .collect(Collectors.toSet());
+        List<StorageCopy> onReadable = available.stream()
+                .filter(copy -> readable.contains(copy.nodeId()))
+                .toList();
+        // 节点目录不认识任何副本节点（如未维护节点表）时不做过滤，交给失败切换
+        List<StorageCopy> ranked = new ArrayList<>(onReadable.isEmpty() ? available : onReadable);
+        List<String> preference = ring.locate(contentHash, ring.nodes().size()).stream()
+                .map(StorageNode::nodeId)
+                .toList();
+        ranked.sort(Comparator
+                .comparingLong((StorageCopy copy) -> latencyBucket(copy.nodeId()))
+                .thenComparingInt(copy -> {
+                    int rank = preference.indexOf(copy.nodeId());
+                    return rank < 0 ? Integer.MAX_VALUE : rank;
+                }));
+        return ranked;
     }
 
     @Override
     public StorageAdapter getAdapter(String nodeId) {
-        return adapterRegistry.getAdapter(nodeId);
+        return new LoadTrackingStorageAdapter(nodeId, adapterRegistry.getAdapter(nodeId), loadTracker);
+    }
+
+    /**
+     * 节点得分：权重 × 剩余容量占比，按在途请求数和延迟衰减
+     */
+    double score(StorageNode node) {
+        double latencyFactor = 1.0 + loadTracker.latencyMillis(node.nodeId())
+                / Math.max(1L, routingProperties.getLatencyReference().toMillis());
+        return node.weight() * node.freeRatio()
+                / (1 + loadTracker.inFlight(node.nodeId()))
+                / latencyFactor;
+    }
+
+    /**
+     * 按哈希环偏好顺序放置：先找策略层级内的候选节点，再放宽到所有层级
+     *
+     * @return 放置节点，没有候选节点时返回 null
+     */
+    private StorageNode placeByHash(String contentHash, List<StorageNode> candidates,
+                                    Predicate<StorageNode> inTier) {
+        List<StorageNode> preference = preferenceOrder(contentHash, candidates);
+        if (preference.isEmpty()) {
+            return null;
+        }
+        int loadBound = loadBound(candidates);
+        StorageNode firstInTier = null;
+        for (StorageNode node : preference) {
+            if (inTier.test(node)) {
+                if (loadTracker.inFlight(node.nodeId()) < loadBound) {
+                    return node;
+                }
+                if (firstInTier == null) {
+                    firstInTier = node;
+                }
+            }
+        }
+        if (firstInTier != null) {
+            // 层级内节点都超出负载上限时仍留在层级内，不为负载牺牲存储层级
+            return firstInTier;
+        }
+        for (StorageNode node : preference) {
+            if (loadTracker.inFlight(node.nodeId()) < loadBound) {
+                return node;
+            }
+        }
+        return preference.get(0);
+    }
+
+    /**
+     * 候选节点按可写节点哈希环的偏好排序；不在环上的候选节点（环尚未刷新）排在最后
+     */
+    private List<StorageNode> preferenceOrder(String contentHash, List<StorageNode> candidates) {
+        ConsistentHashRing ring;
+        try {
+            ring = nodeCatalog.writableRing();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load storage node ring, using catalog order", e);
+            return candidates;
+        }
+        Map<String, StorageNode> byId = candidates.stream()
+                .collect(Collectors.toMap(StorageNode::nodeId, node -> node, (a, b) -> a, LinkedHashMap::new));
+        List<StorageNode> ordered = new ArrayList<>(candidates.size());
+        for (StorageNode node : ring.locate(contentHash, ring.nodes().size())) {
+            StorageNode candidate = byId.remove(node.nodeId());
+            if (candidate != null) {
+                ordered.add(candidate);
+            }
+        }
+        ordered.addAll(byId.values());
+        return ordered;
+    }
+
+    /**
+     * 有界负载上限：ceil(系数 × (总在途请求数 + 1) / 节点数)
+     */
+    private int loadBound(List<StorageNode> candidates) {
+        long total = 0;
+        for (StorageNode node : candidates) {
+            total += loadTracker.inFlight(node.nodeId());
+        }
+        return (int) Math.ceil(routingProperties.getBoundedLoadFactor() * (total + 1) / candidates.size());
+    }
+
+    /**
+     * 读取延迟分档：预期延迟（EWMA × (1 + 在途请求数)）按基准延迟取整，
+     * 同档节点视为同样快，避免读取全部集中到最快的一个节点
+     */
+    private long latencyBucket(String nodeId) {
+        double expected = loadTracker.latencyMillis(nodeId) * (1 + loadTracker.inFlight(nodeId));
+        return (long) (expected / Math.max(1L, routingProperties.getLatencyReference().toMillis()));
+    }
+
+    private boolean isEligible(StorageNode node, long size) {
+        return node.weight() > 0
+                && node.hasCapacityFor(size)
+                && node.freeRatio() >= routingProperties.getMinFreeRatio();
+    }
+
+    private StorageNode pickWeighted(List<StorageNode> pool) {
+        if (pool.size() == 1) {
+            return pool.get(0);
+        }
+        double[] scores = new double[pool.size()];
+        double total = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            scores[i] = score(pool.get(i));
+            total += scores[i];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (total <= 0) {
+            return pool.get(random.nextInt(pool.size()));
+        }
+        double point = random.nextDouble(total);
+        for (int i = 0; i < scores.length; i++) {
+            point -= scores[i];
+            if (point < 0) {
+                return pool.get(i);
+            }
+        }
+        return pool.get(pool.size() - 1);
+    }
+
+    private List<StorageNode> loadWritableNodes() {
+        try {
+            return nodeCatalog.writableNodes();
+        } catch (RuntimeException e) {
+            log.warn("Failed to load storage nodes, falling back to primary node", e);
+            return List.of();
+        }
+    }
+
+    private StorageNode fallbackNode() {
+        try {
+            return nodeCatalog.findNode(StorageNode.PRIMARY_NODE_ID)
+                    .orElseGet(this::defaultPrimaryNode);
+        } catch (RuntimeException e) {
+            return defaultPrimaryNode();
+        }
+    }
+
+    private StorageNode defaultPrimaryNode() {
+        log.warn("Primary node not found, creating default");
+        return StorageNode.primaryNode("default-adapter", "localhost", "default-bucket");
     }
 
     @Override
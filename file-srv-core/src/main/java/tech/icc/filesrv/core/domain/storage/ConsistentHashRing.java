@@ -0,0 +1,186 @@
+package tech.icc.filesrv.core.domain.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 存储节点一致性哈希环
+ * <p>
+ * 不可变值对象，把内容哈希映射到存储节点：
+ * <ul>
+ *   <li>每个节点按权重在环上放置若干虚拟节点（权重为 {@link StorageNode#DEFAULT_WEIGHT} 时放置
+ *       {@code virtualNodes} 个），内容落点顺时针遇到的第一个虚拟节点即为其归属节点</li>
+ *   <li>增删一个节点时，只有约 1/N 的内容改变归属</li>
+ *   <li>{@link #locate(String, int)} 沿环继续查找，得到不重复的节点偏好列表，用于多副本放置和读取定位</li>
+ * </ul>
+ * 节点列表变化时重新构建，查找为数组二分，无锁、无分配。
+ */
+public final class ConsistentHashRing {
+
+    private static final ConsistentHashRing EMPTY = new ConsistentHashRing(List.of(), new long[0], new int[0]);
+
+    private final List<StorageNode> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    private ConsistentHashRing(List<StorageNode> nodes, long[] points, int[] owners) {
+        this.nodes = nodes;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    /**
+     * 构建哈希环
+     * <p>
+     * 权重为 0 的节点不上环。
+     *
+     * @param nodes        节点列表
+     * @param virtualNodes 默认权重节点的虚拟节点数
+     * @return 哈希环
+     */
+    public static ConsistentHashRing of(List<StorageNode> nodes, int virtualNodes) {
+        List<StorageNode> members = nodes.stream()
+                .filter(node -> node.weight() > 0)
+                .sorted(Comparator.comparing(StorageNode::nodeId))
+                .toList();
+        if (members.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<long[]> entries = new ArrayList<>();
+        MessageDigest md5 = md5();
+        for (int owner = 0; owner < members.size(); owner++) {
+            StorageNode node = members.get(owner);
+            long replicas = Math.max(1L, Math.round((double) virtualNodes * node.weight() / StorageNode.DEFAULT_WEIGHT));
+            for (int i = 0; i < replicas; i++) {
+                entries.add(new long[]{hash(md5, node.nodeId() + "#" + i), owner});
+            }
+        }
+        entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+
+        long[] points = new long[entries.size()];
+        int[] owners = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            points[i] = entries.get(i)[0];
+            owners[i] = (int) entries.get(i)[1];
+        }
+        return new ConsistentHashRing(members, points, owners);
+    }
+
+    /**
+     * 环上是否没有节点
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * 环上的节点
+     */
+    public List<StorageNode> nodes() {
+        return nodes;
+    }
+
+    /**
+     * 查找内容的归属节点
+     *
+     * @param contentHash 内容哈希
+     * @return 归属节点，环为空时返回 null
+     */
+    public StorageNode locate(String contentHash) {
+        if (isEmpty()) {
+            return null;
+        }
+        return nodes.get(owners[indexOf(keyOf(contentHash))]);
+    }
+
+    /**
+     * 查找内容的节点偏好列表
+     * <p>
+     * 从归属节点开始顺时针查找，返回不重复的节点，顺序即优先级。
+     *
+     * @param contentHash 内容哈希
+     * @param count       最多返回的节点数
+     * @return 节点偏好列表，长度为 min(count, 节点数)
+     */
+    public List<StorageNode> locate(String contentHash, int count) {
+        int limit = Math.min(count, nodes.size());
+        if (limit <= 0) {
+            return List.of();
+        }
+        Set<Integer> picked = new LinkedHashSet<>();
+        int start = indexOf(keyOf(contentHash));
+        for (int i = 0; i < points.length && picked.size() < limit; i++) {
+            picked.add(owners[(start + i) % points.length]);
+        }
+        List<StorageNode> result = new ArrayList<>(picked.size());
+        picked.forEach(owner -> result.add(nodes.get(owner)));
+        return result;
+    }
+
+    /**
+     * 第一个位置不小于 key 的虚拟节点下标（越过末尾时回绕到 0）
+     */
+    private int indexOf(long key) {
+        int low = 0;
+        int high = points.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low == points.length ? 0 : low;
+    }
+
+    /**
+     * 内容哈希在环上的位置
+     * <p>
+     * 内容哈希本身已均匀分布，取前 16 位十六进制直接作为位置；非十六进制时再做一次 MD5。
+     */
+    static long keyOf(String contentHash) {
+        if (contentHash.length() >= 16) {
+            long key = 0;
+            for (int i = 0; i < 16; i++) {
+                int digit = Character.digit(contentHash.charAt(i), 16);
+                if (digit < 0) {
+                    return hash(md5(), contentHash);
+                }
+                key = (key << 4) | digit;
+            }
+            return key;
+        }
+        return hash(md5(), contentHash);
+    }
+
+    private static long hash(MessageDigest md5, String value) {
+        byte[] digest = md5.digest(value.getBytes(StandardCharsets.UTF_8));
+        long h = 0;
+        for (int i = 0; i < 8; i++) {
+            h = (h << 8) | (digest[i] & 0xFF);
+        }
+        return h;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConsistentHashRing{nodes=" + nodes.stream().map(StorageNode::nodeId).toList()
+                + ", points=" + points.length + "}";
+    }
+}
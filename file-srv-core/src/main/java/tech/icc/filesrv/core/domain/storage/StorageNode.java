@@ -4,15 +4,18 @@ package tech.icc.filesrv.core.domain.storage;
  * 存储节点
  * <p>
  * 领域实体，表示一个存储后端实例（如 OBS、S3、本地存储）。
- * Phase 1 使用单节点 "primary"，Phase 2+ 支持多节点池化。
+ * 多节点部署时由路由服务按层级、权重、负载和剩余容量选择写入节点。
  *
- * @param nodeId      节点唯一标识
- * @param name        人类可读名称
- * @param adapterType 适配器类型标识（如 "HCS_OBS", "AWS_S3", "LOCAL"）
- * @param tier        存储层级
- * @param status      节点状态
- * @param endpoint    连接端点（配置用）
- * @param bucket      存储桶或根目录
+ * @param nodeId        节点唯一标识
+ * @param name          人类可读名称
+ * @param adapterType   适配器类型标识（如 "HCS_OBS", "AWS_S3", "LOCAL"）
+ * @param tier          存储层级
+ * @param status        节点状态
+ * @param endpoint      连接端点（配置用）
+ * @param bucket        存储桶或根目录
+ * @param weight        路由权重（相对值，0 表示不参与写入路由）
+ * @param capacityBytes 总容量（字节），0 表示不限制 / 未知
+ * @param usedBytes     已用容量（字节）
  */
 public record StorageNode(
         String nodeId,
@@ -21,12 +24,26 @@ public record StorageNode(
         StorageTier tier,
         NodeStatus status,
         String endpoint,
-        String bucket
+        String bucket,
+        int weight,
+        long capacityBytes,
+        long usedBytes
 ) {
 
     /** Phase 1 默认节点 ID */
     public static final String PRIMARY_NODE_ID = "primary";
 
+    /** 默认路由权重 */
+    public static final int DEFAULT_WEIGHT = 100;
+
+    /**
+     * 创建未配置权重和容量的节点（默认权重，容量不限）
+     */
+    public StorageNode(String nodeId, String name, String adapterType, StorageTier tier,
+                       NodeStatus status, String endpoint, String bucket) {
+        this(nodeId, name, adapterType, tier, status, endpoint, bucket, DEFAULT_WEIGHT, 0L, 0L);
+    }
+
     /**
      * 创建 Phase 1 默认主节点
      *
@@ -61,10 +78,41 @@ public record StorageNode(
         return status.isWritable();
     }
 
+    /**
+     * 是否配置了容量上限
+     */
+    public boolean hasCapacityLimit() {
+        return capacityBytes > 0;
+    }
+
+    /**
+     * 剩余容量（字节），未配置容量上限时返回 {@link Long#MAX_VALUE}
+     */
+    public long freeBytes() {
+        return hasCapacityLimit() ? Math.max(0L, capacityBytes - usedBytes) : Long.MAX_VALUE;
+    }
+
+    /**
+     * 剩余容量占比（0.0 ~ 1.0），未配置容量上限时返回 1.0
+     */
+    public double freeRatio() {
+        return hasCapacityLimit() ? (double) freeBytes() / capacityBytes : 1.0;
+    }
+
+    /**
+     * 剩余容量是否足以写入指定大小的文件
+     *
+     * @param size 文件大小（字节）
+     */
+    public boolean hasCapacityFor(long size) {
+        return freeBytes() >= size;
+    }
+
     /**
      * 设置节点状态
      */
     public StorageNode withStatus(NodeStatus newStatus) {
-        return new StorageNode(nodeId, name, adapterType, tier, newStatus, endpoint, bucket);
+        return new StorageNode(nodeId, name, adapterType, tier, newStatus, endpoint, bucket,
+                weight, capacityBytes, usedBytes);
     }
 }
@@ -34,4 +34,11 @@ public interface StorageNodeRepository {
      * 查找所有可用节点
      */
     List<StorageNode> findAvailableNodes();
+
+    /**
+     * 按现有副本重新计算所有节点的已用容量
+     *
+     * @return 更新的节点数
+     */
+    int refreshUsedBytes();
 }
@@ -5,7 +5,7 @@ package tech.icc.filesrv.core.domain.storage;
  * <p>
  * 值对象，定义文件的存储规则。
  *
- * @param replicaCount        副本数量（Phase 1 固定为 1）
+ * @param replicaCount        副本数量（首个副本同步写入，其余副本后台复制）
  * @param preferredTier       首选存储层级
  * @param retentionDays       保留天数（0 表示永久）
  * @param enableDeduplication 是否启用去重
@@ -42,6 +42,33 @@ public record StoragePolicy(
         return new StoragePolicy(1, StorageTier.ARCHIVE, retentionDays, false);
     }
 
+    /**
+     * 调整副本数量
+     *
+     * @param count 副本数量
+     * @return 新策略
+     */
+    public StoragePolicy withReplicaCount(int count) {
+        return new StoragePolicy(count, preferredTier, retentionDays, enableDeduplication);
+    }
+
+    /**
+     * 调整首选层级
+     *
+     * @param tier 存储层级
+     * @return 新策略
+     */
+    public StoragePolicy withPreferredTier(StorageTier tier) {
+        return new StoragePolicy(replicaCount, tier, retentionDays, enableDeduplication);
+    }
+
+    /**
+     * 需要的副本总数（至少 1）
+     */
+    public int replicas() {
+        return replicaCount == null ? 1 : Math.max(1, replicaCount);
+    }
+
     /**
      * 是否永久保留
      */
@@ -1,6 +1,7 @@
 package tech.icc.filesrv.core.domain.tasks;
 
 import tech.icc.filesrv.common.context.TaskContext;
+import tech.icc.filesrv.common.utils.Uuids;
 import tech.icc.filesrv.common.vo.task.CallbackConfig;
 import tech.icc.filesrv.common.vo.task.TaskStatus;
 
@@ -44,6 +45,11 @@ public class TaskAggregate {
     private Instant expiresAt;
     private Instant completedAt;
 
+    /** 处理租约到期时间（PROCESSING 阶段有效，见 {@link #grantLease}） */
+    private Instant leaseExpiresAt;
+    /** 恢复扫描重新投递的次数 */
+    private int recoveryAttempts;
+
     /** JPA 乐观锁版本号（用于并发控制） */
     private Long version;
 
@@ -97,7 +103,7 @@ public class TaskAggregate {
     public static TaskAggregate create(String fKey, String contentHash, String filename, 
                                        String contentType, Long size,
                                        List<CallbackConfig> cfgs, Duration expireAfter) {
-        String taskId = UUID.randomUUID().toString();
+        String taskId = Uuids.newId();
         TaskAggregate task = new TaskAggregate(taskId, fKey, cfgs, expireAfter);
         task.hash = contentHash;  // 客户端计算的hash作为初始值
         task.filename = filename;
@@ -218,6 +224,30 @@ public class TaskAggregate {
         }
     }
 
+    /**
+     * 授予处理租约
+     * <p>
+     * 租约到期后任务仍处于 PROCESSING、且没有节点正在执行其 callback 链时，
+     * 由恢复扫描从 currentCallbackIndex 重新投递。
+     *
+     * @param until 租约到期时间
+     */
+    public void grantLease(Instant until) {
+        assertStatus(TaskStatus.PROCESSING, "grant lease");
+        this.leaseExpiresAt = until;
+    }
+
+    /**
+     * 记录一次恢复重投，并授予新的租约
+     *
+     * @param nextLeaseExpiresAt 新租约到期时间
+     * @return 累计恢复次数
+     */
+    public int recordRecovery(Instant nextLeaseExpiresAt) {
+        grantLease(nextLeaseExpiresAt);
+        return ++recoveryAttempts;
+    }
+
     /**
      * 标记完成
      */
@@ -384,6 +414,14 @@ public class TaskAggregate {
         return completedAt;
     }
 
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public int getRecoveryAttempts() {
+        return recoveryAttempts;
+    }
+
     public Long getVersion() {
         return version;
     }
@@ -462,6 +500,14 @@ public class TaskAggregate {
         this.completedAt = completedAt;
     }
 
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public void setRecoveryAttempts(int recoveryAttempts) {
+        this.recoveryAttempts = recoveryAttempts;
+    }
+
     public void setVersion(Long version) {
         this.version = version;
     }
@@ -5,8 +5,10 @@ import org.springframework.data.domain.Pageable;
 import tech.icc.filesrv.common.vo.task.TaskStatus;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 任务仓储接口
@@ -69,14 +71,53 @@ public interface TaskRepository {
     List<TaskAggregate> findExpiredTasks(Instant before, int limit);
 
     /**
-     * 查询需要清理的已完成任务
+     * 统计过期但尚未标记的任务数
      *
-     * @param completedBefore 完成时间阈值
+     * @param before 过期时间阈值
+     * @return 任务数
+     */
+    long countExpiredTasks(Instant before);
+
+    /**
+     * 批量标记过期
+     * <p>
+     * 条件更新：只标记仍未进入终态、且确实已过期的任务，并发完成或中止的任务不受影响。
+     *
+     * @param taskIds   候选任务 ID
+     * @param expiredAt 过期标记时间
+     * @return 实际被标记的任务 ID
+     */
+    List<String> markExpired(List<String> taskIds, Instant expiredAt);
+
+    /**
+     * 锁定处理租约已到期、且未被其它事务锁定的 PROCESSING 任务
+     * <p>
+     * 仍在 callback 发件箱中等待转发的任务尚未交给执行节点，不算停滞，不会被选中。
+     * 锁持续到当前事务结束，必须在事务内调用。
+     *
+     * @param now   当前时间
+     * @param limit 最大数量
+     * @return 任务列表（按租约到期时间升序）
+     */
+    List<TaskAggregate> lockLapsedProcessing(Instant now, int limit);
+
+    /**
+     * 查询需要清理的已结束任务（任意终态）
+     *
+     * @param completedBefore 结束时间阈值
      * @param limit           最大数量
      * @return 任务列表
      */
     List<TaskAggregate> findCompletedTasksForCleanup(Instant completedBefore, int limit);
 
+    /**
+     * 查询仍未结束（非终态）的任务
+     *
+     * @param taskIds 候选任务 ID
+     * @return 其中存在且未进入终态的任务 ID
+     */
+    Set<String> findUnfinishedTaskIds(Collection<String> taskIds);
+
     /**
      * 删除任务
      *
@@ -0,0 +1,270 @@
+package tech.icc.filesrv.core.infra.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.infra.cache.impl.LocalContentHashFilter;
+import tech.icc.filesrv.core.infra.config.DedupFilterProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 秒传存在性索引
+ * <p>
+ * 在秒传检查前用 {@link ContentHashFilter} 过滤 file_info 中一定不存在的 contentHash，
+ * 内容唯一的上传（绝大多数）不再查询数据库，只有可能重复的才查询。
+ * <ul>
+ *   <li>过滤器覆盖 file_info 的全部行（含已标记删除、尚未回收的文件），新文件在写入 file_info 之前加入</li>
+ *   <li>启动后在后台按主键游标全表加载，加载完成前所有检查都查询数据库；
+ *       之后按 check-interval 定期检查（见 {@code DedupFilterMaintenanceTask}）</li>
+ *   <li>布隆过滤器不支持删除：GC 回收的 contentHash 累积超过 stale-ratio 时按代重建，
+ *       重建期间的新文件同时写入新旧两代，全表扫描后再按创建时间补扫 catch-up-margin 窗口内的文件</li>
+ * </ul>
+ * 过滤器实现：
+ * <ul>
+ *   <li>存在共享实现（如 Redis 布隆过滤器）时使用共享实现，由 leader 节点负责加载和重建</li>
+ *   <li>否则使用本地内存实现；本地过滤器看不到其它节点写入的文件，只在单节点运行时启用
+ *       （见 {@link MaintenanceCoordinator#isSingleNode()}），多节点时退化为每次查询数据库</li>
+ * </ul>
+ * <b>默认配置下不生效：</b>集群协调默认启用（file-srv.coordination.enabled=true，jdbc 租约），
+ * 此时不再视为单节点，而默认没有共享过滤器（file-srv.dedup-filter.use-redis=false），每次秒传检查仍查询数据库。
+ * 需要启用时配置 use-redis=true（引入 file-srv-spi-redis 并配置 Redisson），或在确实只有一个节点时关闭集群协调。
+ * 不按存活成员列表判断单节点：新节点加入后要到下一次心跳才能被看到，期间本地过滤器的否定结果会漏掉
+ * 新节点写入的文件，使秒传检查把已存在的 contentHash 当作新文件写入。
+ * 指标：{@code file.dedup.filter.checks}（result=negative 跳过查询 / positive / bypass 未启用或未就绪）、
+ * {@code file.dedup.filter.rebuilds}。
+ */
+@Slf4j
+@Component
+public class ContentHashIndex {
+
+    static final String JOB = "dedup-filter";
+
+    private final ContentHashFilter filter;
+    private final FileInfoRepository fileInfoRepository;
+    private final DedupFilterProperties properties;
+    private final MaintenanceCoordinator coordinator;
+    private final boolean active;
+
+    private final TaskScheduler taskScheduler;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong removedSinceCheck = new AtomicLong();
+    private volatile long capacity;
+    private volatile long knownRows;
+
+    private final Counter negativeCounter;
+    private final Counter positiveCounter;
+    private final Counter bypassCounter;
+    private final Counter rebuildCounter;
+
+    @Autowired
+    public ContentHashIndex(ObjectProvider<ContentHashFilter> sharedFilter,
+                            FileInfoRepository fileInfoRepository,
+                            DedupFilterProperties properties,
+                            MaintenanceCoordinator coordinator,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry) {
+        this(sharedFilter.getIfAvailable(), fileInfoRepository, properties, coordinator, taskScheduler, meterRegistry);
+    }
+
+    /**
+     * @param sharedFilter 跨节点共享的过滤器，为 null 时使用本地内存实现
+     */
+    public ContentHashIndex(ContentHashFilter sharedFilter,
+                            FileInfoRepository fileInfoRepository,
+                            DedupFilterProperties properties,
+                            MaintenanceCoordinator coordinator,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry) {
+        this.filter = sharedFilter != null ? sharedFilter : new LocalContentHashFilter();
+        this.fileInfoRepository = fileInfoRepository;
+        this.properties = properties;
+        this.coordinator = coordinator;
+        this.taskScheduler = taskScheduler;
+        this.active = properties.isEnabled() && (sharedFilter != null || coordinator.isSingleNode());
+        this.capacity = properties.getExpectedInsertions();
+
+        this.negativeCounter = checkCounter(meterRegistry, "negative");
+        this.positiveCounter = checkCounter(meterRegistry, "positive");
+        this.bypassCounter = checkCounter(meterRegistry, "bypass");
+        this.rebuildCounter = Counter.builder("file.dedup.filter.rebuilds")
+                .description("Content hash filter rebuilds")
+                .register(meterRegistry);
+
+        if (active) {
+            log.info("Dedup filter enabled: filter={}", filter.getClass().getSimpleName());
+        } else if (properties.isEnabled()) {
+            log.warn("Dedup filter inactive: the local filter is only used with coordination disabled "
+                    + "(file-srv.coordination.enabled=false); set file-srv.dedup-filter.use-redis=true "
+                    + "to share a filter across nodes");
+        }
+    }
+
+    /**
+     * contentHash 是否可能已有物理文件
+     *
+     * @param contentHash 内容哈希
+     * @return false 表示一定不存在，可以跳过数据库查询
+     */
+    public boolean mightExist(String contentHash) {
+        if (!active || !filter.isReady()) {
+            bypassCounter.increment();
+            return true;
+        }
+        if (filter.mightContain(contentHash)) {
+            positiveCounter.increment();
+            return true;
+        }
+        negativeCounter.increment();
+        return false;
+    }
+
+    /**
+     * 登记即将写入 file_info 的 contentHash
+     * <p>
+     * 必须在写入 file_info 之前调用。共享过滤器写入失败时作废过滤器（所有节点改为查询数据库直到重建），
+     * 作废也失败时抛出异常，调用方不得继续写入。
+     *
+     * @param contentHash 内容哈希
+     */
+    public void add(String contentHash) {
+        if (!active) {
+            return;
+        }
+        try {
+            filter.add(contentHash);
+        } catch (RuntimeException e) {
+            log.warn("Failed to add content hash to dedup filter, invalidating: contentHash={}", contentHash, e);
+            filter.invalidate();
+            maintainSoon();
+        }
+    }
+
+    /**
+     * 记录 GC 回收的文件数，累积超过失效比例时提前检查是否需要重建
+     *
+     * @param count 回收的文件数
+     */
+    public void removed(int count) {
+        if (!active || count <= 0) {
+            return;
+        }
+        long removed = removedSinceCheck.addAndGet(count);
+        if (removed > properties.getStaleRatio() * Math.max(knownRows, 1)
+                && removedSinceCheck.compareAndSet(removed, 0)) {
+            maintainSoon();
+        }
+    }
+
+    /**
+     * 未就绪时加载；已就绪时检查失效比例和容量，必要时重建
+     */
+    public void maintain() {
+        if (!active) {
+            return;
+        }
+        try {
+            if (!coordinator.isLeader(JOB)) {
+                return;
+            }
+            removedSinceCheck.set(0);
+            long rows = fileInfoRepository.count();
+            knownRows = rows;
+            if (!filter.isReady()) {
+                rebuild(rows);
+                return;
+            }
+            long size = filter.approximateSize();
+            if (size > capacity || size - rows > properties.getStaleRatio() * Math.max(rows, 1)) {
+                log.info("Rebuilding dedup filter: size={}, rows={}, capacity={}", size, rows, capacity);
+                rebuild(rows);
+            }
+        } catch (RuntimeException e) {
+            log.error("Dedup filter maintenance failed", e);
+        }
+    }
+
+    /**
+     * 重建过滤器：全表加载，等待补扫窗口后补扫，再切换
+     */
+    void rebuild(long rows) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        long newCapacity = Math.max(properties.getExpectedInsertions(), rows * 2);
+        Instant startedAt = Instant.now();
+        ContentHashFilter.Rebuild next = filter.rebuild(newCapacity, properties.getFpp());
+        try {
+            long loaded = load(next, null);
+            // 补扫重建开始前写入过滤器、但当时尚未提交到 file_info 的文件
+            Duration margin = properties.getCatchUpMargin();
+            long waitMillis = Duration.between(Instant.now(), startedAt.plus(margin)).toMillis();
+            if (waitMillis > 0) {
+                Thread.sleep(waitMillis);
+            }
+            loaded += load(next, startedAt.minus(margin));
+            next.commit();
+            capacity = newCapacity;
+            rebuildCounter.increment();
+            log.info("Dedup filter rebuilt: loaded={}, capacity={}, duration={}ms",
+                    loaded, newCapacity, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            next.abort();
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            next.abort();
+            throw e;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 在调度线程池中立即执行一次维护，不阻塞调用方
+     */
+    private void maintainSoon() {
+        try {
+            taskScheduler.schedule(this::maintain, Instant.now());
+        } catch (RuntimeException e) {
+            // 已关闭：留给下一次定期检查
+            log.debug("Failed to schedule dedup filter maintenance", e);
+        }
+    }
+
+    private long load(ContentHashFilter.Rebuild next, Instant createdSince) {
+        int pageSize = Math.max(1, properties.getScanBatchSize());
+        long loaded = 0;
+        String cursor = null;
+        while (true) {
+            List<String> page = createdSince == null
+                    ? fileInfoRepository.findContentHashes(cursor, pageSize)
+                    : fileInfoRepository.findContentHashesCreatedSince(createdSince, cursor, pageSize);
+            next.addAll(page);
+            loaded += page.size();
+            if (page.size() < pageSize) {
+                return loaded;
+            }
+            cursor = page.get(page.size() - 1);
+        }
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("file.dedup.filter.checks")
+                .description("Dedup existence checks answered by the content hash filter")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
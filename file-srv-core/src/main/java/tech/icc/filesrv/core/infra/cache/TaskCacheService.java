@@ -8,6 +8,9 @@ import java.util.Optional;
  * 任务缓存服务
  * <p>
  * 提供任务的多级缓存能力，减少数据库访问。
+ * <p>
+ * 缓存内容以 {@link TaskSnapshot} 形式保存，按 {@code @Version} 版本号判断新旧：
+ * 旧版本不会覆盖新版本，读取返回的聚合与缓存内部状态互相隔离。
  */
 public interface TaskCacheService {
 
@@ -21,11 +24,26 @@ public interface TaskCacheService {
 
     /**
      * 缓存任务
+     * <p>
+     * 版本感知写入：仅当任务版本比缓存中的版本新（或缓存为空/空值标记）时写入，
+     * 避免并发读取回填的旧数据覆盖刚写入的新数据。
      *
      * @param task 任务聚合
      */
     void cacheTask(TaskAggregate task);
 
+    /**
+     * 任务已持久化后同步缓存
+     * <p>
+     * 由仓储在事务提交后调用。Write-Through 模式下写入新版本快照，
+     * 使轮询请求在状态流转期间持续命中缓存；否则退化为失效缓存。
+     *
+     * @param task 已提交的任务聚合（携带提交后的版本号）
+     */
+    default void refreshTask(TaskAggregate task) {
+        evictTask(task.getTaskId());
+    }
+
     /**
      * 失效缓存
      *
@@ -0,0 +1,118 @@
+package tech.icc.filesrv.core.infra.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.infra.persistence.entity.TaskEntity;
+
+import java.util.Objects;
+
+/**
+ * 任务缓存快照
+ * <p>
+ * 缓存中保存的是任务在某个 {@code @Version} 下的不可变快照，而不是可变的 {@link TaskAggregate}：
+ * <ul>
+ *   <li>写入时复制一份状态，调用方后续对聚合的修改不会污染缓存</li>
+ *   <li>读取时每次重建新的聚合，多个读者之间互不影响</li>
+ *   <li>携带版本号，用于拒绝过期写入（旧版本覆盖新版本）</li>
+ * </ul>
+ * 状态复制复用 {@link TaskEntity} 的转换逻辑，保证缓存命中与数据库读取得到的聚合完全一致。
+ */
+public final class TaskSnapshot {
+
+    /**
+     * 未持久化（无版本号）任务的版本值，任何已持久化版本都比它新
+     */
+    public static final long UNVERSIONED = -1L;
+
+    private final String taskId;
+    private final long version;
+    private final TaskEntity state;
+
+    private TaskSnapshot(String taskId, long version, TaskEntity state) {
+        this.taskId = taskId;
+        this.version = version;
+        this.state = state;
+    }
+
+    /**
+     * 从任务聚合创建快照
+     *
+     * @param task 任务聚合
+     * @return 快照
+     */
+    public static TaskSnapshot of(TaskAggregate task) {
+        Objects.requireNonNull(task, "task must not be null");
+        Objects.requireNonNull(task.getTaskId(), "taskId must not be null");
+        long version = task.getVersion() != null ? task.getVersion() : UNVERSIONED;
+        return new TaskSnapshot(task.getTaskId(), version, TaskEntity.fromDomain(task));
+    }
+
+    /**
+     * 从 JSON 还原快照（用于分布式缓存）
+     *
+     * @param json   {@link #toJson} 输出的 JSON
+     * @param mapper 需注册 JavaTimeModule
+     * @return 快照
+     * @throws IllegalArgumentException JSON 无法解析
+     */
+    public static TaskSnapshot fromJson(String json, ObjectMapper mapper) {
+        try {
+            TaskEntity state = mapper.readValue(json, TaskEntity.class);
+            long version = state.getVersion() != null ? state.getVersion() : UNVERSIONED;
+            return new TaskSnapshot(state.getTaskId(), version, state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed task snapshot", e);
+        }
+    }
+
+    /**
+     * 序列化为 JSON（用于分布式缓存）
+     * <p>
+     * 与 JSON 列的持久化方式一致，{@link TaskEntity#toDomain()} 会还原 context 中的复杂类型。
+     *
+     * @param mapper 需注册 JavaTimeModule
+     * @return JSON
+     */
+    public String toJson(ObjectMapper mapper) {
+        try {
+            return mapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize task snapshot: " + taskId, e);
+        }
+    }
+
+    public String taskId() {
+        return taskId;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 是否比另一个快照更新
+     *
+     * @param other 另一个快照，为 null 时视为更旧
+     * @return 版本号严格大于 other 时返回 true
+     */
+    public boolean isNewerThan(TaskSnapshot other) {
+        return other == null || version > other.version;
+    }
+
+    /**
+     * 重建任务聚合
+     * <p>
+     * 每次调用都返回新的实例，调用方可以自由修改。
+     *
+     * @return 任务聚合
+     */
+    public TaskAggregate toAggregate() {
+        return state.toDomain();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskSnapshot{taskId=" + taskId + ", version=" + version + "}";
+    }
+}
@@ -6,12 +6,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
 import tech.icc.filesrv.core.infra.cache.TaskCacheService;
+import tech.icc.filesrv.core.infra.cache.TaskSnapshot;
 
 import java.time.Duration;
 import java.util.Optional;
 
 /**
  * 基于 Caffeine 的本地任务缓存实现
+ * <p>
+ * 缓存值为 {@link TaskSnapshot}（或空值标记），写入通过 {@code asMap().compute} 原子地比较版本，
+ * 旧版本写入会被丢弃。开启 Write-Through 时，任务保存后直接写入新快照而不是失效。
  */
 public class CaffeineTaskCacheService implements TaskCacheService {
 
@@ -21,17 +25,25 @@ public class CaffeineTaskCacheService implements TaskCacheService {
 
     private final Cache<String, Object> cache;
 
+    private final boolean writeThrough;
+
     public CaffeineTaskCacheService() {
         this(10000, Duration.ofSeconds(30));
     }
 
     public CaffeineTaskCacheService(int maxSize, Duration ttl) {
+        this(maxSize, ttl, true);
+    }
+
+    public CaffeineTaskCacheService(int maxSize, Duration ttl, boolean writeThrough) {
         this.cache = Caffeine.newBuilder()
                 .maximumSize(maxSize)
                 .expireAfterWrite(ttl)
                 .recordStats()
                 .build();
-        log.info("CaffeineTaskCacheService initialized: maxSize={}, ttl={}", maxSize, ttl);
+        this.writeThrough = writeThrough;
+        log.info("CaffeineTaskCacheService initialized: maxSize={}, ttl={}, writeThrough={}",
+                maxSize, ttl, writeThrough);
     }
 
     @Override
@@ -40,17 +52,54 @@ public class CaffeineTaskCacheService implements TaskCacheService {
         if (value == null) {
             return Optional.empty();
         }
-        if (NULL_MARKER.equals(value)) {
-            return Optional.empty();
+        if (value instanceof TaskSnapshot snapshot) {
+            return Optional.of(snapshot.toAggregate());
         }
-        return Optional.of((TaskAggregate) value);
+        return Optional.empty();
     }
 
     @Override
     public void cacheTask(TaskAggregate task) {
         if (task != null && task.getTaskId() != null) {
-            cache.put(task.getTaskId(), task);
-            log.debug("Task cached: taskId={}", task.getTaskId());
+            cacheSnapshot(TaskSnapshot.of(task));
+        }
+    }
+
+    /**
+     * 版本感知写入快照
+     *
+     * @return 是否写入（旧版本被丢弃时返回 false）
+     */
+    boolean cacheSnapshot(TaskSnapshot incoming) {
+        Object stored = cache.asMap().compute(incoming.taskId(), (key, current) ->
+                current instanceof TaskSnapshot cached && !incoming.isNewerThan(cached) ? current : incoming);
+        if (stored == incoming) {
+            log.debug("Task cached: taskId={}, version={}", incoming.taskId(), incoming.version());
+            return true;
+        }
+        log.debug("Stale task write ignored: taskId={}, version={}, cached={}",
+                incoming.taskId(), incoming.version(), stored);
+        return false;
+    }
+
+    /**
+     * 失效版本低于 version 的缓存条目（空值标记总是失效）
+     */
+    void evictIfOlder(String taskId, long version) {
+        cache.asMap().computeIfPresent(taskId, (key, current) ->
+                current instanceof TaskSnapshot cached && cached.version() >= version ? current : null);
+    }
+
+    boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    @Override
+    public void refreshTask(TaskAggregate task) {
+        if (writeThrough) {
+            cacheTask(task);
+        } else {
+            evictTask(task.getTaskId());
         }
     }
 
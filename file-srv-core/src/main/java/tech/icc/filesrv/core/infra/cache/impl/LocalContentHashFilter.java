@@ -0,0 +1,150 @@
+package tech.icc.filesrv.core.infra.cache.impl;
+
+import net.openhft.hashing.LongHashFunction;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地内存内容哈希过滤器（布隆过滤器）
+ * <p>
+ * 位数组为 {@link AtomicLongArray}，写入按位 CAS，读写均无锁。
+ * 哈希使用两个独立种子的 xxHash 做双重哈希（第 i 个位置 = h1 + i * h2）。
+ * <p>
+ * 只反映本节点写入的 contentHash，多节点部署时不能用于否定判断（见 ContentHashIndex）。
+ */
+public class LocalContentHashFilter implements ContentHashFilter {
+
+    private volatile Bloom current;
+    private volatile Bloom building;
+
+    @Override
+    public boolean mightContain(String contentHash) {
+        Bloom bloom = current;
+        return bloom == null || bloom.mightContain(contentHash);
+    }
+
+    @Override
+    public void add(String contentHash) {
+        Bloom c;
+        Bloom b;
+        // 写入期间发生了代切换时重新写入，保证返回后当前代一定包含该元素
+        do {
+            c = current;
+            b = building;
+            if (c != null) {
+                c.put(contentHash);
+            }
+            if (b != null) {
+                b.put(contentHash);
+            }
+        } while (c != current || b != building);
+    }
+
+    @Override
+    public boolean isReady() {
+        return current != null;
+    }
+
+    @Override
+    public long approximateSize() {
+        Bloom bloom = current;
+        return bloom != null ? bloom.size() : -1;
+    }
+
+    @Override
+    public void invalidate() {
+        current = null;
+    }
+
+    @Override
+    public synchronized Rebuild rebuild(long expectedInsertions, double fpp) {
+        Bloom next = new Bloom(expectedInsertions, fpp);
+        building = next;
+        return new Rebuild() {
+            @Override
+            public void addAll(Iterable<String> contentHashes) {
+                contentHashes.forEach(next::put);
+            }
+
+            @Override
+            public void commit() {
+                current = next;
+                clearBuilding(next);
+            }
+
+            @Override
+            public void abort() {
+                clearBuilding(next);
+            }
+        };
+    }
+
+    private synchronized void clearBuilding(Bloom bloom) {
+        if (building == bloom) {
+            building = null;
+        }
+    }
+
+    static final class Bloom {
+
+        private static final LongHashFunction H1 = LongHashFunction.xx(0x9E3779B97F4A7C15L);
+        private static final LongHashFunction H2 = LongHashFunction.xx(0xC2B2AE3D27D4EB4FL);
+
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int numHashes;
+        private final LongAdder size = new LongAdder();
+
+        Bloom(long expectedInsertions, double fpp) {
+            long n = Math.max(1, expectedInsertions);
+            double p = Math.min(Math.max(fpp, 1e-9), 0.5);
+            long words = Math.max(1, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)) / 64));
+            if (words > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Bloom filter too large: expectedInsertions=" + expectedInsertions);
+            }
+            this.bits = new AtomicLongArray((int) words);
+            this.numBits = words * 64;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        }
+
+        boolean mightContain(String contentHash) {
+            long h1 = H1.hashChars(contentHash);
+            long h2 = H2.hashChars(contentHash);
+            for (int i = 0; i < numHashes; i++) {
+                long index = Long.remainderUnsigned(h1 + i * h2, numBits);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(String contentHash) {
+            long h1 = H1.hashChars(contentHash);
+            long h2 = H2.hashChars(contentHash);
+            boolean changed = false;
+            for (int i = 0; i < numHashes; i++) {
+                long index = Long.remainderUnsigned(h1 + i * h2, numBits);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long old = bits.get(word);
+                while ((old & mask) == 0) {
+                    if (bits.compareAndSet(word, old, old | mask)) {
+                        changed = true;
+                        break;
+                    }
+                    old = bits.get(word);
+                }
+            }
+            if (changed) {
+                size.increment();
+            }
+        }
+
+        long size() {
+            return size.sum();
+        }
+    }
+}
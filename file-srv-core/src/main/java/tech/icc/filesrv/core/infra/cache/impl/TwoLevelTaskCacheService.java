@@ -0,0 +1,133 @@
+package tech.icc.filesrv.core.infra.cache.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.infra.cache.TaskCacheService;
+import tech.icc.filesrv.core.infra.cache.TaskSnapshot;
+
+import java.util.Optional;
+
+/**
+ * 二级任务缓存实现（本地 Caffeine L1 + 分布式 L2）
+ * <p>
+ * 读取顺序：L1 → L2 → 数据库（由仓储回源）。L2 命中时按版本回填 L1。
+ * <p>
+ * 写入与失效：
+ * <ul>
+ *   <li>回填（{@link #cacheTask}）：L1、L2 均按版本写入，不广播</li>
+ *   <li>保存后（{@link #refreshTask}）：写入 L1、L2 新快照，并广播失效，
+ *       其他节点丢弃本地旧版本后从 L2 读取最新快照</li>
+ *   <li>删除（{@link #evictTask}）：删除 L1、L2 并无条件广播失效</li>
+ * </ul>
+ * 空值标记只保存在 L1，避免任务刚创建时其他节点被集群级空值缓存误伤。
+ * <p>
+ * L2 不可用时降级为纯本地缓存，只记录告警，不影响业务请求。
+ */
+public class TwoLevelTaskCacheService implements TaskCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelTaskCacheService.class);
+
+    private final CaffeineTaskCacheService local;
+    private final DistributedTaskCache remote;
+    private final ObjectMapper objectMapper;
+
+    public TwoLevelTaskCacheService(CaffeineTaskCacheService local,
+                                    DistributedTaskCache remote,
+                                    ObjectMapper objectMapper) {
+        this.local = local;
+        this.remote = remote;
+        this.objectMapper = objectMapper;
+        remote.subscribe(local::evictIfOlder);
+    }
+
+    @Override
+    public Optional<TaskAggregate> getTask(String taskId) {
+        Optional<TaskAggregate> cached = local.getTask(taskId);
+        if (cached.isPresent() || local.isNullCached(taskId)) {
+            return cached;
+        }
+        try {
+            Optional<DistributedTaskCache.Entry> entry = remote.get(taskId);
+            if (entry.isEmpty()) {
+                return Optional.empty();
+            }
+            TaskSnapshot snapshot = TaskSnapshot.fromJson(entry.get().payload(), objectMapper);
+            local.cacheSnapshot(snapshot);
+            return Optional.of(snapshot.toAggregate());
+        } catch (RuntimeException e) {
+            log.warn("Distributed task cache read failed, fallback to database: taskId={}", taskId, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void cacheTask(TaskAggregate task) {
+        if (task == null || task.getTaskId() == null) {
+            return;
+        }
+        TaskSnapshot snapshot = TaskSnapshot.of(task);
+        local.cacheSnapshot(snapshot);
+        putRemote(snapshot);
+    }
+
+    @Override
+    public void refreshTask(TaskAggregate task) {
+        if (!local.isWriteThrough()) {
+            evictTask(task.getTaskId());
+            return;
+        }
+        TaskSnapshot snapshot = TaskSnapshot.of(task);
+        local.cacheSnapshot(snapshot);
+        if (!putRemote(snapshot)) {
+            // L2 写入失败时删除 L2 旧快照，避免其他节点收到通知后读到旧版本
+            evictRemote(snapshot.taskId());
+        }
+        publish(snapshot.taskId(), snapshot.version());
+    }
+
+    @Override
+    public void evictTask(String taskId) {
+        local.evictTask(taskId);
+        evictRemote(taskId);
+        publish(taskId, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void cacheNull(String taskId) {
+        local.cacheNull(taskId);
+    }
+
+    @Override
+    public boolean isNullCached(String taskId) {
+        return local.isNullCached(taskId);
+    }
+
+    private boolean putRemote(TaskSnapshot snapshot) {
+        try {
+            remote.putIfNewer(snapshot.taskId(), snapshot.version(), snapshot.toJson(objectMapper));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Distributed task cache write failed: taskId={}", snapshot.taskId(), e);
+            return false;
+        }
+    }
+
+    private void evictRemote(String taskId) {
+        try {
+            remote.evict(taskId);
+        } catch (RuntimeException e) {
+            log.warn("Distributed task cache evict failed: taskId={}", taskId, e);
+        }
+    }
+
+    private void publish(String taskId, long version) {
+        try {
+            remote.publishInvalidation(taskId, version);
+        } catch (RuntimeException e) {
+            log.warn("Task cache invalidation broadcast failed: taskId={}", taskId, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Callback 任务发件箱配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.callback-outbox.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.callback-outbox")
+public class CallbackOutboxProperties {
+
+    /**
+     * 是否在本节点转发发件箱消息（关闭后仍会写入发件箱，由其它节点转发）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 轮询间隔（事务提交后会立即触发转发，轮询只处理重试和其它节点遗留的消息）
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * 每批锁定并转发的消息数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 等待一批消息投递确认的最长时间，超时的消息按失败处理并稍后重投
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 投递失败后的首次重试间隔（之后按 2 倍递增）
+     */
+    private Duration retryInitialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * 重试间隔上限
+     */
+    private Duration retryMaxBackoff = Duration.ofMinutes(5);
+}
@@ -0,0 +1,44 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 集群协调配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.coordination.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.coordination")
+public class CoordinationProperties {
+
+    /**
+     * 是否启用集群协调（关闭时每个节点都按单节点运行全部维护任务）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 租约存储：jdbc（默认，maintenance_lease 表）或 redis（需引入 file-srv-spi-redis）
+     */
+    private String store = "jdbc";
+
+    /**
+     * 节点 ID，为空时使用 主机名-随机后缀
+     */
+    private String nodeId;
+
+    /**
+     * 租约有效期（节点宕机后最长经过此时间由其它节点接管）
+     */
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /**
+     * 心跳间隔（续约存活登记和已持有的 leader 租约），应明显小于租约有效期
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,66 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 秒传存在性过滤器配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.dedup-filter.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.dedup-filter")
+public class DedupFilterProperties {
+
+    /**
+     * 是否启用（关闭后每次秒传检查都查询数据库）
+     * <p>
+     * 启用后还需要有可用的过滤器：use-redis=true，或关闭集群协调（file-srv.coordination.enabled=false）
+     * 使用本地过滤器。默认配置（协调启用、use-redis=false）下两者都不满足，过滤器不生效
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否使用 Redis 共享过滤器（需引入 file-srv-spi-redis 并配置 Redisson）
+     * <p>
+     * false 时使用本地内存过滤器，只在单节点运行（file-srv.coordination.enabled=false）时生效；
+     * 集群协调默认启用，因此默认配置下过滤器不生效
+     */
+    private boolean useRedis = false;
+
+    /**
+     * 预期元素数下限，实际容量取此值与当前 file_info 行数两倍中的较大者
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * 误判率
+     */
+    private double fpp = 0.01;
+
+    /**
+     * 重建时每页扫描的 contentHash 数
+     */
+    private int scanBatchSize = 5000;
+
+    /**
+     * 重建补扫窗口：全表扫描结束后再补扫创建时间晚于（重建开始 - 此值）的文件，
+     * 应大于写入 file_info 的事务最长耗时与节点间时钟偏差之和
+     */
+    private Duration catchUpMargin = Duration.ofMinutes(1);
+
+    /**
+     * 失效比例检查间隔
+     */
+    private Duration checkInterval = Duration.ofMinutes(10);
+
+    /**
+     * 过滤器中已被回收的 contentHash 超过 file_info 行数的此比例时重建
+     */
+    private double staleRatio = 0.2;
+}
@@ -0,0 +1,44 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 物理文件 GC 配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.gc.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.gc")
+public class GarbageCollectionProperties {
+
+    /**
+     * 是否启用物理文件 GC
+     */
+    private boolean enabled = true;
+
+    /**
+     * GC 执行间隔（上一轮结束到下一轮开始）
+     */
+    private Duration interval = Duration.ofMinutes(10);
+
+    /**
+     * 每页扫描的文件数（按 contentHash 游标分页）
+     */
+    private int pageSize = 1000;
+
+    /**
+     * 每个回收事务处理的文件数（同一事务内锁定、删除对象、删除元数据）
+     */
+    private int batchSize = 100;
+
+    /**
+     * 并发执行的回收事务数
+     */
+    private int concurrency = 4;
+}
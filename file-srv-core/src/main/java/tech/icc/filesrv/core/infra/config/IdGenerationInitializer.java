@@ -0,0 +1,29 @@
+package tech.icc.filesrv.core.infra.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.common.utils.Uuids;
+
+/**
+ * 启动时应用 ID 生成策略
+ * <p>
+ * 领域工厂方法通过静态的 {@link Uuids#newId()} 生成 ID，策略只能全局设置。
+ * </p>
+ */
+@Slf4j
+@Component
+public class IdGenerationInitializer {
+
+    private final IdGenerationProperties properties;
+
+    public IdGenerationInitializer(IdGenerationProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void apply() {
+        Uuids.setStrategy(properties.getStrategy());
+        log.info("ID generation strategy: {}", Uuids.getStrategy());
+    }
+}
@@ -0,0 +1,24 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.common.utils.Uuids;
+
+/**
+ * ID 生成配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.id-generation.* 配置项。
+ * 任务 ID 与 fKey 由领域工厂方法直接生成，启动时由 {@link IdGenerationInitializer} 把策略写入 {@link Uuids}。
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.id-generation")
+public class IdGenerationProperties {
+
+    /**
+     * 生成策略：TIME_ORDERED（UUIDv7，默认）或 RANDOM（UUIDv4）
+     */
+    private Uuids.Strategy strategy = Uuids.Strategy.TIME_ORDERED;
+}
@@ -43,6 +43,14 @@ public class OrphanCleanupProperties {
      */
     private int batchSize = 100;
 
+    /**
+     * 单次清理的时间预算
+     * <p>
+     * 超出后在当前批次结束时停止，剩余孤儿留给下一次执行
+     * </p>
+     */
+    private Duration maxRunDuration = Duration.ofMinutes(30);
+
     /**
      * 是否仅模拟运行（不实际删除文件）
      */
@@ -0,0 +1,64 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 热点引用计数分片配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.refcount-striping.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.refcount-striping")
+public class RefCountStripingProperties {
+
+    /**
+     * 是否启用热点分片（关闭后已有分片仍会被折叠）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个热点 contentHash 的分片数
+     */
+    private int stripes = 8;
+
+    /**
+     * 单次 file_info 引用计数更新耗时超过此值视为发生行锁竞争
+     */
+    private Duration contentionThreshold = Duration.ofMillis(20);
+
+    /**
+     * 统计窗口内竞争次数达到此值时启用分片
+     */
+    private int hotThreshold = 5;
+
+    /**
+     * 竞争次数统计窗口
+     */
+    private Duration detectionWindow = Duration.ofSeconds(10);
+
+    /**
+     * 本节点记住热点的时长，过期后回到 file_info 单行计数（再次竞争时重新启用）
+     */
+    private Duration hotTtl = Duration.ofMinutes(10);
+
+    /**
+     * 分片折叠间隔；一个间隔内没有新增量的分片在折叠后删除
+     */
+    private Duration compactionInterval = Duration.ofMinutes(1);
+
+    /**
+     * 是否启用分片折叠任务（与 enabled 无关，关闭分片后仍需折叠已有分片）
+     */
+    private boolean compactionEnabled = true;
+
+    /**
+     * 折叠时每页扫描的 contentHash 数
+     */
+    private int compactionBatchSize = 100;
+}
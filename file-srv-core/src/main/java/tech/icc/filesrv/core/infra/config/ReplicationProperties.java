@@ -0,0 +1,74 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 副本复制配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.storage.replication.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.storage.replication")
+public class ReplicationProperties {
+
+    /**
+     * 默认副本数（含同步写入的首个副本），为 1 时不做后台复制
+     */
+    private int replicaCount = 1;
+
+    /**
+     * 复制工作线程数
+     */
+    private int workerThreads = 4;
+
+    /**
+     * 复制队列容量，队列满时副本保持 PENDING，由补偿扫描稍后重新提交
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 单个目标节点的最大并发复制数
+     */
+    private int maxConcurrentPerNode = 4;
+
+    /**
+     * 单次提交的最大尝试次数
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * 首次重试间隔（指数退避）
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * 最大重试间隔
+     */
+    private Duration maxBackoff = Duration.ofMinutes(1);
+
+    /**
+     * 是否启用补偿扫描
+     */
+    private boolean repairEnabled = true;
+
+    /**
+     * 补偿扫描间隔
+     */
+    private Duration repairInterval = Duration.ofMinutes(5);
+
+    /**
+     * 副本保持 PENDING 超过此时长才会被补偿扫描重新提交
+     */
+    private Duration repairAge = Duration.ofMinutes(10);
+
+    /**
+     * 每次补偿扫描处理的文件数
+     */
+    private int repairBatchSize = 100;
+}
@@ -0,0 +1,123 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 存储路由配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.storage.routing.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.storage.routing")
+public class StorageRoutingProperties {
+
+    /**
+     * 节点列表刷新间隔
+     * <p>
+     * 到期后首次访问触发后台异步刷新，刷新期间继续使用旧列表
+     * </p>
+     */
+    private Duration nodeRefreshInterval = Duration.ofSeconds(30);
+
+    /**
+     * 节点延迟 EWMA 平滑系数（0 ~ 1，越大越偏向最近的请求）
+     */
+    private double latencyAlpha = 0.2;
+
+    /**
+     * 延迟基准值
+     * <p>
+     * 节点得分按 1 / (1 + 延迟 / 基准值) 衰减，延迟等于基准值时得分减半
+     * </p>
+     */
+    private Duration latencyReference = Duration.ofMillis(200);
+
+    /**
+     * 请求失败时计入 EWMA 的惩罚延迟
+     */
+    private Duration failurePenalty = Duration.ofSeconds(5);
+
+    /**
+     * 最低剩余容量占比，低于此值的节点不再接收写入
+     */
+    private double minFreeRatio = 0.05;
+
+    /**
+     * 是否定期按副本汇总节点已用容量（used_bytes 由运维上报时可关闭）
+     */
+    private boolean capacityRefreshEnabled = true;
+
+    /**
+     * 节点已用容量汇总间隔（见 {@code StorageCapacityTask}）
+     */
+    private Duration capacityRefreshInterval = Duration.ofMinutes(5);
+
+    /**
+     * 一致性哈希环上每个默认权重节点的虚拟节点数（按节点权重等比缩放）
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * 有界负载系数
+     * <p>
+     * 按内容哈希选中的节点在途请求数超过平均值的该倍数时，顺延到环上的下一个节点
+     * </p>
+     */
+    private double boundedLoadFactor = 1.25;
+
+    /**
+     * 对冲读取配置
+     */
+    private Hedge hedge = new Hedge();
+
+    /**
+     * 对冲读取配置
+     * <p>
+     * 首个副本在延迟分位数内未返回时，向下一个副本发起第二个请求，取先返回者
+     * </p>
+     */
+    @Data
+    public static class Hedge {
+
+        /**
+         * 是否启用对冲读取（关闭后仍保留失败切换）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 触发对冲的延迟分位数
+         */
+        private double percentile = 0.95;
+
+        /**
+         * 样本不足时使用的对冲延迟
+         */
+        private Duration defaultDelay = Duration.ofMillis(200);
+
+        /**
+         * 对冲延迟下限
+         */
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * 对冲延迟上限
+         */
+        private Duration maxDelay = Duration.ofSeconds(2);
+
+        /**
+         * 对冲请求占总读取请求的最大比例，避免存储整体变慢时请求量翻倍
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * 读取线程数上限
+         */
+        private int maxThreads = 64;
+    }
+}
@@ -0,0 +1,54 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 过期任务回收配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.task-reaper.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.task-reaper")
+public class TaskReaperProperties {
+
+    /**
+     * 是否启用过期任务回收
+     */
+    private boolean enabled = true;
+
+    /**
+     * 回收执行间隔（上一轮结束到下一轮开始）
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * 每批处理的任务数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 单次执行最多处理的批数（过期标记和行清理分别计数），剩余积压留给下一轮
+     */
+    private int maxBatchesPerRun = 50;
+
+    /**
+     * 并发中止存储上传会话的线程数
+     */
+    private int abortConcurrency = 4;
+
+    /**
+     * 已结束任务行的保留时间，超过后删除
+     */
+    private Duration finishedRetention = Duration.ofDays(7);
+
+    /**
+     * 本地临时目录的最长保留时间，任务仍未结束但目录超过该时间未变化时同样清理（不应小于任务过期时间）
+     */
+    private Duration localTempMaxAge = Duration.ofHours(24);
+}
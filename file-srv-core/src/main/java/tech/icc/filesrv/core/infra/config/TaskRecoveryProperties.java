@@ -0,0 +1,55 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 停滞任务恢复配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.task-recovery.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.task-recovery")
+public class TaskRecoveryProperties {
+
+    /**
+     * 是否启用停滞任务恢复扫描
+     */
+    private boolean enabled = true;
+
+    /**
+     * 扫描执行间隔（上一轮结束到下一轮开始）
+     */
+    private Duration interval = Duration.ofSeconds(30);
+
+    /**
+     * 处理租约时长：callback 消息交付给消息队列后超过此时间仍未被任何节点执行则重新投递。
+     * 在发件箱中等待转发的时间不计入；应大于消息从交付到被消费的正常积压时间
+     */
+    private Duration leaseTimeout = Duration.ofMinutes(5);
+
+    /**
+     * 重投后的租约上限（每次重投租约翻倍，直到此上限）
+     */
+    private Duration maxLeaseTimeout = Duration.ofHours(1);
+
+    /**
+     * 最大恢复次数，超过后任务标记为失败
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * 每批处理的任务数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 单次执行最多处理的批数，剩余积压留给下一轮
+     */
+    private int maxBatchesPerRun = 10;
+}
@@ -0,0 +1,69 @@
+package tech.icc.filesrv.core.infra.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 冷热分层配置属性
+ * <p>
+ * 从 application.yml 中读取 file-srv.storage.tiering.* 配置项
+ * </p>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-srv.storage.tiering")
+public class TieringProperties {
+
+    /**
+     * 是否启用冷热分层迁移
+     */
+    private boolean enabled = true;
+
+    /**
+     * 访问采样率：每 N 次访问记录一次（计数按 N 累加），1 表示全部记录
+     */
+    private int sampleRate = 4;
+
+    /**
+     * 访问计数回写间隔（同时是升温判断的统计窗口）
+     */
+    private Duration flushInterval = Duration.ofMinutes(1);
+
+    /**
+     * 降温扫描间隔
+     */
+    private Duration migrationInterval = Duration.ofHours(1);
+
+    /**
+     * HOT 副本超过此时长未访问时迁移到 WARM，为空表示不迁移
+     */
+    private Duration warmAfter = Duration.ofDays(7);
+
+    /**
+     * WARM 副本超过此时长未访问时迁移到 COLD，为空表示不迁移
+     */
+    private Duration coldAfter = Duration.ofDays(30);
+
+    /**
+     * 一个统计窗口内访问次数达到此值时，非 HOT 副本迁回 HOT
+     */
+    private long promoteThreshold = 8;
+
+    /**
+     * 每次降温扫描最多迁移的副本数
+     */
+    private int batchSize = 100;
+
+    /**
+     * 迁移工作线程数（即迁移并发上限）
+     */
+    private int workerThreads = 2;
+
+    /**
+     * 旧副本切换为 MIGRATING 后延迟删除的时长，留给已打开的读取完成
+     */
+    private Duration deleteGrace = Duration.ofMinutes(5);
+}
@@ -0,0 +1,50 @@
+package tech.icc.filesrv.core.infra.coordination;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import tech.icc.filesrv.common.spi.coordination.LeaseRegistry;
+import tech.icc.filesrv.core.infra.persistence.repository.MaintenanceLeaseJpaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 基于数据库表的租约注册表（默认实现）
+ * <p>
+ * 租约存放在 maintenance_lease 表：先条件更新（续约或接管过期租约），
+ * 未命中再插入，主键冲突说明已被其它节点抢先持有。不依赖数据库方言的 upsert。
+ * <p>
+ * 过期判断使用各节点本地时钟，要求节点间时钟同步（NTP），偏差应远小于租约 TTL。
+ */
+public class JdbcLeaseRegistry implements LeaseRegistry {
+
+    private final MaintenanceLeaseJpaRepository repository;
+
+    public JdbcLeaseRegistry(MaintenanceLeaseJpaRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String holder, Duration ttl) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        if (repository.renew(name, holder, expiresAt, now) > 0) {
+            return true;
+        }
+        try {
+            return repository.insert(name, holder, expiresAt) > 0;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String name, String holder) {
+        repository.release(name, holder);
+    }
+
+    @Override
+    public List<String> activeHolders(String namePrefix) {
+        return repository.findActiveHolders(namePrefix, Instant.now());
+    }
+}
@@ -0,0 +1,198 @@
+package tech.icc.filesrv.core.infra.coordination;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.common.spi.coordination.LeaseRegistry;
+import tech.icc.filesrv.core.infra.config.CoordinationProperties;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 维护任务集群协调器
+ * <p>
+ * 基于 {@link LeaseRegistry} 为后台维护任务提供两种协调方式：
+ * <ul>
+ *   <li>leader 选举（{@link #isLeader}）：不可切分的任务只在一个节点执行，
+ *       leader 由心跳续约，宕机后租约到期由其它节点接管</li>
+ *   <li>分片（{@link #shard}）：可切分的扫描任务按存活节点数把 key 空间切成互不重叠的区间，
+ *       每个节点只扫描自己的区间，维护开销随集群规模分摊而不是成倍增加</li>
+ * </ul>
+ * 成员变化（扩缩容、节点宕机）时，各节点在一个心跳周期内看到的成员列表可能短暂不一致，
+ * 区间可能重叠或遗漏；被协调的任务本身必须幂等，遗漏的 key 在下一轮处理。
+ * <p>
+ * 未启用协调或没有可用的租约注册表时按单节点运行：始终是 leader，负责全部 key。
+ */
+@Component
+public class MaintenanceCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceCoordinator.class);
+
+    static final String MEMBER_PREFIX = "maintenance:member:";
+    static final String LEADER_PREFIX = "maintenance:leader:";
+
+    private final LeaseRegistry leaseRegistry;
+    private final CoordinationProperties properties;
+    private final String nodeId;
+    private final Set<String> leaderships = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private volatile List<String> members = List.of();
+
+    @Autowired
+    public MaintenanceCoordinator(ObjectProvider<LeaseRegistry> leaseRegistry, CoordinationProperties properties) {
+        this(properties.isEnabled() ? leaseRegistry.getIfAvailable() : null, properties);
+    }
+
+    /**
+     * @param leaseRegistry 租约注册表，为 null 时按单节点运行
+     * @param properties    协调配置
+     */
+    public MaintenanceCoordinator(LeaseRegistry leaseRegistry, CoordinationProperties properties) {
+        this.properties = properties;
+        this.leaseRegistry = leaseRegistry;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId()
+                : defaultNodeId();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "maintenance-coordinator");
+            t.setDaemon(true);
+            return t;
+        });
+        if (this.leaseRegistry != null) {
+            long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::heartbeat, 0L, heartbeatMillis, TimeUnit.MILLISECONDS);
+            log.info("Maintenance coordination enabled: nodeId={}, registry={}",
+                    nodeId, this.leaseRegistry.getClass().getSimpleName());
+        } else {
+            log.info("Maintenance coordination disabled, running as single node: nodeId={}", nodeId);
+        }
+    }
+
+    /**
+     * 本节点 ID
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 是否按单节点运行（未启用协调或没有可用的租约注册表）
+     * <p>
+     * 此时本节点被视为唯一写入方，仅反映本节点写入的内存状态可以视为全局状态。
+     */
+    public boolean isSingleNode() {
+        return leaseRegistry == null;
+    }
+
+    /**
+     * 本节点是否是指定任务的 leader（不是则尝试竞选）
+     *
+     * @param job 任务名
+     * @return true 表示本节点应执行该任务
+     */
+    public boolean isLeader(String job) {
+        if (leaseRegistry == null) {
+            return true;
+        }
+        try {
+            if (leaseRegistry.tryAcquire(LEADER_PREFIX + job, nodeId, properties.getLeaseTtl())) {
+                if (leaderships.add(job)) {
+                    log.info("Became leader of maintenance job: job={}, nodeId={}", job, nodeId);
+                }
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Leader election failed, skipping this run: job={}", job, e);
+        }
+        if (leaderships.remove(job)) {
+            log.info("Lost leadership of maintenance job: job={}, nodeId={}", job, nodeId);
+        }
+        return false;
+    }
+
+    /**
+     * 本节点当前负责的分片
+     *
+     * @return 分片；协调不可用（本节点尚未登记存活）时为 empty，调用方应跳过本轮
+     */
+    public Optional<ShardAssignment> shard() {
+        if (leaseRegistry == null) {
+            return Optional.of(ShardAssignment.ALL);
+        }
+        List<String> current = members;
+        if (current.isEmpty()) {
+            // 启动后首次心跳尚未完成
+            heartbeat();
+            current = members;
+        }
+        int index = current.indexOf(nodeId);
+        if (index < 0) {
+            log.warn("Node is not a registered maintenance member, skipping this run: nodeId={}", nodeId);
+            return Optional.empty();
+        }
+        return Optional.of(new ShardAssignment(index, current.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (leaseRegistry == null) {
+            return;
+        }
+        // 主动释放，其它节点无需等待租约过期即可接管
+        try {
+            leaderships.forEach(job -> leaseRegistry.release(LEADER_PREFIX + job, nodeId));
+            leaseRegistry.release(MEMBER_PREFIX + nodeId, nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release maintenance leases on shutdown: nodeId={}", nodeId, e);
+        }
+    }
+
+    /**
+     * 续约存活登记和已持有的 leader 租约，刷新成员列表
+     */
+    void heartbeat() {
+        try {
+            Duration ttl = properties.getLeaseTtl();
+            leaseRegistry.tryAcquire(MEMBER_PREFIX + nodeId, nodeId, ttl);
+            for (String job : leaderships) {
+                isLeader(job);
+            }
+            List<String> live = leaseRegistry.activeHolders(MEMBER_PREFIX).stream()
+                    .distinct()
+                    .sorted()
+                    .toList();
+            if (!live.equals(members)) {
+                log.info("Maintenance members changed: {} -> {}", members, live);
+            }
+            members = live;
+        } catch (RuntimeException e) {
+            // 无法确认成员列表时不再按旧分片工作，等待恢复
+            members = List.of();
+            log.warn("Maintenance heartbeat failed: nodeId={}", nodeId, e);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
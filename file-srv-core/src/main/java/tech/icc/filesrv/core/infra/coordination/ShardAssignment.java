@@ -0,0 +1,92 @@
+package tech.icc.filesrv.core.infra.coordination;
+
+import net.openhft.hashing.LongHashFunction;
+
+/**
+ * 本节点负责的工作分片
+ * <p>
+ * 两种划分方式，按 key 的分布选择：
+ * <ul>
+ *   <li>按前缀区间：把 key 空间按字典序切成 {@code count} 段连续区间，本节点负责第 {@code index} 段。
+ *       切分点取 4 位十六进制前缀均分，只适合前缀本身均匀的 key（如 contentHash）；
+ *       区间连续，维护任务可以直接用 keyset 游标只扫描自己的区间，不必扫描全表再过滤。</li>
+ *   <li>按哈希（{@link #owns}）：key 的哈希对 {@code count} 取模。用于前缀不均匀的 key，
+ *       如 UUIDv7 的 fKey 前 48 位是毫秒时间戳，前 4 位约 49.7 天才变化一次，按前缀切分会全部落到同一分片；
+ *       代价是每个节点都要扫描全部候选，只处理归属自己的部分。</li>
+ * </ul>
+ * 首段无下界、末段无上界，任意字符串 key 都恰好落在一个区间内，也恰好归属一个哈希分片。
+ *
+ * @param index 本节点的分片序号（从 0 开始）
+ * @param count 分片总数（存活节点数）
+ */
+public record ShardAssignment(int index, int count) {
+
+    /**
+     * 单节点：负责全部 key
+     */
+    public static final ShardAssignment ALL = new ShardAssignment(0, 1);
+
+    private static final long KEY_SPACE = 0x10000L;
+
+    private static final LongHashFunction KEY_HASH = LongHashFunction.xx3();
+
+    public ShardAssignment {
+        if (count < 1 || count > KEY_SPACE || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard: index=" + index + ", count=" + count);
+        }
+    }
+
+    /**
+     * 区间下界（包含），首段为 null
+     */
+    public String lowerBound() {
+        return index == 0 ? null : boundary(index);
+    }
+
+    /**
+     * 区间上界（不包含），末段为 null
+     */
+    public String upperBound() {
+        return index == count - 1 ? null : boundary(index + 1);
+    }
+
+    /**
+     * key 是否属于本分片
+     */
+    public boolean contains(String key) {
+        String lower = lowerBound();
+        return (lower == null || key.compareTo(lower) >= 0) && !isBeyond(key);
+    }
+
+    /**
+     * key 的哈希是否归属本分片（与前缀区间无关，见类说明）
+     * <p>
+     * 哈希函数固定，各节点对同一 key 的计算结果一致。
+     */
+    public boolean owns(String key) {
+        return Math.floorMod(KEY_HASH.hashChars(key), (long) count) == index;
+    }
+
+    /**
+     * key 是否已越过本分片（keyset 扫描到此即可停止）
+     */
+    public boolean isBeyond(String key) {
+        String upper = upperBound();
+        return upper != null && key.compareTo(upper) >= 0;
+    }
+
+    /**
+     * keyset 扫描的起始游标（查询条件为 key > 游标）
+     * <p>
+     * 取下界去掉最后一个字符，保证等于下界的 key 也会被扫到；
+     * 游标与下界之间少量不属于本分片的 key 需用 {@link #contains} 过滤。
+     */
+    public String cursorBefore() {
+        String lower = lowerBound();
+        return lower == null ? "" : lower.substring(0, lower.length() - 1);
+    }
+
+    private String boundary(int i) {
+        return String.format("%04x", i * KEY_SPACE / count);
+    }
+}
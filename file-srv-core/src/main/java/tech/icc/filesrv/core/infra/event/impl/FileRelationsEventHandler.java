@@ -3,6 +3,7 @@ package tech.icc.filesrv.core.infra.event.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
@@ -13,6 +14,9 @@ import tech.icc.filesrv.common.domain.events.DerivedFilesAddedEvent;
 import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity;
 import tech.icc.filesrv.core.infra.persistence.repository.FileRelationRepository;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 文件关联关系事件处理器
  * <p>
@@ -24,6 +28,7 @@ import tech.icc.filesrv.core.infra.persistence.repository.FileRelationRepository
  * <ul>
  *   <li>使用 @TransactionalEventListener(AFTER_COMMIT) 确保 Task 保存后再处理关系</li>
  *   <li>为每个 derivedFile 创建 3 条记录：SOURCE、CURRENT_MAIN、反向 DERIVED</li>
+ *   <li>一个事件的全部记录一次写入：一次查询跳过已存在的记录（幂等），其余按 JDBC 批量插入</li>
  *   <li>实现双向引用设计，避免孤儿文件产生</li>
  * </ul>
  */
@@ -57,50 +62,57 @@ public class FileRelationsEventHandler {
         log.info("Handling derived files event: taskId={}, sourceFkey={}, count={}",
                 event.taskId(), sourceFkey, event.getDerivedFileCount());
 
+        List<FileRelationEntity> relations = new ArrayList<>(event.getDerivedFileCount() * 3);
         for (DerivedFile derivedFile : event.newDerivedFiles()) {
             String derivedFkey = derivedFile.fKey();
-            
-            try {
-                // 检查是否已存在关系记录（幂等性）
-                if (relationRepository.existsByFileFkeyAndRelatedFkey(derivedFkey, sourceFkey)) {
-                    log.debug("Relation already exists: derived={}, source={}", derivedFkey, sourceFkey);
-                    continue;
-                }
-
-                // 1. 创建 SOURCE 关系（衍生文件 -> 源文件）
-                FileRelationEntity sourceRelation = FileRelationEntity.builder()
-                        .fileFkey(derivedFkey)
-                        .relatedFkey(sourceFkey)
-                        .relationType(FileRelationEntity.RelationType.SOURCE)
-                        .build();
-                relationRepository.save(sourceRelation);
-
-                // 2. 创建 CURRENT_MAIN 关系（衍生文件 -> 当前主文件，初始等于源文件）
-                FileRelationEntity currentMainRelation = FileRelationEntity.builder()
-                        .fileFkey(derivedFkey)
-                        .relatedFkey(sourceFkey)
-                        .relationType(FileRelationEntity.RelationType.CURRENT_MAIN)
-                        .build();
-                relationRepository.save(currentMainRelation);
-
-                // 3. 创建反向 DERIVED 关系（源文件 -> 衍生文件）
-                FileRelationEntity derivedRelation = FileRelationEntity.builder()
-                        .fileFkey(sourceFkey)
-                        .relatedFkey(derivedFkey)
-                        .relationType(FileRelationEntity.RelationType.DERIVED)
-                        .build();
-                relationRepository.save(derivedRelation);
-
-                log.debug("Created file relations: derived={}, source={}", derivedFkey, sourceFkey);
+            // 1. SOURCE 关系（衍生文件 -> 源文件）
+            relations.add(relation(derivedFkey, sourceFkey, FileRelationEntity.RelationType.SOURCE));
+            // 2. CURRENT_MAIN 关系（衍生文件 -> 当前主文件，初始等于源文件）
+            relations.add(relation(derivedFkey, sourceFkey, FileRelationEntity.RelationType.CURRENT_MAIN));
+            // 3. 反向 DERIVED 关系（源文件 -> 衍生文件）
+            relations.add(relation(sourceFkey, derivedFkey, FileRelationEntity.RelationType.DERIVED));
+        }
 
-            } catch (Exception e) {
-                log.error("Failed to create file relations: derived={}, source={}, error={}",
-                        derivedFkey, sourceFkey, e.getMessage(), e);
-                // 不抛出异常，避免影响其他衍生文件的处理
+        int inserted;
+        try {
+            inserted = relationRepository.insertIgnoreExisting(relations);
+        } catch (DataIntegrityViolationException e) {
+            // 同一事件被并发重复处理：对方已提交的行在重试时会被跳过
+            log.debug("Concurrent relation insert detected, retrying: taskId={}", event.taskId());
+            try {
+                inserted = relationRepository.insertIgnoreExisting(fresh(relations));
+            } catch (Exception retryError) {
+                log.error("Failed to create file relations: taskId={}, source={}, error={}",
+                        event.taskId(), sourceFkey, retryError.getMessage(), retryError);
+                return;
             }
+        } catch (Exception e) {
+            log.error("Failed to create file relations: taskId={}, source={}, error={}",
+                    event.taskId(), sourceFkey, e.getMessage(), e);
+            return;
         }
+        log.debug("Created file relations: source={}, inserted={}, skipped={}",
+                sourceFkey, inserted, relations.size() - inserted);
 
         log.info("Completed derived files processing: taskId={}, count={}",
                 event.taskId(), event.getDerivedFileCount());
     }
+
+    private static FileRelationEntity relation(String fileFkey, String relatedFkey,
+                                               FileRelationEntity.RelationType relationType) {
+        return FileRelationEntity.builder()
+                .fileFkey(fileFkey)
+                .relatedFkey(relatedFkey)
+                .relationType(relationType)
+                .build();
+    }
+
+    /**
+     * 重试时使用新实例：失败事务中已 persist 的实体不能再次使用
+     */
+    private static List<FileRelationEntity> fresh(List<FileRelationEntity> relations) {
+        return relations.stream()
+                .map(r -> relation(r.getFileFkey(), r.getRelatedFkey(), r.getRelationType()))
+                .toList();
+    }
 }
@@ -0,0 +1,237 @@
+package tech.icc.filesrv.core.infra.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
+import tech.icc.filesrv.core.infra.config.CallbackOutboxProperties;
+import tech.icc.filesrv.core.infra.config.TaskRecoveryProperties;
+import tech.icc.filesrv.core.infra.persistence.entity.CallbackOutboxEntity;
+import tech.icc.filesrv.core.infra.persistence.repository.CallbackOutboxJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.TaskJpaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Callback 任务发件箱
+ * <p>
+ * 完成上传的事务只写入 callback_outbox，不直接调用消息队列：
+ * <ul>
+ *   <li>消息与任务状态同事务提交，事务回滚时不会发出消息，消息队列故障也不会让任务停留在 PROCESSING</li>
+ *   <li>请求无需等待 broker 确认即可返回</li>
+ * </ul>
+ * 转发：
+ * <ul>
+ *   <li>事务提交后立即触发，另按 poll-interval 轮询（见 {@code CallbackOutboxRelayTask}）处理重试和其它节点遗留的消息；
+ *       file-srv.callback-outbox.enabled=false 时本节点只写入、不转发</li>
+ *   <li>每批锁定一组到期消息（SKIP LOCKED，多节点并发转发互不重复），全部发出后统一等待确认，
+ *       确认的消息删除，失败或超时的按指数退避重试</li>
+ *   <li>messageId 在发件箱写入时分配、重投时不变，确认前宕机导致的重复投递由消费端幂等检查过滤</li>
+ *   <li>确认投递时把任务的处理租约从交付时刻重新计起：在发件箱中等待的时间不计入租约，
+ *       恢复扫描也不会选中仍有待转发消息的任务</li>
+ * </ul>
+ * 指标：{@code file.callback.outbox.published}、{@code file.callback.outbox.failures}、
+ * {@code file.callback.outbox.lag}（写入到确认投递的耗时）。
+ */
+@Slf4j
+@Component
+public class CallbackOutbox {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final CallbackOutboxJpaRepository repository;
+    private final TaskJpaRepository taskRepository;
+    private final CallbackTaskPublisher publisher;
+    private final CallbackOutboxProperties properties;
+    private final TaskRecoveryProperties recoveryProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final Counter publishedCounter;
+    private final Counter failuresCounter;
+    private final Timer lagTimer;
+
+    public CallbackOutbox(CallbackOutboxJpaRepository repository,
+                          TaskJpaRepository taskRepository,
+                          CallbackTaskPublisher publisher,
+                          CallbackOutboxProperties properties,
+                          TaskRecoveryProperties recoveryProperties,
+                          PlatformTransactionManager transactionManager,
+                          TaskScheduler taskScheduler,
+                          MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.taskRepository = taskRepository;
+        this.publisher = publisher;
+        this.properties = properties;
+        this.recoveryProperties = recoveryProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+
+        this.publishedCounter = Counter.builder("file.callback.outbox.published")
+                .description("Callback task messages handed off from the outbox")
+                .register(meterRegistry);
+        this.failuresCounter = Counter.builder("file.callback.outbox.failures")
+                .description("Callback task message hand-offs that failed and will be retried")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("file.callback.outbox.lag")
+                .description("Time from outbox write to acknowledged hand-off")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在当前事务中登记待发布的 callback 任务
+     * <p>
+     * 必须在事务内调用；事务提交后触发转发，回滚时消息一并丢弃。
+     *
+     * @param taskId 任务 ID
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String taskId) {
+        Instant now = Instant.now();
+        // persist 而非 save：assigned id 的 save 会先 merge（多一次 SELECT）
+        entityManager.persist(CallbackOutboxEntity.builder()
+                .messageId(UUID.randomUUID().toString())
+                .taskId(taskId)
+                .createdAt(now)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    /**
+     * 转发全部到期消息
+     *
+     * @return 处理的消息数（含失败的）
+     */
+    public int relay() {
+        int total = 0;
+        try {
+            int batchSize = Math.max(1, properties.getBatchSize());
+            int processed;
+            do {
+                processed = transactionTemplate.execute(status -> relayBatch(batchSize));
+                total += processed;
+            } while (processed == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            log.error("Callback outbox relay failed", e);
+        }
+        return total;
+    }
+
+    private void wakeUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                taskScheduler.schedule(() -> {
+                    wakeUpPending.set(false);
+                    relay();
+                }, Instant.now());
+            } catch (RuntimeException e) {
+                // 已关闭：留给轮询
+                wakeUpPending.set(false);
+            }
+        }
+    }
+
+    /**
+     * 锁定一批到期消息，全部发出后统一等待确认
+     */
+    int relayBatch(int batchSize) {
+        List<CallbackOutboxEntity> due = repository.lockDue(Instant.now(), PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Map<CallbackOutboxEntity, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+        for (CallbackOutboxEntity entry : due) {
+            CompletableFuture<Void> future;
+            try {
+                future = publisher.publish(entry.getMessageId(), entry.getTaskId());
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            sends.put(entry, future);
+        }
+
+        long deadline = System.nanoTime() + properties.getSendTimeout().toNanos();
+        List<String> delivered = new ArrayList<>();
+        List<String> deliveredTasks = new ArrayList<>();
+        for (var send : sends.entrySet()) {
+            CallbackOutboxEntity entry = send.getKey();
+            try {
+                send.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.add(entry.getMessageId());
+                deliveredTasks.add(entry.getTaskId());
+                lagTimer.record(Duration.between(entry.getCreatedAt(), Instant.now()));
+            } catch (ExecutionException e) {
+                scheduleRetry(entry, e.getCause() != null ? e.getCause() : e);
+            } catch (TimeoutException e) {
+                scheduleRetry(entry, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                scheduleRetry(entry, e);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            repository.deleteByMessageIds(delivered);
+            // 租约从交付给消息队列时开始计算
+            taskRepository.extendLease(deliveredTasks, Instant.now().plus(recoveryProperties.getLeaseTimeout()));
+            publishedCounter.increment(delivered.size());
+        }
+        return due.size();
+    }
+
+    private void scheduleRetry(CallbackOutboxEntity entry, Throwable error) {
+        int attempts = entry.getAttempts() + 1;
+        Duration backoff = backoff(attempts);
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(Instant.now().plus(backoff));
+        String message = String.valueOf(error);
+        entry.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        failuresCounter.increment();
+        log.warn("Failed to hand off callback task, retrying: taskId={}, messageId={}, attempts={}, retryIn={}",
+                entry.getTaskId(), entry.getMessageId(), attempts, backoff, error);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration max = properties.getRetryMaxBackoff();
+        Duration backoff = properties.getRetryInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(max) > 0 ? max : backoff;
+    }
+}
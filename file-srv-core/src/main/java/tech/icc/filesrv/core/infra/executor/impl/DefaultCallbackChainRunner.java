@@ -2,6 +2,7 @@ package tech.icc.filesrv.core.infra.executor.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.transaction.annotation.Transactional;
 import tech.icc.filesrv.common.context.TaskContext;
 import tech.icc.filesrv.common.spi.plugin.annotation.PluginInvoker;
@@ -9,6 +10,7 @@ import tech.icc.filesrv.common.spi.plugin.PluginResult;
 import tech.icc.filesrv.common.vo.file.FileMetadataUpdate;
 import tech.icc.filesrv.common.vo.task.CallbackConfig;
 import tech.icc.filesrv.common.vo.task.DerivedFile;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
 import tech.icc.filesrv.core.application.service.FileService;
 import tech.icc.filesrv.core.domain.files.FileReferenceRepository;
 import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
@@ -65,6 +67,7 @@ public class DefaultCallbackChainRunner implements CallbackChainRunner {
     private final PluginStorageService pluginStorageService;
     private final FileService fileService;
     private final FileReferenceRepository fileReferenceRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
     public DefaultCallbackChainRunner(TaskRepository taskRepository,
                                        PluginRegistry pluginRegistry,
@@ -74,7 +77,8 @@ public class DefaultCallbackChainRunner implements CallbackChainRunner {
                                        ExecutorProperties properties,
                                        PluginStorageService pluginStorageService,
                                        FileService fileService,
-                                       FileReferenceRepository fileReferenceRepository) {
+                                       FileReferenceRepository fileReferenceRepository,
+                                       ApplicationEventPublisher applicationEventPublisher) {
         this.taskRepository = taskRepository;
         this.pluginRegistry = pluginRegistry;
         this.localFileManager = localFileManager;
@@ -84,6 +88,7 @@ public class DefaultCallbackChainRunner implements CallbackChainRunner {
         this.pluginStorageService = pluginStorageService;
         this.fileService = fileService;
         this.fileReferenceRepository = fileReferenceRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     @Override
@@ -98,6 +103,12 @@ public class DefaultCallbackChainRunner implements CallbackChainRunner {
         final String taskId = task.getTaskId();
         task = taskRepository.findByTaskIdForUpdate(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found: " + taskId));
+        // 恢复扫描重投或消息重复投递时，任务可能已由其它节点执行完毕
+        if (task.getStatus() != TaskStatus.PROCESSING) {
+            log.info("Task no longer PROCESSING, skipping callback chain: taskId={}, status={}",
+                    taskId, task.getStatus());
+            return;
+        }
         
         TaskContext context = task.getContext();
 
@@ -382,6 +393,8 @@ public class DefaultCallbackChainRunner implements CallbackChainRunner {
                 task.getContext().getPluginOutputs()
         );
         eventPublisher.publishCompleted(event);
+        // 本地分发，唤醒等待该任务状态的长轮询 / SSE 连接
+        applicationEventPublisher.publishEvent(event);
     }
 
     /**
@@ -395,6 +408,7 @@ public class DefaultCallbackChainRunner implements CallbackChainRunner {
                 task.getCurrentCallbackIndex()
         );
         eventPublisher.publishFailed(event);
+        applicationEventPublisher.publishEvent(event);
     }
 
     /**
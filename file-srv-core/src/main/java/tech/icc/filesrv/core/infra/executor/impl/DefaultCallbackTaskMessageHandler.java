@@ -16,7 +16,11 @@ import tech.icc.filesrv.core.infra.executor.CallbackChainRunner;
 import tech.icc.filesrv.core.infra.executor.exception.CallbackExecutionException;
 import tech.icc.filesrv.core.infra.executor.exception.CallbackTimeoutException;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 默认 Callback 任务消息处理器
@@ -48,16 +52,42 @@ public class DefaultCallbackTaskMessageHandler implements CallbackTaskMessageHan
 
     @Override
     public HandleResult handle(CallbackTaskMessage msg) {
-        String taskId = msg.taskId();
-        String messageId = msg.messageId();
+        // 1. 幂等认领（原子操作，并发收到同一消息的消费者只有一个认领成功）
+        if (!idempotencyChecker.tryClaim(msg.messageId(), claimTtl())) {
+            log.debug("Duplicate message, skipping: messageId={}", msg.messageId());
+            return HandleResult.ACK;
+        }
+        return process(msg);
+    }
 
-        log.info("Handling callback task message: taskId={}, messageId={}", taskId, messageId);
+    @Override
+    public List<CallbackTaskMessage> claimAll(List<CallbackTaskMessage> messages) {
+        Set<String> claimed = new HashSet<>(idempotencyChecker.tryClaimAll(
+                messages.stream().map(CallbackTaskMessage::messageId).toList(), claimTtl()));
+        if (claimed.size() < messages.size()) {
+            log.debug("Duplicate messages in batch skipped: count={}", messages.size() - claimed.size());
+        }
+        // 同一批内重复的消息只保留第一条
+        return messages.stream()
+                .filter(msg -> claimed.remove(msg.messageId()))
+                .toList();
+    }
 
-        // 1. 幂等检查
-        if (idempotencyChecker.isDuplicate(messageId)) {
-            log.debug("Duplicate message, skipping: messageId={}", messageId);
+    @Override
+    public HandleResult handleClaimed(CallbackTaskMessage msg) {
+        // 批量认领后按分区在途上限排队，等待时间可能超过认领保留时间：开始执行前按整条链的超时续期
+        if (!idempotencyChecker.renewClaim(msg.messageId(), claimTtl())) {
+            log.debug("Claim taken over while queued, skipping: messageId={}", msg.messageId());
             return HandleResult.ACK;
         }
+        return process(msg);
+    }
+
+    private HandleResult process(CallbackTaskMessage msg) {
+        String taskId = msg.taskId();
+        String messageId = msg.messageId();
+
+        log.info("Handling callback task message: taskId={}, messageId={}", taskId, messageId);
 
         // 2. 过期检查
         if (msg.isExpired()) {
@@ -101,12 +131,21 @@ public class DefaultCallbackTaskMessageHandler implements CallbackTaskMessageHan
             return HandleResult.ACK;
 
         } catch (Exception e) {
-            // 未预期异常：返回 RETRY 交给消息中间件重投递
+            // 未预期异常：释放认领，返回 RETRY 交给消息中间件重投递
             log.error("Unexpected error: taskId={}", taskId, e);
+            idempotencyChecker.release(messageId);
             return HandleResult.RETRY;
         }
     }
 
+    /**
+     * 认领保留时间：覆盖整个 callback 链的最长执行时间，处理节点宕机后认领自动过期。
+     * 批量认领的消息在开始执行时续期，排队时间不计入
+     */
+    private Duration claimTtl() {
+        return properties.timeout().chain();
+    }
+
     private void handleExpired(CallbackTaskMessage msg) {
         Optional<TaskAggregate> taskOpt = taskRepository.findByTaskId(msg.taskId());
         if (taskOpt.isPresent()) {
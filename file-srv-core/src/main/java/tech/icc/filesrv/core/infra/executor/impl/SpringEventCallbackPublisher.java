@@ -8,6 +8,8 @@ import org.springframework.stereotype.Component;
 import tech.icc.filesrv.core.domain.events.CallbackTaskEvent;
 import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Spring Event implementation of callback task publisher.
  * <p>
@@ -34,7 +36,21 @@ public class SpringEventCallbackPublisher implements CallbackTaskPublisher {
 
     @Override
     public void publish(String taskId) {
-        CallbackTaskEvent event = CallbackTaskEvent.of(taskId);
+        publish(CallbackTaskEvent.of(taskId));
+    }
+
+    /**
+     * Publish with the outbox-assigned message id; listeners run synchronously, so the hand-off
+     * is complete when this returns.
+     */
+    @Override
+    public CompletableFuture<Void> publish(String messageId, String taskId) {
+        publish(CallbackTaskEvent.withMessageId(taskId, messageId));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void publish(CallbackTaskEvent event) {
+        String taskId = event.taskId();
 
         log.info("Publishing callback task event: taskId={}, messageId={}",
                 taskId, event.messageId());
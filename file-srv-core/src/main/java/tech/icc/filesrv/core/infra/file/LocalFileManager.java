@@ -1,6 +1,8 @@
 package tech.icc.filesrv.core.infra.file;
 
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
 
 /**
  * 本地文件管理器
@@ -28,6 +30,15 @@ public interface LocalFileManager {
      */
     void cleanup(String taskId);
 
+    /**
+     * 列出本节点临时根目录下的任务目录
+     * <p>
+     * 用于各节点自行回收已结束或已丢失任务的残留目录。
+     *
+     * @return 任务 ID → 目录最后修改时间
+     */
+    Map<String, Instant> listTaskDirectories();
+
     /**
      * 获取任务的临时目录（供 Plugin 写入衍生文件）
      *
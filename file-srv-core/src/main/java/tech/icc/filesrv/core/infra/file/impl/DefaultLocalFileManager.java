@@ -12,6 +12,8 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -80,6 +82,27 @@ public class DefaultLocalFileManager implements LocalFileManager {
         }
     }
 
+    @Override
+    public Map<String, Instant> listTaskDirectories() {
+        Map<String, Instant> directories = new HashMap<>();
+        try (var entries = Files.list(tempBaseDir)) {
+            for (Path entry : entries.toList()) {
+                if (!Files.isDirectory(entry)) {
+                    continue;
+                }
+                try {
+                    directories.put(entry.getFileName().toString(), Files.getLastModifiedTime(entry).toInstant());
+                } catch (IOException e) {
+                    // 列出后被并发清理
+                    log.debug("Skipping vanished task directory: {}", entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list temp directory: " + tempBaseDir, e);
+        }
+        return directories;
+    }
+
     @Override
     public Path getTempDirectory(String taskId) {
         Path taskDir = tempBaseDir.resolve(taskId);
@@ -0,0 +1,51 @@
+package tech.icc.filesrv.core.infra.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Callback 任务发件箱 JPA 实体
+ * <p>
+ * 与任务状态在同一事务中写入，由后台转发到消息队列，确认投递后删除。
+ * messageId 在重投时保持不变，消费端据此去重。
+ */
+@Entity
+@Table(name = "callback_outbox", indexes = {
+        @Index(name = "idx_callback_outbox_next_attempt", columnList = "next_attempt_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallbackOutboxEntity {
+
+    @Id
+    @Column(name = "message_id", length = 36)
+    private String messageId;
+
+    @Column(name = "task_id", nullable = false, length = 64)
+    private String taskId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+}
@@ -58,6 +58,18 @@ public class FileInfoEntity {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    /**
+     * 最近访问时间，由访问统计批量回写（实体保存时不写入，避免覆盖）
+     */
+    @Column(name = "last_accessed_at", insertable = false, updatable = false)
+    private Instant lastAccessedAt;
+
+    /**
+     * 累计访问次数（采样估算），由访问统计批量回写
+     */
+    @Column(name = "access_count", insertable = false, updatable = false)
+    private Long accessCount;
+
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "storage_copy", joinColumns = @JoinColumn(name = "content_hash"))
     @Builder.Default
@@ -0,0 +1,59 @@
+package tech.icc.filesrv.core.infra.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * 引用计数分片 JPA 实体
+ * <p>
+ * 热点 contentHash 的引用计数增减分散到多行，避免所有事务排队等待同一 file_info 行锁。
+ * 文件的实际引用计数 = file_info.ref_count + 各分片 delta 之和；分片定期折叠回 file_info。
+ */
+@Entity
+@Table(name = "file_ref_stripe")
+@IdClass(FileRefStripeEntity.FileRefStripeId.class)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileRefStripeEntity {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Id
+    @Column(name = "stripe")
+    private Integer stripe;
+
+    /**
+     * 尚未折叠的引用数（不小于 0）
+     */
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    /**
+     * 复合主键
+     */
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    public static class FileRefStripeId implements Serializable {
+        private String contentHash;
+        private Integer stripe;
+    }
+}
@@ -0,0 +1,41 @@
+package tech.icc.filesrv.core.infra.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * 维护任务租约 JPA 实体
+ * <p>
+ * 每行一个租约：任务 leader 或节点存活登记，过期即视为释放。
+ */
+@Entity
+@Table(name = "maintenance_lease", indexes = {
+        @Index(name = "idx_maintenance_lease_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceLeaseEntity {
+
+    @Id
+    @Column(name = "lease_name", length = 128)
+    private String name;
+
+    @Column(name = "holder", nullable = false, length = 128)
+    private String holder;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
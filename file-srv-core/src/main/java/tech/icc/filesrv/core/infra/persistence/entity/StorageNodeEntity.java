@@ -53,6 +53,24 @@ public class StorageNodeEntity {
     @Column(name = "status", length = 16)
     private NodeStatus status;
 
+    /**
+     * 路由权重，为空时使用默认权重
+     */
+    @Column(name = "weight")
+    private Integer weight;
+
+    /**
+     * 总容量（字节），为空或 0 表示不限制
+     */
+    @Column(name = "capacity_bytes")
+    private Long capacityBytes;
+
+    /**
+     * 已用容量（字节），由容量上报任务或运维维护
+     */
+    @Column(name = "used_bytes")
+    private Long usedBytes;
+
     @Column(name = "created_at")
     private Instant createdAt;
 
@@ -68,6 +86,9 @@ public class StorageNodeEntity {
                 .bucket(node.bucket())
                 .tier(node.tier())
                 .status(node.status())
+                .weight(node.weight())
+                .capacityBytes(node.capacityBytes())
+                .usedBytes(node.usedBytes())
                 .createdAt(Instant.now())
                 .build();
     }
@@ -76,6 +97,9 @@ public class StorageNodeEntity {
      * 转换为领域对象
      */
     public StorageNode toDomain() {
-        return new StorageNode(nodeId, nodeName, adapterType, tier, status, endpoint, bucket);
+        return new StorageNode(nodeId, nodeName, adapterType, tier, status, endpoint, bucket,
+                weight != null ? weight : StorageNode.DEFAULT_WEIGHT,
+                capacityBytes != null ? capacityBytes : 0L,
+                usedBytes != null ? usedBytes : 0L);
     }
 }
@@ -38,7 +38,8 @@ import java.util.Map;
 @Table(name = "upload_task", indexes = {
         @Index(name = "idx_fkey", columnList = "f_key"),
         @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_expires_at", columnList = "expires_at")
+        @Index(name = "idx_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_upload_task_status_lease", columnList = "status, lease_expires_at")
 })
 @Getter
 @Setter
@@ -120,6 +121,12 @@ public class TaskEntity {
     @Column(name = "completed_at")
     private Instant completedAt;
 
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "recovery_attempts")
+    private Integer recoveryAttempts;
+
     /**
      * 乐观锁版本号
      */
@@ -150,6 +157,8 @@ public class TaskEntity {
                 .createdAt(task.getCreatedAt())
                 .expiresAt(task.getExpiresAt())
                 .completedAt(task.getCompletedAt())
+                .leaseExpiresAt(task.getLeaseExpiresAt())
+                .recoveryAttempts(task.getRecoveryAttempts())
                 .version(task.getVersion())
                 .build();
     }
@@ -191,6 +200,8 @@ public class TaskEntity {
         task.setCreatedAt(createdAt);
         task.setExpiresAt(expiresAt);
         task.setCompletedAt(completedAt);
+        task.setLeaseExpiresAt(leaseExpiresAt);
+        task.setRecoveryAttempts(recoveryAttempts != null ? recoveryAttempts : 0);
         task.setVersion(version);
 
         return task;
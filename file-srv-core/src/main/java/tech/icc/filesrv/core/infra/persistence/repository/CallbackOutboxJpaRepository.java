@@ -0,0 +1,37 @@
+package tech.icc.filesrv.core.infra.persistence.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import tech.icc.filesrv.core.infra.persistence.entity.CallbackOutboxEntity;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Callback 任务发件箱 JPA Repository
+ */
+public interface CallbackOutboxJpaRepository extends JpaRepository<CallbackOutboxEntity, String> {
+
+    /**
+     * 锁定到期待投递的消息（SELECT FOR UPDATE SKIP LOCKED）
+     * <p>
+     * 多个节点并发转发时各自锁定不同的消息。注意：必须在事务内调用。
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM CallbackOutboxEntity o WHERE o.nextAttemptAt <= :now " +
+           "ORDER BY o.nextAttemptAt, o.createdAt")
+    List<CallbackOutboxEntity> lockDue(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CallbackOutboxEntity o WHERE o.messageId IN :messageIds")
+    int deleteByMessageIds(@Param("messageIds") Collection<String> messageIds);
+}
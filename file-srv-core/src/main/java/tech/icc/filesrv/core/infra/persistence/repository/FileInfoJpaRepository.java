@@ -1,30 +1,229 @@
 package tech.icc.filesrv.core.infra.persistence.repository;
 
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
 import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
 import tech.icc.filesrv.core.infra.persistence.entity.FileInfoEntity;
+import tech.icc.filesrv.core.infra.persistence.entity.StorageCopyEmbeddable;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 物理文件信息 JPA Repository
  */
 public interface FileInfoJpaRepository extends JpaRepository<FileInfoEntity, String> {
 
+    /**
+     * 已标记删除（尚未被 GC 回收）的文件被重新引用时恢复为 ACTIVE
+     * <p>
+     * 回收中（COLLECTING）的文件对象正在被删除，不再恢复，更新 0 行。
+     */
     @Modifying
-    @Query("UPDATE FileInfoEntity f SET f.refCount = f.refCount + 1 WHERE f.contentHash = :contentHash")
+    @Query("UPDATE FileInfoEntity f SET f.refCount = f.refCount + 1, " +
+           "f.status = CASE WHEN f.status = 'DELETED' THEN 'ACTIVE' ELSE f.status END " +
+           "WHERE f.contentHash = :contentHash AND f.status <> 'COLLECTING'")
     int incrementRefCount(@Param("contentHash") String contentHash);
 
+    /**
+     * 一次增加多个引用（批量激活引用同一内容的多个文件时使用）
+     */
+    @Modifying
+    @Query("UPDATE FileInfoEntity f SET f.refCount = f.refCount + :count, " +
+           "f.status = CASE WHEN f.status = 'DELETED' THEN 'ACTIVE' ELSE f.status END " +
+           "WHERE f.contentHash = :contentHash AND f.status <> 'COLLECTING'")
+    int incrementRefCountBy(@Param("contentHash") String contentHash, @Param("count") int count);
+
+    /**
+     * 只查询引用计数相关列，不加载副本集合（包含尚未折叠的分片计数）
+     */
+    @Query("SELECT new tech.icc.filesrv.core.domain.files.FileRefCount(f.contentHash, " +
+           "CAST(f.refCount + COALESCE((SELECT SUM(s.delta) FROM FileRefStripeEntity s " +
+           "WHERE s.contentHash = f.contentHash), 0) AS Integer), f.status) " +
+           "FROM FileInfoEntity f WHERE f.contentHash = :contentHash")
+    Optional<FileRefCount> findRefCount(@Param("contentHash") String contentHash);
+
+    /**
+     * 查询可用副本（只读取 storage_copy 列）
+     */
+    @Query("SELECT c FROM FileInfoEntity f JOIN f.copies c " +
+           "WHERE f.contentHash = :contentHash AND c.status = 'ACTIVE'")
+    List<StorageCopyEmbeddable> findAvailableCopies(@Param("contentHash") String contentHash, Pageable pageable);
+
+    /**
+     * 折叠分片计数：加上分片转移过来的引用，被标记删除的文件恢复为 ACTIVE
+     * <p>
+     * status 先于 ref_count 赋值（MySQL 按顺序赋值，后续表达式看到的是新值）。
+     */
+    @Modifying
+    @Query("UPDATE FileInfoEntity f SET " +
+           "f.status = CASE WHEN f.status = 'DELETED' AND f.refCount + :amount > 0 THEN 'ACTIVE' ELSE f.status END, " +
+           "f.refCount = f.refCount + :amount " +
+           "WHERE f.contentHash = :contentHash AND f.status <> 'COLLECTING'")
+    int addRefCount(@Param("contentHash") String contentHash, @Param("amount") int amount);
+
+    /**
+     * 只查询主键，不加载实体及其副本集合
+     */
+    @Query("SELECT f.contentHash FROM FileInfoEntity f WHERE f.contentHash IN :contentHashes")
+    List<String> findExistingHashes(@Param("contentHashes") Collection<String> contentHashes);
+
     @Modifying
     @Query("UPDATE FileInfoEntity f SET f.refCount = f.refCount - 1, " +
            "f.status = CASE WHEN f.refCount <= 1 THEN 'DELETED' ELSE f.status END " +
            "WHERE f.contentHash = :contentHash AND f.refCount > 0")
     int decrementRefCount(@Param("contentHash") String contentHash);
 
-    @Query("SELECT f FROM FileInfoEntity f WHERE f.refCount <= 0 AND f.status = :status")
-    List<FileInfoEntity> findGarbageFiles(@Param("status") FileStatus status, Pageable pageable);
+    /**
+     * 一次减少多个引用（批量删除引用同一内容的多个文件时使用）
+     */
+    @Modifying
+    @Query("UPDATE FileInfoEntity f SET " +
+           "f.status = CASE WHEN f.refCount <= :count THEN 'DELETED' ELSE f.status END, " +
+           "f.refCount = CASE WHEN f.refCount <= :count THEN 0 ELSE f.refCount - :count END " +
+           "WHERE f.contentHash = :contentHash AND f.refCount > 0")
+    int decrementRefCountBy(@Param("contentHash") String contentHash, @Param("count") int count);
+
+    @Query("SELECT f FROM FileInfoEntity f WHERE f.refCount <= 0 AND f.status IN :statuses")
+    List<FileInfoEntity> findGarbageFiles(@Param("statuses") Collection<FileStatus> statuses, Pageable pageable);
+
+    /**
+     * 按主键游标分页查询可 GC 的文件（只返回主键）
+     */
+    @Query("SELECT f.contentHash FROM FileInfoEntity f " +
+           "WHERE f.refCount <= 0 AND f.status IN :statuses AND f.contentHash > :after " +
+           "ORDER BY f.contentHash")
+    List<String> findGarbageHashes(@Param("statuses") Collection<FileStatus> statuses,
+                                   @Param("after") String after,
+                                   Pageable pageable);
+
+    /**
+     * 按主键游标分页查询全部文件（只返回主键）
+     */
+    @Query("SELECT f.contentHash FROM FileInfoEntity f WHERE f.contentHash > :after ORDER BY f.contentHash")
+    List<String> findContentHashes(@Param("after") String after, Pageable pageable);
+
+    /**
+     * 按主键游标分页查询指定时刻之后创建的文件（只返回主键）
+     */
+    @Query("SELECT f.contentHash FROM FileInfoEntity f " +
+           "WHERE f.createdAt >= :since AND f.contentHash > :after " +
+           "ORDER BY f.contentHash")
+    List<String> findContentHashesCreatedSince(@Param("since") Instant since,
+                                               @Param("after") String after,
+                                               Pageable pageable);
+
+    /**
+     * 锁定仍可 GC 的文件（SELECT FOR UPDATE SKIP LOCKED）
+     * <p>
+     * 正在被其他事务修改（如秒传增加引用计数）的行被跳过，留给下次 GC；分片上仍有已提交未折叠引用的文件不会被锁定。
+     * 尚未提交的分片增量由随后锁定分片行发现（见 {@link FileRefStripeJpaRepository#lockStripes}）。
+     * 注意：必须在事务内调用。
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT f FROM FileInfoEntity f " +
+           "WHERE f.contentHash IN :contentHashes AND f.refCount <= 0 AND f.status IN :statuses " +
+           "AND NOT EXISTS (SELECT 1 FROM FileRefStripeEntity s " +
+           "WHERE s.contentHash = f.contentHash AND s.delta > 0)")
+    List<FileInfoEntity> lockGarbageFiles(@Param("contentHashes") Collection<String> contentHashes,
+                                          @Param("statuses") Collection<FileStatus> statuses);
+
+    /**
+     * 标记为回收中（GC 删除对象前，在独立事务中提交）
+     */
+    @Modifying
+    @Query("UPDATE FileInfoEntity f SET f.status = :status WHERE f.contentHash IN :contentHashes")
+    int updateStatus(@Param("contentHashes") Collection<String> contentHashes, @Param("status") FileStatus status);
+
+    /**
+     * 副本是 @ElementCollection，JPQL 无法批量更新，使用原生 SQL 只更新单个副本行，同时记录状态变更时间
+     */
+    @Modifying
+    @Query(value = "UPDATE storage_copy SET copy_status = :target, copy_status_changed_at = CURRENT_TIMESTAMP(6) " +
+                   "WHERE content_hash = :contentHash AND copy_id = :copyId AND copy_status = :expected",
+           nativeQuery = true)
+    int updateCopyStatus(@Param("contentHash") String contentHash,
+                         @Param("copyId") String copyId,
+                         @Param("expected") String expected,
+                         @Param("target") String target);
+
+    /**
+     * 状态变更时间未映射到实体（只由 {@link #updateCopyStatus} 和列默认值维护），使用原生 SQL 查询
+     */
+    @Query(value = "SELECT copy_id FROM storage_copy " +
+                   "WHERE copy_status = :copyStatus AND copy_status_changed_at < :before " +
+                   "ORDER BY copy_status_changed_at LIMIT :limit",
+           nativeQuery = true)
+    List<String> findCopyIdsByStatusChangedBefore(@Param("copyStatus") String copyStatus,
+                                                  @Param("before") Instant before,
+                                                  @Param("limit") int limit);
+
+    @Query("SELECT DISTINCT f FROM FileInfoEntity f JOIN f.copies c WHERE c.copyId IN :copyIds")
+    List<FileInfoEntity> findByCopyIds(@Param("copyIds") Collection<String> copyIds);
+
+    @Query("SELECT DISTINCT f FROM FileInfoEntity f JOIN f.copies c " +
+           "WHERE c.status = :copyStatus AND c.createdAt < :before")
+    List<FileInfoEntity> findByCopyStatus(@Param("copyStatus") CopyStatus copyStatus,
+                                          @Param("before") Instant before,
+                                          Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE file_info SET access_count = COALESCE(access_count, 0) + :count, " +
+                   "last_accessed_at = :accessedAt WHERE content_hash = :contentHash",
+           nativeQuery = true)
+    int recordAccess(@Param("contentHash") String contentHash,
+                     @Param("count") long count,
+                     @Param("accessedAt") Instant accessedAt);
+
+    /**
+     * 从未被访问过的文件按创建时间判断
+     */
+    @Query("SELECT DISTINCT f FROM FileInfoEntity f JOIN f.copies c " +
+           "WHERE f.status = :fileStatus AND c.tier = :tier AND c.status = :copyStatus " +
+           "AND COALESCE(f.lastAccessedAt, f.createdAt) < :idleSince")
+    List<FileInfoEntity> findIdleFiles(@Param("fileStatus") FileStatus fileStatus,
+                                       @Param("tier") StorageTier tier,
+                                       @Param("copyStatus") CopyStatus copyStatus,
+                                       @Param("idleSince") Instant idleSince,
+                                       Pageable pageable);
+
+    /**
+     * 登记副本（独立事务，唯一键冲突说明同一节点上已有该内容的副本）
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO storage_copy " +
+                   "(content_hash, copy_id, node_id, path, tier, copy_status, copy_created_at) " +
+                   "VALUES (:contentHash, :copyId, :nodeId, :path, :tier, :copyStatus, :createdAt)",
+           nativeQuery = true)
+    int insertCopy(@Param("contentHash") String contentHash,
+                   @Param("copyId") String copyId,
+                   @Param("nodeId") String nodeId,
+                   @Param("path") String path,
+                   @Param("tier") String tier,
+                   @Param("copyStatus") String copyStatus,
+                   @Param("createdAt") Instant createdAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM storage_copy " +
+                   "WHERE content_hash = :contentHash AND copy_id = :copyId AND copy_status = :expected",
+           nativeQuery = true)
+    int deleteCopy(@Param("contentHash") String contentHash,
+                   @Param("copyId") String copyId,
+                   @Param("expected") String expected);
 }
@@ -0,0 +1,134 @@
+package tech.icc.filesrv.core.infra.persistence.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.infra.persistence.entity.FileRefStripeEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 引用计数分片 JPA Repository
+ */
+public interface FileRefStripeJpaRepository
+        extends JpaRepository<FileRefStripeEntity, FileRefStripeEntity.FileRefStripeId> {
+
+    /**
+     * 在分片上增加一个引用
+     * <p>
+     * 只在文件仍为 ACTIVE 时生效：已标记删除的文件由 file_info 行锁与 GC 协调，不走分片。
+     * 不锁定 file_info 行；与 GC 的并发通过分片行锁协调（见 {@link #lockStripes}）。
+     *
+     * @return 1 表示成功，0 表示分片不存在或文件不是 ACTIVE（调用方回退到 file_info）
+     */
+    @Modifying
+    @Query("UPDATE FileRefStripeEntity s SET s.delta = s.delta + 1 " +
+           "WHERE s.contentHash = :contentHash AND s.stripe = :stripe AND EXISTS (" +
+           "SELECT 1 FROM FileInfoEntity f WHERE f.contentHash = :contentHash AND f.status = :status)")
+    int increment(@Param("contentHash") String contentHash,
+                  @Param("stripe") int stripe,
+                  @Param("status") FileStatus status);
+
+    /**
+     * 从分片上减少一个引用（分片 delta 不会小于 0）
+     *
+     * @return 1 表示成功，0 表示分片不存在或已无可减的引用
+     */
+    @Modifying
+    @Query("UPDATE FileRefStripeEntity s SET s.delta = s.delta - 1 " +
+           "WHERE s.contentHash = :contentHash AND s.stripe = :stripe AND s.delta > 0")
+    int decrement(@Param("contentHash") String contentHash, @Param("stripe") int stripe);
+
+    /**
+     * 折叠时扣减已转移到 file_info 的数量（相对更新，不丢失并发增加）
+     */
+    @Modifying
+    @Query("UPDATE FileRefStripeEntity s SET s.delta = s.delta - :amount " +
+           "WHERE s.contentHash = :contentHash AND s.stripe = :stripe")
+    int subtract(@Param("contentHash") String contentHash,
+                 @Param("stripe") int stripe,
+                 @Param("amount") int amount);
+
+    /**
+     * 查询有未折叠引用的分片（标量投影，不读取持久化上下文中可能过期的实体）
+     */
+    @Query("SELECT s.stripe AS stripe, s.delta AS delta FROM FileRefStripeEntity s " +
+           "WHERE s.contentHash = :contentHash AND s.delta > 0")
+    List<PendingStripe> findPending(@Param("contentHash") String contentHash);
+
+    @Query("SELECT s.stripe FROM FileRefStripeEntity s WHERE s.contentHash = :contentHash")
+    List<Integer> findStripes(@Param("contentHash") String contentHash);
+
+    /**
+     * 按 contentHash 游标分页查找已分片的文件
+     */
+    @Query("SELECT DISTINCT s.contentHash FROM FileRefStripeEntity s WHERE s.contentHash > :after " +
+           "ORDER BY s.contentHash")
+    List<String> findStripedHashes(@Param("after") String after, Pageable pageable);
+
+    /**
+     * 锁定文件的全部分片行（SELECT ... FOR UPDATE），持有到事务结束
+     * <p>
+     * GC 锁定 file_info 行之后调用：锁定读会等待尚未提交的分片增量，返回提交后的最新值；
+     * 此后到达的分片增量等待回收事务结束，分片行随文件一起删除后更新 0 行，回退到 file_info。
+     * 注意：必须在事务内调用。
+     */
+    @Query(value = "SELECT content_hash AS contentHash, stripe AS stripe, delta AS delta FROM file_ref_stripe " +
+                   "WHERE content_hash IN (:contentHashes) FOR UPDATE",
+           nativeQuery = true)
+    List<LockedStripe> lockStripes(@Param("contentHashes") Collection<String> contentHashes);
+
+    /**
+     * 创建分片（独立事务，主键冲突说明已被其它节点创建）
+     * <p>
+     * 只为 ACTIVE 文件创建：已标记删除的文件可能正在被 GC 回收，不能再出现可写的分片。
+     *
+     * @return 1 表示创建成功，0 表示文件不存在或不是 ACTIVE
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO file_ref_stripe (content_hash, stripe, delta) " +
+                   "SELECT content_hash, :stripe, 0 FROM file_info " +
+                   "WHERE content_hash = :contentHash AND status = 'ACTIVE'",
+           nativeQuery = true)
+    int insert(@Param("contentHash") String contentHash, @Param("stripe") int stripe);
+
+    /**
+     * 删除已折叠完的分片，文件回到单行计数
+     */
+    @Modifying
+    @Query("DELETE FROM FileRefStripeEntity s WHERE s.contentHash = :contentHash AND s.delta = 0")
+    int deleteIdle(@Param("contentHash") String contentHash);
+
+    @Modifying
+    @Query("DELETE FROM FileRefStripeEntity s WHERE s.contentHash = :contentHash")
+    int deleteByContentHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 分片计数投影
+     */
+    interface PendingStripe {
+
+        Integer getStripe();
+
+        Integer getDelta();
+    }
+
+    /**
+     * 已锁定的分片行投影
+     */
+    interface LockedStripe {
+
+        String getContentHash();
+
+        Integer getStripe();
+
+        Integer getDelta();
+    }
+}
@@ -4,8 +4,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import tech.icc.filesrv.core.infra.persistence.entity.FileReferenceEntity;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,5 +20,9 @@ public interface FileReferenceJpaRepository extends
         JpaSpecificationExecutor<FileReferenceEntity> {
 
     List<FileReferenceEntity> findByOwnerId(String ownerId);
+
+    @Modifying
+    @Query("DELETE FROM FileReferenceEntity f WHERE f.fKey IN :fKeys")
+    int deleteByFKeyIn(@Param("fKeys") Collection<String> fKeys);
 }
 
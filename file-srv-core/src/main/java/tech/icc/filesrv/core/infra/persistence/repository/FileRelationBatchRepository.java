@@ -0,0 +1,29 @@
+package tech.icc.filesrv.core.infra.persistence.repository;
+
+import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity;
+
+import java.util.Collection;
+
+/**
+ * File relation batch write operations.
+ * <p>
+ * Custom fragment of {@link FileRelationRepository}, implemented by
+ * {@link FileRelationBatchRepositoryImpl}.
+ * </p>
+ */
+public interface FileRelationBatchRepository {
+
+    /**
+     * Insert relations that do not exist yet, skipping existing ones (insert-ignore semantics).
+     * <p>
+     * Existing keys are loaded with a single query, and the missing rows are persisted directly
+     * (no per-row merge SELECT), so Hibernate sends them as one JDBC batch on flush.
+     * Runs in its own transaction, so it also commits when called from an
+     * {@code AFTER_COMMIT} event listener.
+     * </p>
+     *
+     * @param relations relations to insert; {@code createdAt}/{@code updatedAt} default to now
+     * @return number of inserted rows
+     */
+    int insertIgnoreExisting(Collection<FileRelationEntity> relations);
+}
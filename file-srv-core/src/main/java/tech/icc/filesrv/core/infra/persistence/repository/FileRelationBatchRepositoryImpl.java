@@ -0,0 +1,67 @@
+package tech.icc.filesrv.core.infra.persistence.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity;
+import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity.FileRelationId;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Batch write implementation for {@link FileRelationBatchRepository}.
+ */
+public class FileRelationBatchRepositoryImpl implements FileRelationBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int insertIgnoreExisting(Collection<FileRelationEntity> relations) {
+        if (relations.isEmpty()) {
+            return 0;
+        }
+        Set<String> fkeys = new HashSet<>();
+        relations.forEach(r -> {
+            fkeys.add(r.getFileFkey());
+            fkeys.add(r.getRelatedFkey());
+        });
+        // Over-fetches only relations among the same keys; tuple IN is not portable
+        Set<FileRelationId> existing = entityManager.createQuery(
+                        "SELECT r FROM FileRelationEntity r " +
+                        "WHERE r.fileFkey IN :fkeys AND r.relatedFkey IN :fkeys",
+                        FileRelationEntity.class)
+                .setParameter("fkeys", fkeys)
+                .getResultStream()
+                .map(FileRelationBatchRepositoryImpl::idOf)
+                .collect(Collectors.toSet());
+
+        Instant now = Instant.now();
+        int inserted = 0;
+        for (FileRelationEntity relation : relations) {
+            if (!existing.add(idOf(relation))) {
+                continue;
+            }
+            if (relation.getCreatedAt() == null) {
+                relation.setCreatedAt(now);
+            }
+            if (relation.getUpdatedAt() == null) {
+                relation.setUpdatedAt(now);
+            }
+            entityManager.persist(relation);
+            inserted++;
+        }
+        entityManager.flush();
+        return inserted;
+    }
+
+    private static FileRelationId idOf(FileRelationEntity relation) {
+        return new FileRelationId(relation.getFileFkey(), relation.getRelatedFkey(), relation.getRelationType());
+    }
+}
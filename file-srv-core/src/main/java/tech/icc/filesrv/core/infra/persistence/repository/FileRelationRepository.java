@@ -1,13 +1,17 @@
 package tech.icc.filesrv.core.infra.persistence.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity;
 import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity.FileRelationId;
 import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity.RelationType;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -18,11 +22,13 @@ import java.util.List;
  *   <li>Query derived files of a main file</li>
  *   <li>Query current main file of a derived file</li>
  *   <li>Query source file of a derived file</li>
- *   <li>Find orphan files (files with non-existent related files)</li>
+ *   <li>Find orphan derived files (files whose current main file no longer exists)</li>
+ *   <li>Insert relations in batch, skipping existing ones</li>
  * </ul>
  * </p>
  */
-public interface FileRelationRepository extends JpaRepository<FileRelationEntity, FileRelationId> {
+public interface FileRelationRepository extends JpaRepository<FileRelationEntity, FileRelationId>,
+        FileRelationBatchRepository {
 
     /**
      * Find all derived files of a main file.
@@ -57,22 +63,48 @@ public interface FileRelationRepository extends JpaRepository<FileRelationEntity
     String findSourceFkey(@Param("fileFkey") String fileFkey);
 
     /**
-     * Find orphan files (files with non-existent related files).
+     * Find one page of orphan derived files, ordered by file key (keyset pagination).
      * <p>
-     * An orphan file is defined as:
-     * <ul>
-     *   <li>Its related file (sourceKey or currentMainKey) does not exist in file_metadata</li>
-     *   <li>The relationship was created before the grace period</li>
-     * </ul>
+     * Only {@link RelationType#CURRENT_MAIN} rows are considered: a derived file is an orphan
+     * when its current main file no longer exists. Main files that merely lost a derived file
+     * (their DERIVED rows point at a missing key) are not orphans.
      * </p>
      *
-     * @param gracePeriodStart files created before this time are considered orphans
-     * @return list of orphan file keys
+     * @param gracePeriodStart relations created before this time are considered
+     * @param afterFkey        exclusive lower bound of the file key ("" for the first page)
+     * @param pageable         page size (the page number must be 0)
+     * @return orphan file keys greater than {@code afterFkey}
      */
     @Query("SELECT DISTINCT r.fileFkey FROM FileRelationEntity r " +
            "LEFT JOIN FileReferenceEntity f ON r.relatedFkey = f.fKey " +
-           "WHERE f.fKey IS NULL AND r.createdAt < :gracePeriodStart")
-    List<String> findOrphanFiles(@Param("gracePeriodStart") Instant gracePeriodStart);
+           "WHERE f.fKey IS NULL AND r.relationType = 'CURRENT_MAIN' " +
+           "AND r.createdAt < :gracePeriodStart AND r.fileFkey > :afterFkey " +
+           "ORDER BY r.fileFkey")
+    List<String> findOrphanFkeys(@Param("gracePeriodStart") Instant gracePeriodStart,
+                                 @Param("afterFkey") String afterFkey,
+                                 Pageable pageable);
+
+    /**
+     * Delete all relations of the given files in a single statement.
+     *
+     * @param fileFkeys the file keys
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileRelationEntity r WHERE r.fileFkey IN :fileFkeys")
+    int deleteByFileFkeyIn(@Param("fileFkeys") Collection<String> fileFkeys);
+
+    /**
+     * Delete all relations pointing at the given files in a single statement.
+     *
+     * @param relatedFkeys the related file keys
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FileRelationEntity r WHERE r.relatedFkey IN :relatedFkeys")
+    int deleteByRelatedFkeyIn(@Param("relatedFkeys") Collection<String> relatedFkeys);
 
     /**
      * Delete all relations for a given file key.
@@ -0,0 +1,52 @@
+package tech.icc.filesrv.core.infra.persistence.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.core.infra.persistence.entity.MaintenanceLeaseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 维护任务租约 JPA Repository
+ */
+public interface MaintenanceLeaseJpaRepository extends JpaRepository<MaintenanceLeaseEntity, String> {
+
+    /**
+     * 续约或接管过期租约（条件更新，原子）
+     *
+     * @return 1 表示当前由 holder 持有，0 表示租约不存在或被其它持有者占用
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE MaintenanceLeaseEntity l SET l.holder = :holder, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND (l.holder = :holder OR l.expiresAt < :now)")
+    int renew(@Param("name") String name,
+              @Param("holder") String holder,
+              @Param("expiresAt") Instant expiresAt,
+              @Param("now") Instant now);
+
+    /**
+     * 创建租约（主键冲突说明已被其它节点抢先创建）
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO maintenance_lease (lease_name, holder, expires_at) " +
+                   "VALUES (:name, :holder, :expiresAt)",
+           nativeQuery = true)
+    int insert(@Param("name") String name,
+               @Param("holder") String holder,
+               @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MaintenanceLeaseEntity l WHERE l.name = :name AND l.holder = :holder")
+    int release(@Param("name") String name, @Param("holder") String holder);
+
+    @Query("SELECT l.holder FROM MaintenanceLeaseEntity l " +
+           "WHERE l.name LIKE CONCAT(:prefix, '%') AND l.expiresAt > :now")
+    List<String> findActiveHolders(@Param("prefix") String prefix, @Param("now") Instant now);
+}
@@ -1,6 +1,7 @@
 package tech.icc.filesrv.core.infra.persistence.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import tech.icc.filesrv.core.domain.storage.NodeStatus;
@@ -21,4 +22,14 @@ public interface StorageNodeJpaRepository extends JpaRepository<StorageNodeEntit
 
     @Query("SELECT n FROM StorageNodeEntity n WHERE n.status IN ('ACTIVE')")
     List<StorageNodeEntity> findWritableNodes();
+
+    /**
+     * 按副本汇总各节点已用容量：未删除的副本按所属文件大小计入，没有副本的节点归零
+     */
+    @Modifying
+    @Query(value = "UPDATE storage_node SET used_bytes = COALESCE((" +
+                   "SELECT SUM(f.size) FROM storage_copy c JOIN file_info f ON f.content_hash = c.content_hash " +
+                   "WHERE c.node_id = storage_node.node_id AND c.copy_status <> 'DELETED'), 0)",
+           nativeQuery = true)
+    int refreshUsedBytes();
 }
@@ -1,17 +1,20 @@
 package tech.icc.filesrv.core.infra.persistence.repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import tech.icc.filesrv.common.vo.task.TaskStatus;
 import tech.icc.filesrv.core.infra.persistence.entity.TaskEntity;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +35,23 @@ public interface TaskJpaRepository extends JpaRepository<TaskEntity, String> {
     @Query("SELECT t FROM TaskEntity t WHERE t.taskId = :taskId")
     Optional<TaskEntity> findByTaskIdForUpdate(@Param("taskId") String taskId);
 
+    /**
+     * 锁定处理租约已到期的 PROCESSING 任务（SELECT FOR UPDATE SKIP LOCKED）
+     * <p>
+     * 正在执行 callback 链的任务被执行节点持有行锁，会被跳过；节点宕机后连接断开、锁随之释放。
+     * 发件箱中仍有待转发消息的任务同样跳过，不消耗恢复次数。
+     * 注意：必须在事务内调用。
+     *
+     * @param now      当前时间
+     * @param pageable 分页参数（用于限制数量）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM TaskEntity t WHERE t.status = 'PROCESSING' AND t.leaseExpiresAt < :now " +
+           "AND NOT EXISTS (SELECT 1 FROM CallbackOutboxEntity o WHERE o.taskId = t.taskId) " +
+           "ORDER BY t.leaseExpiresAt ASC")
+    List<TaskEntity> lockLapsedProcessing(@Param("now") Instant now, Pageable pageable);
+
     /**
      * 根据 fKey 查找任务列表
      */
@@ -57,17 +77,66 @@ public interface TaskJpaRepository extends JpaRepository<TaskEntity, String> {
     Page<TaskEntity> findExpiredTasks(@Param("before") Instant before, Pageable pageable);
 
     /**
-     * 查询需要清理的已完成任务
+     * 统计过期但尚未标记的任务数（回收积压）
+     */
+    @Query("SELECT COUNT(t) FROM TaskEntity t WHERE t.expiresAt < :before " +
+           "AND t.status NOT IN ('COMPLETED', 'FAILED', 'ABORTED', 'EXPIRED')")
+    long countExpiredTasks(@Param("before") Instant before);
+
+    /**
+     * 批量标记过期（条件更新，已进入终态或已续期的任务不受影响）
+     * <p>
+     * 递增版本号，与并发的乐观锁更新互斥。
+     *
+     * @param taskIds   候选任务 ID
+     * @param expiredAt 过期标记时间（同时作为 completedAt 写入）
+     * @return 更新的行数
+     */
+    @Modifying
+    @Query("UPDATE TaskEntity t SET t.status = 'EXPIRED', t.completedAt = :expiredAt, " +
+           "t.version = t.version + 1 " +
+           "WHERE t.taskId IN :taskIds AND t.expiresAt < :expiredAt " +
+           "AND t.status NOT IN ('COMPLETED', 'FAILED', 'ABORTED', 'EXPIRED')")
+    int markExpired(@Param("taskIds") List<String> taskIds, @Param("expiredAt") Instant expiredAt);
+
+    /**
+     * 查询在指定时间被标记过期的任务 ID（用于确认 {@link #markExpired} 实际命中的任务）
+     */
+    @Query("SELECT t.taskId FROM TaskEntity t WHERE t.taskId IN :taskIds " +
+           "AND t.status = 'EXPIRED' AND t.completedAt = :expiredAt")
+    List<String> findTaskIdsExpiredAt(@Param("taskIds") List<String> taskIds,
+                                      @Param("expiredAt") Instant expiredAt);
+
+    /**
+     * 查询需要清理的已结束任务（任意终态）
      *
-     * @param completedBefore 完成时间阈值
+     * @param completedBefore 结束时间阈值
      * @param pageable 分页参数（用于限制数量）
      */
-    @Query("SELECT t FROM TaskEntity t WHERE t.status = 'COMPLETED' " +
+    @Query("SELECT t FROM TaskEntity t WHERE t.status IN ('COMPLETED', 'FAILED', 'ABORTED', 'EXPIRED') " +
            "AND t.completedAt < :completedBefore " +
            "ORDER BY t.completedAt ASC")
     Page<TaskEntity> findCompletedTasksForCleanup(@Param("completedBefore") Instant completedBefore,
                                                    Pageable pageable);
 
+    /**
+     * 查询存在且未进入终态的任务 ID
+     */
+    @Query("SELECT t.taskId FROM TaskEntity t WHERE t.taskId IN :taskIds " +
+           "AND t.status NOT IN ('COMPLETED', 'FAILED', 'ABORTED', 'EXPIRED')")
+    List<String> findUnfinishedTaskIds(@Param("taskIds") Collection<String> taskIds);
+
+    /**
+     * 延长 PROCESSING 任务的处理租约（只延长、不缩短）
+     * <p>
+     * 只更新租约列，不递增版本号：租约不属于任务业务状态，不应让并发保存的聚合因乐观锁失败。
+     */
+    @Modifying
+    @Query("UPDATE TaskEntity t SET t.leaseExpiresAt = :until " +
+           "WHERE t.taskId IN :taskIds AND t.status = 'PROCESSING' " +
+           "AND (t.leaseExpiresAt IS NULL OR t.leaseExpiresAt < :until)")
+    int extendLease(@Param("taskIds") Collection<String> taskIds, @Param("until") Instant until);
+
     /**
      * 批量删除任务
      */
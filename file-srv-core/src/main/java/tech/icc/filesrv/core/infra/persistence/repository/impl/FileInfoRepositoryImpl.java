@@ -1,27 +1,49 @@
 package tech.icc.filesrv.core.infra.persistence.repository.impl;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import tech.icc.filesrv.core.domain.files.FileInfo;
 import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
 import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
 import tech.icc.filesrv.core.infra.persistence.entity.FileInfoEntity;
+import tech.icc.filesrv.core.infra.persistence.entity.StorageCopyEmbeddable;
 import tech.icc.filesrv.core.infra.persistence.repository.FileInfoJpaRepository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * 物理文件信息仓储实现
  */
+@Slf4j
 @Repository
 @RequiredArgsConstructor
 public class FileInfoRepositoryImpl implements FileInfoRepository {
 
+    private static final List<FileStatus> GARBAGE_STATUSES = List.of(FileStatus.DELETED, FileStatus.COLLECTING);
+
     private final FileInfoJpaRepository jpaRepository;
+    private final FileRefCountUpdater refCountUpdater;
+    private final RefCountStriping refCountStriping;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public FileInfo save(FileInfo fileInfo) {
@@ -29,6 +51,17 @@ public class FileInfoRepositoryImpl implements FileInfoRepository {
         return jpaRepository.save(entity).toDomain();
     }
 
+    @Override
+    @Transactional
+    public void insertAll(Collection<FileInfo> fileInfos) {
+        if (fileInfos.isEmpty()) {
+            return;
+        }
+        // persist 而非 save：assigned id 的 save 会先 merge（逐行 SELECT），persist 只产生批量 INSERT
+        fileInfos.forEach(info -> entityManager.persist(FileInfoEntity.fromDomain(info)));
+        entityManager.flush();
+    }
+
     @Override
     public Optional<FileInfo> findByContentHash(String contentHash) {
         return jpaRepository.findById(contentHash).map(FileInfoEntity::toDomain);
@@ -39,28 +72,187 @@ public class FileInfoRepositoryImpl implements FileInfoRepository {
         return jpaRepository.existsById(contentHash);
     }
 
+    @Override
+    public Optional<FileRefCount> findRefCount(String contentHash) {
+        return jpaRepository.findRefCount(contentHash);
+    }
+
+    @Override
+    public Optional<StorageCopy> findPrimaryCopy(String contentHash) {
+        return jpaRepository.findAvailableCopies(contentHash, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(StorageCopyEmbeddable::toDomain);
+    }
+
+    @Override
+    public Set<String> findExistingHashes(Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jpaRepository.findExistingHashes(contentHashes));
+    }
+
     @Override
     @Transactional
     public int incrementRefCount(String contentHash) {
         return jpaRepository.incrementRefCount(contentHash);
     }
 
+    @Override
+    @Transactional
+    public int incrementRefCount(String contentHash, int count) {
+        return jpaRepository.incrementRefCountBy(contentHash, count);
+    }
+
+    @Override
+    @Transactional
+    public Optional<FileRefCount> incrementRefCountAndGet(String contentHash) {
+        return refCountUpdater.increment(contentHash);
+    }
+
+    @Override
+    @Transactional
+    public Optional<FileRefCount> decrementRefCountAndGet(String contentHash) {
+        return refCountUpdater.decrement(contentHash);
+    }
+
     @Override
     @Transactional
     public int decrementRefCount(String contentHash) {
         return jpaRepository.decrementRefCount(contentHash);
     }
 
+    @Override
+    @Transactional
+    public int decrementRefCount(String contentHash, int count) {
+        // 先把分片上的引用折叠回来，避免 file_info 上的计数被减到底而截断
+        refCountStriping.compact(contentHash);
+        return jpaRepository.decrementRefCountBy(contentHash, count);
+    }
+
     @Override
     public List<FileInfo> findGarbageFiles(int limit) {
-        return jpaRepository.findGarbageFiles(FileStatus.DELETED, PageRequest.of(0, limit))
+        return jpaRepository.findGarbageFiles(GARBAGE_STATUSES, PageRequest.of(0, limit))
                 .stream()
                 .map(FileInfoEntity::toDomain)
                 .collect(Collectors.toList());
     }
 
     @Override
+    public List<String> findGarbageHashes(String afterContentHash, int limit) {
+        return jpaRepository.findGarbageHashes(GARBAGE_STATUSES,
+                afterContentHash != null ? afterContentHash : "", PageRequest.of(0, limit));
+    }
+
+    @Override
+    public long count() {
+        return jpaRepository.count();
+    }
+
+    @Override
+    public List<String> findContentHashes(String afterContentHash, int limit) {
+        return jpaRepository.findContentHashes(
+                afterContentHash != null ? afterContentHash : "", PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<String> findContentHashesCreatedSince(Instant since, String afterContentHash, int limit) {
+        return jpaRepository.findContentHashesCreatedSince(since,
+                afterContentHash != null ? afterContentHash : "", PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<FileInfo> lockGarbageFiles(Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return List.of();
+        }
+        List<FileInfoEntity> locked = jpaRepository.lockGarbageFiles(contentHashes, GARBAGE_STATUSES);
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+        // 分片增量不锁 file_info 行：再锁定分片行，等待尚未提交的分片增量，有引用的文件留待折叠
+        Set<String> referenced = refCountStriping.lockReferenced(
+                locked.stream().map(FileInfoEntity::getContentHash).toList());
+        return locked.stream()
+                .filter(entity -> !referenced.contains(entity.getContentHash()))
+                .map(FileInfoEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void markCollecting(Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return;
+        }
+        contentHashes.forEach(refCountStriping::discard);
+        jpaRepository.updateStatus(contentHashes, FileStatus.COLLECTING);
+    }
+
+    @Override
+    @Transactional
+    public int updateCopyStatus(String contentHash, String copyId, CopyStatus expected, CopyStatus target) {
+        return jpaRepository.updateCopyStatus(contentHash, copyId, expected.name(), target.name());
+    }
+
+    @Override
+    public List<FileInfo> findByCopyStatus(CopyStatus copyStatus, Instant before, int limit) {
+        return jpaRepository.findByCopyStatus(copyStatus, before, PageRequest.of(0, limit))
+                .stream()
+                .map(FileInfoEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<String, List<StorageCopy>> findCopiesByStatusChangedBefore(CopyStatus copyStatus, Instant before,
+                                                                          int limit) {
+        Set<String> copyIds = new HashSet<>(
+                jpaRepository.findCopyIdsByStatusChangedBefore(copyStatus.name(), before, limit));
+        if (copyIds.isEmpty()) {
+            return Map.of();
+        }
+        return jpaRepository.findByCopyIds(copyIds).stream()
+                .map(FileInfoEntity::toDomain)
+                .collect(Collectors.toMap(FileInfo::contentHash, fileInfo -> fileInfo.copies().stream()
+                        .filter(copy -> copyIds.contains(copy.copyId()) && copy.status() == copyStatus)
+                        .toList()));
+    }
+
+    @Override
+    @Transactional
+    public void recordAccess(Map<String, Long> counts, Instant accessedAt) {
+        counts.forEach((contentHash, count) -> jpaRepository.recordAccess(contentHash, count, accessedAt));
+    }
+
+    @Override
+    public List<FileInfo> findIdleFiles(StorageTier tier, Instant idleSince, int limit) {
+        return jpaRepository.findIdleFiles(FileStatus.ACTIVE, tier, CopyStatus.ACTIVE, idleSince,
+                        PageRequest.of(0, limit))
+                .stream()
+                .map(FileInfoEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean addCopy(String contentHash, StorageCopy copy) {
+        try {
+            return jpaRepository.insertCopy(contentHash, copy.copyId(), copy.nodeId(), copy.path(),
+                    copy.tier().name(), copy.status().name(), copy.createdAt()) > 0;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Copy already exists on node: contentHash={}, node={}", contentHash, copy.nodeId());
+            return false;
+        }
+    }
+
+    @Override
+    @Transactional
+    public int removeCopy(String contentHash, String copyId, CopyStatus expected) {
+        return jpaRepository.deleteCopy(contentHash, copyId, expected.name());
+    }
+
+    @Override
+    @Transactional
     public void deleteByContentHash(String contentHash) {
+        refCountStriping.discard(contentHash);
         jpaRepository.deleteById(contentHash);
     }
 }
@@ -0,0 +1,186 @@
+package tech.icc.filesrv.core.infra.persistence.repository.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.infra.persistence.repository.FileInfoJpaRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * 引用计数原子更新
+ * <p>
+ * 秒传命中、删除引用时只需要更新后的计数，按数据库选择往返最少的实现：
+ * <ul>
+ *   <li>PostgreSQL：{@code UPDATE ... RETURNING}，单条语句</li>
+ *   <li>MySQL / MariaDB：UPDATE 时把新值写入会话变量，再读取变量（不访问表）</li>
+ *   <li>其他（如测试使用的 H2）：UPDATE 后按主键查询计数投影</li>
+ * </ul>
+ * 数据库类型在首次使用时从 JDBC 元数据识别。语句使用当前事务的连接，调用方需在事务内调用。
+ * <p>
+ * 热点 contentHash 的增减优先落到分片上（见 {@link RefCountStriping}），返回的计数包含分片上的引用。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileRefCountUpdater {
+
+    // 热点文件的部分引用在分片上，返回值需要加上（见 RefCountStriping）
+    private static final String STRIPE_SUM =
+            "COALESCE((SELECT SUM(s.delta) FROM file_ref_stripe s WHERE s.content_hash = file_info.content_hash), 0)";
+
+    private static final String PG_INCREMENT =
+            "UPDATE file_info SET ref_count = ref_count + 1, " +
+            "status = CASE WHEN status = 'DELETED' THEN 'ACTIVE' ELSE status END " +
+            "WHERE content_hash = ? AND status <> 'COLLECTING' " +
+            "RETURNING content_hash, ref_count + " + STRIPE_SUM + " AS ref_count, status";
+
+    private static final String PG_DECREMENT =
+            "UPDATE file_info SET ref_count = ref_count - 1, " +
+            "status = CASE WHEN ref_count <= 1 THEN 'DELETED' ELSE status END " +
+            "WHERE content_hash = ? AND ref_count > 0 " +
+            "RETURNING content_hash, ref_count + " + STRIPE_SUM + " AS ref_count, status";
+
+    // MySQL 按从左到右的顺序赋值且后续表达式看到的是新值，status 必须先于 ref_count 计算
+    static final String MYSQL_INCREMENT =
+            "UPDATE file_info SET " +
+            "status = (@file_status := CASE WHEN status = 'DELETED' THEN 'ACTIVE' ELSE status END), " +
+            "ref_count = (@file_ref_count := ref_count + 1) " +
+            "WHERE content_hash = ? AND status <> 'COLLECTING'";
+
+    static final String MYSQL_DECREMENT =
+            "UPDATE file_info SET " +
+            "status = (@file_status := CASE WHEN ref_count <= 1 THEN 'DELETED' ELSE status END), " +
+            "ref_count = (@file_ref_count := ref_count - 1) " +
+            "WHERE content_hash = ? AND ref_count > 0";
+
+    private static final String MYSQL_READ_VARIABLES =
+            "SELECT @file_ref_count + COALESCE((SELECT SUM(delta) FROM file_ref_stripe WHERE content_hash = ?), 0), " +
+            "@file_status";
+
+    private final FileInfoJpaRepository jpaRepository;
+    private final RefCountStriping striping;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Dialect dialect;
+
+    /**
+     * 增加引用计数（已标记删除的文件恢复为 ACTIVE）
+     *
+     * @return 更新后的计数，文件不存在或正在被回收（COLLECTING）时返回 empty
+     */
+    public Optional<FileRefCount> increment(String contentHash) {
+        if (striping.tryIncrement(contentHash)) {
+            return jpaRepository.findRefCount(contentHash);
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Dialect current = dialect(session);
+        long start = System.nanoTime();
+        Optional<FileRefCount> updated = switch (current) {
+            case POSTGRESQL -> session.doReturningWork(c -> updateReturning(c, PG_INCREMENT, contentHash));
+            case MYSQL -> session.doReturningWork(c -> updateIntoVariables(c, MYSQL_INCREMENT, contentHash));
+            case GENERIC -> jpaRepository.incrementRefCount(contentHash) > 0
+                    ? jpaRepository.findRefCount(contentHash)
+                    : Optional.empty();
+        };
+        striping.recordLatency(contentHash, System.nanoTime() - start);
+        return updated;
+    }
+
+    /**
+     * 减少引用计数（归零时标记为 DELETED）
+     *
+     * @return 更新后的计数，文件不存在或计数已为 0 时返回 empty
+     */
+    public Optional<FileRefCount> decrement(String contentHash) {
+        if (striping.tryDecrement(contentHash)) {
+            return jpaRepository.findRefCount(contentHash);
+        }
+        Session session = entityManager.unwrap(Session.class);
+        Dialect current = dialect(session);
+        long start = System.nanoTime();
+        Optional<FileRefCount> updated = switch (current) {
+            case POSTGRESQL -> session.doReturningWork(c -> updateReturning(c, PG_DECREMENT, contentHash));
+            case MYSQL -> session.doReturningWork(c -> updateIntoVariables(c, MYSQL_DECREMENT, contentHash));
+            case GENERIC -> jpaRepository.decrementRefCount(contentHash) > 0
+                    ? jpaRepository.findRefCount(contentHash)
+                    : Optional.empty();
+        };
+        striping.recordLatency(contentHash, System.nanoTime() - start);
+        if (updated.isEmpty() && striping.decrementAnyStripe(contentHash)) {
+            // file_info 计数已为 0，剩余引用都在分片上
+            return jpaRepository.findRefCount(contentHash);
+        }
+        return updated;
+    }
+
+    private Dialect dialect(Session session) {
+        Dialect current = dialect;
+        if (current == null) {
+            current = session.doReturningWork(c -> Dialect.of(c.getMetaData().getDatabaseProductName()));
+            dialect = current;
+            log.info("Reference count updates use {} statements", current);
+        }
+        return current;
+    }
+
+    private static Optional<FileRefCount> updateReturning(Connection connection, String sql, String contentHash)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, contentHash);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                return Optional.of(new FileRefCount(
+                        rs.getString("content_hash"),
+                        rs.getInt("ref_count"),
+                        FileStatus.valueOf(rs.getString("status"))));
+            }
+        }
+    }
+
+    static Optional<FileRefCount> updateIntoVariables(Connection connection, String sql, String contentHash)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, contentHash);
+            // 未更新时会话变量保留着连接上一次使用的值，必须以更新行数为准
+            if (ps.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(MYSQL_READ_VARIABLES)) {
+            ps.setString(1, contentHash);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return Optional.of(new FileRefCount(contentHash, rs.getInt(1), FileStatus.valueOf(rs.getString(2))));
+            }
+        }
+    }
+
+    enum Dialect {
+        POSTGRESQL, MYSQL, GENERIC;
+
+        static Dialect of(String productName) {
+            String name = productName != null ? productName.toLowerCase() : "";
+            if (name.contains("postgresql")) {
+                return POSTGRESQL;
+            }
+            if (name.contains("mysql") || name.contains("mariadb")) {
+                return MYSQL;
+            }
+            return GENERIC;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import tech.icc.filesrv.core.domain.files.FileReference;
 import tech.icc.filesrv.core.domain.files.FileReferenceRepository;
 import tech.icc.filesrv.core.domain.files.FileReferenceSpec;
@@ -13,6 +14,7 @@ import tech.icc.filesrv.core.infra.persistence.entity.FileReferenceEntity;
 import tech.icc.filesrv.core.infra.persistence.repository.FileReferenceJpaRepository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -32,11 +34,35 @@ public class FileReferenceRepositoryImpl implements FileReferenceRepository {
         return jpaRepository.save(entity).toDomain();
     }
 
+    @Override
+    @Transactional
+    public List<FileReference> saveAll(Collection<FileReference> references) {
+        if (references.isEmpty()) {
+            return List.of();
+        }
+        List<FileReferenceEntity> entities = references.stream()
+                .map(FileReferenceEntity::fromDomain)
+                .toList();
+        return jpaRepository.saveAll(entities).stream()
+                .map(FileReferenceEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Optional<FileReference> findByFKey(String fKey) {
         return jpaRepository.findById(fKey).map(FileReferenceEntity::toDomain);
     }
 
+    @Override
+    public List<FileReference> findByFKeys(Collection<String> fKeys) {
+        if (fKeys.isEmpty()) {
+            return List.of();
+        }
+        return jpaRepository.findAllById(fKeys).stream()
+                .map(FileReferenceEntity::toDomain)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<FileReference> findByOwner(String ownerId) {
         return jpaRepository.findByOwnerId(ownerId).stream()
@@ -49,6 +75,15 @@ public class FileReferenceRepositoryImpl implements FileReferenceRepository {
         jpaRepository.deleteById(fKey);
     }
 
+    @Override
+    @Transactional
+    public int deleteByFKeys(Collection<String> fKeys) {
+        if (fKeys.isEmpty()) {
+            return 0;
+        }
+        return jpaRepository.deleteByFKeyIn(fKeys);
+    }
+
     @Override
     public boolean existsByFKey(String fKey) {
         return jpaRepository.existsById(fKey);
@@ -0,0 +1,254 @@
+package tech.icc.filesrv.core.infra.persistence.repository.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.infra.config.RefCountStripingProperties;
+import tech.icc.filesrv.core.infra.persistence.repository.FileInfoJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository.LockedStripe;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository.PendingStripe;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 热点引用计数分片
+ * <p>
+ * 同一内容被大量用户上传时，所有引用计数更新都落在同一 file_info 行上，事务在行锁上排队。
+ * 检测到某个 contentHash 的行锁竞争后，为其创建多个分片行，此后引用增减随机落到分片上：
+ * <ul>
+ *   <li>竞争检测：file_info 计数更新耗时超过 contention-threshold 记一次竞争，
+ *       detection-window 内达到 hot-threshold 次即启用分片（异步创建分片行）</li>
+ *   <li>实际引用计数 = file_info.ref_count + 分片 delta 之和，读取时求和（见 {@code findRefCount}）</li>
+ *   <li>分片只接收 ACTIVE 文件的引用；分片 delta 不小于 0，减到底时回退到 file_info</li>
+ *   <li>分片增量不访问 file_info 行；GC 锁定 file_info 后再锁定该文件的全部分片行（{@link #lockReferenced}），
+ *       等待尚未提交的分片增量，分片上有引用则放弃回收；分片行只为 ACTIVE 文件创建</li>
+ *   <li>分片定期折叠回 file_info（{@link #compact}），一个折叠周期内没有新增量的分片被删除</li>
+ *   <li>GC 不回收分片上仍有引用的文件；被误标记删除的文件在折叠时恢复为 ACTIVE</li>
+ * </ul>
+ * 热点集合只在本节点内存中维护，各节点独立检测；未识别为热点的节点照常更新 file_info，结果仍然正确。
+ */
+@Slf4j
+@Component
+public class RefCountStriping {
+
+    private final FileRefStripeJpaRepository stripeRepository;
+    private final FileInfoJpaRepository fileInfoRepository;
+    private final RefCountStripingProperties properties;
+
+    /**
+     * contentHash → 统计窗口内的竞争次数
+     */
+    private final Cache<String, AtomicInteger> contention;
+
+    /**
+     * contentHash → 分片数
+     */
+    private final Cache<String, Integer> hotHashes;
+
+    private final Set<String> activating = ConcurrentHashMap.newKeySet();
+    private final ExecutorService activator;
+    private final Counter activationCounter;
+
+    public RefCountStriping(FileRefStripeJpaRepository stripeRepository,
+                            FileInfoJpaRepository fileInfoRepository,
+                            RefCountStripingProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.stripeRepository = stripeRepository;
+        this.fileInfoRepository = fileInfoRepository;
+        this.properties = properties;
+        this.contention = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getDetectionWindow())
+                .maximumSize(10_000)
+                .build();
+        this.hotHashes = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getHotTtl())
+                .maximumSize(10_000)
+                .build();
+        this.activator = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "refcount-striping");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.activationCounter = Counter.builder("file.refcount.stripe.activations")
+                .description("Content hashes switched to striped reference counting")
+                .register(meterRegistry);
+        Gauge.builder("file.refcount.stripe.hot", hotHashes, cache -> cache.estimatedSize())
+                .description("Content hashes this node currently counts on stripes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在分片上增加一个引用
+     *
+     * @return false 表示不是热点或分片不可用，调用方应更新 file_info
+     */
+    public boolean tryIncrement(String contentHash) {
+        Integer stripes = hotHashes.getIfPresent(contentHash);
+        if (stripes == null) {
+            return false;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        if (stripeRepository.increment(contentHash, stripe, FileStatus.ACTIVE) > 0) {
+            return true;
+        }
+        // 分片已折叠删除，或文件已标记删除（需要经过 file_info 行锁与 GC 协调）
+        hotHashes.invalidate(contentHash);
+        return false;
+    }
+
+    /**
+     * 在分片上减少一个引用
+     *
+     * @return false 表示不是热点或选中的分片没有可减的引用，调用方应更新 file_info
+     */
+    public boolean tryDecrement(String contentHash) {
+        Integer stripes = hotHashes.getIfPresent(contentHash);
+        if (stripes == null) {
+            return false;
+        }
+        return stripeRepository.decrement(contentHash, ThreadLocalRandom.current().nextInt(stripes)) > 0;
+    }
+
+    /**
+     * file_info 上已无可减的引用时，从任一有引用的分片扣减
+     */
+    public boolean decrementAnyStripe(String contentHash) {
+        for (PendingStripe stripe : stripeRepository.findPending(contentHash)) {
+            if (stripeRepository.decrement(contentHash, stripe.getStripe()) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次 file_info 计数更新的耗时，竞争达到阈值时启用分片
+     *
+     * @param contentHash  内容哈希
+     * @param elapsedNanos 更新语句耗时
+     */
+    public void recordLatency(String contentHash, long elapsedNanos) {
+        if (!properties.isEnabled() || elapsedNanos < properties.getContentionThreshold().toNanos()) {
+            return;
+        }
+        AtomicInteger count = contention.get(contentHash, key -> new AtomicInteger());
+        if (count.incrementAndGet() >= properties.getHotThreshold()
+                && hotHashes.getIfPresent(contentHash) == null
+                && activating.add(contentHash)) {
+            contention.invalidate(contentHash);
+            // 异步创建分片：调用方此时正持有 file_info 行锁，不能再延长它
+            activator.execute(() -> activate(contentHash));
+        }
+    }
+
+    /**
+     * 把分片上的引用折叠回 file_info
+     * <p>
+     * 分片按读到的值做相对扣减，折叠期间并发落到分片上的引用不会丢失。
+     * 没有可折叠引用的分片被删除，文件回到单行计数。
+     *
+     * @param contentHash 内容哈希
+     * @return 折叠的引用数
+     */
+    @Transactional
+    public int compact(String contentHash) {
+        List<PendingStripe> pending = stripeRepository.findPending(contentHash);
+        if (pending.isEmpty()) {
+            stripeRepository.deleteIdle(contentHash);
+            return 0;
+        }
+        int folded = 0;
+        for (PendingStripe stripe : pending) {
+            stripeRepository.subtract(contentHash, stripe.getStripe(), stripe.getDelta());
+            folded += stripe.getDelta();
+        }
+        if (fileInfoRepository.addRefCount(contentHash, folded) == 0) {
+            log.warn("Striped references found for missing file, discarding: contentHash={}, references={}",
+                    contentHash, folded);
+            stripeRepository.deleteByContentHash(contentHash);
+        }
+        return folded;
+    }
+
+    /**
+     * 锁定文件的全部分片行，返回分片上仍有引用的 contentHash
+     * <p>
+     * GC 在锁定 file_info 行之后、删除对象之前调用。锁定读等待尚未提交的分片增量，
+     * 分片行锁持有到回收事务结束，期间的分片增量在回收完成后因分片被删除而回退到 file_info。
+     * 注意：必须在事务内调用。
+     *
+     * @param contentHashes 已锁定的待回收文件
+     * @return 分片上有引用、不能回收的 contentHash
+     */
+    public Set<String> lockReferenced(Collection<String> contentHashes) {
+        if (contentHashes.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> referenced = new HashSet<>();
+        for (LockedStripe stripe : stripeRepository.lockStripes(contentHashes)) {
+            if (stripe.getDelta() > 0) {
+                referenced.add(stripe.getContentHash());
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * 删除文件的全部分片（文件被 GC 回收时）
+     */
+    public void discard(String contentHash) {
+        stripeRepository.deleteByContentHash(contentHash);
+        hotHashes.invalidate(contentHash);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        activator.shutdownNow();
+    }
+
+    void activate(String contentHash) {
+        try {
+            int stripes = Math.max(1, properties.getStripes());
+            Set<Integer> existing = new HashSet<>(stripeRepository.findStripes(contentHash));
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (existing.contains(stripe)) {
+                    continue;
+                }
+                try {
+                    if (stripeRepository.insert(contentHash, stripe) == 0) {
+                        // 文件已标记删除：不启用分片，引用经 file_info 行锁与 GC 协调
+                        log.debug("File no longer active, striping skipped: contentHash={}", contentHash);
+                        return;
+                    }
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Stripe created concurrently: contentHash={}, stripe={}", contentHash, stripe);
+                }
+            }
+            hotHashes.put(contentHash, stripes);
+            activationCounter.increment();
+            log.info("Reference count striping enabled: contentHash={}, stripes={}", contentHash, stripes);
+        } catch (RuntimeException e) {
+            log.warn("Failed to enable reference count striping: contentHash={}", contentHash, e);
+        } finally {
+            activating.remove(contentHash);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package tech.icc.filesrv.core.infra.persistence.repository.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import tech.icc.filesrv.core.domain.storage.NodeStatus;
 import tech.icc.filesrv.core.domain.storage.StorageNode;
 import tech.icc.filesrv.core.domain.storage.StorageNodeRepository;
@@ -57,4 +58,10 @@ public class StorageNodeRepositoryImpl implements StorageNodeRepository {
                 .map(StorageNodeEntity::toDomain)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional
+    public int refreshUsedBytes() {
+        return jpaRepository.refreshUsedBytes();
+    }
 }
@@ -6,6 +6,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
 import tech.icc.filesrv.core.domain.tasks.TaskRepository;
 import tech.icc.filesrv.common.vo.task.TaskStatus;
@@ -14,13 +16,22 @@ import tech.icc.filesrv.core.infra.persistence.entity.TaskEntity;
 import tech.icc.filesrv.core.infra.persistence.repository.TaskJpaRepository;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 任务仓储实现
  * <p>
- * 集成了缓存层（Cache-Aside 模式），提供数据库和缓存的一致性保证。
+ * 集成了缓存层，提供数据库和缓存的一致性保证：
+ * <ul>
+ *   <li>读：Cache-Aside，未命中时查库并按版本回填</li>
+ *   <li>写：事务提交后调用 {@link TaskCacheService#refreshTask}，由缓存实现决定 Write-Through 或失效</li>
+ *   <li>删：立即失效，并在事务完成后再次失效，防止并发读取回填已删除的数据</li>
+ * </ul>
  */
 @Repository
 @RequiredArgsConstructor
@@ -35,11 +46,12 @@ public class TaskRepositoryImpl implements TaskRepository {
         TaskEntity entity = TaskEntity.fromDomain(task);
         TaskEntity saved = jpaRepository.save(entity);
         TaskAggregate result = saved.toDomain();
-        
-        // Write-Invalidate: 写DB成功后失效缓存
-        // 避免并发场景下的version冲突和缓存不一致
-        cacheService.evictTask(result.getTaskId());
-        
+
+        // 提交后再同步缓存：此时 @Version 已随 flush 递增，快照携带的是已提交的版本号；
+        // 回滚时失效缓存，避免残留与数据库不一致的数据
+        afterCommit(() -> cacheService.refreshTask(saved.toDomain()),
+                () -> cacheService.evictTask(result.getTaskId()));
+
         return result;
     }
 
@@ -104,6 +116,39 @@ public class TaskRepositoryImpl implements TaskRepository {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long countExpiredTasks(Instant before) {
+        return jpaRepository.countExpiredTasks(before);
+    }
+
+    @Override
+    @Transactional
+    public List<String> markExpired(List<String> taskIds, Instant expiredAt) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            return List.of();
+        }
+        // 精度与数据库时间列对齐，保证按标记时间回查能命中
+        Instant marker = expiredAt.truncatedTo(ChronoUnit.MILLIS);
+        if (jpaRepository.markExpired(taskIds, marker) == 0) {
+            return List.of();
+        }
+        List<String> expired = jpaRepository.findTaskIdsExpiredAt(taskIds, marker);
+        // 批量更新绕过了实体缓存
+        expired.forEach(cacheService::evictTask);
+        afterCompletion(() -> expired.forEach(cacheService::evictTask));
+        return expired;
+    }
+
+    @Override
+    @Transactional
+    public List<TaskAggregate> lockLapsedProcessing(Instant now, int limit) {
+        // 直接查库并加锁，不使用缓存
+        return jpaRepository.lockLapsedProcessing(now, PageRequest.of(0, limit)).stream()
+                .map(TaskEntity::toDomain)
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<TaskAggregate> findCompletedTasksForCleanup(Instant completedBefore, int limit) {
@@ -123,6 +168,7 @@ public class TaskRepositoryImpl implements TaskRepository {
         
         // 删除操作：先删 DB，再失效缓存
         cacheService.evictTask(taskId);
+        afterCompletion(() -> cacheService.evictTask(taskId));
     }
 
     @Override
@@ -130,12 +176,50 @@ public class TaskRepositoryImpl implements TaskRepository {
     public void deleteAllByTaskIds(List<String> taskIds) {
         if (taskIds != null && !taskIds.isEmpty()) {
             jpaRepository.deleteAllByTaskIds(taskIds);
+            taskIds.forEach(cacheService::evictTask);
+            afterCompletion(() -> taskIds.forEach(cacheService::evictTask));
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findUnfinishedTaskIds(Collection<String> taskIds) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jpaRepository.findUnfinishedTaskIds(taskIds));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByTaskId(String taskId) {
         return jpaRepository.existsById(taskId);
     }
+
+    /**
+     * 事务提交后执行缓存同步，回滚时执行补偿动作；无事务时立即执行
+     */
+    private void afterCommit(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * 事务结束（无论提交或回滚）后执行；无事务时立即执行
+     */
+    private void afterCompletion(Runnable action) {
+        afterCommit(action, action);
+    }
 }
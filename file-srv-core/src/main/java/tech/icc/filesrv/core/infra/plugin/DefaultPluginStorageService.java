@@ -11,6 +11,7 @@ import tech.icc.filesrv.common.vo.audit.OwnerInfo;
 import tech.icc.filesrv.common.vo.file.CustomMetadata;
 import tech.icc.filesrv.common.vo.file.FileTags;
 import tech.icc.filesrv.common.spi.plugin.PluginStorageService;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
 import tech.icc.filesrv.common.spi.storage.StorageAdapter;
 import tech.icc.filesrv.common.spi.storage.StorageResult;
 import tech.icc.filesrv.core.application.service.FileService;
@@ -21,6 +22,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -155,6 +158,25 @@ public class DefaultPluginStorageService implements PluginStorageService {
         }
     }
 
+    @Override
+    public List<DeleteResult> deleteFiles(Collection<String> fkeys) {
+        if (fkeys == null) {
+            throw new IllegalArgumentException("fkeys cannot be null");
+        }
+        fkeys.forEach(this::validateFkey);
+        if (fkeys.isEmpty()) {
+            return List.of();
+        }
+
+        log.info("Batch deleting files: count={}", fkeys.size());
+        List<DeleteResult> results = storageAdapter.deleteAll(fkeys);
+        long failed = results.stream().filter(result -> !result.success()).count();
+        if (failed > 0) {
+            log.warn("Batch delete partially failed: failed={}/{}", failed, fkeys.size());
+        }
+        return results;
+    }
+
     @Override
     public String getTemporaryUrl(String fkey, Duration validity) {
         validateFkey(fkey);
@@ -0,0 +1,59 @@
+package tech.icc.filesrv.core.infra.storage;
+
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.infra.config.TieringProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内容访问频率跟踪器
+ * <p>
+ * 在下载路径上按采样率记录访问：每 N 次访问只有一次落到计数器，计数按 N 累加，
+ * 热点内容的统计仍然准确，而低频内容的单次访问可能被漏记（只影响升温判断，不影响正确性）。
+ * 计数只在内存中累积，由 {@link #drain()} 定期取走并回写数据库。
+ */
+@Component
+public class AccessFrequencyTracker {
+
+    private final boolean enabled;
+    private final int sampleRate;
+    private volatile ConcurrentMap<String, LongAdder> window = new ConcurrentHashMap<>();
+
+    public AccessFrequencyTracker(TieringProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.sampleRate = Math.max(1, properties.getSampleRate());
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param contentHash 内容哈希
+     */
+    public void record(String contentHash) {
+        if (!enabled || contentHash == null) {
+            return;
+        }
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        window.computeIfAbsent(contentHash, k -> new LongAdder()).add(sampleRate);
+    }
+
+    /**
+     * 取走当前窗口的访问计数并开始新窗口
+     *
+     * @return contentHash → 估算访问次数
+     */
+    public Map<String, Long> drain() {
+        ConcurrentMap<String, LongAdder> current = window;
+        window = new ConcurrentHashMap<>();
+        Map<String, Long> counts = new HashMap<>(current.size());
+        current.forEach((hash, adder) -> counts.put(hash, adder.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,71 @@
+package tech.icc.filesrv.core.infra.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 最近请求延迟窗口
+ * <p>
+ * 固定容量的环形缓冲区，保存最近 N 个延迟样本，按需计算分位数。
+ * 分位数计算需要排序，结果缓存一段时间，避免每次请求都排序。
+ */
+public class LatencyWindow {
+
+    private static final long RECOMPUTE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final int minSamples;
+
+    private volatile long cachedAtNanos;
+    private volatile double cachedQuantile = Double.NaN;
+    private volatile long cachedValue = -1;
+
+    /**
+     * @param capacity   窗口容量
+     * @param minSamples 样本数不足时不计算分位数
+     */
+    public LatencyWindow(int capacity, int minSamples) {
+        this.samples = new AtomicLongArray(capacity);
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * 记录一个样本
+     *
+     * @param nanos 延迟（纳秒）
+     */
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), nanos);
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param quantile 分位（0 ~ 1）
+     * @return 延迟（纳秒），样本不足时返回 -1
+     */
+    public long quantile(double quantile) {
+        long now = System.nanoTime();
+        if (quantile == cachedQuantile && now - cachedAtNanos < RECOMPUTE_INTERVAL_NANOS) {
+            return cachedValue;
+        }
+        int size = (int) Math.min(count.get(), samples.length());
+        long value = -1;
+        if (size >= minSamples) {
+            long[] copy = new long[size];
+            for (int i = 0; i < size; i++) {
+                copy[i] = samples.get(i);
+            }
+            Arrays.sort(copy);
+            value = copy[Math.max(0, Math.min(size - 1, (int) Math.ceil(quantile * size) - 1))];
+        }
+        cachedValue = value;
+        cachedQuantile = quantile;
+        cachedAtNanos = now;
+        return value;
+    }
+}
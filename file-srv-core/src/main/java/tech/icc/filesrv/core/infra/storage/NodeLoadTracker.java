@@ -0,0 +1,122 @@
+package tech.icc.filesrv.core.infra.storage;
+
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.infra.config.StorageRoutingProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 存储节点负载跟踪器
+ * <p>
+ * 记录本实例对每个节点的实时负载，供路由服务选择节点：
+ * <ul>
+ *   <li>在途请求数：请求开始时 +1，结束时 -1</li>
+ *   <li>延迟 EWMA：每次请求结束时按平滑系数更新，失败请求按惩罚延迟计入</li>
+ * </ul>
+ * 统计只反映本实例视角，不做跨实例汇总；多实例下各自按本地观测分流即可达到整体均衡。
+ */
+@Component
+public class NodeLoadTracker {
+
+    private final ConcurrentMap<String, NodeLoad> loads = new ConcurrentHashMap<>();
+    private final double alpha;
+    private final long failurePenaltyNanos;
+
+    public NodeLoadTracker(StorageRoutingProperties properties) {
+        this.alpha = properties.getLatencyAlpha();
+        this.failurePenaltyNanos = properties.getFailurePenalty().toNanos();
+    }
+
+    /**
+     * 开始一次对节点的请求
+     *
+     * @param nodeId 节点 ID
+     * @return 请求凭证，请求结束时必须关闭
+     */
+    public Ticket begin(String nodeId) {
+        NodeLoad load = loads.computeIfAbsent(nodeId, k -> new NodeLoad());
+        load.inFlight.incrementAndGet();
+        return new Ticket(load, System.nanoTime());
+    }
+
+    /**
+     * 当前在途请求数
+     */
+    public int inFlight(String nodeId) {
+        NodeLoad load = loads.get(nodeId);
+        return load != null ? load.inFlight.get() : 0;
+    }
+
+    /**
+     * 延迟 EWMA（毫秒），尚无样本时返回 0
+     */
+    public double latencyMillis(String nodeId) {
+        NodeLoad load = loads.get(nodeId);
+        if (load == null) {
+            return 0.0;
+        }
+        double nanos = Double.longBitsToDouble(load.latencyBits.get());
+        return nanos / 1_000_000.0;
+    }
+
+    private void record(NodeLoad load, long sampleNanos) {
+        // 首个样本直接作为初始值，避免从 0 缓慢爬升导致新节点被持续高估
+        boolean first = load.sampled.compareAndSet(false, true);
+        long current;
+        long next;
+        do {
+            current = load.latencyBits.get();
+            double ewma = first ? sampleNanos : alpha * sampleNanos + (1 - alpha) * Double.longBitsToDouble(current);
+            next = Double.doubleToLongBits(ewma);
+        } while (!load.latencyBits.compareAndSet(current, next));
+    }
+
+    /**
+     * 单个节点的负载统计
+     */
+    private static final class NodeLoad {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong latencyBits = new AtomicLong(Double.doubleToLongBits(0.0));
+        private final AtomicBoolean sampled = new AtomicBoolean();
+    }
+
+    /**
+     * 请求凭证
+     * <p>
+     * 关闭时扣减在途请求数并记录延迟，重复关闭无副作用。
+     */
+    public final class Ticket implements AutoCloseable {
+
+        private final NodeLoad load;
+        private final long startNanos;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean failed;
+
+        private Ticket(NodeLoad load, long startNanos) {
+            this.load = load;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 标记请求失败，关闭时按惩罚延迟计入
+         */
+        public void markFailed() {
+            this.failed = true;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            load.inFlight.decrementAndGet();
+            long elapsed = System.nanoTime() - startNanos;
+            record(load, failed ? Math.max(elapsed, failurePenaltyNanos) : elapsed);
+        }
+    }
+}
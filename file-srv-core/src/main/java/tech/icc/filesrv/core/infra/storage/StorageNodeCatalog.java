@@ -0,0 +1,124 @@
+package tech.icc.filesrv.core.infra.storage;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.domain.storage.ConsistentHashRing;
+import tech.icc.filesrv.core.domain.storage.StorageNode;
+import tech.icc.filesrv.core.domain.storage.StorageNodeRepository;
+import tech.icc.filesrv.core.infra.config.StorageRoutingProperties;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 存储节点目录
+ * <p>
+ * 在内存中缓存可用（可读）节点列表及对应的一致性哈希环，避免每次上传 / 下载都查询数据库：
+ * <ul>
+ *   <li>首次访问同步加载</li>
+ *   <li>超过刷新间隔后，下一次访问触发后台异步刷新，刷新完成前继续返回旧列表</li>
+ *   <li>刷新失败时保留旧列表，只记录告警</li>
+ *   <li>节点配置变更或已用容量重新汇总后可调用 {@link #refresh()} 立即生效</li>
+ * </ul>
+ * 哈希环随节点列表一起构建，节点列表未变化时复用旧环。
+ */
+@Slf4j
+@Component
+public class StorageNodeCatalog {
+
+    private static final String KEY = "nodes";
+
+    private final StorageNodeRepository storageNodeRepository;
+    private final int virtualNodes;
+    private final LoadingCache<String, Topology> cache;
+
+    public StorageNodeCatalog(StorageNodeRepository storageNodeRepository,
+                              StorageRoutingProperties properties) {
+        this.storageNodeRepository = storageNodeRepository;
+        this.virtualNodes = properties.getVirtualNodes();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(1)
+                .refreshAfterWrite(properties.getNodeRefreshInterval())
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Topology load(String key) {
+                        return StorageNodeCatalog.this.load(null);
+                    }
+
+                    @Override
+                    public Topology reload(String key, Topology oldValue) {
+                        return StorageNodeCatalog.this.load(oldValue);
+                    }
+                });
+    }
+
+    /**
+     * 所有可用（可读）节点
+     */
+    public List<StorageNode> availableNodes() {
+        return cache.get(KEY).nodes();
+    }
+
+    /**
+     * 所有可写节点
+     */
+    public List<StorageNode> writableNodes() {
+        return availableNodes().stream()
+                .filter(StorageNode::isWritable)
+                .toList();
+    }
+
+    /**
+     * 按 ID 查找可用节点
+     */
+    public Optional<StorageNode> findNode(String nodeId) {
+        return availableNodes().stream()
+                .filter(node -> node.nodeId().equals(nodeId))
+                .findFirst();
+    }
+
+    /**
+     * 可用节点构成的哈希环（读取定位）
+     */
+    public ConsistentHashRing availableRing() {
+        return cache.get(KEY).availableRing();
+    }
+
+    /**
+     * 可写节点构成的哈希环（写入放置）
+     */
+    public ConsistentHashRing writableRing() {
+        return cache.get(KEY).writableRing();
+    }
+
+    /**
+     * 异步刷新节点列表（节点上下线、调整权重或容量后调用）
+     */
+    public void refresh() {
+        cache.refresh(KEY);
+    }
+
+    private Topology load(Topology previous) {
+        List<StorageNode> nodes = List.copyOf(storageNodeRepository.findAvailableNodes());
+        if (previous != null && previous.nodes().equals(nodes)) {
+            return previous;
+        }
+        List<StorageNode> writable = nodes.stream().filter(StorageNode::isWritable).toList();
+        Topology topology = new Topology(nodes,
+                ConsistentHashRing.of(nodes, virtualNodes),
+                ConsistentHashRing.of(writable, virtualNodes));
+        log.debug("Storage node catalog loaded: {}", nodes.stream().map(StorageNode::nodeId).toList());
+        return topology;
+    }
+
+    /**
+     * 节点列表及哈希环快照
+     */
+    private record Topology(List<StorageNode> nodes,
+                            ConsistentHashRing availableRing,
+                            ConsistentHashRing writableRing) {
+    }
+}
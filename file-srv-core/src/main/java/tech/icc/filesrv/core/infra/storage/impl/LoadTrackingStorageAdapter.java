@@ -0,0 +1,92 @@
+package tech.icc.filesrv.core.infra.storage.impl;
+
+import org.springframework.core.io.Resource;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.common.spi.storage.StorageResult;
+import tech.icc.filesrv.common.spi.storage.UploadSession;
+import tech.icc.filesrv.core.infra.storage.NodeLoadTracker;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 负载跟踪存储适配器
+ * <p>
+ * 装饰实际适配器，对访问远端存储的操作记录在途请求数和延迟（见 {@link NodeLoadTracker}）。
+ * 预签名 URL 为本地计算、恢复会话不一定被实现支持，二者不计入统计。
+ */
+public class LoadTrackingStorageAdapter implements StorageAdapter {
+
+    private final String nodeId;
+    private final StorageAdapter delegate;
+    private final NodeLoadTracker tracker;
+
+    public LoadTrackingStorageAdapter(String nodeId, StorageAdapter delegate, NodeLoadTracker tracker) {
+        this.nodeId = nodeId;
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public String getAdapterType() {
+        return delegate.getAdapterType();
+    }
+
+    @Override
+    public StorageResult upload(String path, InputStream content, String contentType) {
+        return track(() -> delegate.upload(path, content, contentType));
+    }
+
+    @Override
+    public Resource download(String path) {
+        return track(() -> delegate.download(path));
+    }
+
+    @Override
+    public void delete(String path) {
+        track(() -> {
+            delegate.delete(path);
+            return null;
+        });
+    }
+
+    @Override
+    public List<DeleteResult> deleteAll(Collection<String> paths) {
+        return track(() -> delegate.deleteAll(paths));
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return track(() -> delegate.exists(path));
+    }
+
+    @Override
+    public String generatePresignedUrl(String path, Duration expiry) {
+        return delegate.generatePresignedUrl(path, expiry);
+    }
+
+    @Override
+    public UploadSession beginUpload(String path, String contentType) {
+        return track(() -> delegate.beginUpload(path, contentType));
+    }
+
+    @Override
+    public UploadSession resumeUpload(String path, String sessionId) {
+        return delegate.resumeUpload(path, sessionId);
+    }
+
+    private <T> T track(Supplier<T> operation) {
+        try (NodeLoadTracker.Ticket ticket = tracker.begin(nodeId)) {
+            try {
+                return operation.get();
+            } catch (RuntimeException e) {
+                ticket.markFailed();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package tech.icc.filesrv.core.infra.task;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.infra.executor.CallbackOutbox;
+
+/**
+ * Callback 发件箱轮询定时任务
+ * <p>
+ * 按 poll-interval 转发到期的发件箱消息：投递失败后的重试，以及其它节点写入后未及时转发的消息
+ * （见 {@link CallbackOutbox}）。事务提交后的即时转发不依赖本任务。
+ * 通过 file-srv.callback-outbox.enabled 配置启用（默认启用）。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.callback-outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CallbackOutboxRelayTask {
+
+    private final CallbackOutbox outbox;
+
+    public CallbackOutboxRelayTask(CallbackOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    /**
+     * 执行一轮转发（上一轮结束到下一轮开始间隔 poll-interval）
+     */
+    @Scheduled(fixedDelayString = "#{@callbackOutboxProperties.pollInterval.toMillis()}",
+               initialDelayString = "#{@callbackOutboxProperties.pollInterval.toMillis()}")
+    public void relay() {
+        outbox.relay();
+    }
+}
@@ -0,0 +1,32 @@
+package tech.icc.filesrv.core.infra.task;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.infra.cache.ContentHashIndex;
+
+/**
+ * 内容哈希过滤器维护定时任务
+ * <p>
+ * 启动后立即执行首次加载，之后按 check-interval 检查失效比例和容量，必要时重建（见 {@link ContentHashIndex}）。
+ * 通过 file-srv.dedup-filter.enabled 配置启用（默认启用）。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.dedup-filter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DedupFilterMaintenanceTask {
+
+    private final ContentHashIndex index;
+
+    public DedupFilterMaintenanceTask(ContentHashIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * 执行一次维护（上一次结束到下一次开始间隔 check-interval）
+     */
+    @Scheduled(fixedDelayString = "#{@dedupFilterProperties.checkInterval.toMillis()}", initialDelay = 0)
+    public void maintain() {
+        index.maintain();
+    }
+}
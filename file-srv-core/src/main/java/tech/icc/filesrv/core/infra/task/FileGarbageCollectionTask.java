@@ -0,0 +1,187 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.application.service.FileGarbageCollector;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.infra.cache.ContentHashIndex;
+import tech.icc.filesrv.core.infra.config.GarbageCollectionProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.coordination.ShardAssignment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 物理文件 GC 定时任务
+ * <p>
+ * 定期回收引用计数归零的物理文件，释放对象存储空间。
+ * 通过 file-srv.gc.enabled 配置启用。
+ * </p>
+ *
+ * <h3>回收策略</h3>
+ * <ul>
+ *   <li>按 contentHash 游标分页扫描（keyset），不使用 OFFSET，删除过程中分页稳定</li>
+ *   <li>每页拆分为多个回收事务，由固定大小的线程池并发执行，限制对数据库和存储的压力</li>
+ *   <li>回收事务内重新校验 GC 条件并加锁，与秒传并发安全（见 {@link FileGarbageCollector}）</li>
+ *   <li>删除失败的文件留在原处，游标越过它们，下一轮重试</li>
+ *   <li>多节点部署时每个节点只扫描自己负责的 contentHash 区间（见 {@link MaintenanceCoordinator}）</li>
+ *   <li>回收数量报告给秒传存在性索引，累积到一定比例时重建过滤器（见 {@link ContentHashIndex}）</li>
+ * </ul>
+ * 指标：{@code file.gc.reclaimed.bytes}、{@code file.gc.reclaimed.files}、{@code file.gc.failures}、
+ * {@code file.gc.duration}、{@code file.gc.reclaim.rate}（上一轮回收速度，字节/秒）。
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.gc", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class FileGarbageCollectionTask {
+
+    private static final Logger log = LoggerFactory.getLogger(FileGarbageCollectionTask.class);
+
+    private final FileInfoRepository fileInfoRepository;
+    private final FileGarbageCollector collector;
+    private final GarbageCollectionProperties properties;
+    private final MaintenanceCoordinator coordinator;
+    private final ContentHashIndex contentHashIndex;
+
+    private final ExecutorService workers;
+
+    private final Counter reclaimedBytesCounter;
+    private final Counter reclaimedFilesCounter;
+    private final Counter failuresCounter;
+    private final Timer durationTimer;
+    private final AtomicLong lastReclaimRate = new AtomicLong();
+
+    public FileGarbageCollectionTask(FileInfoRepository fileInfoRepository,
+                                     FileGarbageCollector collector,
+                                     GarbageCollectionProperties properties,
+                                     MaintenanceCoordinator coordinator,
+                                     ContentHashIndex contentHashIndex,
+                                     MeterRegistry meterRegistry) {
+        this.fileInfoRepository = fileInfoRepository;
+        this.collector = collector;
+        this.properties = properties;
+        this.coordinator = coordinator;
+        this.contentHashIndex = contentHashIndex;
+
+        AtomicInteger workerCounter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()), r -> {
+            Thread t = new Thread(r, "file-gc-" + workerCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.reclaimedBytesCounter = Counter.builder("file.gc.reclaimed.bytes")
+                .description("Bytes reclaimed from object storage")
+                .register(meterRegistry);
+        this.reclaimedFilesCounter = Counter.builder("file.gc.reclaimed.files")
+                .description("Physical files reclaimed")
+                .register(meterRegistry);
+        this.failuresCounter = Counter.builder("file.gc.failures")
+                .description("Physical files left for retry after a failed delete")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("file.gc.duration")
+                .description("Duration of a garbage collection run")
+                .register(meterRegistry);
+        Gauge.builder("file.gc.reclaim.rate", lastReclaimRate, AtomicLong::get)
+                .description("Bytes per second reclaimed by the last run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行一轮 GC（按 interval 配置定时触发，上一轮结束到下一轮开始）
+     *
+     * @return 本轮回收结果
+     */
+    @Scheduled(fixedDelayString = "#{@garbageCollectionProperties.interval.toMillis()}",
+               initialDelayString = "#{@garbageCollectionProperties.interval.toMillis()}")
+    public FileGarbageCollector.Result collectGarbage() {
+        long start = System.nanoTime();
+        FileGarbageCollector.Result total = FileGarbageCollector.Result.EMPTY;
+        try {
+            Optional<ShardAssignment> shard = coordinator.shard();
+            if (shard.isEmpty()) {
+                return total;
+            }
+            String cursor = shard.get().cursorBefore();
+            while (true) {
+                List<String> page = fileInfoRepository.findGarbageHashes(cursor, properties.getPageSize());
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<String> owned = page.stream().filter(shard.get()::contains).toList();
+                if (!owned.isEmpty()) {
+                    total = total.plus(collectPage(owned));
+                }
+                cursor = page.get(page.size() - 1);
+                if (page.size() < properties.getPageSize() || shard.get().isBeyond(cursor)) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("File garbage collection failed", e);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            long rate = elapsedNanos > 0 ? (long) (total.bytes() * 1e9 / elapsedNanos) : 0L;
+            lastReclaimRate.set(rate);
+            if (total.collected() > 0 || total.failed() > 0) {
+                log.info("File garbage collection completed: collected={}, bytes={}, failed={}, duration={}ms, rate={}B/s",
+                        total.collected(), total.bytes(), total.failed(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rate);
+            }
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 并发回收一页，等待全部批次完成
+     */
+    private FileGarbageCollector.Result collectPage(List<String> page) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        List<CompletableFuture<FileGarbageCollector.Result>> futures = new ArrayList<>();
+        for (int i = 0; i < page.size(); i += batchSize) {
+            List<String> batch = page.subList(i, Math.min(i + batchSize, page.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> collectBatch(batch), workers));
+        }
+        FileGarbageCollector.Result result = FileGarbageCollector.Result.EMPTY;
+        for (CompletableFuture<FileGarbageCollector.Result> future : futures) {
+            result = result.plus(future.join());
+        }
+        return result;
+    }
+
+    private FileGarbageCollector.Result collectBatch(List<String> batch) {
+        try {
+            FileGarbageCollector.Result result = collector.collect(batch);
+            reclaimedFilesCounter.increment(result.collected());
+            reclaimedBytesCounter.increment(result.bytes());
+            failuresCounter.increment(result.failed());
+            contentHashIndex.removed(result.collected());
+            return result;
+        } catch (RuntimeException e) {
+            // 整批回滚：元数据保留，下一轮重试
+            log.warn("Garbage collection batch failed: size={}, first={}", batch.size(), batch.get(0), e);
+            failuresCounter.increment(batch.size());
+            return new FileGarbageCollector.Result(0, 0L, batch.size());
+        }
+    }
+}
@@ -7,13 +7,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.application.service.FileService;
 import tech.icc.filesrv.core.infra.config.OrphanCleanupProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.coordination.ShardAssignment;
 import tech.icc.filesrv.core.infra.persistence.repository.FileRelationRepository;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -25,9 +30,14 @@ import java.util.concurrent.atomic.AtomicLong;
  * 
  * <h3>清理策略</h3>
  * <ul>
- *   <li>查询 file_relations 表，找到关联文件不存在的记录</li>
+ *   <li>查询 file_relations 表，找到当前主文件已不存在的衍生文件</li>
  *   <li>只处理超过宽限期（默认7天）的记录</li>
- *   <li>分批处理，避免一次加载过多数据</li>
+ *   <li>按 fKey 游标分页（keyset），每页一批，不一次性加载全部孤儿</li>
+ *   <li>每批先删除文件（引用计数归零的物理文件由 GC 回收），再用 IN 语句批量删除关联关系；
+ *       各步骤幂等，中途失败的批次下次执行时重试</li>
+ *   <li>单次执行有时间预算（max-run-duration），超出后剩余孤儿留给下一次执行</li>
+ *   <li>各节点同时触发，都按 fKey 游标扫描孤儿，只清理 fKey 哈希归属本节点的部分（见 {@link ShardAssignment#owns}）：
+ *       fKey 为时间有序的 UUIDv7，前缀是时间戳，不能按前缀区间切分</li>
  *   <li>记录详细日志用于审计</li>
  *   <li>发布监控指标到 Micrometer</li>
  * </ul>
@@ -40,6 +50,8 @@ public class OrphanFileCleanupTask {
 
     private final OrphanCleanupProperties properties;
     private final FileRelationRepository relationRepository;
+    private final FileService fileService;
+    private final MaintenanceCoordinator coordinator;
     
     // 监控指标
     private final Counter orphansFoundCounter;
@@ -51,9 +63,13 @@ public class OrphanFileCleanupTask {
     public OrphanFileCleanupTask(
             OrphanCleanupProperties properties,
             FileRelationRepository relationRepository,
+            FileService fileService,
+            MaintenanceCoordinator coordinator,
             MeterRegistry meterRegistry) {
         this.properties = properties;
         this.relationRepository = relationRepository;
+        this.fileService = fileService;
+        this.coordinator = coordinator;
         
         // 初始化监控指标
         this.orphansFoundCounter = Counter.builder("file_srv.orphan.found")
@@ -89,61 +105,75 @@ public class OrphanFileCleanupTask {
      */
     @Scheduled(cron = "${file-srv.orphan.cleanup-cron}")
     public void cleanupOrphanFiles() {
-        log.info("Starting orphan file cleanup task (retention-days={}, batch-size={}, dry-run={})",
-                properties.getRetentionDays(), properties.getBatchSize(), properties.isDryRun());
-        
+        log.info("Starting orphan file cleanup task (retention-days={}, batch-size={}, max-run-duration={}, dry-run={})",
+                properties.getRetentionDays(), properties.getBatchSize(),
+                properties.getMaxRunDuration(), properties.isDryRun());
+
         long startTime = System.currentTimeMillis();
+        Instant deadline = Instant.now().plus(properties.getMaxRunDuration());
         int totalOrphans = 0;
         int totalDeleted = 0;
         int totalFailed = 0;
+        boolean budgetExhausted = false;
 
         try {
             // 计算宽限期开始时间
             Instant gracePeriodStart = Instant.now()
                     .minus(properties.getRetentionDays(), ChronoUnit.DAYS);
-            
+
             log.debug("Searching for orphan files created before: {}", gracePeriodStart);
-            
-            // 查询孤儿文件
-            List<String> orphanFkeys = relationRepository.findOrphanFiles(gracePeriodStart);
-            totalOrphans = orphanFkeys.size();
-            
-            if (orphanFkeys.isEmpty()) {
-                log.info("No orphan files found");
-                lastCleanupTimestamp.set(Instant.now().toEpochMilli());
-                lastOrphansCount.set(0);
+
+            Optional<ShardAssignment> shard = coordinator.shard();
+            if (shard.isEmpty()) {
                 return;
             }
-            
-            log.info("Found {} orphan files", totalOrphans);
-            orphansFoundCounter.increment(totalOrphans);
-            
-            // 分批处理孤儿文件
-            int batchSize = properties.getBatchSize();
-            for (int i = 0; i < orphanFkeys.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, orphanFkeys.size());
-                List<String> batch = orphanFkeys.subList(i, end);
-                
-                log.debug("Processing batch {}-{} of {}", i, end, totalOrphans);
-                
-                for (String fkey : batch) {
-                    try {
-                        if (properties.isDryRun()) {
-                            log.info("[DRY-RUN] Would delete orphan file: {}", fkey);
-                            totalDeleted++;
-                        } else {
-                            deleteOrphanFile(fkey);
-                            totalDeleted++;
-                            orphansDeletedCounter.increment();
-                        }
-                    } catch (Exception e) {
-                        log.error("Failed to delete orphan file: fkey={}, error={}", fkey, e.getMessage(), e);
-                        totalFailed++;
-                        cleanupFailuresCounter.increment();
+            log.debug("Scanning orphan shard: {}", shard.get());
+
+            int batchSize = Math.max(1, properties.getBatchSize());
+            String cursor = "";
+            while (true) {
+                if (Instant.now().isAfter(deadline)) {
+                    budgetExhausted = true;
+                    break;
+                }
+                List<String> page = relationRepository.findOrphanFkeys(
+                        gracePeriodStart, cursor, PageRequest.of(0, batchSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                // 失败的批次也越过，避免同一批反复失败阻塞后续清理
+                cursor = page.get(page.size() - 1);
+                boolean lastPage = page.size() < batchSize;
+                List<String> batch = page.stream().filter(shard.get()::owns).toList();
+                if (batch.isEmpty()) {
+                    if (lastPage) {
+                        break;
+                    }
+                    continue;
+                }
+                totalOrphans += batch.size();
+                orphansFoundCounter.increment(batch.size());
+
+                try {
+                    if (properties.isDryRun()) {
+                        log.info("[DRY-RUN] Would delete {} orphan files: {}", batch.size(), batch);
+                    } else {
+                        deleteOrphanFiles(batch);
+                        orphansDeletedCounter.increment(batch.size());
                     }
+                    totalDeleted += batch.size();
+                } catch (Exception e) {
+                    log.error("Failed to delete orphan batch: size={}, first={}, error={}",
+                            batch.size(), batch.get(0), e.getMessage(), e);
+                    totalFailed += batch.size();
+                    cleanupFailuresCounter.increment(batch.size());
+                }
+
+                if (lastPage) {
+                    break;
                 }
             }
-            
+
         } catch (Exception e) {
             log.error("Orphan file cleanup task failed", e);
             cleanupFailuresCounter.increment();
@@ -152,38 +182,30 @@ public class OrphanFileCleanupTask {
             long duration = System.currentTimeMillis() - startTime;
             lastCleanupTimestamp.set(Instant.now().toEpochMilli());
             lastOrphansCount.set(totalOrphans);
-            
+
+            if (budgetExhausted) {
+                log.warn("Orphan file cleanup stopped after exceeding time budget {}, remaining orphans deferred to next run",
+                        properties.getMaxRunDuration());
+            }
             log.info("Orphan file cleanup completed: found={}, deleted={}, failed={}, duration={}ms",
                     totalOrphans, totalDeleted, totalFailed, duration);
         }
     }
 
     /**
-     * 删除孤儿文件
+     * 删除一批孤儿文件
      * <p>
-     * TODO: 集成 File 域的删除服务，删除物理存储和元数据
-     * 目前仅记录日志
+     * 先删除文件引用并减少引用计数（物理文件由 GC 任务回收），再删除关联关系。
+     * 关联关系是孤儿的唯一来源，最后删除，保证任一步失败时下次执行仍能找到该批孤儿。
      * </p>
      *
-     * @param fkey 文件 key
+     * @param fkeys 孤儿文件 key
      */
-    private void deleteOrphanFile(String fkey) {
-        // TODO: 调用 FileService.delete(fkey)
-        // 1. 删除物理文件（通过 StorageAdapter）
-        // 2. 删除 file_metadata 记录
-        // 3. 删除 file_relations 记录
-        // 4. 发布 FileDeletedEvent
-        
-        log.info("Deleting orphan file: fkey={}", fkey);
-        
-        // 临时实现：仅删除关联关系记录
-        try {
-            relationRepository.deleteByFileFkey(fkey);
-            relationRepository.deleteByRelatedFkey(fkey);
-            log.debug("Deleted file relations for orphan: fkey={}", fkey);
-        } catch (Exception e) {
-            log.error("Failed to delete file relations: fkey={}", fkey, e);
-            throw e;
-        }
+    private void deleteOrphanFiles(List<String> fkeys) {
+        int filesDeleted = fileService.deleteAll(fkeys);
+        int relationsDeleted = relationRepository.deleteByFileFkeyIn(fkeys)
+                + relationRepository.deleteByRelatedFkeyIn(fkeys);
+        log.info("Deleted orphan batch: orphans={}, files={}, relations={}",
+                fkeys.size(), filesDeleted, relationsDeleted);
     }
 }
@@ -0,0 +1,116 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.infra.config.RefCountStripingProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.impl.RefCountStriping;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 引用计数分片折叠定时任务
+ * <p>
+ * 定期把热点文件分片上的引用折叠回 file_info（见 {@link RefCountStriping}）。
+ * 与 file-srv.refcount-striping.enabled 无关：关闭分片后仍需运行，保证已有分片最终被折叠；
+ * 通过 file-srv.refcount-striping.compaction-enabled 配置启用（默认启用）。
+ * </p>
+ *
+ * <h3>折叠策略</h3>
+ * <ul>
+ *   <li>多节点部署时只由 leader 节点执行（见 {@link MaintenanceCoordinator}）</li>
+ *   <li>按 contentHash 游标分页扫描，每个文件一个短事务</li>
+ *   <li>上一周期以来没有新增量的文件删除分片，回到单行计数</li>
+ * </ul>
+ * 指标：{@code file.refcount.compaction.folded}（折叠的引用数）、{@code file.refcount.compaction.duration}。
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.refcount-striping", name = "compaction-enabled",
+        havingValue = "true", matchIfMissing = true)
+public class RefCountCompactionTask {
+
+    private static final Logger log = LoggerFactory.getLogger(RefCountCompactionTask.class);
+
+    private final FileRefStripeJpaRepository stripeRepository;
+    private final RefCountStriping striping;
+    private final RefCountStripingProperties properties;
+    private final MaintenanceCoordinator coordinator;
+
+    private final Counter foldedCounter;
+    private final Timer durationTimer;
+
+    public RefCountCompactionTask(FileRefStripeJpaRepository stripeRepository,
+                                  RefCountStriping striping,
+                                  RefCountStripingProperties properties,
+                                  MaintenanceCoordinator coordinator,
+                                  MeterRegistry meterRegistry) {
+        this.stripeRepository = stripeRepository;
+        this.striping = striping;
+        this.properties = properties;
+        this.coordinator = coordinator;
+
+        this.foldedCounter = Counter.builder("file.refcount.compaction.folded")
+                .description("Striped references folded back into file_info")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("file.refcount.compaction.duration")
+                .description("Duration of a stripe compaction run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行一轮折叠（按 compaction-interval 配置定时触发）
+     *
+     * @return 折叠的引用数
+     */
+    @Scheduled(fixedDelayString = "#{@refCountStripingProperties.compactionInterval.toMillis()}",
+               initialDelayString = "#{@refCountStripingProperties.compactionInterval.toMillis()}")
+    public long compact() {
+        if (!coordinator.isLeader("refcount-compaction")) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        long folded = 0;
+        int files = 0;
+        try {
+            int pageSize = Math.max(1, properties.getCompactionBatchSize());
+            String cursor = "";
+            while (true) {
+                List<String> page = stripeRepository.findStripedHashes(cursor, PageRequest.of(0, pageSize));
+                for (String contentHash : page) {
+                    try {
+                        int count = striping.compact(contentHash);
+                        folded += count;
+                        foldedCounter.increment(count);
+                        files++;
+                    } catch (RuntimeException e) {
+                        // 事务回滚，分片保持原样，下一轮重试
+                        log.warn("Failed to compact reference stripes: contentHash={}", contentHash, e);
+                    }
+                }
+                if (page.size() < pageSize) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            log.error("Reference stripe compaction failed", e);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (folded > 0) {
+                log.info("Reference stripe compaction completed: files={}, folded={}, duration={}ms",
+                        files, folded, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+        }
+        return folded;
+    }
+}
@@ -0,0 +1,33 @@
+package tech.icc.filesrv.core.infra.task;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.application.service.FileReplicationService;
+
+/**
+ * 副本补偿扫描定时任务
+ * <p>
+ * 按 repair-interval 重新提交长时间停留在 PENDING 的副本（见 {@link FileReplicationService#repairPending()}），
+ * 集群中只由 leader 执行。通过 file-srv.storage.replication.repair-enabled 配置启用（默认启用）。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.storage.replication", name = "repair-enabled", havingValue = "true", matchIfMissing = true)
+public class ReplicaRepairTask {
+
+    private final FileReplicationService replicationService;
+
+    public ReplicaRepairTask(FileReplicationService replicationService) {
+        this.replicationService = replicationService;
+    }
+
+    /**
+     * 执行一次补偿扫描（上一次结束到下一次开始间隔 repair-interval）
+     */
+    @Scheduled(fixedDelayString = "#{@replicationProperties.repairInterval.toMillis()}",
+               initialDelayString = "#{@replicationProperties.repairInterval.toMillis()}")
+    public void repair() {
+        replicationService.repairPending();
+    }
+}
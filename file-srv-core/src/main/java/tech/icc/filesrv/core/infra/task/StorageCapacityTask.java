@@ -0,0 +1,86 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.domain.storage.StorageNodeRepository;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.storage.StorageNodeCatalog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 存储节点容量汇总定时任务
+ * <p>
+ * 定期按 storage_copy + file_info.size 重新计算 storage_node.used_bytes，
+ * 供写入路由的最低剩余容量判断（file-srv.storage.routing.min-free-ratio）使用。
+ * 通过 file-srv.storage.routing.capacity-refresh-enabled 配置启用（默认启用）。
+ * </p>
+ *
+ * <h3>汇总策略</h3>
+ * <ul>
+ *   <li>多节点部署时只由 leader 节点执行（见 {@link MaintenanceCoordinator}）</li>
+ *   <li>单条 UPDATE 全量汇总，未删除的副本（PENDING / ACTIVE / MIGRATING）均计入</li>
+ *   <li>汇总后刷新本节点的 {@link StorageNodeCatalog}；其余节点在节点列表刷新间隔内生效</li>
+ * </ul>
+ * 统计的是逻辑大小，不含对象存储自身的开销，容量阈值应留出余量。
+ * 指标：{@code file.storage.capacity.refresh.duration}。
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.storage.routing", name = "capacity-refresh-enabled",
+        havingValue = "true", matchIfMissing = true)
+public class StorageCapacityTask {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageCapacityTask.class);
+
+    private final StorageNodeRepository storageNodeRepository;
+    private final StorageNodeCatalog catalog;
+    private final MaintenanceCoordinator coordinator;
+
+    private final Timer durationTimer;
+
+    public StorageCapacityTask(StorageNodeRepository storageNodeRepository,
+                               StorageNodeCatalog catalog,
+                               MaintenanceCoordinator coordinator,
+                               MeterRegistry meterRegistry) {
+        this.storageNodeRepository = storageNodeRepository;
+        this.catalog = catalog;
+        this.coordinator = coordinator;
+
+        this.durationTimer = Timer.builder("file.storage.capacity.refresh.duration")
+                .description("Duration of a storage node capacity refresh")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行一轮汇总（按 capacity-refresh-interval 配置定时触发）
+     *
+     * @return 更新的节点数
+     */
+    @Scheduled(fixedDelayString = "#{@storageRoutingProperties.capacityRefreshInterval.toMillis()}",
+               initialDelayString = "#{@storageRoutingProperties.capacityRefreshInterval.toMillis()}")
+    public int refresh() {
+        if (!coordinator.isLeader("storage-capacity")) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int updated = 0;
+        try {
+            updated = storageNodeRepository.refreshUsedBytes();
+            catalog.refresh();
+        } catch (RuntimeException e) {
+            // 保留上一轮的汇总结果，下一轮重试
+            log.error("Storage node capacity refresh failed", e);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            log.debug("Storage node capacity refreshed: nodes={}, duration={}ms",
+                    updated, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,42 @@
+package tech.icc.filesrv.core.infra.task;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.application.service.StorageTieringService;
+
+/**
+ * 冷热分层定时任务
+ * <p>
+ * 按 flush-interval 回写访问统计并处理升温，按 migration-interval 执行降温扫描
+ * （见 {@link StorageTieringService}）。通过 file-srv.storage.tiering.enabled 配置启用（默认启用）。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.storage.tiering", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StorageTieringTask {
+
+    private final StorageTieringService tieringService;
+
+    public StorageTieringTask(StorageTieringService tieringService) {
+        this.tieringService = tieringService;
+    }
+
+    /**
+     * 回写访问统计（上一次结束到下一次开始间隔 flush-interval）
+     */
+    @Scheduled(fixedDelayString = "#{@tieringProperties.flushInterval.toMillis()}",
+               initialDelayString = "#{@tieringProperties.flushInterval.toMillis()}")
+    public void flushAccess() {
+        tieringService.flushAccess();
+    }
+
+    /**
+     * 降温扫描（上一次结束到下一次开始间隔 migration-interval）
+     */
+    @Scheduled(fixedDelayString = "#{@tieringProperties.migrationInterval.toMillis()}",
+               initialDelayString = "#{@tieringProperties.migrationInterval.toMillis()}")
+    public void demoteIdle() {
+        tieringService.demoteIdle();
+    }
+}
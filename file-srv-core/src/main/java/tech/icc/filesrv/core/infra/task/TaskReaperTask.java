@@ -0,0 +1,159 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.application.service.TaskReaper;
+import tech.icc.filesrv.core.infra.config.TaskReaperProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 过期任务回收定时任务
+ * <p>
+ * 定期回收过期的上传任务、清理已结束的任务行和本节点的残留临时目录（见 {@link TaskReaper}）。
+ * 通过 file-srv.task-reaper.enabled 配置启用。
+ * </p>
+ *
+ * <h3>回收策略</h3>
+ * <ul>
+ *   <li>任务回收和行清理在多节点部署时只由 leader 节点执行（见 {@link MaintenanceCoordinator}）</li>
+ *   <li>本地临时目录清理在每个节点上执行，只处理本节点的临时根目录</li>
+ *   <li>按批处理，每轮最多 max-batches-per-run 批，剩余积压留给下一轮</li>
+ *   <li>先回收过期任务，再清理超过保留期的已结束任务行</li>
+ * </ul>
+ * 指标：{@code file.task.reaper.expired}、{@code file.task.reaper.sessions}（按结果）、
+ * {@code file.task.reaper.purged}、{@code file.task.reaper.local.cleaned}、{@code file.task.reaper.duration}、
+ * {@code file.task.reaper.backlog}（本轮结束时仍待回收的过期任务数）。
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.task-reaper", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TaskReaperTask {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskReaperTask.class);
+
+    private final TaskReaper reaper;
+    private final TaskReaperProperties properties;
+    private final MaintenanceCoordinator coordinator;
+
+    private final Counter expiredCounter;
+    private final Counter sessionsAbortedCounter;
+    private final Counter sessionFailuresCounter;
+    private final Counter purgedCounter;
+    private final Counter localCleanedCounter;
+    private final Timer durationTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public TaskReaperTask(TaskReaper reaper,
+                          TaskReaperProperties properties,
+                          MaintenanceCoordinator coordinator,
+                          MeterRegistry meterRegistry) {
+        this.reaper = reaper;
+        this.properties = properties;
+        this.coordinator = coordinator;
+
+        this.expiredCounter = Counter.builder("file.task.reaper.expired")
+                .description("Tasks marked as expired")
+                .register(meterRegistry);
+        this.sessionsAbortedCounter = Counter.builder("file.task.reaper.sessions")
+                .description("Upload sessions of expired tasks")
+                .tag("result", "aborted")
+                .register(meterRegistry);
+        this.sessionFailuresCounter = Counter.builder("file.task.reaper.sessions")
+                .description("Upload sessions of expired tasks")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("file.task.reaper.purged")
+                .description("Finished task rows deleted")
+                .register(meterRegistry);
+        this.localCleanedCounter = Counter.builder("file.task.reaper.local.cleaned")
+                .description("Local task temp directories removed on this node")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("file.task.reaper.duration")
+                .description("Duration of a task reaper run")
+                .register(meterRegistry);
+        Gauge.builder("file.task.reaper.backlog", backlog, AtomicLong::get)
+                .description("Expired tasks still waiting to be reaped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行一轮回收
+     * <p>
+     * 按 interval 配置定时触发（上一轮结束到下一轮开始）
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "#{@taskReaperProperties.interval.toMillis()}",
+               initialDelayString = "#{@taskReaperProperties.interval.toMillis()}")
+    public void reap() {
+        if (!coordinator.isLeader("task-reaper")) {
+            return;
+        }
+        long start = System.nanoTime();
+        int expired = 0;
+        int purged = 0;
+        try {
+            int batchSize = Math.max(1, properties.getBatchSize());
+            for (int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+                TaskReaper.ExpireResult result = reaper.expireBatch(Instant.now(), batchSize);
+                expired += result.expired();
+                expiredCounter.increment(result.expired());
+                sessionsAbortedCounter.increment(result.aborted());
+                sessionFailuresCounter.increment(result.abortFailures());
+                if (result.scanned() < batchSize) {
+                    break;
+                }
+            }
+
+            Instant finishedBefore = Instant.now().minus(properties.getFinishedRetention());
+            for (int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+                int count = reaper.purgeBatch(finishedBefore, batchSize);
+                purged += count;
+                purgedCounter.increment(count);
+                if (count < batchSize) {
+                    break;
+                }
+            }
+
+            backlog.set(reaper.countBacklog(Instant.now()));
+        } catch (RuntimeException e) {
+            log.error("Task reaper run failed", e);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (expired > 0 || purged > 0) {
+                log.info("Task reaper completed: expired={}, purged={}, backlog={}, duration={}ms",
+                        expired, purged, backlog.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+        }
+    }
+
+    /**
+     * 清理本节点的残留临时目录
+     * <p>
+     * 不经过 leader 选举：临时目录只存在于处理过任务的节点上，每个节点各自清理
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "#{@taskReaperProperties.interval.toMillis()}",
+               initialDelayString = "#{@taskReaperProperties.interval.toMillis()}")
+    public void sweepLocal() {
+        try {
+            int removed = reaper.sweepLocal(Instant.now(), properties.getInterval(), properties.getLocalTempMaxAge());
+            localCleanedCounter.increment(removed);
+            if (removed > 0) {
+                log.info("Local task directories cleaned: removed={}", removed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Local task directory sweep failed", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.icc.filesrv.core.application.service.TaskRecovery;
+import tech.icc.filesrv.core.infra.config.TaskRecoveryProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 停滞任务恢复定时任务
+ * <p>
+ * 定期重新投递处理租约已到期的 PROCESSING 任务（见 {@link TaskRecovery}），
+ * 执行节点宕机造成的吞吐损失以租约时长为上限。通过 file-srv.task-recovery.enabled 配置启用。
+ * </p>
+ *
+ * <h3>恢复策略</h3>
+ * <ul>
+ *   <li>多节点部署时只由 leader 节点执行（见 {@link MaintenanceCoordinator}）</li>
+ *   <li>按批处理，每轮最多 max-batches-per-run 批，剩余积压留给下一轮</li>
+ * </ul>
+ * 指标：{@code file.task.recovery.republished}、{@code file.task.recovery.exhausted}、
+ * {@code file.task.recovery.duration}、{@code file.task.recovery.backlog}（本轮发现的停滞任务数）、
+ * {@code file.task.recovery.backlog.age}（本轮停滞最久的任务超出租约的秒数）。
+ */
+@Component
+@ConditionalOnProperty(prefix = "file-srv.task-recovery", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TaskRecoveryTask {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskRecoveryTask.class);
+
+    private final TaskRecovery recovery;
+    private final TaskRecoveryProperties properties;
+    private final MaintenanceCoordinator coordinator;
+
+    private final Counter republishedCounter;
+    private final Counter exhaustedCounter;
+    private final Timer durationTimer;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong backlogAgeSeconds = new AtomicLong();
+
+    public TaskRecoveryTask(TaskRecovery recovery,
+                            TaskRecoveryProperties properties,
+                            MaintenanceCoordinator coordinator,
+                            MeterRegistry meterRegistry) {
+        this.recovery = recovery;
+        this.properties = properties;
+        this.coordinator = coordinator;
+
+        this.republishedCounter = Counter.builder("file.task.recovery.republished")
+                .description("Stalled PROCESSING tasks republished for callback execution")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("file.task.recovery.exhausted")
+                .description("Stalled tasks failed after exhausting recovery attempts")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("file.task.recovery.duration")
+                .description("Duration of a task recovery run")
+                .register(meterRegistry);
+        Gauge.builder("file.task.recovery.backlog", backlog, AtomicLong::get)
+                .description("Stalled PROCESSING tasks found by the last recovery run")
+                .register(meterRegistry);
+        Gauge.builder("file.task.recovery.backlog.age", backlogAgeSeconds, AtomicLong::get)
+                .description("Seconds the most overdue stalled task was past its lease in the last recovery run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 执行一轮恢复（按 interval 配置定时触发，上一轮结束到下一轮开始）
+     */
+    @Scheduled(fixedDelayString = "#{@taskRecoveryProperties.interval.toMillis()}",
+               initialDelayString = "#{@taskRecoveryProperties.interval.toMillis()}")
+    public void recover() {
+        if (!coordinator.isLeader("task-recovery")) {
+            return;
+        }
+        long start = System.nanoTime();
+        int scanned = 0;
+        int republished = 0;
+        Duration maxLapse = Duration.ZERO;
+        try {
+            int batchSize = Math.max(1, properties.getBatchSize());
+            for (int i = 0; i < properties.getMaxBatchesPerRun(); i++) {
+                TaskRecovery.RecoveryResult result = recovery.recoverBatch(Instant.now(), batchSize);
+                scanned += result.scanned();
+                republished += result.republished();
+                republishedCounter.increment(result.republished());
+                exhaustedCounter.increment(result.exhausted());
+                if (result.maxLapse().compareTo(maxLapse) > 0) {
+                    maxLapse = result.maxLapse();
+                }
+                if (result.scanned() < batchSize) {
+                    break;
+                }
+            }
+            backlog.set(scanned);
+            backlogAgeSeconds.set(maxLapse.toSeconds());
+        } catch (RuntimeException e) {
+            log.error("Task recovery run failed", e);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            durationTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (scanned > 0) {
+                log.info("Task recovery completed: stalled={}, republished={}, maxLapse={}, duration={}ms",
+                        scanned, republished, maxLapse, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+        }
+    }
+}
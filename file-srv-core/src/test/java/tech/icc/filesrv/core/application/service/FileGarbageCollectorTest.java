@@ -0,0 +1,144 @@
+package tech.icc.filesrv.core.application.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.icc.filesrv.common.spi.storage.DeleteResult;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileGarbageCollectorTest {
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @Mock
+    private StorageRoutingService routingService;
+
+    @Mock
+    private StorageAdapter nodeA;
+
+    @Mock
+    private StorageAdapter nodeB;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FileGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        collector = new FileGarbageCollector(fileInfoRepository, routingService, transactionManager);
+    }
+
+    @Test
+    void shouldDeleteAllCopiesThenMetadata() {
+        FileInfo file = garbage("h1", copy("a", "p1"), copy("b", "p1"));
+        when(fileInfoRepository.lockGarbageFiles(List.of("h1"))).thenReturn(List.of(file));
+        when(routingService.getAdapter("a")).thenReturn(nodeA);
+        when(routingService.getAdapter("b")).thenReturn(nodeB);
+        when(nodeA.deleteAll(List.of("p1"))).thenReturn(List.of(DeleteResult.success("p1")));
+        when(nodeB.deleteAll(List.of("p1"))).thenReturn(List.of(DeleteResult.success("p1")));
+
+        FileGarbageCollector.Result result = collector.collect(List.of("h1"));
+
+        verify(fileInfoRepository).deleteByContentHash("h1");
+        assertThat(result).isEqualTo(new FileGarbageCollector.Result(1, 20L, 0));
+    }
+
+    @Test
+    void shouldCommitCollectingStateBeforeDeletingObjects() {
+        FileInfo file = garbage("h4", copy("a", "p4"));
+        when(fileInfoRepository.lockGarbageFiles(List.of("h4"))).thenReturn(List.of(file));
+        when(routingService.getAdapter("a")).thenReturn(nodeA);
+        when(nodeA.deleteAll(List.of("p4"))).thenReturn(List.of(DeleteResult.success("p4")));
+
+        collector.collect(List.of("h4"));
+
+        // 对象删除不可回滚：COLLECTING 先提交，之后元数据删除失败也不会被恢复为 ACTIVE
+        InOrder order = inOrder(fileInfoRepository, transactionManager, nodeA);
+        order.verify(fileInfoRepository).lockGarbageFiles(List.of("h4"));
+        order.verify(fileInfoRepository).markCollecting(List.of("h4"));
+        order.verify(transactionManager).commit(any());
+        order.verify(nodeA).deleteAll(List.of("p4"));
+        order.verify(fileInfoRepository).deleteByContentHash("h4");
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void shouldLeaveFileCollectingWhenMetadataDeleteFails() {
+        FileInfo file = garbage("h5", copy("a", "p5"));
+        when(fileInfoRepository.lockGarbageFiles(List.of("h5"))).thenReturn(List.of(file));
+        when(routingService.getAdapter("a")).thenReturn(nodeA);
+        when(nodeA.deleteAll(List.of("p5"))).thenReturn(List.of(DeleteResult.success("p5")));
+        doThrow(new IllegalStateException("connection reset"))
+                .when(fileInfoRepository).deleteByContentHash("h5");
+
+        assertThatThrownBy(() -> collector.collect(List.of("h5"))).isInstanceOf(IllegalStateException.class);
+
+        // 第一步已提交：文件停留在 COLLECTING，下一轮继续回收
+        verify(fileInfoRepository).markCollecting(List.of("h5"));
+        verify(transactionManager).commit(any());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void shouldKeepFileWithFailedCopyForRetry() {
+        StorageCopy onA = copy("a", "p2");
+        StorageCopy onB = copy("b", "p2");
+        when(fileInfoRepository.lockGarbageFiles(List.of("h2"))).thenReturn(List.of(garbage("h2", onA, onB)));
+        when(routingService.getAdapter("a")).thenReturn(nodeA);
+        when(routingService.getAdapter("b")).thenReturn(nodeB);
+        when(nodeA.deleteAll(List.of("p2"))).thenReturn(List.of(DeleteResult.success("p2")));
+        when(nodeB.deleteAll(List.of("p2"))).thenReturn(List.of(DeleteResult.failure("p2", "AccessDenied")));
+
+        FileGarbageCollector.Result result = collector.collect(List.of("h2"));
+
+        verify(fileInfoRepository, never()).deleteByContentHash(any());
+        verify(fileInfoRepository).removeCopy("h2", onA.copyId(), CopyStatus.ACTIVE);
+        verify(fileInfoRepository, never()).removeCopy("h2", onB.copyId(), CopyStatus.ACTIVE);
+        assertThat(result.failed()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipFilesResurrectedBeforeLock() {
+        when(fileInfoRepository.lockGarbageFiles(List.of("h3"))).thenReturn(List.of());
+
+        FileGarbageCollector.Result result = collector.collect(List.of("h3"));
+
+        assertThat(result).isEqualTo(FileGarbageCollector.Result.EMPTY);
+        verify(fileInfoRepository, never()).markCollecting(any());
+        verify(routingService, never()).getAdapter(any());
+        verify(fileInfoRepository, never()).deleteByContentHash(any());
+    }
+
+    private static FileInfo garbage(String hash, StorageCopy... copies) {
+        return new FileInfo(hash, 10L, "text/plain", 0, FileStatus.DELETED, List.of(copies), Instant.now());
+    }
+
+    private static StorageCopy copy(String nodeId, String path) {
+        return StorageCopy.create(nodeId, path).activate();
+    }
+}
@@ -0,0 +1,156 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.NodeStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageNode;
+import tech.icc.filesrv.core.domain.storage.StoragePolicy;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
+import tech.icc.filesrv.core.infra.config.ReplicationProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileReplicationServiceTest {
+
+    private static final String HASH = "9f86d081884c7d65";
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @Mock
+    private StorageRoutingService routingService;
+
+    @Mock
+    private StorageAdapter sourceAdapter;
+
+    @Mock
+    private StorageAdapter targetAdapter;
+
+    @Mock
+    private MaintenanceCoordinator coordinator;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private FileReplicationService replicationService;
+
+    @BeforeEach
+    void setUp() {
+        ReplicationProperties properties = new ReplicationProperties();
+        properties.setReplicaCount(2);
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        replicationService = new FileReplicationService(
+                fileInfoRepository, routingService, properties, coordinator, taskScheduler, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicationService.shutdown();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void shouldPlanPendingReplicasOnOtherNodes() {
+        FileInfo fileInfo = activeFile();
+        when(routingService.selectReplicaNodes(any(), eq(HASH), anyLong(), eq(Set.of("a")), eq(1)))
+                .thenReturn(List.of(node("b")));
+
+        List<StorageCopy> replicas = replicationService.planReplicas(replicationService.defaultPolicy(), fileInfo);
+
+        assertThat(replicas).singleElement().satisfies(copy -> {
+            assertThat(copy.nodeId()).isEqualTo("b");
+            assertThat(copy.path()).isEqualTo("9f/9f86/" + HASH);
+            assertThat(copy.status()).isEqualTo(CopyStatus.PENDING);
+        });
+    }
+
+    @Test
+    void shouldSkipPlanningWhenPolicyHasSingleReplica() {
+        assertThat(replicationService.planReplicas(StoragePolicy.defaultPolicy(), activeFile())).isEmpty();
+    }
+
+    @Test
+    void shouldCopyAndActivateReplicaWithRetry() {
+        StorageCopy pending = StorageCopy.create("b", "9f/9f86/" + HASH);
+        FileInfo fileInfo = activeFile().addCopies(List.of(pending));
+        when(routingService.getAdapter("a")).thenReturn(sourceAdapter);
+        when(routingService.getAdapter("b")).thenReturn(targetAdapter);
+        when(sourceAdapter.download(any())).thenReturn(new ByteArrayResource(new byte[]{1, 2, 3}));
+        when(targetAdapter.upload(any(), any(), any()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenReturn(null);
+        when(fileInfoRepository.updateCopyStatus(HASH, pending.copyId(), CopyStatus.PENDING, CopyStatus.ACTIVE))
+                .thenReturn(1);
+
+        replicationService.replicateAfterCommit(fileInfo);
+
+        verify(fileInfoRepository, timeout(2000))
+                .updateCopyStatus(HASH, pending.copyId(), CopyStatus.PENDING, CopyStatus.ACTIVE);
+        verify(targetAdapter, times(2)).upload(eq("9f/9f86/" + HASH), any(), eq("text/plain"));
+    }
+
+    @Test
+    void shouldDeleteUploadedObjectWhenReplicaWasRemovedConcurrently() {
+        StorageCopy pending = StorageCopy.create("b", "9f/9f86/" + HASH);
+        FileInfo fileInfo = activeFile().addCopies(List.of(pending));
+        when(routingService.getAdapter("a")).thenReturn(sourceAdapter);
+        when(routingService.getAdapter("b")).thenReturn(targetAdapter);
+        when(sourceAdapter.download(any())).thenReturn(new ByteArrayResource(new byte[]{1, 2, 3}));
+        when(fileInfoRepository.updateCopyStatus(HASH, pending.copyId(), CopyStatus.PENDING, CopyStatus.ACTIVE))
+                .thenReturn(0);
+
+        replicationService.replicateAfterCommit(fileInfo);
+
+        verify(targetAdapter, timeout(2000)).delete("9f/9f86/" + HASH);
+        assertThat(meterRegistry.counter("file.replication.total", "status", "aborted").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.find("file.replication.lag").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldOnlyRepairPendingReplicasOnLeader() {
+        when(coordinator.isLeader("replication-repair")).thenReturn(false);
+
+        replicationService.repairPending();
+
+        verify(fileInfoRepository, never()).findByCopyStatus(any(), any(), anyInt());
+    }
+
+    private static FileInfo activeFile() {
+        return FileInfo.createPending(HASH, 3L, "text/plain")
+                .activate(StorageCopy.create("a", "9f/9f86/" + HASH));
+    }
+
+    private static StorageNode node(String nodeId) {
+        return new StorageNode(nodeId, nodeId, "TEST", StorageTier.HOT, NodeStatus.ACTIVE, "localhost", "bucket");
+    }
+}
@@ -0,0 +1,159 @@
+package tech.icc.filesrv.core.application.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.context.PendingActivationsContext.PendingActivation;
+import tech.icc.filesrv.common.exception.FileServiceException;
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileReference;
+import tech.icc.filesrv.core.domain.files.FileReferenceRepository;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.domain.services.DeduplicationService;
+import tech.icc.filesrv.core.infra.cache.ContentHashIndex;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileServiceBatchActivationTest {
+
+    @Mock
+    private FileReferenceRepository fileReferenceRepository;
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @Mock
+    private FileReplicationService replicationService;
+
+    @Mock
+    private ContentHashIndex contentHashIndex;
+
+    @Mock
+    private DeduplicationService deduplicationService;
+
+    @InjectMocks
+    private FileService fileService;
+
+    @Captor
+    private ArgumentCaptor<Collection<FileInfo>> insertedCaptor;
+
+    @Captor
+    private ArgumentCaptor<Collection<FileReference>> boundCaptor;
+
+    @Test
+    void shouldIncrementOncePerExistingHashAndInsertNewFiles() {
+        Map<String, PendingActivation> activations = new LinkedHashMap<>();
+        activations.put("k1", new PendingActivation("old", "p1", "n1"));
+        activations.put("k2", new PendingActivation("old", "p2", "n1"));
+        activations.put("k3", new PendingActivation("new", "p3", "n1"));
+        activations.put("k4", new PendingActivation("new", "p4", "n1"));
+        when(fileReferenceRepository.findByFKeys(activations.keySet()))
+                .thenReturn(List.of(pending("k1"), pending("k2"), pending("k3"), pending("k4")));
+        when(contentHashIndex.mightExist(anyString())).thenReturn(true);
+        when(fileInfoRepository.findExistingHashes(Set.of("old", "new"))).thenReturn(Set.of("old"));
+        when(fileInfoRepository.incrementRefCount("old", 2)).thenReturn(1);
+        when(replicationService.planReplicas(any(), any())).thenReturn(List.of());
+
+        fileService.activateFilesInBatch(activations);
+
+        verify(fileInfoRepository).insertAll(insertedCaptor.capture());
+        assertThat(insertedCaptor.getValue()).singleElement().satisfies(info -> {
+            assertThat(info.contentHash()).isEqualTo("new");
+            assertThat(info.refCount()).isEqualTo(2);
+            assertThat(info.status()).isEqualTo(FileStatus.ACTIVE);
+            assertThat(info.copies()).singleElement()
+                    .satisfies(copy -> assertThat(copy.path()).isEqualTo("p3"));
+        });
+        verify(fileReferenceRepository).saveAll(boundCaptor.capture());
+        assertThat(boundCaptor.getValue())
+                .extracting(FileReference::fKey, FileReference::contentHash)
+                .containsExactly(
+                        tuple("k1", "old"),
+                        tuple("k2", "old"),
+                        tuple("k3", "new"),
+                        tuple("k4", "new"));
+    }
+
+    @Test
+    void shouldSkipExistenceQueryForHashesRejectedByFilter() {
+        Map<String, PendingActivation> activations = new LinkedHashMap<>();
+        activations.put("k1", new PendingActivation("old", "p1", "n1"));
+        activations.put("k2", new PendingActivation("new", "p2", "n1"));
+        when(fileReferenceRepository.findByFKeys(activations.keySet()))
+                .thenReturn(List.of(pending("k1"), pending("k2")));
+        when(contentHashIndex.mightExist("old")).thenReturn(true);
+        when(fileInfoRepository.findExistingHashes(Set.of("old"))).thenReturn(Set.of("old"));
+        when(fileInfoRepository.incrementRefCount("old", 1)).thenReturn(1);
+        when(replicationService.planReplicas(any(), any())).thenReturn(List.of());
+
+        fileService.activateFilesInBatch(activations);
+
+        // 新文件先登记到过滤器再写入 file_info
+        InOrder order = inOrder(contentHashIndex, fileInfoRepository);
+        order.verify(contentHashIndex).add("new");
+        order.verify(fileInfoRepository).insertAll(insertedCaptor.capture());
+        assertThat(insertedCaptor.getValue()).extracting(FileInfo::contentHash).containsExactly("new");
+        verify(contentHashIndex, never()).add("old");
+    }
+
+    @Test
+    void shouldRejectBatchWhileExistingContentIsBeingCollected() {
+        Map<String, PendingActivation> activations = Map.of("k1", new PendingActivation("old", "p1", "n1"));
+        when(fileReferenceRepository.findByFKeys(activations.keySet())).thenReturn(List.of(pending("k1")));
+        when(contentHashIndex.mightExist("old")).thenReturn(true);
+        when(fileInfoRepository.findExistingHashes(Set.of("old"))).thenReturn(Set.of("old"));
+        // GC 已提交 COLLECTING：引用计数不再增加，也不能以相同 contentHash 新建
+        when(fileInfoRepository.incrementRefCount("old", 1)).thenReturn(0);
+        doThrow(new StorageUnavailableException("collecting", null))
+                .when(deduplicationService).rejectIfCollecting("old");
+
+        assertThatThrownBy(() -> fileService.activateFilesInBatch(activations))
+                .isInstanceOf(StorageUnavailableException.class);
+
+        verify(fileInfoRepository, never()).insertAll(any());
+        verify(fileReferenceRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldFailWholeBatchWhenReferenceMissing() {
+        Map<String, PendingActivation> activations = Map.of(
+                "k1", new PendingActivation("h1", "p1", "n1"),
+                "missing", new PendingActivation("h2", "p2", "n1"));
+        when(fileReferenceRepository.findByFKeys(activations.keySet())).thenReturn(List.of(pending("k1")));
+
+        assertThatThrownBy(() -> fileService.activateFilesInBatch(activations))
+                .isInstanceOf(FileServiceException.class);
+
+        verify(fileInfoRepository, never()).incrementRefCount(anyString(), anyInt());
+        verify(fileInfoRepository, never()).insertAll(any());
+        verify(fileReferenceRepository, never()).saveAll(any());
+    }
+
+    private static FileReference pending(String fKey) {
+        return FileReference.create(fKey, fKey + ".png", "image/png", 10L, null, null, null);
+    }
+}
@@ -0,0 +1,78 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import tech.icc.filesrv.common.vo.file.FileIdentity;
+import tech.icc.filesrv.core.application.service.dto.FileInfoDto;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
+import tech.icc.filesrv.core.domain.files.FileReferenceRepository;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.domain.services.DeduplicationService;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.infra.cache.ContentHashIndex;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileServiceUploadTest {
+
+    @Mock
+    private FileReferenceRepository fileReferenceRepository;
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @Mock
+    private DeduplicationService deduplicationService;
+
+    @Mock
+    private ContentHashIndex contentHashIndex;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private FileService fileService;
+
+    @Test
+    void shouldBuildInstantUploadFromIncrementedCountAndPrimaryCopyOnly() {
+        when(fileReferenceRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(deduplicationService.computeHash(any(byte[].class))).thenReturn("h1");
+        when(contentHashIndex.mightExist("h1")).thenReturn(true);
+        when(deduplicationService.tryIncrementReference("h1"))
+                .thenReturn(Optional.of(new FileRefCount("h1", 3, FileStatus.ACTIVE)));
+        when(fileInfoRepository.findPrimaryCopy("h1")).thenReturn(Optional.of(StorageCopy.create("node-a", "9f/h1")));
+
+        FileInfoDto result = fileService.upload(request(), file());
+
+        assertThat(result.storageRef().storageType()).isEqualTo("node-a");
+        assertThat(result.storageRef().path()).isEqualTo("9f/h1");
+        assertThat(result.storageRef().eTag()).isEqualTo("h1");
+        // 秒传命中不加载带副本集合的 FileInfo
+        verify(deduplicationService, never()).findByContentHash(any());
+        verify(fileInfoRepository, never()).findByContentHash(any());
+    }
+
+    private static FileInfoDto request() {
+        return FileInfoDto.builder()
+                .identity(FileIdentity.builder().fileName("a.txt").fileType("text/plain").build())
+                .build();
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "a.txt", "text/plain", "hello".getBytes());
+    }
+}
@@ -0,0 +1,115 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.infra.config.StorageRoutingProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaReadServiceTest {
+
+    private static final String HASH = "9f86d081884c7d65";
+
+    @Mock
+    private StorageRoutingService routingService;
+
+    @Mock
+    private StorageAdapter nodeA;
+
+    @Mock
+    private StorageAdapter nodeB;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StorageCopy copyA = StorageCopy.create("a", "path").activate();
+    private final StorageCopy copyB = StorageCopy.create("b", "path").activate();
+
+    private ReplicaReadService readService;
+
+    @BeforeEach
+    void setUp() {
+        StorageRoutingProperties properties = new StorageRoutingProperties();
+        properties.getHedge().setDefaultDelay(Duration.ofMillis(50));
+        readService = new ReplicaReadService(routingService, properties, meterRegistry);
+        List<StorageCopy> copies = List.of(copyA, copyB);
+        when(routingService.rankReadCopies(HASH, copies)).thenReturn(copies);
+        when(routingService.getAdapter("a")).thenReturn(nodeA);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readService.shutdown();
+    }
+
+    @Test
+    void shouldFailOverToNextReplica() {
+        when(routingService.getAdapter("b")).thenReturn(nodeB);
+        when(nodeA.download("path")).thenThrow(new IllegalStateException("node down"));
+        when(nodeB.download("path")).thenReturn(resource("from-b"));
+
+        Resource resource = readService.read(HASH, List.of(copyA, copyB));
+
+        assertThat(resource.getDescription()).contains("from-b");
+        assertThat(meterRegistry.counter("file.read.failover").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldHedgeSlowReplica() {
+        when(routingService.getAdapter("b")).thenReturn(nodeB);
+        when(nodeA.download("path")).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return resource("from-a");
+        });
+        when(nodeB.download("path")).thenReturn(resource("from-b"));
+
+        long start = System.nanoTime();
+        Resource resource = readService.read(HASH, List.of(copyA, copyB));
+
+        assertThat(resource.getDescription()).contains("from-b");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+        assertThat(meterRegistry.counter("file.read.hedge.won").count()).isEqualTo(1.0);
+        // 首个副本在线程池中执行，负载高时可能晚于对冲请求启动
+        verify(nodeA, timeout(5000)).download("path");
+    }
+
+    @Test
+    void shouldReturnFastReplicaWithoutHedging() {
+        when(nodeA.download("path")).thenReturn(resource("from-a"));
+
+        assertThat(readService.read(HASH, List.of(copyA, copyB)).getDescription()).contains("from-a");
+        assertThat(meterRegistry.counter("file.read.hedged").count()).isZero();
+    }
+
+    @Test
+    void shouldThrowWhenAllReplicasFail() {
+        when(routingService.getAdapter("b")).thenReturn(nodeB);
+        when(nodeA.download("path")).thenThrow(new IllegalStateException("a down"));
+        when(nodeB.download("path")).thenThrow(new IllegalStateException("b down"));
+
+        assertThatThrownBy(() -> readService.read(HASH, List.of(copyA, copyB)))
+                .isInstanceOf(StorageUnavailableException.class)
+                .hasMessageContaining(HASH);
+    }
+
+    private static Resource resource(String description) {
+        return new ByteArrayResource(new byte[]{1}, description);
+    }
+}
@@ -0,0 +1,193 @@
+package tech.icc.filesrv.core.application.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.core.domain.files.FileInfo;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.storage.CopyStatus;
+import tech.icc.filesrv.core.domain.storage.NodeStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageNode;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
+import tech.icc.filesrv.core.infra.config.TieringProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.storage.AccessFrequencyTracker;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageTieringServiceTest {
+
+    private static final String HASH = "9f86d081884c7d65";
+    private static final String PATH = "9f/9f86/" + HASH;
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @Mock
+    private StorageRoutingService routingService;
+
+    @Mock
+    private StorageAdapter hotAdapter;
+
+    @Mock
+    private StorageAdapter warmAdapter;
+
+    @Mock
+    private MaintenanceCoordinator coordinator;
+
+    private TieringProperties properties;
+    private AccessFrequencyTracker accessTracker;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private StorageTieringService tieringService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TieringProperties();
+        properties.setSampleRate(1);
+        properties.setPromoteThreshold(2);
+        properties.setDeleteGrace(Duration.ZERO);
+        accessTracker = new AccessFrequencyTracker(properties);
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        tieringService = new StorageTieringService(fileInfoRepository, routingService, accessTracker,
+                properties, coordinator, taskScheduler, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tieringService.shutdown();
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void shouldSwitchReadsToNewCopyBeforeDeletingOldOne() {
+        StorageCopy hot = StorageCopy.create("hot-1", PATH, StorageTier.HOT).activate();
+        FileInfo fileInfo = file(hot);
+        when(routingService.selectReplicaNodes(any(), eq(HASH), anyLong(), eq(Set.of("hot-1")), eq(1)))
+                .thenReturn(List.of(node("warm-1", StorageTier.WARM)));
+        when(routingService.getAdapter("hot-1")).thenReturn(hotAdapter);
+        when(routingService.getAdapter("warm-1")).thenReturn(warmAdapter);
+        when(hotAdapter.download(PATH)).thenReturn(new ByteArrayResource(new byte[]{1, 2, 3}));
+        when(fileInfoRepository.addCopy(eq(HASH), any())).thenReturn(true);
+        when(fileInfoRepository.updateCopyStatus(eq(HASH), any(), any(), any())).thenReturn(1);
+
+        boolean migrated = tieringService.migrate(fileInfo, hot, StorageTier.WARM, "demote");
+
+        assertThat(migrated).isTrue();
+        ArgumentCaptor<StorageCopy> added = ArgumentCaptor.forClass(StorageCopy.class);
+        InOrder order = inOrder(fileInfoRepository, warmAdapter);
+        order.verify(fileInfoRepository).addCopy(eq(HASH), added.capture());
+        order.verify(warmAdapter).upload(eq(PATH), any(), eq("text/plain"));
+        order.verify(fileInfoRepository).updateCopyStatus(HASH, added.getValue().copyId(),
+                CopyStatus.PENDING, CopyStatus.ACTIVE);
+        order.verify(fileInfoRepository).updateCopyStatus(HASH, hot.copyId(),
+                CopyStatus.ACTIVE, CopyStatus.MIGRATING);
+        assertThat(added.getValue().tier()).isEqualTo(StorageTier.WARM);
+        verify(hotAdapter, timeout(2000)).delete(PATH);
+        verify(fileInfoRepository, timeout(2000)).removeCopy(HASH, hot.copyId(), CopyStatus.MIGRATING);
+    }
+
+    @Test
+    void shouldKeepSourceWhenTargetTierHasNoNode() {
+        StorageCopy hot = StorageCopy.create("hot-1", PATH, StorageTier.HOT).activate();
+        when(routingService.selectReplicaNodes(any(), eq(HASH), anyLong(), any(), eq(1)))
+                .thenReturn(List.of(node("hot-2", StorageTier.HOT)));
+
+        assertThat(tieringService.migrate(file(hot), hot, StorageTier.WARM, "demote")).isFalse();
+        verify(fileInfoRepository, never()).addCopy(any(), any());
+    }
+
+    @Test
+    void shouldSkipWhenAnotherNodeAlreadyAddedCopyOnTarget() {
+        StorageCopy warm = StorageCopy.create("warm-1", PATH, StorageTier.WARM).activate();
+        when(routingService.selectReplicaNodes(any(), eq(HASH), anyLong(), eq(Set.of("warm-1")), eq(1)))
+                .thenReturn(List.of(node("hot-1", StorageTier.HOT)));
+        when(fileInfoRepository.addCopy(eq(HASH), any())).thenReturn(false);
+
+        assertThat(tieringService.migrate(file(warm), warm, StorageTier.HOT, "promote")).isFalse();
+        verify(routingService, never()).getAdapter(any());
+        verify(fileInfoRepository, never()).updateCopyStatus(any(), any(), any(), any());
+        verify(fileInfoRepository, never()).removeCopy(any(), any(), any());
+    }
+
+    @Test
+    void shouldPromoteFrequentlyReadContentBackToHot() {
+        StorageCopy warm = StorageCopy.create("warm-1", PATH, StorageTier.WARM).activate();
+        when(fileInfoRepository.findByContentHash(HASH)).thenReturn(Optional.of(file(warm)));
+        when(routingService.selectReplicaNodes(any(), eq(HASH), anyLong(), eq(Set.of("warm-1")), eq(1)))
+                .thenReturn(List.of(node("hot-1", StorageTier.HOT)));
+        when(routingService.getAdapter("warm-1")).thenReturn(warmAdapter);
+        when(routingService.getAdapter("hot-1")).thenReturn(hotAdapter);
+        when(warmAdapter.download(PATH)).thenReturn(new ByteArrayResource(new byte[]{1, 2, 3}));
+        when(fileInfoRepository.addCopy(eq(HASH), any())).thenReturn(true);
+        when(fileInfoRepository.updateCopyStatus(eq(HASH), any(), any(), any())).thenReturn(1);
+
+        accessTracker.record(HASH);
+        accessTracker.record(HASH);
+        tieringService.flushAccess();
+
+        verify(fileInfoRepository).recordAccess(eq(Map.of(HASH, 2L)), any());
+        verify(hotAdapter, timeout(2000)).upload(eq(PATH), any(), eq("text/plain"));
+        verify(fileInfoRepository, timeout(2000)).updateCopyStatus(HASH, warm.copyId(),
+                CopyStatus.ACTIVE, CopyStatus.MIGRATING);
+    }
+
+    @Test
+    void shouldOnlyRetireLeftoversWhoseGraceHasElapsedSinceMigrating() {
+        properties.setDeleteGrace(Duration.ofMinutes(5));
+        properties.setWarmAfter(Duration.ZERO);
+        properties.setColdAfter(Duration.ZERO);
+        StorageCopy leftover = StorageCopy.create("hot-1", PATH, StorageTier.HOT).markMigrating();
+        when(coordinator.isLeader("storage-tiering")).thenReturn(true);
+        when(fileInfoRepository.findCopiesByStatusChangedBefore(eq(CopyStatus.MIGRATING), any(), anyInt()))
+                .thenReturn(Map.of(HASH, List.of(leftover)));
+        when(routingService.getAdapter("hot-1")).thenReturn(hotAdapter);
+
+        Instant start = Instant.now();
+        tieringService.demoteIdle();
+
+        ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+        verify(fileInfoRepository).findCopiesByStatusChangedBefore(eq(CopyStatus.MIGRATING), before.capture(), anyInt());
+        assertThat(before.getValue())
+                .isBetween(start.minus(Duration.ofMinutes(5)), Instant.now().minus(Duration.ofMinutes(5)));
+        verify(hotAdapter, timeout(2000)).delete(PATH);
+        verify(fileInfoRepository, timeout(2000)).removeCopy(HASH, leftover.copyId(), CopyStatus.MIGRATING);
+    }
+
+    private static FileInfo file(StorageCopy copy) {
+        return new FileInfo(HASH, 3L, "text/plain", 1, FileStatus.ACTIVE, List.of(copy), Instant.now());
+    }
+
+    private static StorageNode node(String nodeId, StorageTier tier) {
+        return new StorageNode(nodeId, nodeId, "TEST", tier, NodeStatus.ACTIVE, "localhost", "bucket");
+    }
+}
@@ -0,0 +1,167 @@
+package tech.icc.filesrv.core.application.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import tech.icc.filesrv.common.domain.events.TaskFailedEvent;
+import tech.icc.filesrv.common.spi.event.TaskEventPublisher;
+import tech.icc.filesrv.common.spi.storage.StorageAdapter;
+import tech.icc.filesrv.common.spi.storage.UploadSession;
+import tech.icc.filesrv.core.domain.services.StorageRoutingService;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.domain.tasks.TaskRepository;
+import tech.icc.filesrv.core.infra.config.TaskReaperProperties;
+import tech.icc.filesrv.core.infra.file.LocalFileManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskReaperTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private StorageAdapter storageAdapter;
+
+    @Mock
+    private StorageRoutingService routingService;
+
+    @Mock
+    private LocalFileManager localFileManager;
+
+    @Mock
+    private TaskEventPublisher eventPublisher;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private TaskReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        reaper = new TaskReaper(taskRepository, storageAdapter, routingService, localFileManager,
+                eventPublisher, applicationEventPublisher, new TaskReaperProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reaper.shutdown();
+    }
+
+    @Test
+    void shouldAbortSessionsOnlyForTasksActuallyMarkedExpired() {
+        TaskAggregate abandoned = task("fk-1", "session-1");
+        TaskAggregate completedConcurrently = task("fk-2", "session-2");
+        Instant now = Instant.now();
+        when(taskRepository.findExpiredTasks(now, 10)).thenReturn(List.of(abandoned, completedConcurrently));
+        when(taskRepository.markExpired(any(), eq(now))).thenReturn(List.of(abandoned.getTaskId()));
+        when(routingService.buildStoragePath(anyString(), any())).thenReturn("path-1");
+        UploadSession session = mock(UploadSession.class);
+        when(storageAdapter.resumeUpload("path-1", "session-1")).thenReturn(session);
+
+        TaskReaper.ExpireResult result = reaper.expireBatch(now, 10);
+
+        assertThat(result).isEqualTo(new TaskReaper.ExpireResult(2, 1, 1, 0));
+        verify(session).abort();
+        verify(storageAdapter, never()).resumeUpload(any(), eq("session-2"));
+        verify(eventPublisher).publishFailed(any(TaskFailedEvent.class));
+    }
+
+    @Test
+    void shouldCountFailedAbortAndStillPublishExpiry() {
+        TaskAggregate abandoned = task("fk-1", "session-1");
+        Instant now = Instant.now();
+        when(taskRepository.findExpiredTasks(now, 10)).thenReturn(List.of(abandoned));
+        when(taskRepository.markExpired(any(), eq(now))).thenReturn(List.of(abandoned.getTaskId()));
+        when(routingService.buildStoragePath(anyString(), any())).thenReturn("path-1");
+        UploadSession session = mock(UploadSession.class);
+        doThrow(new IllegalStateException("NoSuchUpload")).when(session).abort();
+        when(storageAdapter.resumeUpload("path-1", "session-1")).thenReturn(session);
+
+        TaskReaper.ExpireResult result = reaper.expireBatch(now, 10);
+
+        assertThat(result.abortFailures()).isEqualTo(1);
+        verify(eventPublisher).publishFailed(any(TaskFailedEvent.class));
+    }
+
+    @Test
+    void shouldPurgeFinishedTaskRowsInOneStatement() {
+        TaskAggregate finished = task("fk-3", null);
+        Instant before = Instant.now();
+        when(taskRepository.findCompletedTasksForCleanup(before, 10)).thenReturn(List.of(finished));
+
+        int purged = reaper.purgeBatch(before, 10);
+
+        assertThat(purged).isEqualTo(1);
+        verify(taskRepository).deleteAllByTaskIds(List.of(finished.getTaskId()));
+        // 本地目录由各节点的本地清理负责，leader 只处理数据库
+        verify(localFileManager, never()).cleanup(any());
+    }
+
+    @Test
+    void shouldSweepLocalDirectoriesOfFinishedOrMissingTasks() {
+        Instant now = Instant.now();
+        Instant settled = now.minus(Duration.ofHours(1));
+        when(localFileManager.listTaskDirectories()).thenReturn(Map.of(
+                "running", settled, "finished", settled, "gone", settled));
+        when(taskRepository.findUnfinishedTaskIds(any())).thenReturn(Set.of("running"));
+
+        int removed = reaper.sweepLocal(now, Duration.ofMinutes(5), Duration.ofHours(24));
+
+        assertThat(removed).isEqualTo(2);
+        verify(localFileManager).cleanup("finished");
+        verify(localFileManager).cleanup("gone");
+        verify(localFileManager, never()).cleanup("running");
+    }
+
+    @Test
+    void shouldSweepStaleDirectoryOfUnfinishedTask() {
+        Instant now = Instant.now();
+        when(localFileManager.listTaskDirectories()).thenReturn(Map.of("stuck", now.minus(Duration.ofHours(25))));
+        when(taskRepository.findUnfinishedTaskIds(List.of("stuck"))).thenReturn(Set.of("stuck"));
+
+        int removed = reaper.sweepLocal(now, Duration.ofMinutes(5), Duration.ofHours(24));
+
+        assertThat(removed).isEqualTo(1);
+        verify(localFileManager).cleanup("stuck");
+    }
+
+    @Test
+    void shouldLeaveRecentlyCreatedDirectoriesAlone() {
+        Instant now = Instant.now();
+        when(localFileManager.listTaskDirectories()).thenReturn(Map.of("fresh", now.minusSeconds(10)));
+
+        int removed = reaper.sweepLocal(now, Duration.ofMinutes(5), Duration.ofHours(24));
+
+        // 任务行可能尚未提交：保护期内的目录不查询、不删除
+        assertThat(removed).isZero();
+        verify(taskRepository, never()).findUnfinishedTaskIds(any());
+        verify(localFileManager, never()).cleanup(any());
+    }
+
+    private static TaskAggregate task(String fKey, String sessionId) {
+        TaskAggregate task = TaskAggregate.create(fKey, null, "a.bin", "application/octet-stream", 1L,
+                List.of(), Duration.ofHours(1));
+        task.updateSessionId(sessionId);
+        return task;
+    }
+}
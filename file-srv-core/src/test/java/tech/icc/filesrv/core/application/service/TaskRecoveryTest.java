@@ -0,0 +1,116 @@
+package tech.icc.filesrv.core.application.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.icc.filesrv.common.domain.events.TaskFailedEvent;
+import tech.icc.filesrv.common.spi.event.TaskEventPublisher;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.domain.tasks.TaskRepository;
+import tech.icc.filesrv.core.infra.config.TaskRecoveryProperties;
+import tech.icc.filesrv.core.infra.executor.CallbackOutbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskRecoveryTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private CallbackOutbox callbackOutbox;
+
+    @Mock
+    private TaskEventPublisher eventPublisher;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private TaskRecovery recovery;
+
+    @BeforeEach
+    void setUp() {
+        TaskRecoveryProperties properties = new TaskRecoveryProperties();
+        properties.setLeaseTimeout(Duration.ofMinutes(5));
+        properties.setMaxLeaseTimeout(Duration.ofMinutes(15));
+        properties.setMaxAttempts(3);
+        recovery = new TaskRecovery(taskRepository, callbackOutbox, eventPublisher, applicationEventPublisher, properties);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void shouldRepublishLapsedTasksWithGrowingLease() {
+        Instant now = Instant.now();
+        TaskAggregate first = processing("task-1", now.minusSeconds(30), 0);
+        TaskAggregate second = processing("task-2", now.minusSeconds(90), 2);
+        when(taskRepository.lockLapsedProcessing(now, 10)).thenReturn(List.of(second, first));
+        when(taskRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        TaskRecovery.RecoveryResult result = recovery.recoverBatch(now, 10);
+
+        assertThat(result).isEqualTo(new TaskRecovery.RecoveryResult(2, 2, 0, Duration.ofSeconds(90)));
+        verify(callbackOutbox).enqueue("task-1");
+        verify(callbackOutbox).enqueue("task-2");
+        assertThat(first.getRecoveryAttempts()).isEqualTo(1);
+        assertThat(first.getLeaseExpiresAt()).isEqualTo(now.plus(Duration.ofMinutes(10)));
+        assertThat(second.getRecoveryAttempts()).isEqualTo(3);
+        // 租约翻倍受上限约束
+        assertThat(second.getLeaseExpiresAt()).isEqualTo(now.plus(Duration.ofMinutes(15)));
+        assertThat(first.getStatus()).isEqualTo(TaskStatus.PROCESSING);
+    }
+
+    @Test
+    void shouldFailTasksThatExhaustedRecoveryAttemptsAfterCommit() {
+        Instant now = Instant.now();
+        TaskAggregate task = processing("task-1", now.minusSeconds(10), 3);
+        when(taskRepository.lockLapsedProcessing(any(), anyInt())).thenReturn(List.of(task));
+        when(taskRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        TaskRecovery.RecoveryResult result = recovery.recoverBatch(now, 10);
+
+        assertThat(result.exhausted()).isEqualTo(1);
+        assertThat(task.getStatus()).isEqualTo(TaskStatus.FAILED);
+        verify(callbackOutbox, never()).enqueue(any());
+        verifyNoInteractions(eventPublisher);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        ArgumentCaptor<TaskFailedEvent> event = ArgumentCaptor.forClass(TaskFailedEvent.class);
+        verify(eventPublisher).publishFailed(event.capture());
+        assertThat(event.getValue().taskId()).isEqualTo("task-1");
+        verify(applicationEventPublisher).publishEvent(event.getValue());
+    }
+
+    private static TaskAggregate processing(String taskId, Instant leaseExpiresAt, int recoveryAttempts) {
+        TaskAggregate task = new TaskAggregate();
+        task.setTaskId(taskId);
+        task.setFKey("fkey-" + taskId);
+        task.setStatus(TaskStatus.PROCESSING);
+        task.setLeaseExpiresAt(leaseExpiresAt);
+        task.setRecoveryAttempts(recoveryAttempts);
+        return task;
+    }
+}
@@ -0,0 +1,175 @@
+package tech.icc.filesrv.core.application.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.domain.events.TaskCompletedEvent;
+import tech.icc.filesrv.common.exception.TooManyWatchersException;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
+import tech.icc.filesrv.common.vo.task.TaskSummary;
+import tech.icc.filesrv.core.application.service.dto.TaskInfoDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskWatchServiceTest {
+
+    private static final String TASK_ID = "task-1";
+
+    @Mock
+    private TaskService taskService;
+
+    private TaskWatchService watchService;
+
+    @AfterEach
+    void tearDown() {
+        watchService.shutdown();
+    }
+
+    @Test
+    void shouldReturnImmediatelyWhenTargetAlreadyReached() throws Exception {
+        watchService = newService(Duration.ofMinutes(1));
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.COMPLETED));
+
+        CompletableFuture<TaskInfoDto> future = watchService.awaitStatus(TASK_ID, TaskStatus.PROCESSING, Duration.ofSeconds(10));
+
+        assertThat(future).isDone();
+        assertThat(future.get().summary().status()).isEqualTo(TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void shouldCompleteWhenTaskEventArrives() throws Exception {
+        watchService = newService(Duration.ofMinutes(1));
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.PROCESSING));
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.PROCESSING);
+
+        CompletableFuture<TaskInfoDto> future = watchService.awaitStatus(TASK_ID, TaskStatus.COMPLETED, Duration.ofSeconds(10));
+        Thread.sleep(100);
+        assertThat(future).isNotDone();
+
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.COMPLETED);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.COMPLETED));
+        watchService.onTaskCompleted(TaskCompletedEvent.of(TASK_ID, "f", "p", "h", 1L, "text/plain", "a.txt", null, null));
+
+        assertThat(future.get(2, TimeUnit.SECONDS).summary().status()).isEqualTo(TaskStatus.COMPLETED);
+    }
+
+    @Test
+    void shouldReturnCurrentStateOnTimeout() throws Exception {
+        watchService = newService(Duration.ofMinutes(1));
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.IN_PROGRESS);
+
+        CompletableFuture<TaskInfoDto> future = watchService.awaitStatus(TASK_ID, TaskStatus.COMPLETED, Duration.ofMillis(200));
+
+        assertThat(future.get(2, TimeUnit.SECONDS).summary().status()).isEqualTo(TaskStatus.IN_PROGRESS);
+    }
+
+    @Test
+    void shouldStreamStatusChangesUntilTerminal() throws Exception {
+        watchService = newService(Duration.ofMillis(50));
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.IN_PROGRESS);
+        List<TaskStatus> received = new CopyOnWriteArrayList<>();
+
+        watchService.subscribe(TASK_ID, dto -> received.add(dto.summary().status()));
+
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.FAILED);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.FAILED));
+        Thread.sleep(500);
+
+        assertThat(received).containsExactly(TaskStatus.IN_PROGRESS, TaskStatus.FAILED);
+    }
+
+    @Test
+    void shouldNotifyListenersOffTimerThread() throws Exception {
+        watchService = newService(Duration.ofMillis(50));
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.IN_PROGRESS);
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        watchService.subscribe(TASK_ID, dto -> threads.add(Thread.currentThread().getName()));
+
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.FAILED);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.FAILED));
+        Thread.sleep(500);
+
+        assertThat(threads).hasSize(2);
+        assertThat(threads.get(1)).startsWith("task-watch-").isNotEqualTo("task-watch-timer");
+    }
+
+    @Test
+    void shouldRejectWatchersBeyondPerTaskLimit() {
+        watchService = newService(Duration.ofMinutes(1), 10, 2);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        when(taskService.getTask("task-2")).thenReturn(dto(TaskStatus.IN_PROGRESS));
+
+        watchService.subscribe(TASK_ID, dto -> { });
+        watchService.awaitStatus(TASK_ID, TaskStatus.COMPLETED, Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> watchService.subscribe(TASK_ID, dto -> { }))
+                .isInstanceOf(TooManyWatchersException.class);
+        // 其他任务不受影响
+        watchService.subscribe("task-2", dto -> { });
+        assertThat(watchService.watchCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectWatchersBeyondGlobalLimit() {
+        watchService = newService(Duration.ofMinutes(1), 2, 10);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        when(taskService.getTask("task-2")).thenReturn(dto(TaskStatus.IN_PROGRESS));
+
+        watchService.subscribe(TASK_ID, dto -> { });
+        watchService.subscribe("task-2", dto -> { });
+
+        assertThatThrownBy(() -> watchService.awaitStatus("task-2", TaskStatus.COMPLETED, Duration.ofSeconds(10)))
+                .isInstanceOf(TooManyWatchersException.class);
+        assertThat(watchService.watchCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReleaseSlotOnceWhenWatchEnds() throws Exception {
+        watchService = newService(Duration.ofMillis(50), 1, 1);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.IN_PROGRESS);
+
+        TaskWatchService.Subscription subscription = watchService.subscribe(TASK_ID, dto -> { });
+        when(taskService.getTaskStatus(TASK_ID)).thenReturn(TaskStatus.FAILED);
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.FAILED));
+        Thread.sleep(500);
+
+        // 进入终态已自动注销，连接关闭时再次取消不会重复归还名额
+        subscription.cancel();
+        assertThat(watchService.watchCount()).isZero();
+
+        when(taskService.getTask(TASK_ID)).thenReturn(dto(TaskStatus.IN_PROGRESS));
+        CompletableFuture<TaskInfoDto> future = watchService.awaitStatus(TASK_ID, TaskStatus.COMPLETED, Duration.ofMillis(100));
+        future.get(2, TimeUnit.SECONDS);
+        assertThat(watchService.watchCount()).isZero();
+    }
+
+    private TaskWatchService newService(Duration recheckInterval) {
+        return newService(recheckInterval, 10000, 100);
+    }
+
+    private TaskWatchService newService(Duration recheckInterval, int maxWatchers, int maxWatchersPerTask) {
+        return new TaskWatchService(taskService, Duration.ofSeconds(60), Duration.ofMinutes(10), recheckInterval, 2,
+                maxWatchers, maxWatchersPerTask);
+    }
+
+    private static TaskInfoDto dto(TaskStatus status) {
+        TaskSummary summary = new TaskSummary(TASK_ID, null, status, null, null);
+        return TaskInfoDto.InProgress.builder().summary(summary).build();
+    }
+}
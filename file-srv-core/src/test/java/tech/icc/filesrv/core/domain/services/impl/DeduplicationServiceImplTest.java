@@ -0,0 +1,70 @@
+package tech.icc.filesrv.core.domain.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.exception.StorageUnavailableException;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeduplicationServiceImplTest {
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @InjectMocks
+    private DeduplicationServiceImpl deduplicationService;
+
+    @Test
+    void shouldReuseFileWithSingleAtomicUpdate() {
+        when(fileInfoRepository.incrementRefCountAndGet("h1"))
+                .thenReturn(Optional.of(new FileRefCount("h1", 3, FileStatus.ACTIVE)));
+
+        assertThat(deduplicationService.tryIncrementReference("h1"))
+                .hasValueSatisfying(counter -> assertThat(counter.refCount()).isEqualTo(3));
+        verify(fileInfoRepository, never()).findByContentHash(anyString());
+    }
+
+    @Test
+    void shouldReportCollectedFileAsNotReusable() {
+        when(fileInfoRepository.incrementRefCountAndGet("h2")).thenReturn(Optional.empty());
+
+        assertThat(deduplicationService.tryIncrementReference("h2")).isEmpty();
+    }
+
+    @Test
+    void shouldRejectReuseWhileFileIsBeingCollected() {
+        when(fileInfoRepository.incrementRefCountAndGet("h5")).thenReturn(Optional.empty());
+        when(fileInfoRepository.findRefCount("h5"))
+                .thenReturn(Optional.of(new FileRefCount("h5", 0, FileStatus.COLLECTING)));
+
+        // 对象正在删除：既不能复用，也不能以相同 contentHash 新建
+        assertThatThrownBy(() -> deduplicationService.tryIncrementReference("h5"))
+                .isInstanceOf(StorageUnavailableException.class);
+    }
+
+    @Test
+    void shouldDecideGcFromReturnedCount() {
+        when(fileInfoRepository.decrementRefCountAndGet("h3"))
+                .thenReturn(Optional.of(new FileRefCount("h3", 0, FileStatus.DELETED)));
+        when(fileInfoRepository.decrementRefCountAndGet("h4"))
+                .thenReturn(Optional.of(new FileRefCount("h4", 1, FileStatus.ACTIVE)));
+
+        assertThat(deduplicationService.decrementReference("h3")).isTrue();
+        assertThat(deduplicationService.decrementReference("h4")).isFalse();
+        verify(fileInfoRepository, never()).findByContentHash(anyString());
+    }
+}
@@ -0,0 +1,155 @@
+package tech.icc.filesrv.core.domain.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.core.domain.storage.ConsistentHashRing;
+import tech.icc.filesrv.core.domain.storage.NodeStatus;
+import tech.icc.filesrv.core.domain.storage.StorageCopy;
+import tech.icc.filesrv.core.domain.storage.StorageNode;
+import tech.icc.filesrv.core.domain.storage.StoragePolicy;
+import tech.icc.filesrv.core.domain.storage.StorageTier;
+import tech.icc.filesrv.core.infra.config.StorageRoutingProperties;
+import tech.icc.filesrv.core.infra.storage.NodeLoadTracker;
+import tech.icc.filesrv.core.infra.storage.StorageAdapterRegistry;
+import tech.icc.filesrv.core.infra.storage.StorageNodeCatalog;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageRoutingServiceImplTest {
+
+    private static final long GB = 1L << 30;
+
+    @Mock
+    private StorageNodeCatalog nodeCatalog;
+
+    @Mock
+    private StorageAdapterRegistry adapterRegistry;
+
+    private NodeLoadTracker loadTracker;
+    private StorageRoutingServiceImpl routingService;
+
+    @BeforeEach
+    void setUp() {
+        StorageRoutingProperties properties = new StorageRoutingProperties();
+        loadTracker = new NodeLoadTracker(properties);
+        routingService = new StorageRoutingServiceImpl(nodeCatalog, adapterRegistry, loadTracker, properties);
+    }
+
+    @Test
+    void shouldPreferNodesInPolicyTier() {
+        when(nodeCatalog.writableNodes()).thenReturn(List.of(
+                node("hot", StorageTier.HOT, 100, 0, 0),
+                node("cold", StorageTier.COLD, 1000, 0, 0)));
+
+        StorageNode selected = routingService.selectNode(StoragePolicy.defaultPolicy(), null, 1024);
+
+        assertThat(selected.nodeId()).isEqualTo("hot");
+    }
+
+    @Test
+    void shouldSkipNodesWithoutEnoughCapacity() {
+        when(nodeCatalog.writableNodes()).thenReturn(List.of(
+                node("full", StorageTier.HOT, 100, 10 * GB, 10 * GB - 10),
+                node("spare", StorageTier.WARM, 100, 10 * GB, GB)));
+
+        StorageNode selected = routingService.selectNode(StoragePolicy.defaultPolicy(), null, 1024);
+
+        assertThat(selected.nodeId()).isEqualTo("spare");
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoCandidate() {
+        StorageNode primary = node(StorageNode.PRIMARY_NODE_ID, StorageTier.HOT, 100, 0, 0)
+                .withStatus(NodeStatus.READONLY);
+        when(nodeCatalog.writableNodes()).thenReturn(List.of());
+        when(nodeCatalog.findNode(StorageNode.PRIMARY_NODE_ID)).thenReturn(Optional.of(primary));
+
+        assertThat(routingService.selectNode(StoragePolicy.defaultPolicy())).isEqualTo(primary);
+    }
+
+    @Test
+    void shouldShiftTrafficAwayFromBusyNode() {
+        StorageNode busy = node("busy", StorageTier.HOT, 100, 0, 0);
+        StorageNode idle = node("idle", StorageTier.HOT, 100, 0, 0);
+        when(nodeCatalog.writableNodes()).thenReturn(List.of(busy, idle));
+        for (int i = 0; i < 9; i++) {
+            loadTracker.begin("busy");
+        }
+
+        Map<String, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            hits.merge(routingService.selectNode(StoragePolicy.defaultPolicy(), null, 0).nodeId(), 1, Integer::sum);
+        }
+
+        // 得分比 1:10，期望约 180 : 1820
+        assertThat(routingService.score(idle)).isEqualTo(10 * routingService.score(busy));
+        assertThat(hits.get("idle")).isGreaterThan(hits.getOrDefault("busy", 0) * 4);
+    }
+
+    @Test
+    void shouldPenalizeSlowNode() {
+        StorageNode slow = node("slow", StorageTier.HOT, 100, 0, 0);
+        StorageNode fast = node("fast", StorageTier.HOT, 100, 0, 0);
+
+        NodeLoadTracker.Ticket failed = loadTracker.begin("slow");
+        failed.markFailed();
+        failed.close();
+        loadTracker.begin("fast").close();
+
+        assertThat(loadTracker.inFlight("slow")).isZero();
+        assertThat(routingService.score(slow)).isLessThan(routingService.score(fast) / 10);
+    }
+
+    @Test
+    void shouldPlaceSameContentOnSameNodeAndSkipOverloadedOwner() {
+        List<StorageNode> nodes = List.of(
+                node("a", StorageTier.HOT, 100, 0, 0),
+                node("b", StorageTier.HOT, 100, 0, 0),
+                node("c", StorageTier.HOT, 100, 0, 0));
+        when(nodeCatalog.writableNodes()).thenReturn(nodes);
+        when(nodeCatalog.writableRing()).thenReturn(ConsistentHashRing.of(nodes, 160));
+        String hash = "9f86d081884c7d65";
+
+        StorageNode owner = routingService.selectNode(StoragePolicy.defaultPolicy(), hash, 10);
+        assertThat(routingService.selectNode(StoragePolicy.defaultPolicy(), hash, 10)).isEqualTo(owner);
+
+        for (int i = 0; i < 5; i++) {
+            loadTracker.begin(owner.nodeId());
+        }
+        assertThat(routingService.selectNode(StoragePolicy.defaultPolicy(), hash, 10)).isNotEqualTo(owner);
+    }
+
+    @Test
+    void shouldRankHealthyReplicaFirstAndDropUnreadableNodes() {
+        List<StorageNode> nodes = List.of(
+                node("a", StorageTier.HOT, 100, 0, 0),
+                node("b", StorageTier.HOT, 100, 0, 0));
+        when(nodeCatalog.availableNodes()).thenReturn(nodes);
+        when(nodeCatalog.availableRing()).thenReturn(ConsistentHashRing.of(nodes, 160));
+        StorageCopy onA = StorageCopy.create("a", "path").activate();
+        StorageCopy onB = StorageCopy.create("b", "path").activate();
+        StorageCopy offline = StorageCopy.create("gone", "path").activate();
+        NodeLoadTracker.Ticket failed = loadTracker.begin("a");
+        failed.markFailed();
+        failed.close();
+
+        List<StorageCopy> ranked = routingService.rankReadCopies("9f86d081884c7d65", List.of(onA, offline, onB));
+
+        assertThat(ranked).containsExactly(onB, onA);
+    }
+
+    private static StorageNode node(String nodeId, StorageTier tier, int weight, long capacity, long used) {
+        return new StorageNode(nodeId, nodeId, "TEST", tier, NodeStatus.ACTIVE, "localhost", "bucket",
+                weight, capacity, used);
+    }
+}
@@ -0,0 +1,101 @@
+package tech.icc.filesrv.core.domain.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 20_000;
+
+    @Test
+    void shouldSpreadContentEvenly() {
+        ConsistentHashRing ring = ConsistentHashRing.of(nodes("a", "b", "c", "d"), 160);
+
+        Map<String, Integer> counts = distribute(ring, keys());
+
+        assertThat(counts).hasSize(4);
+        counts.values().forEach(count -> assertThat(count).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10));
+    }
+
+    @Test
+    void shouldMoveOnlyNewNodeShareWhenNodeAdded() {
+        List<String> keys = keys();
+        ConsistentHashRing before = ConsistentHashRing.of(nodes("a", "b", "c", "d"), 160);
+        ConsistentHashRing after = ConsistentHashRing.of(nodes("a", "b", "c", "d", "e"), 160);
+
+        int moved = 0;
+        for (String key : keys) {
+            String owner = after.locate(key).nodeId();
+            if (!owner.equals(before.locate(key).nodeId())) {
+                assertThat(owner).isEqualTo("e");
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(KEYS / 5 * 7 / 10, KEYS / 5 * 13 / 10);
+    }
+
+    @Test
+    void shouldHonorWeights() {
+        List<StorageNode> nodes = List.of(node("light", 50), node("heavy", 150));
+        ConsistentHashRing ring = ConsistentHashRing.of(nodes, 160);
+
+        Map<String, Integer> counts = distribute(ring, keys());
+
+        assertThat((double) counts.get("heavy") / counts.get("light")).isBetween(2.4, 3.6);
+    }
+
+    @Test
+    void shouldReturnDistinctPreferenceList() {
+        ConsistentHashRing ring = ConsistentHashRing.of(nodes("a", "b", "c"), 160);
+        String key = keys().get(0);
+
+        List<StorageNode> preference = ring.locate(key, 5);
+
+        assertThat(preference).hasSize(3).doesNotHaveDuplicates();
+        assertThat(preference.get(0)).isEqualTo(ring.locate(key));
+    }
+
+    @Test
+    void shouldExcludeZeroWeightNodes() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of(node("a", 0)), 160);
+
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.locate("abc")).isNull();
+        assertThat(ring.locate("abc", 2)).isEmpty();
+    }
+
+    private static Map<String, Integer> distribute(ConsistentHashRing ring, List<String> keys) {
+        Map<String, Integer> counts = new HashMap<>();
+        keys.forEach(key -> counts.merge(ring.locate(key).nodeId(), 1, Integer::sum));
+        return counts;
+    }
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>(KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            keys.add(UUID.nameUUIDFromBytes(("content-" + i).getBytes()).toString().replace("-", ""));
+        }
+        return keys;
+    }
+
+    private static List<StorageNode> nodes(String... ids) {
+        List<StorageNode> nodes = new ArrayList<>();
+        for (String id : ids) {
+            nodes.add(node(id, StorageNode.DEFAULT_WEIGHT));
+        }
+        return nodes;
+    }
+
+    private static StorageNode node(String id, int weight) {
+        return new StorageNode(id, id, "TEST", StorageTier.HOT, NodeStatus.ACTIVE, "localhost", "bucket",
+                weight, 0L, 0L);
+    }
+}
@@ -0,0 +1,86 @@
+package tech.icc.filesrv.core.infra.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+import tech.icc.filesrv.core.domain.files.FileInfoRepository;
+import tech.icc.filesrv.core.infra.config.DedupFilterProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContentHashIndexTest {
+
+    @Mock
+    private FileInfoRepository fileInfoRepository;
+
+    @Mock
+    private MaintenanceCoordinator coordinator;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private ContentHashIndex index;
+
+    @Test
+    void shouldSkipLookupOnlyForHashesNotInFileInfo() {
+        when(coordinator.isSingleNode()).thenReturn(true);
+        index = newIndex();
+        // 加载完成前一律查询数据库
+        assertThat(index.mightExist("h-unknown")).isTrue();
+
+        when(coordinator.isLeader(ContentHashIndex.JOB)).thenReturn(true);
+        when(fileInfoRepository.count()).thenReturn(2L);
+        when(fileInfoRepository.findContentHashes(isNull(), anyInt())).thenReturn(List.of("h-1", "h-2"));
+        // 重建开始前写入过滤器、稍后才提交的文件由补扫加载
+        when(fileInfoRepository.findContentHashesCreatedSince(any(Instant.class), isNull(), anyInt()))
+                .thenReturn(List.of("h-3"));
+        index.maintain();
+
+        assertThat(index.mightExist("h-1")).isTrue();
+        assertThat(index.mightExist("h-2")).isTrue();
+        assertThat(index.mightExist("h-3")).isTrue();
+        assertThat(index.mightExist("h-unknown")).isFalse();
+
+        index.add("h-4");
+        assertThat(index.mightExist("h-4")).isTrue();
+    }
+
+    @Test
+    void shouldNotTrustLocalFilterWithMultipleNodes() {
+        when(coordinator.isSingleNode()).thenReturn(false);
+        index = newIndex();
+
+        index.add("h-1");
+        index.removed(10);
+
+        assertThat(index.mightExist("h-unknown")).isTrue();
+        verifyNoInteractions(fileInfoRepository);
+        verify(coordinator, never()).isLeader(ContentHashIndex.JOB);
+    }
+
+    private ContentHashIndex newIndex() {
+        DedupFilterProperties properties = new DedupFilterProperties();
+        properties.setExpectedInsertions(1000);
+        properties.setCatchUpMargin(Duration.ZERO);
+        properties.setCheckInterval(Duration.ofHours(1));
+        return new ContentHashIndex((ContentHashFilter) null,
+                fileInfoRepository, properties, coordinator, taskScheduler, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,98 @@
+package tech.icc.filesrv.core.infra.cache.impl;
+
+import org.junit.jupiter.api.Test;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaffeineTaskCacheServiceTest {
+
+    private final CaffeineTaskCacheService cache = new CaffeineTaskCacheService(100, Duration.ofMinutes(1));
+
+    @Test
+    void shouldRejectStaleVersion() {
+        TaskAggregate task = newTask(3L);
+        cache.cacheTask(task);
+
+        TaskAggregate stale = copyWithVersion(task, 2L);
+        stale.markFailed("stale read");
+        cache.cacheTask(stale);
+
+        assertThat(cache.getTask(task.getTaskId()))
+                .get()
+                .satisfies(cached -> {
+                    assertThat(cached.getVersion()).isEqualTo(3L);
+                    assertThat(cached.getStatus()).isEqualTo(TaskStatus.PENDING);
+                });
+    }
+
+    @Test
+    void shouldReplaceWithNewerVersion() {
+        TaskAggregate task = newTask(1L);
+        cache.cacheTask(task);
+
+        TaskAggregate newer = copyWithVersion(task, 2L);
+        newer.markFailed("boom");
+        cache.refreshTask(newer);
+
+        assertThat(cache.getTask(task.getTaskId()))
+                .get()
+                .satisfies(cached -> {
+                    assertThat(cached.getVersion()).isEqualTo(2L);
+                    assertThat(cached.getStatus()).isEqualTo(TaskStatus.FAILED);
+                });
+    }
+
+    @Test
+    void shouldIsolateCachedStateFromCallers() {
+        TaskAggregate task = newTask(1L);
+        cache.cacheTask(task);
+
+        task.markFailed("mutated after caching");
+        cache.getTask(task.getTaskId()).orElseThrow().markFailed("mutated after reading");
+
+        assertThat(cache.getTask(task.getTaskId()).orElseThrow().getStatus())
+                .isEqualTo(TaskStatus.PENDING);
+    }
+
+    @Test
+    void shouldReplaceNullMarker() {
+        TaskAggregate task = newTask(0L);
+        cache.cacheNull(task.getTaskId());
+
+        cache.refreshTask(task);
+
+        assertThat(cache.isNullCached(task.getTaskId())).isFalse();
+        assertThat(cache.getTask(task.getTaskId())).isPresent();
+    }
+
+    @Test
+    void shouldEvictOnRefreshWhenWriteThroughDisabled() {
+        CaffeineTaskCacheService invalidating =
+                new CaffeineTaskCacheService(100, Duration.ofMinutes(1), false);
+        TaskAggregate task = newTask(1L);
+        invalidating.cacheTask(task);
+
+        task.setVersion(2L);
+        invalidating.refreshTask(task);
+
+        assertThat(invalidating.getTask(task.getTaskId())).isEmpty();
+    }
+
+    private static TaskAggregate newTask(long version) {
+        TaskAggregate task = TaskAggregate.create("f-key", "hash", "a.txt", "text/plain", 10L,
+                List.of(), Duration.ofHours(1));
+        task.setVersion(version);
+        return task;
+    }
+
+    private TaskAggregate copyWithVersion(TaskAggregate task, long version) {
+        TaskAggregate copy = cache.getTask(task.getTaskId()).orElseThrow();
+        copy.setVersion(version);
+        return copy;
+    }
+}
@@ -0,0 +1,46 @@
+package tech.icc.filesrv.core.infra.cache.impl;
+
+import org.junit.jupiter.api.Test;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalContentHashFilterTest {
+
+    private final LocalContentHashFilter filter = new LocalContentHashFilter();
+
+    @Test
+    void shouldNeverMissInsertedHashes() {
+        ContentHashFilter.Rebuild rebuild = filter.rebuild(10_000, 0.01);
+        List<String> inserted = IntStream.range(0, 10_000).mapToObj(i -> "hash-" + i).toList();
+        rebuild.addAll(inserted);
+        assertThat(filter.isReady()).isFalse();
+        rebuild.commit();
+
+        assertThat(inserted).allMatch(filter::mightContain);
+        long falsePositives = IntStream.range(0, 10_000)
+                .mapToObj(i -> "other-" + i)
+                .filter(filter::mightContain)
+                .count();
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(filter.approximateSize()).isBetween(9_900L, 10_000L);
+    }
+
+    @Test
+    void shouldKeepHashesAddedDuringRebuild() {
+        filter.rebuild(100, 0.01).commit();
+        filter.add("before");
+
+        ContentHashFilter.Rebuild rebuild = filter.rebuild(100, 0.01);
+        filter.add("during");
+        assertThat(filter.mightContain("during")).isTrue();
+        rebuild.commit();
+
+        assertThat(filter.mightContain("during")).isTrue();
+        // 新一代只包含重建加载的和重建期间写入的
+        assertThat(filter.mightContain("before")).isFalse();
+    }
+}
@@ -0,0 +1,140 @@
+package tech.icc.filesrv.core.infra.cache.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoLevelTaskCacheServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private final InMemoryDistributedTaskCache remote = new InMemoryDistributedTaskCache();
+
+    private final TwoLevelTaskCacheService nodeA = newNode();
+    private final TwoLevelTaskCacheService nodeB = newNode();
+
+    @Test
+    void shouldServeOtherNodeFromL2() {
+        TaskAggregate task = newTask(1L);
+        nodeA.refreshTask(task);
+
+        Optional<TaskAggregate> fromB = nodeB.getTask(task.getTaskId());
+
+        assertThat(fromB).get().satisfies(cached -> {
+            assertThat(cached.getVersion()).isEqualTo(1L);
+            assertThat(cached.getFKey()).isEqualTo("f-key");
+            assertThat(cached.getExpiresAt()).isEqualTo(task.getExpiresAt());
+        });
+    }
+
+    @Test
+    void shouldInvalidateOtherNodeOnSave() {
+        TaskAggregate task = newTask(1L);
+        nodeA.refreshTask(task);
+        nodeB.getTask(task.getTaskId());
+
+        task.setVersion(2L);
+        task.markFailed("boom");
+        nodeA.refreshTask(task);
+
+        assertThat(nodeB.getTask(task.getTaskId()).orElseThrow().getStatus())
+                .isEqualTo(TaskStatus.FAILED);
+    }
+
+    @Test
+    void shouldClearNullMarkerOnOtherNodeWhenTaskCreated() {
+        TaskAggregate task = newTask(0L);
+        nodeB.cacheNull(task.getTaskId());
+
+        nodeA.refreshTask(task);
+
+        assertThat(nodeB.isNullCached(task.getTaskId())).isFalse();
+        assertThat(nodeB.getTask(task.getTaskId())).isPresent();
+    }
+
+    @Test
+    void shouldNotRestoreEvictedVersionFromStaleReadThrough() {
+        TaskAggregate task = newTask(1L);
+        nodeA.refreshTask(task);
+        // 节点 B 在删除前从数据库读到了版本 1，删除后才回填
+        TaskAggregate staleRead = newTask(1L);
+        staleRead.setTaskId(task.getTaskId());
+
+        nodeA.evictTask(task.getTaskId());
+        nodeB.cacheTask(staleRead);
+
+        assertThat(remote.connect().get(task.getTaskId())).isEmpty();
+    }
+
+    private TwoLevelTaskCacheService newNode() {
+        return new TwoLevelTaskCacheService(
+                new CaffeineTaskCacheService(100, Duration.ofMinutes(1)), remote.connect(), mapper);
+    }
+
+    private static TaskAggregate newTask(long version) {
+        TaskAggregate task = TaskAggregate.create("f-key", "hash", "a.txt", "text/plain", 10L,
+                List.of(), Duration.ofHours(1));
+        task.setVersion(version);
+        return task;
+    }
+
+    /**
+     * 进程内模拟的共享 L2，每个 connect() 相当于一个节点的客户端
+     */
+    private static class InMemoryDistributedTaskCache {
+
+        private final Map<String, DistributedTaskCache.Entry> store = new ConcurrentHashMap<>();
+        private final List<Client> clients = new ArrayList<>();
+
+        DistributedTaskCache connect() {
+            Client client = new Client();
+            clients.add(client);
+            return client;
+        }
+
+        private class Client implements DistributedTaskCache {
+
+            private final List<InvalidationListener> listeners = new ArrayList<>();
+
+            @Override
+            public Optional<Entry> get(String taskId) {
+                return Optional.ofNullable(store.get(taskId)).filter(entry -> entry.payload() != null);
+            }
+
+            @Override
+            public boolean putIfNewer(String taskId, long version, String payload) {
+                Entry incoming = new Entry(version, payload);
+                return store.merge(taskId, incoming,
+                        (current, next) -> next.version() > current.version() ? next : current) == incoming;
+            }
+
+            @Override
+            public void evict(String taskId) {
+                // 与 Redis 实现一致：保留版本号作为墓碑
+                store.computeIfPresent(taskId, (id, entry) -> new Entry(entry.version(), null));
+            }
+
+            @Override
+            public void publishInvalidation(String taskId, long version) {
+                clients.stream()
+                        .filter(other -> other != this)
+                        .forEach(other -> other.listeners.forEach(l -> l.onInvalidate(taskId, version)));
+            }
+
+            @Override
+            public void subscribe(InvalidationListener listener) {
+                listeners.add(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package tech.icc.filesrv.core.infra.coordination;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tech.icc.filesrv.core.infra.persistence.entity.MaintenanceLeaseEntity;
+import tech.icc.filesrv.core.infra.persistence.repository.MaintenanceLeaseJpaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 在 H2 上执行租约的条件更新、插入和释放语句；每次调用独立提交，与生产环境一致
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcLeaseRegistryTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final String LEADER = "maintenance:leader:gc";
+
+    @Autowired
+    private MaintenanceLeaseJpaRepository repository;
+
+    private JdbcLeaseRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        registry = new JdbcLeaseRegistry(repository);
+    }
+
+    @Test
+    void shouldRenewOwnLeaseAndKeepOthersOut() {
+        assertThat(registry.tryAcquire(LEADER, "node-a", TTL)).isTrue();
+        Instant firstExpiry = lease(LEADER).getExpiresAt();
+
+        assertThat(registry.tryAcquire(LEADER, "node-a", TTL.multipliedBy(2))).isTrue();
+        assertThat(registry.tryAcquire(LEADER, "node-b", TTL)).isFalse();
+
+        assertThat(lease(LEADER).getHolder()).isEqualTo("node-a");
+        assertThat(lease(LEADER).getExpiresAt()).isAfter(firstExpiry);
+    }
+
+    @Test
+    void shouldTakeOverExpiredLease() {
+        repository.insert(LEADER, "node-a", Instant.now().minusSeconds(1));
+
+        assertThat(registry.tryAcquire(LEADER, "node-b", TTL)).isTrue();
+
+        assertThat(lease(LEADER).getHolder()).isEqualTo("node-b");
+        assertThat(registry.tryAcquire(LEADER, "node-a", TTL)).isFalse();
+    }
+
+    @Test
+    void shouldRejectSecondInsertOnPrimaryKey() {
+        repository.insert(LEADER, "node-a", Instant.now().plus(TTL));
+
+        // 续约与插入之间被抢先插入时依赖此异常判定失败
+        assertThatThrownBy(() -> repository.insert(LEADER, "node-b", Instant.now().plus(TTL)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(lease(LEADER).getHolder()).isEqualTo("node-a");
+    }
+
+    @Test
+    void shouldReportLostInsertRaceAsNotAcquired() {
+        MaintenanceLeaseJpaRepository racing = mock(MaintenanceLeaseJpaRepository.class);
+        when(racing.renew(eq(LEADER), eq("node-b"), any(), any())).thenReturn(0);
+        when(racing.insert(eq(LEADER), eq("node-b"), any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThat(new JdbcLeaseRegistry(racing).tryAcquire(LEADER, "node-b", TTL)).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreReleaseByNonHolder() {
+        registry.tryAcquire(LEADER, "node-a", TTL);
+
+        registry.release(LEADER, "node-b");
+        assertThat(registry.tryAcquire(LEADER, "node-b", TTL)).isFalse();
+
+        registry.release(LEADER, "node-a");
+        assertThat(registry.tryAcquire(LEADER, "node-b", TTL)).isTrue();
+    }
+
+    @Test
+    void shouldListLiveHoldersUnderPrefixOnly() {
+        registry.tryAcquire("maintenance:member:node-a", "node-a", TTL);
+        registry.tryAcquire("maintenance:member:node-b", "node-b", TTL);
+        repository.insert("maintenance:member:node-c", "node-c", Instant.now().minusSeconds(1));
+        registry.tryAcquire(LEADER, "node-d", TTL);
+
+        assertThat(registry.activeHolders("maintenance:member:")).containsExactlyInAnyOrder("node-a", "node-b");
+        assertThat(registry.activeHolders("maintenance:leader:")).containsExactly("node-d");
+    }
+
+    private MaintenanceLeaseEntity lease(String name) {
+        return repository.findById(name).orElseThrow();
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MaintenanceLeaseEntity.class)
+    @EnableJpaRepositories(basePackageClasses = MaintenanceLeaseJpaRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = MaintenanceLeaseJpaRepository.class))
+    static class JpaConfig {
+    }
+}
@@ -0,0 +1,110 @@
+package tech.icc.filesrv.core.infra.coordination;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.icc.filesrv.common.spi.coordination.LeaseRegistry;
+import tech.icc.filesrv.core.infra.config.CoordinationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MaintenanceCoordinatorTest {
+
+    private final InMemoryLeaseRegistry registry = new InMemoryLeaseRegistry();
+    private MaintenanceCoordinator nodeA;
+    private MaintenanceCoordinator nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new MaintenanceCoordinator(registry, properties("node-a"));
+        nodeB = new MaintenanceCoordinator(registry, properties("node-b"));
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        nodeA.heartbeat();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    void shouldSplitKeySpaceIntoDisjointShards() {
+        ShardAssignment a = nodeA.shard().orElseThrow();
+        ShardAssignment b = nodeB.shard().orElseThrow();
+
+        assertThat(a).isEqualTo(new ShardAssignment(0, 2));
+        assertThat(b).isEqualTo(new ShardAssignment(1, 2));
+        for (String key : List.of("", "0", "7fff", "7fffffff", "8000", "800-x", "9f86d081", "ffff", "zz")) {
+            assertThat(a.contains(key) ^ b.contains(key)).as(key).isTrue();
+        }
+        assertThat(b.cursorBefore().compareTo(b.lowerBound())).isNegative();
+    }
+
+    @Test
+    void shouldElectSingleLeaderAndHandOverOnShutdown() {
+        assertThat(nodeA.isLeader("job")).isTrue();
+        assertThat(nodeB.isLeader("job")).isFalse();
+
+        nodeA.shutdown();
+
+        assertThat(nodeB.isLeader("job")).isTrue();
+    }
+
+    @Test
+    void shouldRunAsSingleNodeWithoutRegistry() {
+        MaintenanceCoordinator standalone = new MaintenanceCoordinator((LeaseRegistry) null, properties("solo"));
+
+        assertThat(standalone.isLeader("job")).isTrue();
+        assertThat(standalone.shard()).contains(ShardAssignment.ALL);
+        standalone.shutdown();
+    }
+
+    private static CoordinationProperties properties(String nodeId) {
+        CoordinationProperties properties = new CoordinationProperties();
+        properties.setNodeId(nodeId);
+        // 测试中手动触发心跳
+        properties.setHeartbeatInterval(Duration.ofHours(1));
+        return properties;
+    }
+
+    private static class InMemoryLeaseRegistry implements LeaseRegistry {
+
+        private record Lease(String holder, Instant expiresAt) {
+        }
+
+        private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+        @Override
+        public synchronized boolean tryAcquire(String name, String holder, Duration ttl) {
+            Lease current = leases.get(name);
+            Instant now = Instant.now();
+            if (current == null || current.holder().equals(holder) || current.expiresAt().isBefore(now)) {
+                leases.put(name, new Lease(holder, now.plus(ttl)));
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public synchronized void release(String name, String holder) {
+            leases.computeIfPresent(name, (key, lease) -> lease.holder().equals(holder) ? null : lease);
+        }
+
+        @Override
+        public List<String> activeHolders(String namePrefix) {
+            Instant now = Instant.now();
+            return leases.entrySet().stream()
+                    .filter(e -> e.getKey().startsWith(namePrefix) && e.getValue().expiresAt().isAfter(now))
+                    .map(e -> e.getValue().holder())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package tech.icc.filesrv.core.infra.coordination;
+
+import org.junit.jupiter.api.Test;
+import tech.icc.filesrv.common.utils.Uuids;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardAssignmentTest {
+
+    private static final int NODES = 4;
+    private static final int KEYS = 4000;
+
+    @Test
+    void shouldSplitHexPrefixesIntoContiguousRanges() {
+        ShardAssignment second = new ShardAssignment(1, NODES);
+
+        assertThat(second.lowerBound()).isEqualTo("4000");
+        assertThat(second.upperBound()).isEqualTo("8000");
+        assertThat(second.contains("4000abcd")).isTrue();
+        assertThat(second.contains("3fffffff")).isFalse();
+        assertThat(second.isBeyond("8000")).isTrue();
+    }
+
+    @Test
+    void shouldSpreadTimeOrderedKeysByHash() {
+        List<String> keys = Stream.generate(() -> Uuids.timeOrdered().toString()).limit(KEYS).toList();
+        List<ShardAssignment> shards = IntStream.range(0, NODES).mapToObj(i -> new ShardAssignment(i, NODES)).toList();
+
+        // 前缀是时间戳：按前缀区间切分时全部落在同一分片
+        assertThat(shards.stream().filter(shard -> keys.stream().anyMatch(shard::contains))).hasSize(1);
+
+        for (ShardAssignment shard : shards) {
+            long owned = keys.stream().filter(shard::owns).count();
+            assertThat(owned).isBetween(KEYS / NODES * 8 / 10L, KEYS / NODES * 12 / 10L);
+        }
+        assertThat(keys).allMatch(key -> shards.stream().filter(shard -> shard.owns(key)).count() == 1);
+    }
+}
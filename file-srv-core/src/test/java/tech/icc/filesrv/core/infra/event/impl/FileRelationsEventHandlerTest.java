@@ -0,0 +1,72 @@
+package tech.icc.filesrv.core.infra.event.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import tech.icc.filesrv.common.domain.events.DerivedFilesAddedEvent;
+import tech.icc.filesrv.common.vo.task.DerivedFile;
+import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity;
+import tech.icc.filesrv.core.infra.persistence.entity.FileRelationEntity.RelationType;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRelationRepository;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileRelationsEventHandlerTest {
+
+    @Mock
+    private FileRelationRepository relationRepository;
+
+    @InjectMocks
+    private FileRelationsEventHandler handler;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteAllRelationsOfEventInOneBatch() {
+        handler.handleDerivedFilesAdded(event("d1", "d2"));
+
+        ArgumentCaptor<Collection<FileRelationEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(relationRepository).insertIgnoreExisting(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(FileRelationEntity::getFileFkey, FileRelationEntity::getRelatedFkey,
+                        FileRelationEntity::getRelationType)
+                .containsExactly(
+                        tuple("d1", "src", RelationType.SOURCE),
+                        tuple("d1", "src", RelationType.CURRENT_MAIN),
+                        tuple("src", "d1", RelationType.DERIVED),
+                        tuple("d2", "src", RelationType.SOURCE),
+                        tuple("d2", "src", RelationType.CURRENT_MAIN),
+                        tuple("src", "d2", RelationType.DERIVED));
+    }
+
+    @Test
+    void shouldRetryOnceWhenConcurrentDuplicateInsertFails() {
+        when(relationRepository.insertIgnoreExisting(anyCollection()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(0);
+
+        handler.handleDerivedFilesAdded(event("d1"));
+
+        verify(relationRepository, times(2)).insertIgnoreExisting(anyCollection());
+    }
+
+    private static DerivedFilesAddedEvent event(String... derivedFkeys) {
+        List<DerivedFile> files = Arrays.stream(derivedFkeys)
+                .map(fKey -> new DerivedFile("thumbnail", fKey, null, null, "image/png", 1L, null))
+                .toList();
+        return DerivedFilesAddedEvent.of("task-1", "src", files);
+    }
+}
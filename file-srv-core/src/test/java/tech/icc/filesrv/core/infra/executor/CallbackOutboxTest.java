@@ -0,0 +1,119 @@
+package tech.icc.filesrv.core.infra.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
+import tech.icc.filesrv.core.infra.config.CallbackOutboxProperties;
+import tech.icc.filesrv.core.infra.config.TaskRecoveryProperties;
+import tech.icc.filesrv.core.infra.persistence.entity.CallbackOutboxEntity;
+import tech.icc.filesrv.core.infra.persistence.repository.CallbackOutboxJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.TaskJpaRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CallbackOutboxTest {
+
+    @Mock
+    private CallbackOutboxJpaRepository repository;
+
+    @Mock
+    private TaskJpaRepository taskRepository;
+
+    @Mock
+    private CallbackTaskPublisher publisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private CallbackOutboxProperties properties;
+    private CallbackOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CallbackOutboxProperties();
+        properties.setPollInterval(Duration.ofHours(1));
+        properties.setSendTimeout(Duration.ofMillis(100));
+        outbox = new CallbackOutbox(repository, taskRepository, publisher, properties, new TaskRecoveryProperties(),
+                transactionManager, taskScheduler, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldDeleteAcknowledgedMessagesAndRescheduleFailures() {
+        CallbackOutboxEntity acked = entry("m-1", "task-1");
+        CallbackOutboxEntity failed = entry("m-2", "task-2");
+        CallbackOutboxEntity timedOut = entry("m-3", "task-3");
+        when(repository.lockDue(any(Instant.class), any(Pageable.class))).thenReturn(List.of(acked, failed, timedOut));
+        when(publisher.publish("m-1", "task-1")).thenReturn(CompletableFuture.completedFuture(null));
+        when(publisher.publish("m-2", "task-2"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker unavailable")));
+        when(publisher.publish("m-3", "task-3")).thenReturn(new CompletableFuture<>());
+
+        Instant before = Instant.now();
+        assertThat(outbox.relay()).isEqualTo(3);
+
+        verify(repository).deleteByMessageIds(List.of("m-1"));
+        ArgumentCaptor<Instant> leaseUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(taskRepository).extendLease(eq(List.of("task-1")), leaseUntil.capture());
+        assertThat(leaseUntil.getValue()).isAfterOrEqualTo(before.plus(Duration.ofMinutes(5)));
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfterOrEqualTo(before.plus(properties.getRetryInitialBackoff()));
+        assertThat(failed.getLastError()).contains("broker unavailable");
+        assertThat(timedOut.getAttempts()).isEqualTo(1);
+        assertThat(timedOut.getLastError()).contains("TimeoutException");
+    }
+
+    @Test
+    void shouldKeepDrainingWhileBatchesAreFullAndCapBackoff() {
+        properties.setBatchSize(1);
+        properties.setRetryMaxBackoff(Duration.ofSeconds(3));
+        CallbackOutboxEntity first = entry("m-1", "task-1");
+        CallbackOutboxEntity retried = entry("m-2", "task-2");
+        retried.setAttempts(5);
+        when(repository.lockDue(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of(first), List.of(retried), List.of());
+        when(publisher.publish("m-1", "task-1")).thenReturn(CompletableFuture.completedFuture(null));
+        when(publisher.publish("m-2", "task-2"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("still down")));
+
+        Instant before = Instant.now();
+        assertThat(outbox.relay()).isEqualTo(2);
+
+        verify(repository, times(3)).lockDue(any(Instant.class), any(Pageable.class));
+        assertThat(retried.getAttempts()).isEqualTo(6);
+        assertThat(retried.getNextAttemptAt())
+                .isBetween(before.plusSeconds(3), Instant.now().plusSeconds(3));
+    }
+
+    private static CallbackOutboxEntity entry(String messageId, String taskId) {
+        Instant now = Instant.now();
+        return CallbackOutboxEntity.builder()
+                .messageId(messageId)
+                .taskId(taskId)
+                .createdAt(now)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
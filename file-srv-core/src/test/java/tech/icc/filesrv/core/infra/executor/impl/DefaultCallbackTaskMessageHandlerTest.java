@@ -0,0 +1,136 @@
+package tech.icc.filesrv.core.infra.executor.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.config.ExecutorProperties;
+import tech.icc.filesrv.common.executor.message.CallbackTaskMessage;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskMessageHandler.HandleResult;
+import tech.icc.filesrv.common.spi.executor.DeadLetterPublisher;
+import tech.icc.filesrv.common.spi.executor.IdempotencyChecker;
+import tech.icc.filesrv.common.vo.task.TaskStatus;
+import tech.icc.filesrv.core.domain.tasks.TaskAggregate;
+import tech.icc.filesrv.core.domain.tasks.TaskRepository;
+import tech.icc.filesrv.core.infra.executor.CallbackChainRunner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultCallbackTaskMessageHandlerTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private CallbackChainRunner chainRunner;
+
+    @Mock
+    private IdempotencyChecker idempotencyChecker;
+
+    @Mock
+    private DeadLetterPublisher dltPublisher;
+
+    private ExecutorProperties properties;
+    private DefaultCallbackTaskMessageHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExecutorProperties(null, null, null, null);
+        handler = new DefaultCallbackTaskMessageHandler(
+                taskRepository, chainRunner, idempotencyChecker, dltPublisher, properties);
+    }
+
+    @Test
+    void shouldSkipMessageClaimedByAnotherConsumer() {
+        CallbackTaskMessage msg = message("m-1", "task-1");
+        when(idempotencyChecker.tryClaim("m-1", properties.timeout().chain())).thenReturn(false);
+
+        assertThat(handler.handle(msg)).isEqualTo(HandleResult.ACK);
+
+        verifyNoInteractions(taskRepository, chainRunner);
+    }
+
+    @Test
+    void shouldMarkProcessedOnSuccessAndReleaseClaimOnRetry() {
+        TaskAggregate task = new TaskAggregate();
+        task.setTaskId("task-1");
+        task.setStatus(TaskStatus.PROCESSING);
+        when(idempotencyChecker.tryClaim(any(), any(Duration.class))).thenReturn(true);
+        when(taskRepository.findByTaskId("task-1")).thenReturn(Optional.of(task));
+
+        assertThat(handler.handle(message("m-1", "task-1"))).isEqualTo(HandleResult.ACK);
+        verify(idempotencyChecker).markProcessed("m-1", properties.idempotency().ttl());
+        verify(idempotencyChecker, never()).release(any());
+
+        doThrow(new IllegalStateException("db down")).when(chainRunner).run(task);
+        assertThat(handler.handle(message("m-2", "task-1"))).isEqualTo(HandleResult.RETRY);
+        verify(idempotencyChecker).release("m-2");
+        verify(idempotencyChecker, never()).markProcessed(eq("m-2"), any());
+    }
+
+    @Test
+    void shouldClaimBatchOnceAndDropDuplicatesWithinBatch() {
+        CallbackTaskMessage first = message("m-1", "task-1");
+        CallbackTaskMessage duplicate = message("m-1", "task-1");
+        CallbackTaskMessage other = message("m-2", "task-2");
+        CallbackTaskMessage processed = message("m-3", "task-3");
+        when(idempotencyChecker.tryClaimAll(List.of("m-1", "m-1", "m-2", "m-3"), properties.timeout().chain()))
+                .thenReturn(Set.of("m-1", "m-2"));
+
+        List<CallbackTaskMessage> claimed = handler.claimAll(List.of(first, duplicate, other, processed));
+
+        assertThat(claimed).containsExactly(first, other);
+        verify(idempotencyChecker, never()).tryClaim(any(), any());
+    }
+
+    @Test
+    void shouldRenewBatchClaimBeforeRunningChain() {
+        TaskAggregate task = new TaskAggregate();
+        task.setTaskId("task-1");
+        task.setStatus(TaskStatus.PROCESSING);
+        when(idempotencyChecker.renewClaim("m-1", properties.timeout().chain())).thenReturn(true);
+        when(taskRepository.findByTaskId("task-1")).thenReturn(Optional.of(task));
+
+        assertThat(handler.handleClaimed(message("m-1", "task-1"))).isEqualTo(HandleResult.ACK);
+
+        verify(chainRunner).run(task);
+        verify(idempotencyChecker).markProcessed("m-1", properties.idempotency().ttl());
+    }
+
+    @Test
+    void shouldSkipBatchClaimTakenOverWhileQueued() {
+        when(idempotencyChecker.renewClaim("m-1", properties.timeout().chain())).thenReturn(false);
+
+        assertThat(handler.handleClaimed(message("m-1", "task-1"))).isEqualTo(HandleResult.ACK);
+
+        verifyNoInteractions(taskRepository, chainRunner);
+    }
+
+    @Test
+    void shouldNotRenewClaimJustTakenBySingleHandle() {
+        when(idempotencyChecker.tryClaim("m-1", properties.timeout().chain())).thenReturn(true);
+
+        handler.handle(message("m-1", "task-1"));
+
+        verify(idempotencyChecker, never()).renewClaim(any(), any());
+    }
+
+    private static CallbackTaskMessage message(String messageId, String taskId) {
+        return new CallbackTaskMessage(messageId, taskId, Instant.now(), Instant.now().plusSeconds(3600));
+    }
+}
@@ -0,0 +1,126 @@
+package tech.icc.filesrv.core.infra.persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tech.icc.filesrv.common.utils.Uuids;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID 生成策略基准测试
+ * <p>
+ * insert：向 VARCHAR(36) 主键表（与 upload_task 主键一致）插入，对比随机 UUIDv4 与时间有序 UUIDv7 的插入吞吐；
+ * 表在每轮迭代开始前预填充，使主键索引已有一定规模。
+ * validate：对比 {@link Uuids#isCanonical} 与 {@link UUID#fromString} 的格式校验开销（合法与非法输入）。
+ * <p>
+ * 运行：在 test classpath 下执行 main 方法，或以 {@code org.openjdk.jmh.Main IdInsertBenchmark} 传入 JMH 命令行参数。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    @State(Scope.Thread)
+    public static class InsertState {
+
+        @Param({"RANDOM", "TIME_ORDERED"})
+        Uuids.Strategy strategy;
+
+        @Param({"200000"})
+        int preload;
+
+        Connection connection;
+        PreparedStatement insert;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws SQLException {
+            Uuids.setStrategy(strategy);
+            connection = DriverManager.getConnection("jdbc:h2:mem:id_bench;DB_CLOSE_DELAY=-1");
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("DROP TABLE IF EXISTS upload_task_bench");
+                ddl.execute("CREATE TABLE upload_task_bench (task_id VARCHAR(36) PRIMARY KEY, f_key VARCHAR(128) NOT NULL)");
+            }
+            insert = connection.prepareStatement("INSERT INTO upload_task_bench (task_id, f_key) VALUES (?, ?)");
+            connection.setAutoCommit(false);
+            for (int i = 0; i < preload; i++) {
+                insert.setString(1, Uuids.newId());
+                insert.setString(2, "bench");
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws SQLException {
+            insert.close();
+            connection.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ValidateState {
+
+        final String valid = Uuids.timeOrdered().toString();
+        final String invalid = "not-a-task-id-0000-000000000000xxxx";
+    }
+
+    @Benchmark
+    public int insert(InsertState state) throws SQLException {
+        state.insert.setString(1, Uuids.newId());
+        state.insert.setString(2, "bench");
+        return state.insert.executeUpdate();
+    }
+
+    @Benchmark
+    public boolean validateCanonical(ValidateState state) {
+        return Uuids.isCanonical(state.valid) & !Uuids.isCanonical(state.invalid);
+    }
+
+    @Benchmark
+    public boolean validateFromString(ValidateState state) {
+        return parses(state.valid) & !parses(state.invalid);
+    }
+
+    private static boolean parses(String value) {
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IdInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
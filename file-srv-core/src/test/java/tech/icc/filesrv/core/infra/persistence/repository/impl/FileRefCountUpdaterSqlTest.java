@@ -0,0 +1,116 @@
+package tech.icc.filesrv.core.infra.persistence.repository.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.icc.filesrv.core.domain.files.FileRefCount;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static tech.icc.filesrv.core.infra.persistence.repository.impl.FileRefCountUpdater.MYSQL_DECREMENT;
+import static tech.icc.filesrv.core.infra.persistence.repository.impl.FileRefCountUpdater.MYSQL_INCREMENT;
+import static tech.icc.filesrv.core.infra.persistence.repository.impl.FileRefCountUpdater.updateIntoVariables;
+
+/**
+ * MySQL 会话变量路径的语句级测试（H2 MySQL 模式支持 {@code @var := expr}）
+ * <p>
+ * PostgreSQL 的 {@code UPDATE ... RETURNING} H2 不支持，未在此覆盖。
+ */
+class FileRefCountUpdaterSqlTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL");
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE file_info (content_hash VARCHAR(64) PRIMARY KEY, " +
+                    "ref_count INT NOT NULL, status VARCHAR(16) NOT NULL)");
+            st.execute("CREATE TABLE file_ref_stripe (content_hash VARCHAR(64) NOT NULL, " +
+                    "stripe INT NOT NULL, delta INT NOT NULL, PRIMARY KEY (content_hash, stripe))");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void shouldReturnIncrementedCountIncludingStripes() throws SQLException {
+        insertFile("h1", 2, FileStatus.ACTIVE);
+        execute("INSERT INTO file_ref_stripe VALUES ('h1', 0, 3), ('h1', 5, 1)");
+
+        Optional<FileRefCount> updated = updateIntoVariables(connection, MYSQL_INCREMENT, "h1");
+
+        assertThat(updated).contains(new FileRefCount("h1", 7, FileStatus.ACTIVE));
+        assertThat(storedRefCount("h1")).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRestoreDeletedFileOnIncrement() throws SQLException {
+        insertFile("h1", 0, FileStatus.DELETED);
+
+        Optional<FileRefCount> updated = updateIntoVariables(connection, MYSQL_INCREMENT, "h1");
+
+        assertThat(updated).contains(new FileRefCount("h1", 1, FileStatus.ACTIVE));
+    }
+
+    @Test
+    void shouldNotReportStaleVariablesWhenNothingIsUpdated() throws SQLException {
+        insertFile("h1", 1, FileStatus.ACTIVE);
+        insertFile("h2", 0, FileStatus.COLLECTING);
+        // 先在同一连接上留下会话变量
+        updateIntoVariables(connection, MYSQL_INCREMENT, "h1");
+
+        assertThat(updateIntoVariables(connection, MYSQL_INCREMENT, "h2")).isEmpty();
+        assertThat(updateIntoVariables(connection, MYSQL_INCREMENT, "missing")).isEmpty();
+        assertThat(storedRefCount("h2")).isZero();
+    }
+
+    @Test
+    void shouldMarkDeletedWhenDecrementReachesZero() throws SQLException {
+        insertFile("h1", 2, FileStatus.ACTIVE);
+
+        assertThat(updateIntoVariables(connection, MYSQL_DECREMENT, "h1"))
+                .contains(new FileRefCount("h1", 1, FileStatus.ACTIVE));
+        assertThat(updateIntoVariables(connection, MYSQL_DECREMENT, "h1"))
+                .contains(new FileRefCount("h1", 0, FileStatus.DELETED));
+        assertThat(updateIntoVariables(connection, MYSQL_DECREMENT, "h1")).isEmpty();
+    }
+
+    @Test
+    void shouldDetectDialectFromProductName() throws SQLException {
+        assertThat(FileRefCountUpdater.Dialect.of("PostgreSQL")).isEqualTo(FileRefCountUpdater.Dialect.POSTGRESQL);
+        assertThat(FileRefCountUpdater.Dialect.of("MySQL")).isEqualTo(FileRefCountUpdater.Dialect.MYSQL);
+        assertThat(FileRefCountUpdater.Dialect.of("MariaDB")).isEqualTo(FileRefCountUpdater.Dialect.MYSQL);
+        assertThat(FileRefCountUpdater.Dialect.of(connection.getMetaData().getDatabaseProductName()))
+                .isEqualTo(FileRefCountUpdater.Dialect.GENERIC);
+    }
+
+    private void insertFile(String contentHash, int refCount, FileStatus status) throws SQLException {
+        execute("INSERT INTO file_info VALUES ('" + contentHash + "', " + refCount + ", '" + status + "')");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute(sql);
+        }
+    }
+
+    private int storedRefCount(String contentHash) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT ref_count FROM file_info WHERE content_hash = '" + contentHash + "'")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
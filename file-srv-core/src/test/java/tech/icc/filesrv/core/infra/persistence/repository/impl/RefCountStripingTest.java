@@ -0,0 +1,177 @@
+package tech.icc.filesrv.core.infra.persistence.repository.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.core.domain.files.FileStatus;
+import tech.icc.filesrv.core.infra.config.RefCountStripingProperties;
+import tech.icc.filesrv.core.infra.persistence.repository.FileInfoJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository.LockedStripe;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRefStripeJpaRepository.PendingStripe;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefCountStripingTest {
+
+    @Mock
+    private FileRefStripeJpaRepository stripeRepository;
+
+    @Mock
+    private FileInfoJpaRepository fileInfoRepository;
+
+    private RefCountStripingProperties properties;
+    private RefCountStriping striping;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RefCountStripingProperties();
+        properties.setStripes(4);
+        properties.setHotThreshold(3);
+        properties.setContentionThreshold(Duration.ofMillis(10));
+        striping = new RefCountStriping(stripeRepository, fileInfoRepository, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        striping.shutdown();
+    }
+
+    @Test
+    void shouldCreateStripesAfterRepeatedContention() {
+        long slow = Duration.ofMillis(50).toNanos();
+        long fast = Duration.ofMillis(1).toNanos();
+
+        striping.recordLatency("h1", fast);
+        striping.recordLatency("h1", slow);
+        striping.recordLatency("h1", slow);
+        verify(stripeRepository, never()).findStripes(anyString());
+
+        when(stripeRepository.findStripes("h1")).thenReturn(List.of(0));
+        when(stripeRepository.insert(eq("h1"), anyInt())).thenReturn(1);
+        striping.recordLatency("h1", slow);
+
+        verify(stripeRepository, timeout(2000)).insert("h1", 3);
+        verify(stripeRepository, never()).insert("h1", 0);
+    }
+
+    @Test
+    void shouldCountOnStripesUntilTheyDisappear() {
+        when(stripeRepository.findStripes("h2")).thenReturn(List.of());
+        when(stripeRepository.insert(eq("h2"), anyInt())).thenReturn(1);
+        striping.activate("h2");
+        when(stripeRepository.increment(eq("h2"), anyInt(), eq(FileStatus.ACTIVE))).thenReturn(1, 0);
+
+        assertThat(striping.tryIncrement("h2")).isTrue();
+        // 分片已被折叠删除：回退到 file_info，且不再尝试分片
+        assertThat(striping.tryIncrement("h2")).isFalse();
+        assertThat(striping.tryIncrement("h2")).isFalse();
+        verify(stripeRepository, times(2)).increment(eq("h2"), anyInt(), eq(FileStatus.ACTIVE));
+    }
+
+    @Test
+    void shouldNotTouchFileInfoRowWhenIncrementingStripe() {
+        when(stripeRepository.findStripes("h5")).thenReturn(List.of());
+        when(stripeRepository.insert(eq("h5"), anyInt())).thenReturn(1);
+        striping.activate("h5");
+        when(stripeRepository.increment(eq("h5"), anyInt(), eq(FileStatus.ACTIVE))).thenReturn(1);
+
+        assertThat(striping.tryIncrement("h5")).isTrue();
+
+        // 热点行上不加任何锁，与 GC 的协调只经过分片行
+        verifyNoInteractions(fileInfoRepository);
+    }
+
+    @Test
+    void shouldNotStripeFileThatIsNoLongerActive() {
+        when(stripeRepository.findStripes("h6")).thenReturn(List.of());
+        // 最后一个引用的删除已提交（DELETED）：条件插入不创建分片
+        when(stripeRepository.insert("h6", 0)).thenReturn(0);
+
+        striping.activate("h6");
+
+        assertThat(striping.tryIncrement("h6")).isFalse();
+        verify(stripeRepository, never()).insert("h6", 1);
+        verify(stripeRepository, never()).increment(anyString(), anyInt(), eq(FileStatus.ACTIVE));
+    }
+
+    @Test
+    void shouldReportFilesWithStripeReferencesAfterLocking() {
+        when(stripeRepository.lockStripes(List.of("h7", "h8", "h9")))
+                .thenReturn(List.of(locked("h7", 0, 0), locked("h7", 1, 0), locked("h8", 0, 0), locked("h8", 2, 1)));
+
+        assertThat(striping.lockReferenced(List.of("h7", "h8", "h9"))).containsExactly("h8");
+    }
+
+    @Test
+    void shouldFoldStripesIntoFileInfo() {
+        when(stripeRepository.findPending("h3")).thenReturn(List.of(stripe(0, 2), stripe(3, 5)));
+        when(fileInfoRepository.addRefCount("h3", 7)).thenReturn(1);
+
+        assertThat(striping.compact("h3")).isEqualTo(7);
+
+        verify(stripeRepository).subtract("h3", 0, 2);
+        verify(stripeRepository).subtract("h3", 3, 5);
+        verify(stripeRepository, never()).deleteIdle(anyString());
+    }
+
+    @Test
+    void shouldDropIdleStripes() {
+        when(stripeRepository.findPending("h4")).thenReturn(List.of());
+
+        assertThat(striping.compact("h4")).isZero();
+
+        verify(stripeRepository).deleteIdle("h4");
+        verify(fileInfoRepository, never()).addRefCount(anyString(), anyInt());
+    }
+
+    private static LockedStripe locked(String contentHash, int stripe, int delta) {
+        return new LockedStripe() {
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+
+            @Override
+            public Integer getStripe() {
+                return stripe;
+            }
+
+            @Override
+            public Integer getDelta() {
+                return delta;
+            }
+        };
+    }
+
+    private static PendingStripe stripe(int stripe, int delta) {
+        return new PendingStripe() {
+            @Override
+            public Integer getStripe() {
+                return stripe;
+            }
+
+            @Override
+            public Integer getDelta() {
+                return delta;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.utils.Uuids;
+import tech.icc.filesrv.core.application.service.FileService;
+import tech.icc.filesrv.core.infra.config.OrphanCleanupProperties;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.coordination.ShardAssignment;
+import tech.icc.filesrv.core.infra.persistence.repository.FileRelationRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrphanFileCleanupTaskTest {
+
+    @Mock
+    private FileRelationRepository relationRepository;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private MaintenanceCoordinator coordinator;
+
+    private OrphanCleanupProperties properties;
+    private OrphanFileCleanupTask task;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OrphanCleanupProperties();
+        properties.setBatchSize(2);
+        task = new OrphanFileCleanupTask(properties, relationRepository, fileService, coordinator, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldPageByCursorAndDeleteEachBatchInBulk() {
+        when(coordinator.shard()).thenReturn(Optional.of(ShardAssignment.ALL));
+        when(relationRepository.findOrphanFkeys(any(), eq(""), any())).thenReturn(List.of("a", "b"));
+        when(relationRepository.findOrphanFkeys(any(), eq("b"), any())).thenReturn(List.of("c"));
+
+        task.cleanupOrphanFiles();
+
+        verify(fileService).deleteAll(List.of("a", "b"));
+        verify(relationRepository).deleteByFileFkeyIn(List.of("a", "b"));
+        verify(relationRepository).deleteByRelatedFkeyIn(List.of("a", "b"));
+        verify(fileService).deleteAll(List.of("c"));
+        verify(relationRepository).deleteByFileFkeyIn(List.of("c"));
+    }
+
+    @Test
+    void shouldAdvancePastFailedBatch() {
+        when(coordinator.shard()).thenReturn(Optional.of(ShardAssignment.ALL));
+        when(relationRepository.findOrphanFkeys(any(), eq(""), any())).thenReturn(List.of("a", "b"));
+        when(relationRepository.findOrphanFkeys(any(), eq("b"), any())).thenReturn(List.of());
+        when(fileService.deleteAll(List.of("a", "b"))).thenThrow(new IllegalStateException("db down"));
+
+        task.cleanupOrphanFiles();
+
+        // 文件删除失败时保留关联关系，下次执行仍能找到这批孤儿
+        verify(relationRepository, never()).deleteByFileFkeyIn(anyCollection());
+        verify(relationRepository).findOrphanFkeys(any(), eq("b"), any());
+    }
+
+    @Test
+    void shouldOnlyCleanFkeysHashedToOwnShard() {
+        // UUIDv7 fKey 前缀是时间戳，同一时期生成的 fKey 前缀相同；按哈希归属仍分散到各节点
+        properties.setBatchSize(200);
+        ShardAssignment shard = new ShardAssignment(1, 2);
+        when(coordinator.shard()).thenReturn(Optional.of(shard));
+        List<String> fkeys = Stream.generate(() -> Uuids.timeOrdered().toString()).limit(200).sorted().toList();
+        when(relationRepository.findOrphanFkeys(any(), eq(""), any())).thenReturn(fkeys);
+        when(relationRepository.findOrphanFkeys(any(), eq(fkeys.get(199)), any())).thenReturn(List.of());
+
+        task.cleanupOrphanFiles();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(fileService).deleteAll(deleted.capture());
+        assertThat(deleted.getValue()).allMatch(shard::owns).hasSizeBetween(60, 140);
+    }
+
+    @Test
+    void shouldStopWhenTimeBudgetExhausted() {
+        properties.setMaxRunDuration(Duration.ofMillis(-1));
+        when(coordinator.shard()).thenReturn(Optional.of(ShardAssignment.ALL));
+
+        task.cleanupOrphanFiles();
+
+        verify(relationRepository, never()).findOrphanFkeys(any(), any(), any());
+    }
+}
@@ -0,0 +1,70 @@
+package tech.icc.filesrv.core.infra.task;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.core.domain.storage.StorageNodeRepository;
+import tech.icc.filesrv.core.infra.coordination.MaintenanceCoordinator;
+import tech.icc.filesrv.core.infra.storage.StorageNodeCatalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageCapacityTaskTest {
+
+    @Mock
+    private StorageNodeRepository storageNodeRepository;
+
+    @Mock
+    private StorageNodeCatalog catalog;
+
+    @Mock
+    private MaintenanceCoordinator coordinator;
+
+    private StorageCapacityTask task;
+
+    @BeforeEach
+    void setUp() {
+        task = new StorageCapacityTask(storageNodeRepository, catalog, coordinator, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldRefreshCatalogAfterRecomputingUsedBytes() {
+        when(coordinator.isLeader("storage-capacity")).thenReturn(true);
+        when(storageNodeRepository.refreshUsedBytes()).thenReturn(3);
+
+        assertThat(task.refresh()).isEqualTo(3);
+
+        InOrder order = inOrder(storageNodeRepository, catalog);
+        order.verify(storageNodeRepository).refreshUsedBytes();
+        order.verify(catalog).refresh();
+    }
+
+    @Test
+    void shouldSkipWhenNotLeader() {
+        when(coordinator.isLeader("storage-capacity")).thenReturn(false);
+
+        assertThat(task.refresh()).isZero();
+
+        verifyNoInteractions(storageNodeRepository, catalog);
+    }
+
+    @Test
+    void shouldKeepCatalogWhenAggregationFails() {
+        when(coordinator.isLeader("storage-capacity")).thenReturn(true);
+        when(storageNodeRepository.refreshUsedBytes()).thenThrow(new IllegalStateException("db down"));
+
+        assertThat(task.refresh()).isZero();
+
+        verify(catalog, never()).refresh();
+    }
+}
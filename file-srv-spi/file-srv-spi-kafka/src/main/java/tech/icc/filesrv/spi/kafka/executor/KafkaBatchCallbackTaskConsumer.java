@@ -0,0 +1,289 @@
+package tech.icc.filesrv.spi.kafka.executor;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import tech.icc.filesrv.common.executor.message.CallbackTaskMessage;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskMessageHandler;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskMessageHandler.HandleResult;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka callback task consumer in batch mode.
+ * <p>
+ * Each poll returns a batch of records. The batch is claimed for idempotency in one call
+ * ({@link CallbackTaskMessageHandler#claimAll}), the claimed records are dispatched to a {@link KeyedParallelExecutor}
+ * (messages for the same task run in order, different tasks run concurrently) and the listener returns right away,
+ * so the consumer keeps polling while chains run and a slow chain never holds up the poll loop. A record may wait
+ * in the executor for a while; {@link CallbackTaskMessageHandler#handleClaimed} renews its claim when it starts,
+ * so queueing time does not count against the claim TTL.
+ * </p>
+ * <p>
+ * Offsets are tracked per partition. Whenever the consumer thread comes back (the next batch, or a
+ * {@link ListenerContainerIdleEvent} when nothing arrives), each partition is committed up to its lowest
+ * unfinished record; a partition whose uncommitted window reaches {@code maxInFlightPerPartition} is paused until
+ * it drains. Since the listener never blocks on handling, {@code max.poll.interval.ms} only has to cover one
+ * {@code claimAll} call and the default is sufficient.
+ * </p>
+ * <p>
+ * If a record asks for a retry, its partition is paused, the records still running on it are allowed to finish,
+ * and after {@code retryBackoff} the partition is rewound to that record. Records after it that already succeeded
+ * are not claimed again on redelivery and are skipped; messages past their deadline are acknowledged by the handler,
+ * which bounds the retries.
+ * </p>
+ * This consumer is active in production environments only. Test environments use Spring events instead.
+ */
+@Profile("!test")
+public class KafkaBatchCallbackTaskConsumer implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaBatchCallbackTaskConsumer.class);
+
+    private final CallbackTaskMessageHandler handler;
+    private final KeyedParallelExecutor executor;
+    private final int maxInFlightPerPartition;
+    private final long retryBackoffMillis;
+
+    /**
+     * Per-partition progress; each partition is only dispatched, committed and paused by the consumer thread that
+     * owns it, the workers only record results
+     */
+    private final Map<TopicPartition, PartitionProgress> partitions = new ConcurrentHashMap<>();
+
+    public KafkaBatchCallbackTaskConsumer(CallbackTaskMessageHandler handler, KeyedParallelExecutor executor,
+                                          int maxInFlightPerPartition, Duration retryBackoff) {
+        this.handler = handler;
+        this.executor = executor;
+        this.maxInFlightPerPartition = Math.max(1, maxInFlightPerPartition);
+        this.retryBackoffMillis = retryBackoff.toMillis();
+    }
+
+    @KafkaListener(
+            topics = "${file-service.executor.message-queue.topic:file-callback-tasks}",
+            groupId = "${file-service.executor.message-queue.consumer-group:file-callback-executor}",
+            concurrency = "${file-service.executor.message-queue.concurrency:4}",
+            containerFactory = "callbackTaskBatchListenerContainerFactory",
+            properties = "max.poll.records=${file-service.kafka.consumer.max-poll-records:64}"
+    )
+    public void consume(List<ConsumerRecord<String, CallbackTaskMessage>> records, Consumer<?, ?> consumer) {
+        dispatch(records);
+        maintain(consumer);
+    }
+
+    /**
+     * Containers publish idle events on the consumer thread, so completed offsets are committed and paused
+     * partitions resumed even when no new records arrive
+     */
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        maintain(event.getConsumer());
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        // Commit what is already done; records still running are redelivered to the new owner,
+        // which skips them while their claim is held
+        maintain(consumer);
+        revoked.forEach(partitions::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        lost.forEach(partitions::remove);
+    }
+
+    private void dispatch(List<ConsumerRecord<String, CallbackTaskMessage>> records) {
+        List<ConsumerRecord<String, CallbackTaskMessage>> accepted = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, CallbackTaskMessage> record : records) {
+            PartitionProgress progress = progressOf(record);
+            // A partition waiting to be rewound is redelivered from the retry offset anyway
+            if (progress.retryOffset() < 0) {
+                accepted.add(record);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Set<CallbackTaskMessage> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+        claimed.addAll(handler.claimAll(accepted.stream().map(ConsumerRecord::value).toList()));
+
+        for (ConsumerRecord<String, CallbackTaskMessage> record : accepted) {
+            PartitionProgress progress = progressOf(record);
+            Slot slot = progress.track(record.offset());
+            CallbackTaskMessage msg = record.value();
+            if (!claimed.contains(msg)) {
+                // Duplicate: already claimed or processed elsewhere
+                progress.complete(slot, HandleResult.ACK);
+                continue;
+            }
+            String key = record.key() != null ? record.key() : msg.taskId();
+            executor.submit(key, () -> handler.handleClaimed(msg))
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.error("Callback task handling failed: taskId={}, partition={}, offset={}",
+                                    msg.taskId(), record.partition(), record.offset(), error);
+                        }
+                        progress.complete(slot, error == null ? result : HandleResult.RETRY);
+                    });
+        }
+    }
+
+    /**
+     * Commit finished prefixes, rewind partitions with a retry and pause/resume by in-flight count.
+     * Must run on the consumer thread.
+     */
+    void maintain(Consumer<?, ?> consumer) {
+        long now = System.currentTimeMillis();
+        Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+        List<TopicPartition> toPause = new ArrayList<>();
+        List<TopicPartition> toResume = new ArrayList<>();
+
+        for (TopicPartition tp : consumer.assignment()) {
+            PartitionProgress progress = partitions.get(tp);
+            if (progress == null) {
+                continue;
+            }
+            long committable = progress.drainAcked();
+            if (committable > progress.committed) {
+                commits.put(tp, new OffsetAndMetadata(committable));
+            }
+
+            long retryOffset = progress.retryOffset();
+            if (retryOffset >= 0) {
+                if (progress.rewindNotBefore < 0) {
+                    progress.rewindNotBefore = now + retryBackoffMillis;
+                    log.warn("Retry requested, rewinding partition once in-flight records finish: partition={}, offset={}",
+                            tp, retryOffset);
+                }
+                if (!progress.hasPending() && now >= progress.rewindNotBefore) {
+                    consumer.seek(tp, retryOffset);
+                    progress.reset();
+                    retryOffset = -1;
+                }
+            }
+
+            boolean hold = retryOffset >= 0 || progress.inFlight() >= maxInFlightPerPartition;
+            if (hold && !progress.paused) {
+                toPause.add(tp);
+                progress.paused = true;
+            } else if (!hold && progress.paused) {
+                toResume.add(tp);
+                progress.paused = false;
+            }
+        }
+
+        if (!toPause.isEmpty()) {
+            log.debug("Pausing partitions with too many uncommitted records: {}", toPause);
+            consumer.pause(toPause);
+        }
+        if (!toResume.isEmpty()) {
+            consumer.resume(toResume);
+        }
+        if (!commits.isEmpty()) {
+            try {
+                consumer.commitSync(commits);
+                commits.forEach((tp, offset) -> {
+                    PartitionProgress progress = partitions.get(tp);
+                    if (progress != null) {
+                        progress.committed = offset.offset();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Offsets stay committable and are retried on the next pass
+                log.warn("Failed to commit callback task offsets: {}", commits, e);
+            }
+        }
+    }
+
+    private PartitionProgress progressOf(ConsumerRecord<?, ?> record) {
+        return partitions.computeIfAbsent(new TopicPartition(record.topic(), record.partition()),
+                tp -> new PartitionProgress());
+    }
+
+    /**
+     * A dispatched record; {@code result} is null while it is still running
+     */
+    private static final class Slot {
+        private final long offset;
+        private HandleResult result;
+
+        private Slot(long offset) {
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Uncommitted records of one partition in offset order.
+     * <p>
+     * The slot queue is shared with worker threads and guarded by this object;
+     * the remaining fields are only touched by the consumer thread.
+     * </p>
+     */
+    private static final class PartitionProgress {
+        private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+        private long acked = -1;
+        private long committed = -1;
+        private long rewindNotBefore = -1;
+        private boolean paused;
+
+        synchronized Slot track(long offset) {
+            Slot slot = new Slot(offset);
+            slots.addLast(slot);
+            return slot;
+        }
+
+        synchronized void complete(Slot slot, HandleResult result) {
+            slot.result = result;
+        }
+
+        /**
+         * Drop the acknowledged prefix and return the next offset to commit
+         */
+        synchronized long drainAcked() {
+            while (!slots.isEmpty() && slots.peekFirst().result == HandleResult.ACK) {
+                acked = slots.pollFirst().offset + 1;
+            }
+            return acked;
+        }
+
+        /**
+         * Offset of the lowest record asking for a retry, or -1
+         */
+        synchronized long retryOffset() {
+            Slot head = slots.peekFirst();
+            return head != null && head.result == HandleResult.RETRY ? head.offset : -1;
+        }
+
+        synchronized boolean hasPending() {
+            return slots.stream().anyMatch(slot -> slot.result == null);
+        }
+
+        synchronized int inFlight() {
+            return slots.size();
+        }
+
+        synchronized void reset() {
+            slots.clear();
+            rewindNotBefore = -1;
+        }
+    }
+}
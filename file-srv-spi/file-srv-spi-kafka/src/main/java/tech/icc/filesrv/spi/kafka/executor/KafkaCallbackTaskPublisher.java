@@ -10,6 +10,7 @@ import tech.icc.filesrv.common.executor.message.CallbackTaskMessage;
 import tech.icc.filesrv.common.spi.executor.CallbackTaskPublisher;
 
 import java.time.Instant;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -35,11 +36,22 @@ public class KafkaCallbackTaskPublisher implements CallbackTaskPublisher {
 
     @Override
     public void publish(String taskId) {
+        publish(UUID.randomUUID().toString(), taskId);
+    }
+
+    /**
+     * 发送消息，返回 broker 确认结果
+     * <p>
+     * 发件箱转发时使用：messageId 由发件箱分配，重投时不变，消费端据此去重。
+     * 生产者的 linger / 压缩配置使同一批转发的消息合并为少量请求。
+     */
+    @Override
+    public CompletableFuture<Void> publish(String messageId, String taskId) {
         // 计算消息过期时间
         Instant deadline = Instant.now().plus(properties.timeout().taskDeadline());
 
         // 创建消息
-        CallbackTaskMessage message = CallbackTaskMessage.create(taskId, deadline);
+        CallbackTaskMessage message = new CallbackTaskMessage(messageId, taskId, Instant.now(), deadline);
 
         String topic = properties.messageQueue().topic();
 
@@ -50,7 +62,7 @@ public class KafkaCallbackTaskPublisher implements CallbackTaskPublisher {
         CompletableFuture<SendResult<String, CallbackTaskMessage>> future =
                 kafkaTemplate.send(topic, taskId, message);
 
-        future.whenComplete((result, ex) -> {
+        return future.whenComplete((result, ex) -> {
             if (ex != null) {
                 log.error("Failed to publish callback task: taskId={}, messageId={}",
                         taskId, message.messageId(), ex);
@@ -60,6 +72,6 @@ public class KafkaCallbackTaskPublisher implements CallbackTaskPublisher {
                         result.getRecordMetadata().partition(),
                         result.getRecordMetadata().offset());
             }
-        });
+        }).thenApply(result -> null);
     }
 }
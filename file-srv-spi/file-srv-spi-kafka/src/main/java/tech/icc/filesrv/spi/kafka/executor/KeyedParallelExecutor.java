@@ -0,0 +1,69 @@
+package tech.icc.filesrv.spi.kafka.executor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor that runs work for different keys in parallel while keeping work for the same key in order.
+ * <p>
+ * Work for a key is chained behind the previous work for that key and then runs on a shared pool of
+ * {@code parallelism} threads, so tasks sharing a key never overlap and run in submission order, while a slow
+ * task only delays its own key: other keys keep running on the remaining threads instead of queueing behind
+ * it on a fixed lane. The pool is shared by all listener containers of the node; fairness between partitions
+ * comes from the consumer's per-partition in-flight limit.
+ * </p>
+ */
+public class KeyedParallelExecutor implements AutoCloseable {
+
+    private final ExecutorService pool;
+    private final int parallelism;
+
+    /**
+     * Last submitted work per key; removed once it finishes with nothing chained behind it
+     */
+    private final Map<String, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    public KeyedParallelExecutor(int parallelism, String threadNamePrefix) {
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger sequence = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, threadNamePrefix + "-" + sequence.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Submit work for a key.
+     *
+     * @param key  ordering key; null means no ordering
+     * @param work the work to run
+     * @return a future completing with the work's result
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> work) {
+        if (key == null) {
+            return CompletableFuture.supplyAsync(work, pool);
+        }
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T> next = (CompletableFuture<T>) tails.compute(key, (k, tail) -> tail == null
+                ? CompletableFuture.supplyAsync(work, pool)
+                // Run after the previous work regardless of its outcome
+                : tail.handleAsync((result, error) -> work.get(), pool));
+        next.whenComplete((result, error) -> tails.remove(key, next));
+        return next;
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,239 @@
+package tech.icc.filesrv.spi.kafka.executor;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.icc.filesrv.common.executor.message.CallbackTaskMessage;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskMessageHandler;
+import tech.icc.filesrv.common.spi.executor.CallbackTaskMessageHandler.HandleResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaBatchCallbackTaskConsumerTest {
+
+    private static final String TOPIC = "file-callback-tasks";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    @Mock
+    private CallbackTaskMessageHandler handler;
+
+    private final KeyedParallelExecutor executor = new KeyedParallelExecutor(4, "callback");
+
+    private final MockConsumer<String, CallbackTaskMessage> kafka = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        kafka.assign(List.of(P0, P1));
+        kafka.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void shouldReturnBeforeHandlingFinishes() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = records(P0, 0, 2);
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(messages);
+        when(handler.handleClaimed(any())).thenAnswer(inv -> blockUntilReleased());
+
+        consumer(64).consume(records, kafka);
+
+        // 监听线程不等待处理结果：没有完成的记录，不提交
+        assertThat(committed(P0)).isNull();
+        verify(handler, timeout(5000).times(2)).handleClaimed(any());
+    }
+
+    @Test
+    void shouldCommitEachPartitionUpToLowestUnfinishedOffset() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = new ArrayList<>(records(P0, 0, 3));
+        records.addAll(records(P1, 0, 2));
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(messages);
+        when(handler.handleClaimed(any())).thenReturn(HandleResult.ACK);
+        when(handler.handleClaimed(messages.get(1))).thenAnswer(inv -> blockUntilReleased());
+        KafkaBatchCallbackTaskConsumer consumer = consumer(64);
+
+        consumer.consume(records, kafka);
+
+        awaitCommitted(consumer, P1, 2);
+        awaitCommitted(consumer, P0, 1);
+
+        release.countDown();
+        awaitCommitted(consumer, P0, 3);
+    }
+
+    @Test
+    void shouldPausePartitionWithTooManyUncommittedRecords() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = records(P0, 0, 3);
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(messages);
+        when(handler.handleClaimed(any())).thenAnswer(inv -> blockUntilReleased());
+        KafkaBatchCallbackTaskConsumer consumer = consumer(3);
+
+        consumer.consume(records, kafka);
+
+        assertThat(kafka.paused()).containsExactly(P0);
+
+        release.countDown();
+        awaitCommitted(consumer, P0, 3);
+        consumer.maintain(kafka);
+        assertThat(kafka.paused()).isEmpty();
+    }
+
+    @Test
+    void shouldRewindPartitionToRetryOnceInFlightRecordsFinish() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = records(P0, 0, 3);
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(messages);
+        when(handler.handleClaimed(messages.get(0))).thenReturn(HandleResult.ACK);
+        when(handler.handleClaimed(messages.get(1))).thenReturn(HandleResult.RETRY);
+        when(handler.handleClaimed(messages.get(2))).thenAnswer(inv -> blockUntilReleased());
+        KafkaBatchCallbackTaskConsumer consumer = consumer(64);
+
+        kafka.seek(P0, 3);
+
+        consumer.consume(records, kafka);
+
+        // 重试记录之后还有处理中的记录：暂停分区，等待其结束再回退
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            consumer.maintain(kafka);
+            assertThat(kafka.paused()).containsExactly(P0);
+            assertThat(committed(P0)).isNotNull();
+        });
+        assertThat(committed(P0).offset()).isEqualTo(1);
+        assertThat(kafka.position(P0)).isEqualTo(3);
+
+        release.countDown();
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            consumer.maintain(kafka);
+            assertThat(kafka.position(P0)).isEqualTo(1);
+        });
+        assertThat(kafka.paused()).isEmpty();
+        assertThat(committed(P0).offset()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTreatHandlerFailureAsRetry() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = records(P0, 0, 2);
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(messages);
+        when(handler.handleClaimed(messages.get(0))).thenThrow(new IllegalStateException("chain failed"));
+        when(handler.handleClaimed(messages.get(1))).thenReturn(HandleResult.ACK);
+        KafkaBatchCallbackTaskConsumer consumer = consumer(64);
+        kafka.seek(P0, 2);
+
+        consumer.consume(records, kafka);
+
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            consumer.maintain(kafka);
+            assertThat(kafka.position(P0)).isZero();
+        });
+        assertThat(kafka.paused()).isEmpty();
+        verify(handler, times(1)).handleClaimed(messages.get(0));
+        assertThat(committed(P0)).isNull();
+    }
+
+    @Test
+    void shouldAckUnclaimedDuplicatesWithoutDispatching() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = records(P0, 0, 3);
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(List.of(messages.get(1)));
+        when(handler.handleClaimed(messages.get(1))).thenReturn(HandleResult.ACK);
+        KafkaBatchCallbackTaskConsumer consumer = consumer(64);
+
+        consumer.consume(records, kafka);
+
+        awaitCommitted(consumer, P0, 3);
+        verify(handler, never()).handleClaimed(messages.get(0));
+        verify(handler, never()).handleClaimed(messages.get(2));
+    }
+
+    @Test
+    void shouldCommitFinishedRecordsAndForgetRevokedPartition() {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = records(P0, 0, 2);
+        List<CallbackTaskMessage> messages = values(records);
+        when(handler.claimAll(messages)).thenReturn(messages);
+        when(handler.handleClaimed(messages.get(0))).thenReturn(HandleResult.ACK);
+        when(handler.handleClaimed(messages.get(1))).thenAnswer(inv -> blockUntilReleased());
+        KafkaBatchCallbackTaskConsumer consumer = consumer(64);
+        consumer.consume(records, kafka);
+        awaitCommitted(consumer, P0, 1);
+
+        consumer.onPartitionsRevokedBeforeCommit(kafka, List.of(P0));
+        release.countDown();
+
+        // 重新分配后从已提交位点重新开始跟踪
+        List<ConsumerRecord<String, CallbackTaskMessage>> redelivered = records(P0, 1, 1);
+        List<CallbackTaskMessage> again = values(redelivered);
+        when(handler.claimAll(again)).thenReturn(List.of());
+        consumer.consume(redelivered, kafka);
+        assertThat(committed(P0).offset()).isEqualTo(2);
+    }
+
+    private KafkaBatchCallbackTaskConsumer consumer(int maxInFlightPerPartition) {
+        return new KafkaBatchCallbackTaskConsumer(handler, executor, maxInFlightPerPartition, Duration.ZERO);
+    }
+
+    private HandleResult blockUntilReleased() throws InterruptedException {
+        release.await(5, TimeUnit.SECONDS);
+        return HandleResult.ACK;
+    }
+
+    private void awaitCommitted(KafkaBatchCallbackTaskConsumer consumer, TopicPartition tp, long offset) {
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> {
+            consumer.maintain(kafka);
+            assertThat(committed(tp)).isNotNull();
+            assertThat(committed(tp).offset()).isEqualTo(offset);
+        });
+    }
+
+    private OffsetAndMetadata committed(TopicPartition tp) {
+        return kafka.committed(Set.of(tp)).get(tp);
+    }
+
+    private static List<ConsumerRecord<String, CallbackTaskMessage>> records(TopicPartition tp, long from, int count) {
+        List<ConsumerRecord<String, CallbackTaskMessage>> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CallbackTaskMessage msg = CallbackTaskMessage.create("task-" + tp.partition() + "-" + (from + i),
+                    Instant.now().plusSeconds(60));
+            records.add(new ConsumerRecord<>(TOPIC, tp.partition(), from + i, msg.taskId(), msg));
+        }
+        return records;
+    }
+
+    private static List<CallbackTaskMessage> values(List<ConsumerRecord<String, CallbackTaskMessage>> records) {
+        return records.stream().map(ConsumerRecord::value).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package tech.icc.filesrv.spi.kafka.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedParallelExecutorTest {
+
+    private final KeyedParallelExecutor executor = new KeyedParallelExecutor(4, "lane");
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldRunSameKeyInSubmissionOrderWithoutOverlap() {
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int seq = i;
+            results.add(executor.submit("task-1", () -> {
+                int concurrent = running.incrementAndGet();
+                order.add(seq);
+                running.decrementAndGet();
+                return concurrent;
+            }));
+        }
+
+        List<Integer> concurrency = results.stream().map(CompletableFuture::join).distinct().toList();
+
+        assertThat(concurrency).containsExactly(1);
+        assertThat(order).isSorted().hasSize(50);
+    }
+
+    @Test
+    void shouldContinueKeyAfterFailedWork() {
+        CompletableFuture<Object> failed = executor.submit("task-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<String> next = executor.submit("task-1", () -> "next");
+
+        assertThat(next.join()).isEqualTo("next");
+        assertThat(failed).isCompletedExceptionally();
+    }
+
+    @Test
+    void shouldRunDifferentKeysConcurrently() throws Exception {
+        CountDownLatch secondRan = new CountDownLatch(1);
+
+        // 第一个任务等待第二个任务完成：两者在同一线程上会互相阻塞直到超时
+        CompletableFuture<Boolean> blocked = executor.submit("task-1", () -> await(secondRan));
+        executor.submit("task-2", () -> {
+            secondRan.countDown();
+            return null;
+        });
+
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldNotQueueOtherKeysBehindSlowKeyWithCollidingHash() throws Exception {
+        // "Aa" 与 "BB" 的 hashCode 相同：固定分道时会排在同一线程上
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> slow = executor.submit("Aa", () -> await(release));
+
+        String other = executor.submit("BB", () -> "done").get(5, TimeUnit.SECONDS);
+
+        assertThat(other).isEqualTo("done");
+        assertThat(slow).isNotDone();
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
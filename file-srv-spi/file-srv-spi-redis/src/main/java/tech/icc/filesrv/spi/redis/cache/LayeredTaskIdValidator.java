@@ -0,0 +1,289 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import io.netty.buffer.ByteBuf;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.Hash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.icc.filesrv.common.spi.cache.TaskIdValidator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分层任务 ID 验证器：节点本地布隆过滤器 + Redis 布隆过滤器
+ * <p>
+ * 每次分片上传、完成、轮询都会调用 {@link #mightExist}，直接使用 {@link RedisBloomTaskIdValidator}
+ * 意味着每个请求一次 Redis 往返。本实现为 Redis 查询窗口内的每个时间分片在节点内维护一份<b>位布局完全一致</b>的本地副本：
+ * <ul>
+ *   <li>任一分片本地命中直接返回 true：本地置位的位在 Redis 中一定也已置位（布隆过滤器只增不减），结果与查询 Redis 相同</li>
+ *   <li>本地全部未命中才查询 Redis：Redis 命中时把对应位补到命中分片的本地副本，之后同一 ID 不再访问 Redis</li>
+ *   <li>分片首次使用时（启动时的已有分片、轮换出的新分片）整体拉取其 Redis 位图作为本地初始状态</li>
+ *   <li>注册时写入 Redis 后通过 Pub/Sub 广播，其他节点收到后更新本地位图；消息丢失只会多一次 Redis 查询</li>
+ *   <li>分片滑出查询窗口后本地副本随之丢弃</li>
+ * </ul>
+ *
+ * <p><b>位布局：</b>下标计算与 Redisson {@code RedissonBloomFilter} 一致（值编码后做 HighwayHash 128，
+ * 再按双重哈希展开为 hashIterations 个下标），每个分片的 size 与 hashIterations 在创建本地副本时从 Redis 读取。
+ */
+public class LayeredTaskIdValidator implements TaskIdValidator, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LayeredTaskIdValidator.class);
+
+    public static final String DEFAULT_CHANNEL = "file-srv:task:bloom:registrations";
+
+    private static final String SEPARATOR = "|";
+    private static final String ID_SEPARATOR = ",";
+
+    private final RedissonClient redissonClient;
+    private final RedisBloomTaskIdValidator remote;
+    private final RTopic topic;
+    private final int listenerId;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Redis 分片过滤器名 → 本地副本
+     */
+    private final Map<String, LocalSlice> localSlices = new ConcurrentHashMap<>();
+
+    public LayeredTaskIdValidator(RedissonClient redissonClient, RedisBloomTaskIdValidator remote) {
+        this(redissonClient, remote, DEFAULT_CHANNEL);
+    }
+
+    public LayeredTaskIdValidator(RedissonClient redissonClient, RedisBloomTaskIdValidator remote, String channel) {
+        this.redissonClient = redissonClient;
+        this.remote = remote;
+
+        // 先订阅再拉取位图：同步期间其他节点的注册不会丢失
+        this.topic = redissonClient.getTopic(channel, StringCodec.INSTANCE);
+        this.listenerId = topic.addListener(String.class, (ch, msg) -> onRegistered(msg));
+        for (RBloomFilter<String> filter : remote.activeFilters()) {
+            localSlice(filter);
+        }
+
+        log.info("LayeredTaskIdValidator initialized: slices={}, channel={}, instanceId={}",
+                localSlices.keySet(), channel, instanceId);
+    }
+
+    @Override
+    public boolean isValidFormat(String taskId) {
+        return remote.isValidFormat(taskId);
+    }
+
+    @Override
+    public boolean mightExist(String taskId) {
+        if (!isValidFormat(taskId)) {
+            return false;
+        }
+
+        RBloomFilter<String> matched;
+        try {
+            List<RBloomFilter<String>> filters = remote.activeFilters();
+            // 各分片共用同一编码，哈希只算一次
+            long[] hashes = hash(filters.get(0), taskId);
+            for (RBloomFilter<String> filter : filters) {
+                if (localSlice(filter).contains(hashes)) {
+                    return true;
+                }
+            }
+            localSlices.keySet().removeIf(name -> filters.stream().noneMatch(f -> f.getName().equals(name)));
+            matched = remote.locate(taskId);
+        } catch (Exception e) {
+            log.error("Failed to check bloom filter: taskId={}", taskId, e);
+            // 降级：Redis 故障时，认为可能存在（放行到下一层防护）
+            return true;
+        }
+        if (matched == null) {
+            return false;
+        }
+        localSlice(matched).add(hash(matched, taskId));
+        return true;
+    }
+
+    @Override
+    public void register(String taskId) {
+        if (!isValidFormat(taskId)) {
+            log.warn("Invalid taskId format, skip register: {}", taskId);
+            return;
+        }
+        remote.register(taskId);
+        registerLocally(List.of(taskId));
+    }
+
+    /**
+     * 批量注册：Redis 侧整批 pipeline 写入，并只广播一条消息
+     */
+    @Override
+    public void registerAll(Iterable<String> taskIds) {
+        if (taskIds == null) {
+            return;
+        }
+
+        List<String> valid = new ArrayList<>();
+        for (String taskId : taskIds) {
+            if (isValidFormat(taskId)) {
+                valid.add(taskId);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        remote.registerAll(valid);
+        registerLocally(valid);
+    }
+
+    @Override
+    public void close() {
+        topic.removeListener(listenerId);
+    }
+
+    private void registerLocally(List<String> taskIds) {
+        try {
+            RBloomFilter<String> current = remote.currentFilter();
+            LocalSlice slice = localSlice(current);
+            for (String taskId : taskIds) {
+                slice.add(hash(current, taskId));
+            }
+            topic.publish(instanceId + SEPARATOR + current.getName() + SEPARATOR + String.join(ID_SEPARATOR, taskIds));
+        } catch (Exception e) {
+            // 其他节点未收到时会在本地未命中时查询 Redis
+            log.warn("Failed to publish task bloom registration: {}", taskIds, e);
+        }
+    }
+
+    private void onRegistered(String message) {
+        String[] parts = message.split("\\" + SEPARATOR);
+        if (parts.length != 3) {
+            log.warn("Malformed task bloom registration message: {}", message);
+            return;
+        }
+        if (instanceId.equals(parts[0])) {
+            return;
+        }
+        try {
+            RBloomFilter<String> filter = redissonClient.getBloomFilter(parts[1]);
+            LocalSlice slice = localSlice(filter);
+            for (String taskId : parts[2].split(ID_SEPARATOR)) {
+                if (isValidFormat(taskId)) {
+                    slice.add(hash(filter, taskId));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply task bloom registration: {}", message, e);
+        }
+    }
+
+    private LocalSlice localSlice(RBloomFilter<String> filter) {
+        return localSlices.computeIfAbsent(filter.getName(), name -> LocalSlice.syncFrom(redissonClient, filter));
+    }
+
+    /**
+     * 计算 taskId 的 128 位哈希，与 RedissonBloomFilter 的实现保持一致（值编码后做 HighwayHash 128）
+     */
+    private static long[] hash(RBloomFilter<String> filter, String taskId) {
+        ByteBuf state;
+        try {
+            state = filter.getCodec().getValueEncoder().encode(taskId);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode taskId: " + taskId, e);
+        }
+        try {
+            return Hash.hash128(state);
+        } finally {
+            state.release();
+        }
+    }
+
+    /**
+     * 单个 Redis 分片过滤器的本地副本
+     */
+    private static final class LocalSlice {
+
+        private final long size;
+        private final int hashIterations;
+        private final AtomicLongArray bits;
+
+        private LocalSlice(RBloomFilter<String> filter) {
+            this.size = filter.getSize();
+            this.hashIterations = filter.getHashIterations();
+            this.bits = new AtomicLongArray((int) ((size + 63) >>> 6));
+        }
+
+        static LocalSlice syncFrom(RedissonClient redissonClient, RBloomFilter<String> filter) {
+            LocalSlice slice = new LocalSlice(filter);
+            try {
+                BitSet snapshot = redissonClient.getBitSet(filter.getName()).asBitSet();
+                long[] words = snapshot.toLongArray();
+                int length = Math.min(words.length, slice.bits.length());
+                for (int i = 0; i < length; i++) {
+                    long word = words[i];
+                    if (word != 0) {
+                        slice.bits.accumulateAndGet(i, word, (a, b) -> a | b);
+                    }
+                }
+                log.info("Local task bloom filter synced from Redis: key={}, bits set={}",
+                        filter.getName(), snapshot.cardinality());
+            } catch (Exception e) {
+                // 降级：本地从空位图开始，未命中时回退到 Redis 并逐步补齐
+                log.warn("Failed to sync local task bloom filter from Redis, starting empty: key={}",
+                        filter.getName(), e);
+            }
+            return slice;
+        }
+
+        boolean contains(long[] hashes) {
+            if (size == 0) {
+                // 读不到过滤器参数：本地副本不可用，始终回退到 Redis
+                return false;
+            }
+            for (long index : indexes(hashes)) {
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(long[] hashes) {
+            if (size == 0) {
+                return;
+            }
+            for (long index : indexes(hashes)) {
+                long mask = 1L << index;
+                int word = (int) (index >>> 6);
+                if ((bits.get(word) & mask) == 0) {
+                    bits.accumulateAndGet(word, mask, (a, b) -> a | b);
+                }
+            }
+        }
+
+        /**
+         * 按双重哈希展开为 hashIterations 个位下标，与 RedissonBloomFilter 的实现保持一致
+         */
+        private long[] indexes(long[] hashes) {
+            long hash1 = hashes[0];
+            long hash2 = hashes[1];
+            long[] indexes = new long[hashIterations];
+            long hash = hash1;
+            for (int i = 0; i < hashIterations; i++) {
+                indexes[i] = (hash & Long.MAX_VALUE) % size;
+                if (i % 2 == 0) {
+                    hash += hash2;
+                } else {
+                    hash += hash1;
+                }
+            }
+            return indexes;
+        }
+    }
+}
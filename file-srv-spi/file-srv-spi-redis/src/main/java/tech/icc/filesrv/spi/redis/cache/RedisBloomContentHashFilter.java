@@ -0,0 +1,189 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 Redis Bloom Filter 的分布式内容哈希过滤器
+ * <p>
+ * 所有节点共享同一组过滤器，任一节点写入的新文件对其它节点立即可见，多节点部署时可用于秒传否定判断。
+ * <p>
+ * 按代存储，指针保存在 Redis 中：
+ * <ul>
+ *   <li>{@code file-srv:content:bloom:current}：当前代，不存在表示未就绪</li>
+ *   <li>{@code file-srv:content:bloom:building}：重建中的新一代</li>
+ *   <li>{@code file-srv:content:bloom:previous}：刚被替换的上一代，保留 {@code grace} 时长</li>
+ * </ul>
+ * 写入每次读取三个指针并写入全部存在的代；查询使用本地缓存的当前代指针（最长 {@code pointerRefresh} 过期）。
+ * 切换后上一代在宽限期内继续接收写入，指针缓存过期前仍查询上一代的节点不会漏判，
+ * 因此 {@code grace} 必须大于 {@code pointerRefresh}。
+ *
+ * <p><b>权衡：</b>
+ * <ul>
+ *   <li>✅ 全局一致性：所有节点共享状态，只需一个节点加载</li>
+ *   <li>⚠️ 网络开销：每次检查一次 Redis 调用，每个新文件一到三次</li>
+ *   <li>⚠️ 写入路径依赖 Redis：写入失败且无法作废过滤器时新文件写入失败</li>
+ * </ul>
+ */
+public class RedisBloomContentHashFilter implements ContentHashFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisBloomContentHashFilter.class);
+
+    private static final String KEY_PREFIX = "file-srv:content:bloom:";
+    private static final String CURRENT_KEY = KEY_PREFIX + "current";
+    private static final String BUILDING_KEY = KEY_PREFIX + "building";
+    private static final String PREVIOUS_KEY = KEY_PREFIX + "previous";
+
+    private final RedissonClient redissonClient;
+    private final Duration pointerRefresh;
+    private final Duration grace;
+
+    private volatile String cachedCurrent;
+    private volatile long cachedAtNanos;
+
+    /**
+     * @param redissonClient Redisson 客户端
+     * @param pointerRefresh 当前代指针的本地缓存时长
+     * @param grace          上一代在切换后继续接收写入的时长，必须大于 pointerRefresh
+     */
+    public RedisBloomContentHashFilter(RedissonClient redissonClient, Duration pointerRefresh, Duration grace) {
+        if (grace.compareTo(pointerRefresh) <= 0) {
+            throw new IllegalArgumentException("grace must be longer than pointerRefresh");
+        }
+        this.redissonClient = redissonClient;
+        this.pointerRefresh = pointerRefresh;
+        this.grace = grace;
+        this.cachedAtNanos = System.nanoTime() - pointerRefresh.toNanos();
+    }
+
+    /**
+     * 使用默认配置创建（指针缓存 1 秒，宽限期 1 分钟）
+     */
+    public RedisBloomContentHashFilter(RedissonClient redissonClient) {
+        this(redissonClient, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    @Override
+    public boolean mightContain(String contentHash) {
+        try {
+            String generation = currentGeneration();
+            return generation == null || bloom(generation).contains(contentHash);
+        } catch (Exception e) {
+            log.error("Failed to check content bloom filter: contentHash={}", contentHash, e);
+            // 降级：Redis 故障时认为可能存在（查询数据库）
+            return true;
+        }
+    }
+
+    @Override
+    public void add(String contentHash) {
+        Map<String, String> generations = redissonClient.getBuckets().get(CURRENT_KEY, BUILDING_KEY, PREVIOUS_KEY);
+        for (String generation : generations.values()) {
+            if (generation != null) {
+                bloom(generation).add(contentHash);
+            }
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        try {
+            return currentGeneration() != null;
+        } catch (Exception e) {
+            log.error("Failed to read content bloom filter generation", e);
+            return false;
+        }
+    }
+
+    @Override
+    public long approximateSize() {
+        try {
+            String generation = currentGeneration();
+            return generation != null ? bloom(generation).count() : -1;
+        } catch (Exception e) {
+            log.error("Failed to get content bloom filter count", e);
+            return -1;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        RBucket<String> current = redissonClient.getBucket(CURRENT_KEY);
+        String generation = current.getAndDelete();
+        cachedCurrent = null;
+        cachedAtNanos = System.nanoTime();
+        if (generation != null) {
+            bloom(generation).expire(grace);
+            log.warn("Content bloom filter invalidated: generation={}", generation);
+        }
+        // 返回前等待其它节点的指针缓存过期，调用方随后写入的文件不会被仍在使用旧指针的节点漏判
+        try {
+            Thread.sleep(pointerRefresh.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while invalidating content bloom filter", e);
+        }
+    }
+
+    @Override
+    public Rebuild rebuild(long expectedInsertions, double fpp) {
+        String generation = String.valueOf(System.currentTimeMillis());
+        RBloomFilter<String> next = bloom(generation);
+        next.tryInit(expectedInsertions, fpp);
+        redissonClient.<String>getBucket(BUILDING_KEY).set(generation);
+        log.info("Content bloom filter rebuild started: generation={}, expectedInsertions={}, fpp={}",
+                generation, expectedInsertions, fpp);
+        return new Rebuild() {
+            @Override
+            public void addAll(Iterable<String> contentHashes) {
+                List<String> batch = new ArrayList<>();
+                contentHashes.forEach(batch::add);
+                if (!batch.isEmpty()) {
+                    next.add(batch);
+                }
+            }
+
+            @Override
+            public void commit() {
+                String previous = redissonClient.<String>getBucket(CURRENT_KEY).getAndSet(generation);
+                if (previous != null) {
+                    redissonClient.<String>getBucket(PREVIOUS_KEY).set(previous, grace);
+                    bloom(previous).expire(grace);
+                }
+                redissonClient.getBucket(BUILDING_KEY).delete();
+                cachedCurrent = generation;
+                cachedAtNanos = System.nanoTime();
+                log.info("Content bloom filter switched: generation={}, previous={}", generation, previous);
+            }
+
+            @Override
+            public void abort() {
+                redissonClient.getBucket(BUILDING_KEY).delete();
+                next.delete();
+                log.info("Content bloom filter rebuild aborted: generation={}", generation);
+            }
+        };
+    }
+
+    private String currentGeneration() {
+        long now = System.nanoTime();
+        if (now - cachedAtNanos >= pointerRefresh.toNanos()) {
+            cachedCurrent = redissonClient.<String>getBucket(CURRENT_KEY).get();
+            cachedAtNanos = now;
+        }
+        return cachedCurrent;
+    }
+
+    private RBloomFilter<String> bloom(String generation) {
+        return redissonClient.getBloomFilter(KEY_PREFIX + generation);
+    }
+}
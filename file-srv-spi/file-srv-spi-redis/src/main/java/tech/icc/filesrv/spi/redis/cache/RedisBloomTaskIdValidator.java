@@ -5,8 +5,16 @@ import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.icc.filesrv.common.spi.cache.TaskIdValidator;
+import tech.icc.filesrv.common.utils.Uuids;
 
-import java.util.UUID;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 基于 Redis Bloom Filter 的分布式任务 ID 验证器
@@ -32,57 +40,131 @@ import java.util.UUID;
  *   <li>⚠️ 网络开销：每次检查需要 Redis 网络调用（~1ms）</li>
  *   <li>⚠️ Redis 依赖：需要 Redis 和 RedisBloom 模块</li>
  * </ul>
+ *
+ * <p><b>按时间分片轮换：</b>单个过滤器只增不减，持续写入后会饱和，误判率逐渐升高直至失去过滤作用。
+ * 任务有固定的过期时间，因此按 sliceDuration 把时间切成片，每片一个过滤器（key 为 {@code file-srv:task:bloom:<片号>}）：
+ * <ul>
+ *   <li>注册只写入当前片</li>
+ *   <li>查询最近 activeSlices 个片（从新到旧）；任务行在过期后还会保留一段时间（见任务回收的 finished-retention），
+ *       期间仍可按 taskId 查询，因此查询窗口按 retention（注册后 taskId 需保持可查的最长时间）确定，
+ *       activeSlices 不小于 ⌈retention / sliceDuration⌉ + 1</li>
+ *   <li>每片在滑出查询窗口后由 Redis 过期删除</li>
+ *   <li>新片容量按上一片的实际插入量（近似值）放大 {@value #GROWTH_FACTOR} 倍，不低于配置的 expectedInsertions</li>
+ * </ul>
+ * 片号为 UTC 纪元时间除以 sliceDuration，各节点独立计算即可对齐。
  */
 public class RedisBloomTaskIdValidator implements TaskIdValidator {
 
     private static final Logger log = LoggerFactory.getLogger(RedisBloomTaskIdValidator.class);
-    
-    private static final String BLOOM_KEY = "file-srv:task:bloom";
-    
-    private final RBloomFilter<String> bloomFilter;
-    
+
+    private static final String BLOOM_KEY_PREFIX = "file-srv:task:bloom:";
+
+    /**
+     * 新片容量相对上一片实际插入量的放大倍数
+     */
+    static final double GROWTH_FACTOR = 1.5;
+
+    /**
+     * 单片容量上限（1% 误判率下约 120MB 位图）
+     */
+    private static final long MAX_EXPECTED_INSERTIONS = 100_000_000L;
+
+    /**
+     * 过期时间余量，容忍节点间时钟偏差
+     */
+    private static final Duration EXPIRE_MARGIN = Duration.ofMinutes(5);
+
+    /**
+     * 默认保留时间：任务过期时间 24 小时 + 已结束任务行保留 7 天
+     */
+    static final Duration DEFAULT_RETENTION = Duration.ofDays(8);
+
+    private final RedissonClient redissonClient;
+    private final long minExpectedInsertions;
+    private final double falsePositiveRate;
+    private final long sliceMillis;
+    private final int activeSlices;
+    private final Clock clock;
+
+    /**
+     * 片号 → 过滤器；查询窗口内不存在的旧片记为 empty，之后不会再被创建
+     */
+    private final ConcurrentMap<Long, Optional<RBloomFilter<String>>> slices = new ConcurrentHashMap<>();
+
     /**
      * 创建分布式布隆过滤器
-     * 
+     *
      * @param redissonClient Redisson 客户端
-     * @param expectedInsertions 预期插入数量
+     * @param expectedInsertions 单片最小预期插入数量
      * @param falsePositiveRate 误判率 (0-1)
+     * @param sliceDuration 分片时长
+     * @param activeSlices 查询的分片数量下限，不足以覆盖 retention 时自动放大
+     * @param retention 注册后 taskId 需保持可查的最长时间（任务过期时间 + 已结束任务行保留时间）
      */
-    public RedisBloomTaskIdValidator(RedissonClient redissonClient, 
-                                     int expectedInsertions, 
+    public RedisBloomTaskIdValidator(RedissonClient redissonClient,
+                                     int expectedInsertions,
+                                     double falsePositiveRate,
+                                     Duration sliceDuration,
+                                     int activeSlices,
+                                     Duration retention) {
+        this(redissonClient, expectedInsertions, falsePositiveRate, sliceDuration, activeSlices, retention,
+                Clock.systemUTC());
+    }
+
+    /**
+     * 按天分片，窗口覆盖默认的 8 天保留时间
+     */
+    public RedisBloomTaskIdValidator(RedissonClient redissonClient,
+                                     int expectedInsertions,
                                      double falsePositiveRate) {
-        this.bloomFilter = redissonClient.getBloomFilter(BLOOM_KEY);
-        
-        // 初始化布隆过滤器（幂等操作，已存在则跳过）
-        if (!bloomFilter.isExists()) {
-            bloomFilter.tryInit(expectedInsertions, falsePositiveRate);
-            log.info("Redis BloomFilter initialized: key={}, expectedInsertions={}, fpp={}", 
-                     BLOOM_KEY, expectedInsertions, falsePositiveRate);
-        } else {
-            log.info("Redis BloomFilter already exists: key={}, count={}", 
-                     BLOOM_KEY, bloomFilter.count());
-        }
+        this(redissonClient, expectedInsertions, falsePositiveRate, Duration.ofDays(1), 2, DEFAULT_RETENTION);
     }
-    
+
     /**
-     * 使用默认配置创建（100万任务，1%误判率）
+     * 使用默认配置创建（每片至少 100 万任务，1%误判率）
      */
     public RedisBloomTaskIdValidator(RedissonClient redissonClient) {
         this(redissonClient, 1_000_000, 0.01);
     }
 
+    RedisBloomTaskIdValidator(RedissonClient redissonClient,
+                              int expectedInsertions,
+                              double falsePositiveRate,
+                              Duration sliceDuration,
+                              int activeSlices,
+                              Duration retention,
+                              Clock clock) {
+        this.redissonClient = redissonClient;
+        this.minExpectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.sliceMillis = sliceDuration.toMillis();
+        this.clock = clock;
+
+        int required = requiredSlices(sliceDuration, retention);
+        if (activeSlices < required) {
+            log.warn("Bloom filter window of {} x {} is shorter than retention {}, querying {} slices instead",
+                    activeSlices, sliceDuration, retention, required);
+        }
+        this.activeSlices = Math.max(activeSlices, required);
+
+        RBloomFilter<String> current = currentFilter();
+        log.info("Redis BloomFilter slices ready: current={}, expectedInsertions={}, fpp={}, slice={}, activeSlices={}",
+                current.getName(), current.getExpectedInsertions(), falsePositiveRate, sliceDuration, this.activeSlices);
+    }
+
+    /**
+     * 覆盖 retention 所需的分片数：注册时刻位于片尾时，retention 之后最多跨过 ⌈retention / slice⌉ 个片边界
+     */
+    static int requiredSlices(Duration sliceDuration, Duration retention) {
+        long sliceMillis = sliceDuration.toMillis();
+        long retentionMillis = retention == null ? 0 : Math.max(0, retention.toMillis());
+        return Math.toIntExact((retentionMillis + sliceMillis - 1) / sliceMillis + 1);
+    }
+
     @Override
     public boolean isValidFormat(String taskId) {
-        if (taskId == null || taskId.isBlank()) {
-            return false;
-        }
-        // UUID 格式校验
-        try {
-            UUID.fromString(taskId);
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
+        // 逐字符校验标准 UUID 格式，非法输入不触发异常
+        return Uuids.isCanonical(taskId);
     }
 
     @Override
@@ -90,9 +172,9 @@ public class RedisBloomTaskIdValidator implements TaskIdValidator {
         if (!isValidFormat(taskId)) {
             return false;
         }
-        
+
         try {
-            return bloomFilter.contains(taskId);
+            return locate(taskId) != null;
         } catch (Exception e) {
             log.error("Failed to check bloom filter: taskId={}", taskId, e);
             // 降级：Redis 故障时，认为可能存在（放行到下一层防护）
@@ -106,9 +188,9 @@ public class RedisBloomTaskIdValidator implements TaskIdValidator {
             log.warn("Invalid taskId format, skip register: {}", taskId);
             return;
         }
-        
+
         try {
-            boolean added = bloomFilter.add(taskId);
+            boolean added = currentFilter().add(taskId);
             if (added) {
                 log.debug("TaskId registered to Redis bloom filter: {}", taskId);
             }
@@ -119,50 +201,148 @@ public class RedisBloomTaskIdValidator implements TaskIdValidator {
     }
 
     /**
-     * 批量注册（使用接口默认方法）
+     * 批量注册
+     * <p>
+     * 整批交给 Redisson 一次性以 pipeline 提交，避免逐个 ID 的网络往返。
      */
     @Override
     public void registerAll(Iterable<String> taskIds) {
         if (taskIds == null) {
             return;
         }
-        
-        int count = 0;
+
+        List<String> valid = new ArrayList<>();
         for (String taskId : taskIds) {
             if (isValidFormat(taskId)) {
-                try {
-                    bloomFilter.add(taskId);
-                    count++;
-                } catch (Exception e) {
-                    log.error("Failed to register taskId in batch: {}", taskId, e);
-                }
+                valid.add(taskId);
             }
         }
-        
-        log.info("Batch registered {} taskIds to Redis bloom filter", count);
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            long added = currentFilter().add(valid);
+            log.info("Batch registered {} taskIds to Redis bloom filter, {} newly added", valid.size(), added);
+        } catch (Exception e) {
+            log.error("Failed to batch register {} taskIds to bloom filter", valid.size(), e);
+        }
+    }
+
+    /**
+     * 查找包含 taskId 的分片过滤器（从新到旧）
+     *
+     * @return 命中的过滤器，均未命中返回 null；Redis 故障时抛出异常
+     */
+    RBloomFilter<String> locate(String taskId) {
+        for (RBloomFilter<String> filter : activeFilters()) {
+            if (filter.contains(taskId)) {
+                return filter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查询窗口内已存在的分片过滤器，从新到旧
+     */
+    List<RBloomFilter<String>> activeFilters() {
+        long current = sliceOf(clock.millis());
+        List<RBloomFilter<String>> filters = new ArrayList<>(activeSlices);
+        filters.add(filterOf(current));
+        for (long slice = current - 1; slice > current - activeSlices; slice--) {
+            slices.computeIfAbsent(slice, this::existing).ifPresent(filters::add);
+        }
+        // 滑出窗口的分片不再需要
+        slices.keySet().removeIf(slice -> slice <= current - activeSlices);
+        return filters;
+    }
+
+    /**
+     * 当前分片过滤器，不存在时按上一片的插入量创建
+     */
+    RBloomFilter<String> currentFilter() {
+        return filterOf(sliceOf(clock.millis()));
+    }
+
+    private RBloomFilter<String> filterOf(long slice) {
+        Optional<RBloomFilter<String>> filter = slices.get(slice);
+        if (filter == null || filter.isEmpty()) {
+            filter = Optional.of(createSlice(slice));
+            slices.put(slice, filter);
+        }
+        return filter.get();
+    }
+
+    private Optional<RBloomFilter<String>> existing(long slice) {
+        RBloomFilter<String> filter = redissonClient.getBloomFilter(BLOOM_KEY_PREFIX + slice);
+        return filter.isExists() ? Optional.of(filter) : Optional.empty();
+    }
+
+    private RBloomFilter<String> createSlice(long slice) {
+        RBloomFilter<String> filter = redissonClient.getBloomFilter(BLOOM_KEY_PREFIX + slice);
+        if (!filter.isExists()) {
+            long expectedInsertions = expectedInsertionsFor(slice);
+            // 多节点并发创建时只有一个成功，其余沿用已创建的参数
+            if (filter.tryInit(expectedInsertions, falsePositiveRate)) {
+                log.info("Redis BloomFilter slice initialized: key={}, expectedInsertions={}, fpp={}",
+                        filter.getName(), expectedInsertions, falsePositiveRate);
+            }
+        }
+        // 过期时刻由片号确定，各节点重复设置结果相同
+        filter.expire(Instant.ofEpochMilli((slice + activeSlices) * sliceMillis).plus(EXPIRE_MARGIN));
+        return filter;
+    }
+
+    /**
+     * 新片容量：上一片实际插入量 × {@value #GROWTH_FACTOR}，不低于配置值
+     */
+    private long expectedInsertionsFor(long slice) {
+        long observed = 0;
+        try {
+            Optional<RBloomFilter<String>> previous = existing(slice - 1);
+            if (previous.isPresent()) {
+                observed = previous.get().count();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read previous bloom filter slice size, using configured capacity", e);
+        }
+        long grown = (long) Math.ceil(observed * GROWTH_FACTOR);
+        return Math.min(MAX_EXPECTED_INSERTIONS, Math.max(minExpectedInsertions, grown));
     }
-    
+
+    private long sliceOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, sliceMillis);
+    }
+
     /**
-     * 获取当前布隆过滤器中的元素数量（近似值）
+     * 获取当前分片中的元素数量（近似值）
      */
     public long getCount() {
         try {
-            return bloomFilter.count();
+            return currentFilter().count();
         } catch (Exception e) {
             log.error("Failed to get bloom filter count", e);
             return -1;
         }
     }
-    
+
     /**
      * 获取布隆过滤器配置信息（用于监控）
      */
     public String getInfo() {
         try {
-            return String.format("BloomFilter[key=%s, count=%d, size=%d]", 
-                               BLOOM_KEY, bloomFilter.count(), bloomFilter.getSize());
+            StringBuilder info = new StringBuilder("BloomFilter[");
+            for (RBloomFilter<String> filter : activeFilters()) {
+                if (info.length() > "BloomFilter[".length()) {
+                    info.append(", ");
+                }
+                info.append(String.format("{key=%s, count=%d, expectedInsertions=%d, size=%d}",
+                        filter.getName(), filter.count(), filter.getExpectedInsertions(), filter.getSize()));
+            }
+            return info.append(']').toString();
         } catch (Exception e) {
-            return String.format("BloomFilter[key=%s, error=%s]", BLOOM_KEY, e.getMessage());
+            return String.format("BloomFilter[keyPrefix=%s, error=%s]", BLOOM_KEY_PREFIX, e.getMessage());
         }
     }
 }
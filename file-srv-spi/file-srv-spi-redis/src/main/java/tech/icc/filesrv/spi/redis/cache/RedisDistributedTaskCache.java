@@ -0,0 +1,147 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Redis 实现的分布式任务缓存
+ * <p>
+ * 存储结构：每个任务一个 Hash（v=版本号，p=快照），通过 Lua 脚本原子地比较版本后写入。
+ * 删除时不直接删除 Key，而是去掉快照、保留版本号作为短期墓碑：删除前读取数据库的旧快照回填时
+ * 版本不高于墓碑，会被拒绝，不会把旧版本重新放回 L2。
+ * 失效通知通过 Redis Pub/Sub 广播，消息格式 {@code instanceId|taskId|version}，
+ * 收到自身发出的消息时直接忽略。
+ */
+public class RedisDistributedTaskCache implements DistributedTaskCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisDistributedTaskCache.class);
+
+    public static final String DEFAULT_KEY_PREFIX = "file-srv:task:cache:";
+
+    public static final String DEFAULT_CHANNEL = "file-srv:task:cache:invalidation";
+
+    public static final Duration DEFAULT_TOMBSTONE_TTL = Duration.ofSeconds(10);
+
+    private static final String FIELD_VERSION = "v";
+    private static final String FIELD_PAYLOAD = "p";
+    private static final String SEPARATOR = "|";
+
+    private static final RedisScript<Long> PUT_IF_NEWER = new DefaultRedisScript<>("""
+            local current = redis.call('HGET', KEYS[1], 'v')
+            if current and tonumber(current) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'v', ARGV[1], 'p', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """, Long.class);
+
+    /**
+     * 去掉快照、保留版本号并缩短过期时间；Key 不存在时没有可保留的版本，不写入
+     */
+    private static final RedisScript<Long> EVICT_TO_TOMBSTONE = new DefaultRedisScript<>("""
+            if redis.call('HEXISTS', KEYS[1], 'v') == 0 then
+                return 0
+            end
+            redis.call('HDEL', KEYS[1], 'p')
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Duration ttl;
+    private final Duration tombstoneTtl;
+    private final String keyPrefix;
+    private final ChannelTopic topic;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public RedisDistributedTaskCache(StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     Duration ttl) {
+        this(redisTemplate, listenerContainer, ttl, DEFAULT_TOMBSTONE_TTL, DEFAULT_KEY_PREFIX, DEFAULT_CHANNEL);
+    }
+
+    public RedisDistributedTaskCache(StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     Duration ttl,
+                                     Duration tombstoneTtl,
+                                     String keyPrefix,
+                                     String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.ttl = ttl;
+        this.tombstoneTtl = tombstoneTtl;
+        this.keyPrefix = keyPrefix;
+        this.topic = new ChannelTopic(channel);
+        log.info("RedisDistributedTaskCache initialized: ttl={}, tombstoneTtl={}, keyPrefix={}, channel={}, instanceId={}",
+                ttl, tombstoneTtl, keyPrefix, channel, instanceId);
+    }
+
+    @Override
+    public Optional<Entry> get(String taskId) {
+        List<Object> values = redisTemplate.opsForHash()
+                .multiGet(buildKey(taskId), List.of(FIELD_VERSION, FIELD_PAYLOAD));
+        if (values == null || values.size() < 2 || values.get(0) == null || values.get(1) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Entry(Long.parseLong((String) values.get(0)), (String) values.get(1)));
+    }
+
+    @Override
+    public boolean putIfNewer(String taskId, long version, String payload) {
+        Long result = redisTemplate.execute(PUT_IF_NEWER, List.of(buildKey(taskId)),
+                String.valueOf(version), payload, String.valueOf(ttl.toMillis()));
+        boolean written = Long.valueOf(1L).equals(result);
+        if (!written) {
+            log.debug("Stale task snapshot ignored by Redis: taskId={}, version={}", taskId, version);
+        }
+        return written;
+    }
+
+    @Override
+    public void evict(String taskId) {
+        redisTemplate.execute(EVICT_TO_TOMBSTONE, List.of(buildKey(taskId)), String.valueOf(tombstoneTtl.toMillis()));
+    }
+
+    @Override
+    public void publishInvalidation(String taskId, long version) {
+        redisTemplate.convertAndSend(topic.getTopic(), instanceId + SEPARATOR + taskId + SEPARATOR + version);
+    }
+
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            String[] parts = body.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                log.warn("Malformed task cache invalidation message: {}", body);
+                return;
+            }
+            if (instanceId.equals(parts[0])) {
+                return;
+            }
+            try {
+                listener.onInvalidate(parts[1], Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply task cache invalidation: {}", body, e);
+            }
+        }, topic);
+    }
+
+    private String buildKey(String taskId) {
+        return keyPrefix + taskId;
+    }
+}
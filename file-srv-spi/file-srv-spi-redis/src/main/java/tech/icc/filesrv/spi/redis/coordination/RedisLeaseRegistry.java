@@ -0,0 +1,79 @@
+package tech.icc.filesrv.spi.redis.coordination;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import tech.icc.filesrv.common.spi.coordination.LeaseRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Redis 实现的租约注册表
+ * <p>
+ * 每个租约一个 key，值为持有者，过期由 Redis TTL 控制（不依赖节点时钟）。
+ * 获取/续约和释放通过 Lua 脚本比较持有者后原子执行，避免误续或误删其它节点的租约。
+ */
+public class RedisLeaseRegistry implements LeaseRegistry {
+
+    private static final String KEY_PREFIX = "file-srv:lease:";
+
+    /**
+     * 空闲或已由自己持有时写入并设置过期时间
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if (not current) or current == ARGV[1] then " +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "  return 1 " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 仅删除自己持有的租约
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisLeaseRegistry(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire(String name, String holder, Duration ttl) {
+        Long result = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(KEY_PREFIX + name),
+                holder, String.valueOf(ttl.toMillis()));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public void release(String name, String holder) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + name), holder);
+    }
+
+    @Override
+    public List<String> activeHolders(String namePrefix) {
+        List<String> keys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + namePrefix + "*").count(100).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(keys::add);
+        }
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<String> holders = redisTemplate.opsForValue().multiGet(keys);
+        // SCAN 与 MGET 之间过期的 key 返回 null
+        return holders == null ? List.of() : holders.stream().filter(Objects::nonNull).toList();
+    }
+}
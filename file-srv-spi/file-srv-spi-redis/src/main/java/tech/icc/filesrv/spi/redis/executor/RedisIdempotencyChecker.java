@@ -1,16 +1,38 @@
 package tech.icc.filesrv.spi.redis.executor;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import tech.icc.filesrv.common.spi.executor.IdempotencyChecker;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Redis 实现的幂等检查器
  * <p>
- * 使用 Redis SET NX 命令实现幂等检查。
+ * 使用 Redis SET NX EX 命令原子地认领消息：
+ * <ul>
+ *   <li>认领时写入本实例的认领标记（{@value #CLAIMED} 前缀 + 实例 ID），处理完成后覆盖为 {@value #PROCESSED}
+ *       并延长保留时间</li>
+ *   <li>批量认领通过 pipeline 在一次网络往返内完成</li>
+ *   <li>续期只延长本实例持有的认领；认领已过期时重新认领，已被其他实例认领或已处理时失败</li>
+ *   <li>释放只删除本实例仍持有的认领，已处理完成的标记及其他实例的认领不受影响</li>
+ *   <li>本节点最近处理完成的消息记录在本地短期缓存中，重投递时无需访问 Redis</li>
+ * </ul>
  */
 public class RedisIdempotencyChecker implements IdempotencyChecker {
 
@@ -18,14 +40,55 @@ public class RedisIdempotencyChecker implements IdempotencyChecker {
 
     private static final String KEY_PREFIX = "file-srv:callback:idempotency:";
 
+    private static final String CLAIMED = "0";
+    private static final String PROCESSED = "1";
+
+    private static final Duration DEFAULT_LOCAL_TTL = Duration.ofMinutes(5);
+    private static final long DEFAULT_LOCAL_MAX_SIZE = 100_000;
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('get', KEYS[1])
+            if current == ARGV[1] then
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                return 1
+            end
+            if not current then
+                redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
     private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Boolean> recentlyProcessed;
+    private final String claimToken = CLAIMED + ":" + UUID.randomUUID();
 
     public RedisIdempotencyChecker(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, DEFAULT_LOCAL_TTL, DEFAULT_LOCAL_MAX_SIZE);
+    }
+
+    /**
+     * @param redisTemplate Redis 模板
+     * @param localTtl      本地缓存保留时间（应远小于 Redis 中的保留时间）
+     * @param localMaxSize  本地缓存最大条目数
+     */
+    public RedisIdempotencyChecker(StringRedisTemplate redisTemplate, Duration localTtl, long localMaxSize) {
         this.redisTemplate = redisTemplate;
+        this.recentlyProcessed = Caffeine.newBuilder()
+                .expireAfterWrite(localTtl)
+                .maximumSize(localMaxSize)
+                .build();
     }
 
     @Override
     public boolean isDuplicate(String messageId) {
+        if (recentlyProcessed.getIfPresent(messageId) != null) {
+            return true;
+        }
         String key = buildKey(messageId);
         Boolean exists = redisTemplate.hasKey(key);
         boolean duplicate = Boolean.TRUE.equals(exists);
@@ -40,10 +103,65 @@ public class RedisIdempotencyChecker implements IdempotencyChecker {
     @Override
     public void markProcessed(String messageId, Duration ttl) {
         String key = buildKey(messageId);
-        redisTemplate.opsForValue().set(key, "1", ttl);
+        redisTemplate.opsForValue().set(key, PROCESSED, ttl);
+        recentlyProcessed.put(messageId, Boolean.TRUE);
         log.debug("Message marked as processed: messageId={}, ttl={}", messageId, ttl);
     }
 
+    @Override
+    public boolean tryClaim(String messageId, Duration ttl) {
+        if (recentlyProcessed.getIfPresent(messageId) != null) {
+            return false;
+        }
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(buildKey(messageId), claimToken, ttl);
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    @Override
+    public Set<String> tryClaimAll(Collection<String> messageIds, Duration ttl) {
+        List<String> candidates = new ArrayList<>(messageIds.size());
+        for (String messageId : messageIds) {
+            if (recentlyProcessed.getIfPresent(messageId) == null) {
+                candidates.add(messageId);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+
+        Expiration expiration = Expiration.from(ttl);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String messageId : candidates) {
+                stringConnection.set(buildKey(messageId), claimToken, expiration, SetOption.SET_IF_ABSENT);
+            }
+            return null;
+        });
+
+        Set<String> claimed = new LinkedHashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                claimed.add(candidates.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public boolean renewClaim(String messageId, Duration ttl) {
+        if (recentlyProcessed.getIfPresent(messageId) != null) {
+            return false;
+        }
+        Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(buildKey(messageId)),
+                claimToken, String.valueOf(ttl.toMillis()));
+        return Long.valueOf(1L).equals(renewed);
+    }
+
+    @Override
+    public void release(String messageId) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(buildKey(messageId)), claimToken);
+    }
+
     private String buildKey(String messageId) {
         return KEY_PREFIX + messageId;
     }
@@ -0,0 +1,142 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.RedissonBloomFilter;
+import org.redisson.api.RBitSet;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import tech.icc.filesrv.common.utils.Uuids;
+
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 本地副本的位布局必须与 RedissonBloomFilter 一致：位下标直接取自 Redisson 自身的哈希与下标展开
+ */
+@ExtendWith(MockitoExtension.class)
+class LayeredTaskIdValidatorTest {
+
+    private static final String SLICE = "file-srv:task:bloom:20000";
+    private static final long SIZE = 9_585_059L;
+    private static final int HASH_ITERATIONS = 7;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RedisBloomTaskIdValidator remote;
+
+    @Mock
+    private RTopic topic;
+
+    @Mock
+    private RBitSet bitSet;
+
+    private RedissonBloomFilter<String> filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // 只替换网络相关的方法，哈希与下标计算走 Redisson 的真实实现
+        filter = mock(RedissonBloomFilter.class);
+        when(filter.getName()).thenReturn(SLICE);
+        when(filter.getSize()).thenReturn(SIZE);
+        when(filter.getHashIterations()).thenReturn(HASH_ITERATIONS);
+        when(filter.getCodec()).thenReturn(StringCodec.INSTANCE);
+        when(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE))).thenReturn(topic);
+        when(redissonClient.getBitSet(SLICE)).thenReturn(bitSet);
+        when(remote.isValidFormat(anyString())).thenAnswer(inv -> Uuids.isCanonical(inv.<String>getArgument(0)));
+        when(remote.activeFilters()).thenReturn(List.of(filter));
+    }
+
+    @Test
+    void shouldHitLocallyForIdsWhoseBitsRedissonSet() throws Exception {
+        String registered = UUID.randomUUID().toString();
+        BitSet bits = new BitSet();
+        for (long index : redissonIndexes(registered)) {
+            bits.set((int) index);
+        }
+        when(bitSet.asBitSet()).thenReturn(bits);
+
+        LayeredTaskIdValidator validator = new LayeredTaskIdValidator(redissonClient, remote);
+
+        assertThat(validator.mightExist(registered)).isTrue();
+        verify(remote, never()).locate(anyString());
+    }
+
+    @Test
+    void shouldFallBackToRedisForIdsMissingLocally() throws Exception {
+        String registered = UUID.randomUUID().toString();
+        String unknown = UUID.randomUUID().toString();
+        BitSet bits = new BitSet();
+        for (long index : redissonIndexes(registered)) {
+            bits.set((int) index);
+        }
+        when(bitSet.asBitSet()).thenReturn(bits);
+        when(remote.locate(unknown)).thenReturn(null);
+
+        LayeredTaskIdValidator validator = new LayeredTaskIdValidator(redissonClient, remote);
+
+        assertThat(validator.mightExist(unknown)).isFalse();
+        verify(remote).locate(unknown);
+    }
+
+    @Test
+    void shouldSetSameBitsAsRedissonWhenCachingRemoteHit() throws Exception {
+        String registered = UUID.randomUUID().toString();
+        when(bitSet.asBitSet()).thenReturn(new BitSet());
+        when(remote.locate(registered)).thenReturn(filter);
+
+        LayeredTaskIdValidator validator = new LayeredTaskIdValidator(redissonClient, remote);
+
+        assertThat(validator.mightExist(registered)).isTrue();
+        assertThat(validator.mightExist(registered)).isTrue();
+        // 第二次由本地副本命中
+        verify(remote).locate(registered);
+    }
+
+    @Test
+    void shouldAlwaysAskRedisWhenSliceSizeIsUnknown() {
+        String taskId = UUID.randomUUID().toString();
+        when(filter.getSize()).thenReturn(0L);
+        when(bitSet.asBitSet()).thenReturn(new BitSet());
+        when(remote.locate(taskId)).thenReturn(filter);
+
+        LayeredTaskIdValidator validator = new LayeredTaskIdValidator(redissonClient, remote);
+
+        assertThat(validator.mightExist(taskId)).isTrue();
+        assertThat(validator.mightExist(taskId)).isTrue();
+        verify(remote, times(2)).locate(taskId);
+    }
+
+    /**
+     * 调用 RedissonBloomFilter 的私有 hash 方法，得到 Redisson 写入 Redis 的位下标
+     */
+    private long[] redissonIndexes(String taskId) throws Exception {
+        when(filter.encode(taskId)).thenAnswer(inv -> StringCodec.INSTANCE.getValueEncoder().encode(taskId));
+        Method hashValue = RedissonBloomFilter.class.getDeclaredMethod("hash", Object.class);
+        hashValue.setAccessible(true);
+        long[] hashes = (long[]) hashValue.invoke(filter, taskId);
+        Method indexes = RedissonBloomFilter.class.getDeclaredMethod(
+                "hash", long.class, long.class, int.class, long.class);
+        indexes.setAccessible(true);
+        return (long[]) indexes.invoke(filter, hashes[0], hashes[1], HASH_ITERATIONS, SIZE);
+    }
+}
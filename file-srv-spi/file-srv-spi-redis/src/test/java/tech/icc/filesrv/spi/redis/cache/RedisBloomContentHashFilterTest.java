@@ -0,0 +1,196 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBuckets;
+import org.redisson.api.RedissonClient;
+import tech.icc.filesrv.common.spi.cache.ContentHashFilter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBloomContentHashFilterTest {
+
+    private static final String PREFIX = "file-srv:content:bloom:";
+    private static final String CURRENT = PREFIX + "current";
+    private static final String BUILDING = PREFIX + "building";
+    private static final String PREVIOUS = PREFIX + "previous";
+
+    private static final Duration POINTER_REFRESH = Duration.ofMillis(200);
+    private static final Duration GRACE = Duration.ofSeconds(5);
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBuckets buckets;
+
+    @Mock
+    private RBucket<String> currentPointer;
+
+    @Mock
+    private RBucket<String> buildingPointer;
+
+    @Mock
+    private RBucket<String> previousPointer;
+
+    @Mock
+    private RBloomFilter<String> genA;
+
+    @Mock
+    private RBloomFilter<String> genB;
+
+    private RedisBloomContentHashFilter filter() {
+        return new RedisBloomContentHashFilter(redissonClient, POINTER_REFRESH, GRACE);
+    }
+
+    @Test
+    void shouldRequireGraceLongerThanPointerCache() {
+        assertThatThrownBy(() -> new RedisBloomContentHashFilter(redissonClient, GRACE, POINTER_REFRESH))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldWriteToEveryLiveGeneration() {
+        Map<String, String> pointers = new HashMap<>();
+        pointers.put(CURRENT, "a");
+        pointers.put(PREVIOUS, "b");
+        when(redissonClient.getBuckets()).thenReturn(buckets);
+        when(buckets.<String>get(CURRENT, BUILDING, PREVIOUS)).thenReturn(pointers);
+        stubBloom("a", genA);
+        stubBloom("b", genB);
+
+        filter().add("h1");
+
+        verify(genA).add("h1");
+        verify(genB).add("h1");
+    }
+
+    @Test
+    void shouldCacheCurrentPointerForRefreshInterval() {
+        stubPointer(CURRENT, currentPointer);
+        when(currentPointer.get()).thenReturn("a");
+        stubBloom("a", genA);
+        RedisBloomContentHashFilter filter =
+                new RedisBloomContentHashFilter(redissonClient, Duration.ofMinutes(1), Duration.ofMinutes(2));
+
+        assertThat(filter.mightContain("h1")).isFalse();
+        assertThat(filter.mightContain("h2")).isFalse();
+
+        verify(currentPointer, times(1)).get();
+    }
+
+    @Test
+    void shouldRereadCurrentPointerAfterRefreshInterval() throws InterruptedException {
+        stubPointer(CURRENT, currentPointer);
+        when(currentPointer.get()).thenReturn("a", "b");
+        stubBloom("a", genA);
+        stubBloom("b", genB);
+        when(genB.contains("h1")).thenReturn(true);
+        RedisBloomContentHashFilter filter =
+                new RedisBloomContentHashFilter(redissonClient, Duration.ofMillis(1), Duration.ofSeconds(1));
+
+        assertThat(filter.mightContain("h1")).isFalse();
+        Thread.sleep(5);
+
+        assertThat(filter.mightContain("h1")).isTrue();
+    }
+
+    @Test
+    void shouldTreatMissingGenerationAsNotReady() {
+        stubPointer(CURRENT, currentPointer);
+        RedisBloomContentHashFilter filter = filter();
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("h1")).isTrue();
+        assertThat(filter.approximateSize()).isEqualTo(-1);
+        verify(redissonClient, never()).getBloomFilter(anyString());
+    }
+
+    @Test
+    void shouldAnswerMaybeWhenRedisFails() {
+        when(redissonClient.getBucket(CURRENT)).thenThrow(new IllegalStateException("redis down"));
+        RedisBloomContentHashFilter filter = filter();
+
+        assertThat(filter.mightContain("h1")).isTrue();
+        assertThat(filter.isReady()).isFalse();
+    }
+
+    @Test
+    void shouldKeepPreviousGenerationForGracePeriodOnCommit() {
+        stubPointer(CURRENT, currentPointer);
+        stubPointer(BUILDING, buildingPointer);
+        stubPointer(PREVIOUS, previousPointer);
+        when(redissonClient.getBloomFilter(anyString())).thenAnswer(inv ->
+                inv.getArgument(0, String.class).equals(PREFIX + "a") ? genA : genB);
+        RedisBloomContentHashFilter filter = filter();
+
+        ContentHashFilter.Rebuild rebuild = filter.rebuild(1000, 0.01);
+        rebuild.addAll(List.of("h1", "h2"));
+        when(currentPointer.getAndSet(anyString())).thenReturn("a");
+        rebuild.commit();
+
+        verify(genB).tryInit(1000, 0.01);
+        verify(genB).add(List.of("h1", "h2"));
+        verify(buildingPointer).set(anyString());
+        verify(previousPointer).set("a", GRACE);
+        verify(genA).expire(GRACE);
+        verify(buildingPointer).delete();
+
+        // 本节点切换后立即使用新一代，不等指针缓存过期
+        when(genB.contains("h3")).thenReturn(false);
+        assertThat(filter.mightContain("h3")).isFalse();
+        verify(currentPointer, never()).get();
+    }
+
+    @Test
+    void shouldDropNewGenerationOnAbort() {
+        stubPointer(BUILDING, buildingPointer);
+        when(redissonClient.getBloomFilter(anyString())).thenAnswer(inv -> genB);
+
+        ContentHashFilter.Rebuild rebuild = filter().rebuild(1000, 0.01);
+        rebuild.abort();
+
+        verify(buildingPointer).delete();
+        verify(genB).delete();
+    }
+
+    @Test
+    void shouldWaitForOtherNodesPointerCacheOnInvalidate() {
+        stubPointer(CURRENT, currentPointer);
+        when(currentPointer.getAndDelete()).thenReturn("a");
+        stubBloom("a", genA);
+        RedisBloomContentHashFilter filter = filter();
+
+        long start = System.nanoTime();
+        filter.invalidate();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(POINTER_REFRESH.toMillis());
+        verify(genA).expire(GRACE);
+        assertThat(filter.isReady()).isFalse();
+    }
+
+    private void stubPointer(String key, RBucket<String> bucket) {
+        when(redissonClient.<String>getBucket(key)).thenReturn(bucket);
+    }
+
+    private void stubBloom(String generation, RBloomFilter<String> bloom) {
+        when(redissonClient.<String>getBloomFilter(PREFIX + generation)).thenReturn(bloom);
+    }
+}
@@ -0,0 +1,194 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RedissonClient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisBloomTaskIdValidatorTest {
+
+    private static final String PREFIX = "file-srv:task:bloom:";
+    private static final Duration SLICE = Duration.ofDays(1);
+    private static final int ACTIVE_SLICES = 3;
+    private static final int MIN_INSERTIONS = 1_000_000;
+    private static final double FPP = 0.01;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBloomFilter<String> current;
+
+    @Mock
+    private RBloomFilter<String> previous;
+
+    @Mock
+    private RBloomFilter<String> older;
+
+    private long slice;
+
+    @BeforeEach
+    void setUp() {
+        slice = Math.floorDiv(System.currentTimeMillis(), SLICE.toMillis());
+        stubSlice(slice, current);
+    }
+
+    @Test
+    void shouldGrowNewSliceFromPreviousSliceCount() {
+        stubSlice(slice - 1, previous);
+        when(previous.isExists()).thenReturn(true);
+        when(previous.count()).thenReturn(2_000_000L);
+
+        newValidator();
+
+        verify(current).tryInit((long) Math.ceil(2_000_000L * RedisBloomTaskIdValidator.GROWTH_FACTOR), FPP);
+    }
+
+    @Test
+    void shouldNotSizeNewSliceBelowConfiguredCapacity() {
+        stubSlice(slice - 1, previous);
+        when(previous.isExists()).thenReturn(true);
+        when(previous.count()).thenReturn(100L);
+
+        newValidator();
+
+        verify(current).tryInit(MIN_INSERTIONS, FPP);
+    }
+
+    @Test
+    void shouldKeepExistingSliceParameters() {
+        when(current.isExists()).thenReturn(true);
+
+        newValidator();
+
+        verify(current, never()).tryInit(anyLong(), anyDouble());
+        verify(redissonClient, never()).getBloomFilter(PREFIX + (slice - 1));
+    }
+
+    @Test
+    void shouldExpireSliceAtFixedInstantAfterLeavingWindow() {
+        when(current.isExists()).thenReturn(true);
+
+        newValidator();
+
+        Instant leavesWindow = Instant.ofEpochMilli((slice + ACTIVE_SLICES) * SLICE.toMillis());
+        verify(current).expire(leavesWindow.plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void shouldQueryExistingSlicesInWindowNewestFirstAndRememberMissingOnes() {
+        when(current.isExists()).thenReturn(true);
+        stubSlice(slice - 1, previous);
+        when(previous.isExists()).thenReturn(true);
+        stubSlice(slice - 2, older);
+        when(older.isExists()).thenReturn(false);
+        RedisBloomTaskIdValidator validator = newValidator();
+
+        List<RBloomFilter<String>> first = validator.activeFilters();
+        List<RBloomFilter<String>> second = validator.activeFilters();
+
+        assertThat(first).containsExactly(current, previous);
+        assertThat(second).containsExactly(current, previous);
+        // 缺失的旧片记为 empty，不会重复查询，也不会被创建
+        verify(redissonClient, times(1)).getBloomFilter(PREFIX + (slice - 2));
+        verify(older, never()).tryInit(anyLong(), anyDouble());
+        verify(redissonClient, never()).getBloomFilter(PREFIX + (slice - ACTIVE_SLICES));
+    }
+
+    @Test
+    void shouldWidenWindowToCoverRetention() {
+        when(current.isExists()).thenReturn(true);
+
+        new RedisBloomTaskIdValidator(redissonClient, MIN_INSERTIONS, FPP, SLICE, 2, Duration.ofDays(8));
+
+        // ⌈8d / 1d⌉ + 1 = 9 个分片
+        Instant leavesWindow = Instant.ofEpochMilli((slice + 9) * SLICE.toMillis());
+        verify(current).expire(leavesWindow.plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void shouldStillFindTaskRegisteredJustUnderRetentionAgo() {
+        Duration retention = Duration.ofDays(8);
+        String taskId = UUID.randomUUID().toString();
+        // 最坏情况：在分片的最后一毫秒注册
+        MutableClock clock = new MutableClock((slice + 1) * SLICE.toMillis() - 1);
+        RedisBloomTaskIdValidator validator = new RedisBloomTaskIdValidator(
+                redissonClient, MIN_INSERTIONS, FPP, SLICE, 2, retention, clock);
+        validator.register(taskId);
+        verify(current).add(taskId);
+        when(current.contains(taskId)).thenReturn(true);
+
+        clock.advance(retention.minusMinutes(1));
+        int laterSlices = RedisBloomTaskIdValidator.requiredSlices(SLICE, retention) - 1;
+        for (int i = 1; i <= laterSlices; i++) {
+            RBloomFilter<String> empty = mock(RBloomFilter.class);
+            stubSlice(slice + i, empty);
+        }
+
+        assertThat(validator.mightExist(taskId)).isTrue();
+        assertThat(validator.locate(taskId)).isSameAs(current);
+    }
+
+    private void stubSlice(long index, RBloomFilter<String> filter) {
+        when(redissonClient.<String>getBloomFilter(PREFIX + index)).thenReturn(filter);
+    }
+
+    private RedisBloomTaskIdValidator newValidator() {
+        return new RedisBloomTaskIdValidator(redissonClient, MIN_INSERTIONS, FPP, SLICE, ACTIVE_SLICES,
+                SLICE.multipliedBy(ACTIVE_SLICES - 1));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 在真实 Redis 上执行 Lua 脚本（版本比较写入、墓碑删除），无 Docker 环境时跳过
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisDistributedTaskCacheScriptTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final Duration TOMBSTONE_TTL = Duration.ofMillis(500);
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisDistributedTaskCache cache;
+    private String prefix;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        prefix = "test:" + UUID.randomUUID() + ":";
+        cache = new RedisDistributedTaskCache(redisTemplate, mock(RedisMessageListenerContainer.class),
+                TTL, TOMBSTONE_TTL, prefix, "test:invalidation");
+    }
+
+    @Test
+    void shouldOnlyAcceptStrictlyNewerVersions() {
+        assertThat(cache.putIfNewer("task-1", 5, "v5")).isTrue();
+        assertThat(cache.putIfNewer("task-1", 4, "v4")).isFalse();
+        assertThat(cache.putIfNewer("task-1", 5, "v5-again")).isFalse();
+        assertThat(cache.putIfNewer("task-1", 6, "v6")).isTrue();
+
+        assertThat(cache.get("task-1")).contains(new DistributedTaskCache.Entry(6, "v6"));
+        assertThat(redisTemplate.getExpire(prefix + "task-1", TimeUnit.MILLISECONDS)).isGreaterThan(TOMBSTONE_TTL.toMillis());
+    }
+
+    @Test
+    void shouldRejectStaleReadThroughAfterEvict() {
+        cache.putIfNewer("task-1", 5, "v5");
+
+        cache.evict("task-1");
+
+        assertThat(cache.get("task-1")).isEmpty();
+        assertThat(cache.putIfNewer("task-1", 5, "v5")).isFalse();
+        assertThat(cache.putIfNewer("task-1", 4, "v4")).isFalse();
+        assertThat(cache.putIfNewer("task-1", 6, "v6")).isTrue();
+        assertThat(cache.get("task-1")).contains(new DistributedTaskCache.Entry(6, "v6"));
+        assertThat(redisTemplate.getExpire(prefix + "task-1", TimeUnit.MILLISECONDS)).isGreaterThan(TOMBSTONE_TTL.toMillis());
+    }
+
+    @Test
+    void shouldExpireTombstone() {
+        cache.putIfNewer("task-1", 5, "v5");
+        cache.evict("task-1");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !Boolean.TRUE.equals(redisTemplate.hasKey(prefix + "task-1")));
+
+        assertThat(cache.putIfNewer("task-1", 5, "v5")).isTrue();
+    }
+
+    @Test
+    void shouldNotCreateTombstoneForMissingKey() {
+        cache.evict("task-1");
+
+        assertThat(redisTemplate.hasKey(prefix + "task-1")).isFalse();
+    }
+}
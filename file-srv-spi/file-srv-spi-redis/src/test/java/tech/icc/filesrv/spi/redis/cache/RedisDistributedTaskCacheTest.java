@@ -0,0 +1,136 @@
+package tech.icc.filesrv.spi.redis.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import tech.icc.filesrv.common.spi.cache.DistributedTaskCache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisDistributedTaskCacheTest {
+
+    private static final String PREFIX = "file-srv:task:cache:";
+    private static final String CHANNEL = "file-srv:task:cache:invalidation";
+    private static final String KEY = PREFIX + "task-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private RedisDistributedTaskCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RedisDistributedTaskCache(redisTemplate, listenerContainer,
+                Duration.ofMinutes(5), Duration.ofSeconds(10), PREFIX, CHANNEL);
+    }
+
+    @Test
+    void shouldReportWriteOnlyWhenScriptAcceptsVersion() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), eq("5"), eq("{}"), eq("300000")))
+                .thenReturn(1L, 0L);
+
+        assertThat(cache.putIfNewer("task-1", 5, "{}")).isTrue();
+        assertThat(cache.putIfNewer("task-1", 5, "{}")).isFalse();
+    }
+
+    @Test
+    void shouldEvictToTombstoneInsteadOfDeleting() {
+        cache.evict("task-1");
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), eq("10000"));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void shouldTreatTombstoneAsMiss() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(KEY, List.of("v", "p"))).thenReturn(Arrays.asList("5", null));
+
+        assertThat(cache.get("task-1")).isEmpty();
+    }
+
+    @Test
+    void shouldReadVersionedSnapshot() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.multiGet(KEY, List.of("v", "p"))).thenReturn(List.of("5", "{}"));
+
+        assertThat(cache.get("task-1")).contains(new DistributedTaskCache.Entry(5, "{}"));
+    }
+
+    @Test
+    void shouldParseInvalidationFromOtherInstance() {
+        List<String> received = new ArrayList<>();
+        MessageListener listener = subscribe(received);
+
+        listener.onMessage(message("other-instance|task-1|7"), null);
+
+        assertThat(received).containsExactly("task-1@7");
+    }
+
+    @Test
+    void shouldIgnoreOwnInvalidation() {
+        List<String> received = new ArrayList<>();
+        MessageListener listener = subscribe(received);
+
+        cache.publishInvalidation("task-1", Long.MAX_VALUE);
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), body.capture());
+        assertThat(body.getValue()).endsWith("|task-1|" + Long.MAX_VALUE);
+
+        listener.onMessage(message(body.getValue()), null);
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void shouldDropMalformedInvalidation() {
+        List<String> received = new ArrayList<>();
+        MessageListener listener = subscribe(received);
+
+        listener.onMessage(message("other-instance|task-1"), null);
+        listener.onMessage(message("other-instance|task|1|7"), null);
+        listener.onMessage(message("other-instance|task-1|not-a-version"), null);
+
+        assertThat(received).isEmpty();
+    }
+
+    private MessageListener subscribe(List<String> received) {
+        cache.subscribe((taskId, version) -> received.add(taskId + "@" + version));
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), eq(new ChannelTopic(CHANNEL)));
+        return listener.getValue();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
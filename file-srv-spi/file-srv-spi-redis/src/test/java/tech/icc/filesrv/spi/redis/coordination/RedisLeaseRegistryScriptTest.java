@@ -0,0 +1,100 @@
+package tech.icc.filesrv.spi.redis.coordination;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 在真实 Redis 上执行租约获取、释放脚本和 SCAN + MGET 查询，无 Docker 环境时跳过
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisLeaseRegistryScriptTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final RedisLeaseRegistry registry = new RedisLeaseRegistry(redisTemplate);
+    private String scope;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        scope = UUID.randomUUID() + ":";
+    }
+
+    @Test
+    void shouldRenewOwnLeaseAndKeepOthersOut() {
+        String leader = scope + "leader";
+        assertThat(registry.tryAcquire(leader, "node-a", Duration.ofSeconds(5))).isTrue();
+
+        assertThat(registry.tryAcquire(leader, "node-a", TTL)).isTrue();
+        assertThat(registry.tryAcquire(leader, "node-b", TTL)).isFalse();
+
+        assertThat(redisTemplate.getExpire("file-srv:lease:" + leader, TimeUnit.SECONDS)).isGreaterThan(5);
+    }
+
+    @Test
+    void shouldTakeOverAfterExpiry() {
+        String leader = scope + "leader";
+        registry.tryAcquire(leader, "node-a", Duration.ofMillis(200));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> registry.tryAcquire(leader, "node-b", TTL));
+
+        assertThat(registry.tryAcquire(leader, "node-a", TTL)).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreReleaseByNonHolder() {
+        String leader = scope + "leader";
+        registry.tryAcquire(leader, "node-a", TTL);
+
+        registry.release(leader, "node-b");
+        assertThat(registry.tryAcquire(leader, "node-b", TTL)).isFalse();
+
+        registry.release(leader, "node-a");
+        assertThat(registry.tryAcquire(leader, "node-b", TTL)).isTrue();
+    }
+
+    @Test
+    void shouldListLiveHoldersUnderPrefixOnly() {
+        registry.tryAcquire(scope + "member:node-a", "node-a", TTL);
+        registry.tryAcquire(scope + "member:node-b", "node-b", Duration.ofMillis(100));
+        registry.tryAcquire(scope + "leader", "node-c", TTL);
+
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> registry.activeHolders(scope + "member:").equals(List.of("node-a")));
+        assertThat(registry.activeHolders(scope + "leader")).containsExactly("node-c");
+    }
+}
@@ -0,0 +1,111 @@
+package tech.icc.filesrv.spi.redis.coordination;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisLeaseRegistryTest {
+
+    private static final String PREFIX = "file-srv:lease:";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    private RedisLeaseRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new RedisLeaseRegistry(redisTemplate);
+    }
+
+    @Test
+    void shouldPassHolderAndTtlToAcquireScript() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PREFIX + "maintenance:leader:gc")),
+                eq("node-a"), eq("30000"))).thenReturn(1L, 0L);
+
+        assertThat(registry.tryAcquire("maintenance:leader:gc", "node-a", Duration.ofSeconds(30))).isTrue();
+        assertThat(registry.tryAcquire("maintenance:leader:gc", "node-a", Duration.ofSeconds(30))).isFalse();
+    }
+
+    @Test
+    void shouldTreatMissingScriptResultAsNotAcquired() {
+        assertThat(registry.tryAcquire("maintenance:leader:gc", "node-a", Duration.ofSeconds(30))).isFalse();
+    }
+
+    @Test
+    void shouldReleaseWithHolderComparison() {
+        registry.release("maintenance:leader:gc", "node-b");
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PREFIX + "maintenance:leader:gc")), eq("node-b"));
+    }
+
+    @Test
+    void shouldScanOnlyKeysUnderPrefix() {
+        stubScan(List.of(PREFIX + "maintenance:member:node-a"));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of(PREFIX + "maintenance:member:node-a"))).thenReturn(List.of("node-a"));
+
+        assertThat(registry.activeHolders("maintenance:member:")).containsExactly("node-a");
+
+        ArgumentCaptor<ScanOptions> options = ArgumentCaptor.forClass(ScanOptions.class);
+        verify(redisTemplate).scan(options.capture());
+        assertThat(options.getValue().getPattern()).isEqualTo(PREFIX + "maintenance:member:*");
+        verify(cursor).close();
+    }
+
+    @Test
+    void shouldDropKeysExpiredBetweenScanAndGet() {
+        List<String> keys = List.of(PREFIX + "maintenance:member:node-a", PREFIX + "maintenance:member:node-b");
+        stubScan(keys);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(keys)).thenReturn(Arrays.asList(null, "node-b"));
+
+        assertThat(registry.activeHolders("maintenance:member:")).containsExactly("node-b");
+    }
+
+    @Test
+    void shouldSkipGetWhenNoKeysMatch() {
+        stubScan(List.of());
+
+        assertThat(registry.activeHolders("maintenance:member:")).isEmpty();
+
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScan(List<String> keys) {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        doAnswer(inv -> {
+            keys.forEach(inv.getArgument(0, Consumer.class));
+            return null;
+        }).when(cursor).forEachRemaining(any());
+    }
+}
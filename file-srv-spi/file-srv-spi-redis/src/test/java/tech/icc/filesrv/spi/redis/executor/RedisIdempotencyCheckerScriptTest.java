@@ -0,0 +1,107 @@
+package tech.icc.filesrv.spi.redis.executor;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 在真实 Redis 上执行认领、续期与释放脚本，无 Docker 环境时跳过
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisIdempotencyCheckerScriptTest {
+
+    private static final String PREFIX = "file-srv:callback:idempotency:";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final RedisIdempotencyChecker checker = new RedisIdempotencyChecker(redisTemplate);
+    private final RedisIdempotencyChecker otherNode = new RedisIdempotencyChecker(redisTemplate);
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void shouldClaimEachMessageOnceAcrossNodes() {
+        String a = newId();
+        String b = newId();
+        assertThat(otherNode.tryClaim(b, TTL)).isTrue();
+
+        assertThat(checker.tryClaimAll(List.of(a, b), TTL)).containsExactly(a);
+        assertThat(otherNode.tryClaimAll(List.of(a, b), TTL)).isEmpty();
+    }
+
+    @Test
+    void shouldReleaseOnlyOwnUnfinishedClaim() {
+        String released = newId();
+        String foreign = newId();
+        String processed = newId();
+        checker.tryClaim(released, TTL);
+        otherNode.tryClaim(foreign, TTL);
+        checker.tryClaim(processed, TTL);
+        checker.markProcessed(processed, TTL);
+
+        checker.release(released);
+        checker.release(foreign);
+        checker.release(processed);
+
+        assertThat(redisTemplate.hasKey(PREFIX + released)).isFalse();
+        assertThat(redisTemplate.hasKey(PREFIX + foreign)).isTrue();
+        assertThat(redisTemplate.opsForValue().get(PREFIX + processed)).isEqualTo("1");
+    }
+
+    @Test
+    void shouldExtendOwnClaimAndReclaimExpiredOne() {
+        String held = newId();
+        String expired = newId();
+        checker.tryClaimAll(List.of(held), Duration.ofSeconds(1));
+
+        assertThat(checker.renewClaim(held, TTL)).isTrue();
+        assertThat(checker.renewClaim(expired, TTL)).isTrue();
+
+        assertThat(redisTemplate.getExpire(PREFIX + held, TimeUnit.SECONDS)).isGreaterThan(60);
+        assertThat(otherNode.tryClaim(expired, TTL)).isFalse();
+    }
+
+    @Test
+    void shouldNotRenewClaimTakenByOtherNodeOrProcessed() {
+        String foreign = newId();
+        String processed = newId();
+        otherNode.tryClaim(foreign, TTL);
+        otherNode.markProcessed(processed, TTL);
+
+        assertThat(checker.renewClaim(foreign, TTL)).isFalse();
+        assertThat(checker.renewClaim(processed, TTL)).isFalse();
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
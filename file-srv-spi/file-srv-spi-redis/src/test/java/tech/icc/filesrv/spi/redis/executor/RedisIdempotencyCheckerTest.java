@@ -0,0 +1,135 @@
+package tech.icc.filesrv.spi.redis.executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisIdempotencyCheckerTest {
+
+    private static final String PREFIX = "file-srv:callback:idempotency:";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    private RedisIdempotencyChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        checker = new RedisIdempotencyChecker(redisTemplate);
+    }
+
+    @Test
+    void shouldMapPipelinedResultsBackToMessageIds() {
+        stubPipeline(Arrays.asList(false, true, null));
+
+        assertThat(checker.tryClaimAll(List.of("m-1", "m-2", "m-3"), TTL)).containsExactly("m-2");
+
+        Expiration expiration = Expiration.from(TTL);
+        for (String messageId : List.of("m-1", "m-2", "m-3")) {
+            verify(connection).set(eq(PREFIX + messageId), anyString(), eq(expiration), eq(SetOption.SET_IF_ABSENT));
+        }
+    }
+
+    @Test
+    void shouldSkipLocallyProcessedMessagesInBatch() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        checker.markProcessed("m-1", TTL);
+        stubPipeline(List.of(true, false));
+
+        // 只有 m-2、m-3 进入 pipeline，结果按此顺序对应
+        assertThat(checker.tryClaimAll(List.of("m-1", "m-2", "m-3"), TTL)).containsExactly("m-2");
+
+        verify(connection, never()).set(eq(PREFIX + "m-1"), anyString(), any(Expiration.class), any(SetOption.class));
+        verify(connection).set(eq(PREFIX + "m-2"), anyString(), any(Expiration.class), any(SetOption.class));
+        verify(connection).set(eq(PREFIX + "m-3"), anyString(), any(Expiration.class), any(SetOption.class));
+    }
+
+    @Test
+    void shouldNotTouchRedisWhenWholeBatchProcessedLocally() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        checker.markProcessed("m-1", TTL);
+        checker.markProcessed("m-2", TTL);
+
+        assertThat(checker.tryClaimAll(List.of("m-1", "m-2"), TTL)).isEmpty();
+        assertThat(checker.tryClaim("m-1", TTL)).isFalse();
+        assertThat(checker.renewClaim("m-2", TTL)).isFalse();
+        assertThat(checker.isDuplicate("m-1")).isTrue();
+
+        verify(valueOperations).set(PREFIX + "m-1", "1", TTL);
+        verify(valueOperations).set(PREFIX + "m-2", "1", TTL);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verifyNoMoreInteractions(valueOperations);
+    }
+
+    @Test
+    void shouldReleaseAndRenewOnlyWithOwnClaimToken() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(PREFIX + "m-1"), anyString(), eq(TTL))).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(PREFIX + "m-1")), anyString(), eq("600000")))
+                .thenReturn(1L);
+
+        assertThat(checker.tryClaim("m-1", TTL)).isTrue();
+        assertThat(checker.renewClaim("m-1", TTL)).isTrue();
+        checker.release("m-1");
+
+        ArgumentCaptor<String> claimed = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).setIfAbsent(eq(PREFIX + "m-1"), claimed.capture(), eq(TTL));
+        assertThat(claimed.getValue()).startsWith("0:");
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PREFIX + "m-1")),
+                eq(claimed.getValue()), eq("600000"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(PREFIX + "m-1")), eq(claimed.getValue()));
+    }
+
+    @Test
+    void shouldUseDistinctClaimTokensPerInstance() {
+        RedisIdempotencyChecker other = new RedisIdempotencyChecker(redisTemplate);
+
+        checker.release("m-1");
+        other.release("m-1");
+
+        ArgumentCaptor<Object> tokens = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate, times(2))
+                .execute(any(RedisScript.class), eq(List.of(PREFIX + "m-1")), tokens.capture());
+        assertThat(tokens.getAllValues()).doesNotHaveDuplicates();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPipeline(List<Object> results) {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            inv.getArgument(0, RedisCallback.class).doInRedis(connection);
+            return results;
+        });
+    }
+}
@@ -0,0 +1,10 @@
+-- 添加副本状态变更时间字段
+-- 版本: V10
+-- 描述: 记录副本最近一次状态变更的时间，遗留 MIGRATING 副本按进入 MIGRATING 的时间计算删除宽限期
+
+-- 副本状态最近变更时间（由条件更新副本状态时刷新）
+-- 已有副本取升级时刻：升级前已处于 MIGRATING 的副本从升级时起再等待一个宽限期
+ALTER TABLE storage_copy ADD COLUMN copy_status_changed_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- 支持按状态和变更时间扫描遗留副本
+CREATE INDEX idx_storage_copy_status_changed ON storage_copy(copy_status, copy_status_changed_at);
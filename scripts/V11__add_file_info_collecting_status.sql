@@ -0,0 +1,8 @@
+-- 添加文件回收中状态
+-- 版本: V11
+-- 描述: GC 删除存储对象前先把文件标记为 COLLECTING 并提交，回收中的文件不能再被引用恢复为 ACTIVE
+
+ALTER TABLE file_info DROP CHECK chk_file_info_status;
+
+ALTER TABLE file_info
+    ADD CONSTRAINT chk_file_info_status CHECK (status IN ('ACTIVE', 'PENDING', 'DELETED', 'COLLECTING'));
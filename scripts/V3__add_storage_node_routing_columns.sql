@@ -0,0 +1,12 @@
+-- 添加存储节点路由字段
+-- 版本: V3
+-- 描述: 为 storage_node 表添加路由权重和容量字段，用于按权重、负载和剩余容量选择写入节点
+
+-- 路由权重（相对值，0 表示不参与写入路由）
+ALTER TABLE storage_node ADD COLUMN weight INT NOT NULL DEFAULT 100;
+
+-- 总容量（字节，0 表示不限制）
+ALTER TABLE storage_node ADD COLUMN capacity_bytes BIGINT NOT NULL DEFAULT 0;
+
+-- 已用容量（字节，由容量上报任务或运维维护）
+ALTER TABLE storage_node ADD COLUMN used_bytes BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- 添加文件访问统计字段
+-- 版本: V4
+-- 描述: 为 file_info 表添加访问统计字段，用于冷热分层迁移
+
+-- 最近访问时间（为空表示上线后未被访问过，按创建时间判断冷热）
+ALTER TABLE file_info ADD COLUMN last_accessed_at TIMESTAMP(6) NULL;
+
+-- 累计访问次数（采样估算）
+ALTER TABLE file_info ADD COLUMN access_count BIGINT NOT NULL DEFAULT 0;
+
+-- 支持降温扫描按最近访问时间查询
+CREATE INDEX idx_file_info_last_accessed ON file_info(last_accessed_at);
+
+-- 支持按层级和副本状态查询
+CREATE INDEX idx_storage_copy_tier_status ON storage_copy(tier, copy_status);
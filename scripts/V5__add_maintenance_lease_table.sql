@@ -0,0 +1,11 @@
+-- 添加维护任务租约表
+-- 版本: V5
+-- 描述: 多节点部署时协调后台维护任务（leader 选举、节点存活登记）
+
+CREATE TABLE maintenance_lease (
+    lease_name VARCHAR(128) PRIMARY KEY COMMENT '租约名（任务 leader 或节点存活登记）',
+    holder VARCHAR(128) NOT NULL COMMENT '持有者（节点 ID）',
+    expires_at TIMESTAMP(6) NOT NULL COMMENT '过期时间',
+    INDEX idx_maintenance_lease_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='维护任务租约表';
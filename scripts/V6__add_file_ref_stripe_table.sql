@@ -0,0 +1,11 @@
+-- 添加引用计数分片表
+-- 版本: V6
+-- 描述: 热点内容的引用计数增减分散到多行，避免秒传事务在同一 file_info 行锁上排队
+
+CREATE TABLE file_ref_stripe (
+    content_hash VARCHAR(64) NOT NULL COMMENT '内容哈希',
+    stripe INT NOT NULL COMMENT '分片编号',
+    delta INT NOT NULL DEFAULT 0 COMMENT '尚未折叠回 file_info 的引用数',
+    PRIMARY KEY (content_hash, stripe)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='引用计数分片表';
@@ -0,0 +1,14 @@
+-- 添加 Callback 任务发件箱表
+-- 版本: V7
+-- 描述: callback 任务与任务状态同事务写入发件箱，由后台批量转发到消息队列，确认投递后删除
+
+CREATE TABLE callback_outbox (
+    message_id VARCHAR(36) PRIMARY KEY COMMENT '消息ID（重投时不变，消费端据此去重）',
+    task_id VARCHAR(64) NOT NULL COMMENT '任务ID',
+    created_at TIMESTAMP(6) NOT NULL COMMENT '写入时间',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已失败的投递次数',
+    next_attempt_at TIMESTAMP(6) NOT NULL COMMENT '下次投递时间',
+    last_error VARCHAR(512) COMMENT '最近一次投递失败原因',
+    INDEX idx_callback_outbox_next_attempt (next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Callback 任务发件箱';
@@ -0,0 +1,15 @@
+-- 添加任务处理租约字段
+-- 版本: V8
+-- 描述: PROCESSING 任务的处理租约，到期后仍未被执行的任务由恢复扫描重新投递
+
+-- 处理租约到期时间
+ALTER TABLE upload_task ADD COLUMN lease_expires_at TIMESTAMP(6) NULL;
+
+-- 恢复扫描重新投递的次数
+ALTER TABLE upload_task ADD COLUMN recovery_attempts INT NOT NULL DEFAULT 0;
+
+-- 支持按状态和租约到期时间扫描停滞任务
+CREATE INDEX idx_upload_task_status_lease ON upload_task(status, lease_expires_at);
+
+-- 升级前已处于 PROCESSING 的任务没有租约，立即交给恢复扫描
+UPDATE upload_task SET lease_expires_at = CURRENT_TIMESTAMP(6) WHERE status = 'PROCESSING';
@@ -0,0 +1,15 @@
+-- 添加副本节点唯一约束
+-- 版本: V9
+-- 描述: 同一内容在同一存储节点上最多一个副本，防止多个节点并发晋升同一文件时重复登记副本
+
+-- 清理已有的重复副本行：按 ACTIVE > MIGRATING > PENDING > DELETED 保留一行，同状态保留 copy_id 最小的一行
+-- 同一节点上的副本共用同一对象路径，只删除副本行，不删除对象
+DELETE c FROM storage_copy c
+JOIN storage_copy k
+  ON k.content_hash = c.content_hash
+ AND k.node_id = c.node_id
+ AND (FIELD(k.copy_status, 'ACTIVE', 'MIGRATING', 'PENDING', 'DELETED')
+        < FIELD(c.copy_status, 'ACTIVE', 'MIGRATING', 'PENDING', 'DELETED')
+      OR (k.copy_status = c.copy_status AND k.copy_id < c.copy_id));
+
+CREATE UNIQUE INDEX uk_storage_copy_content_node ON storage_copy(content_hash, node_id);
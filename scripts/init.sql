@@ -19,11 +19,14 @@ CREATE TABLE file_info (
     size BIGINT NOT NULL COMMENT '文件大小(字节)',
     content_type VARCHAR(128) COMMENT '文件MIME类型',
     ref_count INT NOT NULL DEFAULT 0 COMMENT '引用计数',
-    status VARCHAR(16) NOT NULL COMMENT '文件状态: ACTIVE, PENDING, DELETED',
+    status VARCHAR(16) NOT NULL COMMENT '文件状态: ACTIVE, PENDING, DELETED, COLLECTING',
     created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '创建时间',
+    last_accessed_at TIMESTAMP(6) NULL COMMENT '最近访问时间(为空时按创建时间判断冷热)',
+    access_count BIGINT NOT NULL DEFAULT 0 COMMENT '累计访问次数(采样估算)',
     INDEX idx_status (status),
     INDEX idx_created_at (created_at),
-    CONSTRAINT chk_file_info_status CHECK (status IN ('ACTIVE', 'PENDING', 'DELETED'))
+    INDEX idx_file_info_last_accessed (last_accessed_at),
+    CONSTRAINT chk_file_info_status CHECK (status IN ('ACTIVE', 'PENDING', 'DELETED', 'COLLECTING'))
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci 
 COMMENT='物理文件信息表，基于内容哈希去重';
 
@@ -42,10 +45,13 @@ CREATE TABLE storage_copy (
     tier VARCHAR(16) NOT NULL COMMENT '存储层级: HOT, WARM, COLD, ARCHIVE',
     copy_status VARCHAR(16) NOT NULL COMMENT '副本状态: ACTIVE, PENDING, MIGRATING, DELETED',
     copy_created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '副本创建时间',
+    copy_status_changed_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '副本状态最近变更时间',
     PRIMARY KEY (content_hash, copy_id),
+    UNIQUE KEY uk_storage_copy_content_node (content_hash, node_id),
     INDEX idx_node_id (node_id),
     INDEX idx_tier (tier),
     INDEX idx_copy_status (copy_status),
+    INDEX idx_storage_copy_status_changed (copy_status, copy_status_changed_at),
     CONSTRAINT fk_storage_copy_file_info 
         FOREIGN KEY (content_hash) REFERENCES file_info(content_hash) 
         ON DELETE CASCADE,
@@ -130,6 +136,8 @@ CREATE TABLE upload_task (
     created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '创建时间',
     expires_at TIMESTAMP(6) COMMENT '过期时间',
     completed_at TIMESTAMP(6) COMMENT '完成时间',
+    lease_expires_at TIMESTAMP(6) COMMENT '处理租约到期时间(到期仍在 PROCESSING 的任务由恢复扫描重新投递)',
+    recovery_attempts INT NOT NULL DEFAULT 0 COMMENT '恢复扫描重新投递次数',
     version BIGINT NOT NULL DEFAULT 0 COMMENT '版本号(乐观锁)',
     INDEX idx_fkey (f_key),
     INDEX idx_status (status),
@@ -153,6 +161,9 @@ CREATE TABLE storage_node (
     bucket VARCHAR(64) COMMENT '存储桶名称',
     tier VARCHAR(16) COMMENT '存储层级: HOT, WARM, COLD, ARCHIVE',
     status VARCHAR(16) NOT NULL COMMENT '节点状态: ACTIVE, INACTIVE, READONLY, MAINTENANCE',
+    weight INT NOT NULL DEFAULT 100 COMMENT '路由权重（0 表示不参与写入路由）',
+    capacity_bytes BIGINT NOT NULL DEFAULT 0 COMMENT '总容量（字节，0 表示不限制）',
+    used_bytes BIGINT NOT NULL DEFAULT 0 COMMENT '已用容量（字节，由 StorageCapacityTask 按副本定期汇总）',
     created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '创建时间',
     INDEX idx_status (status),
     INDEX idx_tier (tier),
@@ -162,6 +173,51 @@ CREATE TABLE storage_node (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci 
 COMMENT='存储节点表，存储各个存储节点的配置';
 
+-- ==========================================
+-- 7. 维护任务租约表 (maintenance_lease)
+-- ==========================================
+-- 多节点部署时协调后台维护任务（leader 选举、节点存活登记）
+-- 主键: lease_name (租约名)
+-- ==========================================
+CREATE TABLE maintenance_lease (
+    lease_name VARCHAR(128) PRIMARY KEY COMMENT '租约名（任务 leader 或节点存活登记）',
+    holder VARCHAR(128) NOT NULL COMMENT '持有者（节点 ID）',
+    expires_at TIMESTAMP(6) NOT NULL COMMENT '过期时间',
+    INDEX idx_maintenance_lease_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='维护任务租约表';
+
+-- ==========================================
+-- 8. 引用计数分片表 (file_ref_stripe)
+-- ==========================================
+-- 热点内容的引用计数增减分散到多行，实际引用计数 = file_info.ref_count + SUM(delta)
+-- 主键: (content_hash, stripe)
+-- ==========================================
+CREATE TABLE file_ref_stripe (
+    content_hash VARCHAR(64) NOT NULL COMMENT '内容哈希',
+    stripe INT NOT NULL COMMENT '分片编号',
+    delta INT NOT NULL DEFAULT 0 COMMENT '尚未折叠回 file_info 的引用数',
+    PRIMARY KEY (content_hash, stripe)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='引用计数分片表';
+
+-- ==========================================
+-- 9. Callback 任务发件箱表 (callback_outbox)
+-- ==========================================
+-- 与任务状态同事务写入，后台转发到消息队列，确认投递后删除
+-- 主键: message_id
+-- ==========================================
+CREATE TABLE callback_outbox (
+    message_id VARCHAR(36) PRIMARY KEY COMMENT '消息ID（重投时不变，消费端据此去重）',
+    task_id VARCHAR(64) NOT NULL COMMENT '任务ID',
+    created_at TIMESTAMP(6) NOT NULL COMMENT '写入时间',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已失败的投递次数',
+    next_attempt_at TIMESTAMP(6) NOT NULL COMMENT '下次投递时间',
+    last_error VARCHAR(512) COMMENT '最近一次投递失败原因',
+    INDEX idx_callback_outbox_next_attempt (next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+COMMENT='Callback 任务发件箱';
+
 -- ==========================================
 -- 额外的复合索引
 -- ==========================================
@@ -178,9 +234,15 @@ CREATE INDEX idx_upload_task_fkey_status ON upload_task(f_key, status);
 -- upload_task 表：支持按状态和过期时间查询（清理任务）
 CREATE INDEX idx_upload_task_status_expires ON upload_task(status, expires_at);
 
+-- upload_task 表：支持按状态和租约到期时间查询（停滞任务恢复）
+CREATE INDEX idx_upload_task_status_lease ON upload_task(status, lease_expires_at);
+
 -- storage_copy 表：支持按节点和状态查询
 CREATE INDEX idx_storage_copy_node_status ON storage_copy(node_id, copy_status);
 
+-- storage_copy 表：支持冷热分层按层级和状态查询
+CREATE INDEX idx_storage_copy_tier_status ON storage_copy(tier, copy_status);
+
 -- ==========================================
 -- 初始化数据（可选）
 -- ==========================================
@@ -211,4 +273,7 @@ CREATE INDEX idx_storage_copy_node_status ON storage_copy(node_id, copy_status);
 -- 4. file_relations: 文件之间的关系（源文件、主文件、派生文件）
 -- 5. upload_task: 异步上传任务，支持分片上传和回调链
 -- 6. storage_node: 存储节点配置
+-- 7. maintenance_lease: 维护任务租约（多节点协调）
+-- 8. file_ref_stripe: 热点内容的引用计数分片
+-- 9. callback_outbox: Callback 任务发件箱（与任务状态同事务写入，后台转发到消息队列）
 -- ==========================================